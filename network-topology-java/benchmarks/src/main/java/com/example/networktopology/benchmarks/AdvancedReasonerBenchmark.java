@@ -0,0 +1,60 @@
+package com.example.networktopology.benchmarks;
+
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.InfModel;
+import org.openjdk.jmh.annotations.*;
+
+import com.example.networktopology.loaders.OntologyLoader;
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.reasoning.BasicReasoner;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full OWL rule reasoner closure. Sizes are tiny because a single closure
+ * takes minutes even at a few dozen devices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class AdvancedReasonerBenchmark {
+
+    @Param({ "10", "20" })
+    public int devices;
+
+    private OntologyLoader loader;
+    private String instances;
+    private final BasicReasoner reasoner = new BasicReasoner();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkInventory.silence();
+        instances = BenchmarkInventory.file(devices).getPath();
+        loader = new OntologyLoader(new TopologyModelRegistry());
+        loader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM, instances).size();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.restore();
+    }
+
+    @Benchmark
+    public InfModel createAdvancedReasoningModel() {
+        return reasoner.createAdvancedReasoningModel(
+            loader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM_RULE_INF, instances));
+    }
+
+    /**
+     * Same inventory with the topology reasoner, for a direct comparison
+     */
+    @Benchmark
+    public InfModel createTopologyReasoningModel() {
+        return reasoner.createTopologyReasoningModel(
+            loader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM, instances));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.networktopology.benchmarks;
+
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.InfModel;
+import org.openjdk.jmh.annotations.*;
+
+import com.example.networktopology.loaders.OntologyLoader;
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.reasoning.BasicReasoner;
+import com.example.networktopology.reasoning.NetworkTopologyAnalyzer;
+import com.example.networktopology.reasoning.NetworkValidator;
+import com.example.networktopology.topology.TopologyIndex;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link NetworkTopologyAnalyzer} and {@link NetworkValidator} check, plus the
+ * inferred device type query, over
+ * an OWL Micro or topology inference model that is built and prepared once per trial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnalyzerBenchmark {
+
+    @Param({ "100", "500", "2000" })
+    public int devices;
+
+    @Param({ "micro", "topology" })
+    public String reasoning;
+
+    private InfModel model;
+    private TopologyIndex index;
+    private final NetworkTopologyAnalyzer analyzer = new NetworkTopologyAnalyzer();
+    private final NetworkValidator validator = new NetworkValidator();
+    private final BasicReasoner reasoner = new BasicReasoner();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkInventory.silence();
+        String instances = BenchmarkInventory.file(devices).getPath();
+        OntologyLoader loader = new OntologyLoader(new TopologyModelRegistry());
+        model = "topology".equals(reasoning)
+            ? new BasicReasoner().createTopologyReasoningModel(
+                loader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM, instances))
+            : new BasicReasoner().createReasoningModel(
+                loader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM_MICRO_RULE_INF, instances));
+        model.prepare();
+        index = TopologyIndex.forModel(model);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.restore();
+    }
+
+    @Benchmark
+    public void detectRedundantPaths() {
+        analyzer.detectRedundantPaths(model);
+    }
+
+    @Benchmark
+    public void analyzeUnsupportedTopologies() {
+        analyzer.analyzeUnsupportedTopologies(model);
+    }
+
+    @Benchmark
+    public void findMissingZoneLinks() {
+        analyzer.findMissingZoneLinks(model);
+    }
+
+    @Benchmark
+    public void simulateFailures() {
+        analyzer.simulateFailures(model);
+    }
+
+    @Benchmark
+    public void validateNetworkConstraints() {
+        validator.validateNetworkConstraints(model);
+    }
+
+    /**
+     * Roles of an unchanged topology: centrality comes from the index
+     */
+    @Benchmark
+    public void inferNetworkHierarchy() {
+        validator.inferNetworkHierarchy(index);
+    }
+
+    /**
+     * Roles after a change: the topology is recompiled and centrality recomputed
+     */
+    @Benchmark
+    public void inferNetworkHierarchyAfterChange() {
+        index.invalidate();
+        validator.inferNetworkHierarchy(index);
+    }
+
+    @Benchmark
+    public void queryInferredDeviceTypes() {
+        reasoner.queryInferredDeviceTypes(model);
+    }
+}
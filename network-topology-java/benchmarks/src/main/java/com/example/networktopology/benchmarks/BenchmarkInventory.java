@@ -0,0 +1,60 @@
+package com.example.networktopology.benchmarks;
+
+import com.example.networktopology.generator.TopologyGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generated inventories shared by the benchmarks, plus console silencing so the
+ * printing done by the code under test does not flood the JMH output
+ */
+final class BenchmarkInventory {
+
+    /** Seed shared by every benchmark so all runs measure the same inventories */
+    static final long SEED = 42L;
+
+    private static final Map<Integer, File> FILES = new ConcurrentHashMap<>();
+    private static PrintStream originalOut;
+
+    private BenchmarkInventory() {
+    }
+
+    /**
+     * N-Triples inventory with about {@code devices} devices, generated once per JVM
+     */
+    static File file(int devices) throws IOException {
+        File file = FILES.get(devices);
+        if (file == null) {
+            File directory = Files.createTempDirectory("topology-jmh").toFile();
+            directory.deleteOnExit();
+            file = new File(directory, "inventory-" + devices + ".nt");
+            file.deleteOnExit();
+            new TopologyGenerator(SEED).generate(devices, file);
+            FILES.put(devices, file);
+        }
+        return file;
+    }
+
+    /**
+     * Route System.out to nowhere; the output is still formatted, as in production
+     */
+    static synchronized void silence() {
+        if (originalOut == null) {
+            originalOut = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    static synchronized void restore() {
+        if (originalOut != null) {
+            System.setOut(originalOut);
+            originalOut = null;
+        }
+    }
+}
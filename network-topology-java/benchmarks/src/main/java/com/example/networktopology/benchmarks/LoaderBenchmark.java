@@ -0,0 +1,45 @@
+package com.example.networktopology.benchmarks;
+
+import org.apache.jena.ontology.OntModelSpec;
+import org.openjdk.jmh.annotations.*;
+
+import com.example.networktopology.loaders.OntologyLoader;
+import com.example.networktopology.loaders.TopologyModelRegistry;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold load of the ontology combined with a generated inventory. Every
+ * invocation uses a fresh registry, so the sources are parsed each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoaderBenchmark {
+
+    @Param({ "1000", "10000", "50000" })
+    public int devices;
+
+    private String instances;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkInventory.silence();
+        instances = BenchmarkInventory.file(devices).getPath();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.restore();
+    }
+
+    @Benchmark
+    public long loadCombinedOntologyModel() {
+        OntologyLoader loader = new OntologyLoader(new TopologyModelRegistry());
+        return loader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM, instances).size();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.networktopology.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.example.networktopology.topology.PathEngine;
+import com.example.networktopology.topology.PathEngine.Path;
+import com.example.networktopology.topology.TopologyGraph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PathEngine} queries between random device pairs (fixed per trial),
+ * with landmarks (A*) and without (Dijkstra)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PathEngineBenchmark {
+
+    private static final int PAIRS = 256;
+
+    @Param({ "1000", "10000", "100000" })
+    public int devices;
+
+    @Param({ "0", "8" })
+    public int landmarks;
+
+    private PathEngine engine;
+    private List<int[]> pairs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkInventory.silence();
+        TopologyGraph topology = TopologyGraph.fromSources(BenchmarkInventory.file(devices).getPath());
+        engine = new PathEngine(topology, landmarks, PathEngine.DEFAULT_UNKNOWN_LATENCY);
+        Random random = new Random(42);
+        pairs = new ArrayList<>(PAIRS);
+        for (int i = 0; i < PAIRS; i++) {
+            pairs.add(new int[] { random.nextInt(topology.getDeviceCount()), random.nextInt(topology.getDeviceCount()) });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.restore();
+    }
+
+    private int[] nextPair() {
+        next = (next + 1) % PAIRS;
+        return pairs.get(next);
+    }
+
+    @Benchmark
+    public Path shortestPath() {
+        int[] pair = nextPair();
+        return engine.shortestPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public Path widestPath() {
+        int[] pair = nextPair();
+        return engine.widestPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public List<Path> kShortestPaths() {
+        int[] pair = nextPair();
+        return engine.kShortestPaths(pair[0], pair[1], 3);
+    }
+
+    @Benchmark
+    public List<Path> shortestPathsBatch() throws InterruptedException, ExecutionException {
+        return engine.shortestPaths(pairs, ForkJoinPool.commonPool());
+    }
+}
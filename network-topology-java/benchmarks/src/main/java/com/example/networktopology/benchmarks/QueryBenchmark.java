@@ -0,0 +1,75 @@
+package com.example.networktopology.benchmarks;
+
+import org.apache.jena.rdf.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.queries.SPARQLQueryHandler;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agent insight queries of {@link SPARQLQueryHandler} over a generated instance model
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({ "1000", "10000", "50000" })
+    public int devices;
+
+    private Model model;
+    private final SPARQLQueryHandler queries = new SPARQLQueryHandler();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkInventory.silence();
+        String instances = BenchmarkInventory.file(devices).getPath();
+        model = new TopologyModelRegistry().getModel(instances);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.restore();
+    }
+
+    @Benchmark
+    public void queryOutdatedRouters() {
+        queries.queryOutdatedRouters(model);
+    }
+
+    @Benchmark
+    public void queryDevicesByType() {
+        queries.queryDevicesByType(model, "Router");
+    }
+
+    @Benchmark
+    public void queryNetworkConnections() {
+        queries.queryNetworkConnections(model);
+    }
+
+    @Benchmark
+    public void queryDevicesInZone() {
+        queries.queryDevicesInZone(model, "DMZ");
+    }
+
+    @Benchmark
+    public void queryHighCapacityPaths() {
+        queries.queryHighCapacityPaths(model, 1000.0);
+    }
+
+    @Benchmark
+    public void querySecurityConfiguration() {
+        queries.querySecurityConfiguration(model);
+    }
+
+    @Benchmark
+    public void runAgentInsightQueries() {
+        queries.runAgentInsightQueries(model);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.networktopology.benchmarks;
+
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.InfModel;
+import org.openjdk.jmh.annotations.*;
+
+import com.example.networktopology.loaders.OntologyLoader;
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.reasoning.BasicReasoner;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OWL Micro reasoning model construction and validation. The sources are parsed
+ * once per trial; each invocation builds a fresh ontology model so no inference
+ * state is reused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReasonerBenchmark {
+
+    @Param({ "100", "500", "2000" })
+    public int devices;
+
+    private OntologyLoader loader;
+    private String instances;
+    private final BasicReasoner reasoner = new BasicReasoner();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkInventory.silence();
+        instances = BenchmarkInventory.file(devices).getPath();
+        loader = new OntologyLoader(new TopologyModelRegistry());
+        loader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM, instances).size();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.restore();
+    }
+
+    @Benchmark
+    public InfModel createReasoningModel() {
+        return reasoner.createReasoningModel(
+            loader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM_MICRO_RULE_INF, instances));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.networktopology.benchmarks;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold load of a generated inventory stored as Turtle versus binary RDF
+ * (RDF Thrift), both parse-only and parse-into-graph. Run with
+ * {@code -prof gc}: gc.alloc.rate.norm is the allocation per load averaged
+ * over every measured iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotLoadBenchmark {
+
+    @Param({ "10000", "50000" })
+    public int devices;
+
+    @Param({ "TURTLE", "RDF_THRIFT" })
+    public String format;
+
+    private File directory;
+    private File file;
+    private Lang lang;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Graph graph = GraphFactory.createDefaultGraph();
+        RDFDataMgr.read(graph, BenchmarkInventory.file(devices).getPath(), Lang.NTRIPLES);
+
+        boolean thrift = "RDF_THRIFT".equals(format);
+        lang = thrift ? Lang.RDFTHRIFT : Lang.TURTLE;
+        directory = Files.createTempDirectory("topology-snapshot-jmh").toFile();
+        file = new File(directory, thrift ? "inventory.rt" : "inventory.ttl");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            RDFDataMgr.write(out, graph, thrift ? RDFFormat.RDF_THRIFT : RDFFormat.TURTLE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public long parseOnly() {
+        long[] count = new long[1];
+        RDFParser.source(file.getPath()).lang(lang).parse(new StreamRDFBase() {
+            @Override
+            public void triple(Triple triple) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public long parseIntoGraph() {
+        Graph graph = GraphFactory.createDefaultGraph();
+        RDFDataMgr.read(graph, file.getPath(), lang);
+        return graph.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.networktopology.benchmarks;
+
+import org.apache.jena.rdf.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.topology.CentralityAnalyzer;
+import com.example.networktopology.topology.IpAddressIndex;
+import com.example.networktopology.topology.SinglePointsOfFailure;
+import com.example.networktopology.topology.TopologyGraph;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiling a {@link TopologyGraph}, either from a model parsed once per trial
+ * or straight from the inventory file without building a model, and
+ * analyzing the compiled graph
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TopologyGraphBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int devices;
+
+    private String instances;
+    private Model model;
+    private TopologyGraph topology;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkInventory.silence();
+        instances = BenchmarkInventory.file(devices).getPath();
+        model = new TopologyModelRegistry().getModel(instances);
+        topology = TopologyGraph.fromModel(model);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.restore();
+    }
+
+    @Benchmark
+    public TopologyGraph fromModel() {
+        return TopologyGraph.fromModel(model);
+    }
+
+    @Benchmark
+    public TopologyGraph fromSources() throws IOException {
+        return TopologyGraph.fromSources(instances);
+    }
+
+    @Benchmark
+    public SinglePointsOfFailure singlePointsOfFailure() {
+        return SinglePointsOfFailure.analyze(topology);
+    }
+
+    @Benchmark
+    public CentralityAnalyzer centrality() throws InterruptedException, ExecutionException {
+        return CentralityAnalyzer.analyze(topology, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public IpAddressIndex ipAddressIndex() {
+        return IpAddressIndex.fromModel(model);
+    }
+}
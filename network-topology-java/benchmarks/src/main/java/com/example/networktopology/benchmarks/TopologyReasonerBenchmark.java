@@ -0,0 +1,65 @@
+package com.example.networktopology.benchmarks;
+
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.InfModel;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.reasoner.Reasoner;
+import org.apache.jena.reasoner.ReasonerRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import com.example.networktopology.loaders.OntologyLoader;
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.reasoning.TopologyReasoner;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closure and validation with the {@link TopologyReasoner} against OWL Micro
+ * over the same asserted model. Each invocation binds a fresh inference model
+ * and walks the whole closure, as InferenceMaterializer does. Run with
+ * {@code -prof gc} to compare the bytes allocated per closure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TopologyReasonerBenchmark {
+
+    @Param({ "100", "2000", "10000" })
+    public int devices;
+
+    private Model asserted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkInventory.silence();
+        String instances = BenchmarkInventory.file(devices).getPath();
+        asserted = ModelFactory.createDefaultModel().add(
+            new OntologyLoader(new TopologyModelRegistry()).loadCombinedOntologyModel(OntModelSpec.OWL_MEM, instances));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.restore();
+    }
+
+    @Benchmark
+    public long topologyReasoner() {
+        return closure(new TopologyReasoner());
+    }
+
+    @Benchmark
+    public long owlMicroReasoner() {
+        return closure(ReasonerRegistry.getOWLMicroReasoner());
+    }
+
+    private long closure(Reasoner reasoner) {
+        InfModel infModel = ModelFactory.createInfModel(reasoner, asserted);
+        long size = infModel.getGraph().find().toList().size();
+        return infModel.validate().isValid() ? size : -size;
+    }
+}
@@ -118,11 +118,11 @@ public class NetworkTopologyLoader {
      */
     public void demonstrateBasicReasoning() {
         // Load combined ontology and instances
-        OntModel combinedModel = ontologyLoader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM_MICRO_RULE_INF);
+        OntModel combinedModel = ontologyLoader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM);
         
         if (combinedModel != null) {
             // Create reasoning model
-            InfModel reasoningModel = basicReasoner.createReasoningModel(combinedModel);
+            InfModel reasoningModel = basicReasoner.createTopologyReasoningModel(combinedModel);
             
             if (reasoningModel != null) {
                 // Query for inferred device types
@@ -280,17 +280,19 @@ public class NetworkTopologyLoader {
         System.out.println("\n=== Advanced Network Topology Reasoning ===");
         
         // Load combined model for advanced reasoning
-        OntModel ontModel = ontologyLoader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM_RULE_INF);
+        OntModel ontModel = ontologyLoader.loadCombinedOntologyModel(OntModelSpec.OWL_MEM);
         
         if (ontModel != null) {
-            // Create advanced reasoning model
-            InfModel advancedModel = basicReasoner.createAdvancedReasoningModel(ontModel);
+            // The topology reasoner covers every entailment the analyses rely on;
+            // createAdvancedReasoningModel (full OWL) takes minutes on real inventories
+            InfModel advancedModel = basicReasoner.createTopologyReasoningModel(ontModel);
             
             if (advancedModel != null) {
                 // Perform various network topology analyses
                 analyzer.detectRedundantPaths(advancedModel);
                 analyzer.analyzeUnsupportedTopologies(advancedModel);
                 analyzer.findMissingZoneLinks(advancedModel);
+                analyzer.simulateFailures(advancedModel);
                 validator.validateNetworkConstraints(advancedModel);
                 validator.inferNetworkHierarchy(advancedModel);
             }
@@ -9,6 +9,15 @@ public class NetworkTopologyConfig {
     public static final String ONTOLOGY_NS = "http://example.org/network-topology#";
     public static final String INSTANCE_NS = "http://example.org/network-topology/instances#";
     
+    // Namespace of the custom SPARQL property functions
+    public static final String FUNCTIONS_NS = "http://example.org/network-topology/functions#";
+    
+    // Named graphs in the Fuseki dataset (one per loaded source)
+    public static final String SOURCE_GRAPH_NS = "http://example.org/network-topology/graphs/source/";
+    
+    // Named graph holding materialized (inferred) triples
+    public static final String INFERRED_GRAPH_URI = "http://example.org/network-topology/graphs/inferred";
+    
     // File paths (adjust these to match your file locations)
     public static final String ONTOLOGY_OWL_FILE = "src/main/resources/network-topology-ontology.owl";
     public static final String ONTOLOGY_TTL_FILE = "src/main/resources/network-topology-ontology.ttl";
@@ -19,6 +28,13 @@ public class NetworkTopologyConfig {
     public static final String ONTOLOGY_TTL_RESOURCE = "network-topology-ontology.ttl";
     public static final String INSTANCES_TTL_RESOURCE = "simple-rdf-instances.ttl";
     
+    // Directory holding binary RDF snapshots of the sources
+    public static final String SNAPSHOT_DIRECTORY = "snapshots";
+    
+    // Zone pairs with fewer links, or less aggregate bandwidth (Mbps), are underprovisioned
+    public static final int MIN_ZONE_LINKS = 2;
+    public static final double MIN_ZONE_BANDWIDTH_MBPS = 10_000;
+    
     private NetworkTopologyConfig() {
         // Utility class, no instantiation
     }
@@ -0,0 +1,475 @@
+package com.example.networktopology.generator;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.vocabulary.RDF;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Generates synthetic network inventories shaped like simple-rdf-instances.ttl
+ * (sites, routers, switches, servers, firewalls, access points, gNodeBs, core
+ * network functions, edge servers, interfaces and links) at any size.
+ *
+ * Output is streamed, so inventories of tens of millions of triples never sit in
+ * memory. Sites are wired hierarchically (dual-homed switches and gNodeBs,
+ * hosts attached to switches by preferential attachment) and site routers join
+ * a backbone by preferential attachment, which gives the heavy-tailed degree
+ * distribution of real transport networks. The same seed and settings always
+ * produce the same triples in the same order.
+ */
+public class TopologyGenerator {
+
+    public static final long DEFAULT_SEED = 42L;
+    public static final int DEFAULT_DEVICES_PER_SITE = 40;
+    public static final int DEFAULT_BACKBONE_LINKS = 2;
+
+    private static final String[] ZONES = { "Transport", "Access", "Core", "Edge", "Management", "DMZ" };
+    private static final String[] CORE_FUNCTIONS = { "AMF", "SMF", "UPF" };
+    private static final String[] FIRMWARE = { "1.2.0", "1.2.1", "1.3.0", "2.0.0", "2.1.0", "3.0.0" };
+
+    private static final int ROUTER = 0;
+    private static final int SWITCH = 1;
+    private static final int SERVER = 2;
+    private static final int FIREWALL = 3;
+    private static final int ACCESS_POINT = 4;
+    private static final int GNODEB = 5;
+    private static final int CORE_FUNCTION = 6;
+    private static final int EDGE_SERVER = 7;
+
+    private static final String[] TYPE_CLASS =
+        { "Router", "Switch", "Server", "Firewall", "AccessPoint", "gNodeB", "CoreNetworkFunction", "EdgeServer" };
+    private static final String[] TYPE_PREFIX = { "Router", "Switch", "Server", "Firewall", "AccessPoint", "gNodeB", null, "EdgeServer" };
+    private static final String[] TYPE_ID = { "RTR", "SW", "SRV", "FW", "AP", "gNB", null, "EDGE" };
+    private static final String[] TYPE_HOST = { "router", "switch", "server", "firewall", "ap", "gnb", null, "edge" };
+    private static final String[] TYPE_INTERFACE =
+        { "GigabitEthernet0/0/", "GigabitEthernet1/0/", "eth", "eth", "wlan", "n3-eth", "core-eth", "edge-eth" };
+    private static final int[] TYPE_ZONE = { 0, 0, 4, 5, 1, 1, 2, 3 };
+
+    private final long seed;
+    private int devicesPerSite = DEFAULT_DEVICES_PER_SITE;
+    private int backboneLinks = DEFAULT_BACKBONE_LINKS;
+
+    public TopologyGenerator() {
+        this(DEFAULT_SEED);
+    }
+
+    public TopologyGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Average number of devices per site (default 40)
+     */
+    public void setDevicesPerSite(int devicesPerSite) {
+        this.devicesPerSite = Math.max(4, devicesPerSite);
+    }
+
+    /**
+     * Backbone links of each new site towards existing sites (default 2)
+     */
+    public void setBackboneLinks(int backboneLinks) {
+        this.backboneLinks = Math.max(1, backboneLinks);
+    }
+
+    /**
+     * Generate an inventory of about {@code devices} devices into a file. The RDF
+     * syntax follows the extension ({@code .nt} or {@code .ttl}); a trailing
+     * {@code .gz} compresses the output.
+     */
+    public Statistics generate(int devices, File file) throws IOException {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - 3);
+        }
+        RDFFormat format = name.endsWith(".nt") ? RDFFormat.NTRIPLES : RDFFormat.TURTLE_BLOCKS;
+
+        try (OutputStream out = gzip
+                 ? new GZIPOutputStream(new FileOutputStream(file), 1 << 16)
+                 : new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            return generate(devices, StreamRDFWriter.getWriterStream(out, format));
+        }
+    }
+
+    /**
+     * Generate an inventory of about {@code devices} devices into a stream
+     */
+    public Statistics generate(int devices, StreamRDF stream) {
+        long start = System.currentTimeMillis();
+        Run run = new Run(stream, Math.max(1, devices));
+        stream.start();
+        stream.prefix("", ONTOLOGY_NS);
+        stream.prefix("nt", INSTANCE_NS);
+        run.generate();
+        stream.finish();
+        return new Statistics(run.sites, run.deviceCount, run.interfaceCount, run.linkCount, run.triples,
+                              System.currentTimeMillis() - start);
+    }
+
+    /**
+     * State of one generation run
+     */
+    private final class Run {
+        private final StreamRDF out;
+        private final SplittableRandom random = new SplittableRandom(seed);
+        private final int requestedDevices;
+        private final int sites;
+
+        private final Node type = RDF.type.asNode();
+        private final Node[] typeClasses = new Node[TYPE_CLASS.length];
+        private final Node[] zones = new Node[ZONES.length];
+        private final Node active = ontology("Active");
+        private final Node maintenance = ontology("Maintenance");
+        private final Node hasStatus = ontology("hasStatus");
+        private final Node interfaceOf = ontology("interfaceOf");
+        private final Node hasInterface = ontology("hasInterface");
+        private final Node connectsInterface = ontology("connectsInterface");
+        private final Node connectedTo = ontology("connectedTo");
+        private final Node locatedAt = ontology("locatedAt");
+        private final Node contains = ontology("contains");
+        private final Node belongsToZone = ontology("belongsToZone");
+
+        // Per-device state, indexed by device number
+        private Node[] deviceNodes;
+        private int[] deviceTypes;
+        private int[] interfaceCounts;
+        private int[] degrees;
+        private final int[] typeCounters = new int[TYPE_CLASS.length];
+        private final Map<String, Integer> functionCounters = new HashMap<>();
+
+        // Backbone routers, each listed once per backbone link plus once on joining
+        private final List<Integer> backboneEndpoints = new ArrayList<>();
+
+        int deviceCount;
+        long interfaceCount;
+        long linkCount;
+        long triples;
+
+        Run(StreamRDF out, int devices) {
+            this.out = out;
+            this.requestedDevices = devices;
+            this.sites = Math.max(1, (devices + devicesPerSite / 2) / devicesPerSite);
+            this.deviceNodes = new Node[devices + sites];
+            this.deviceTypes = new int[deviceNodes.length];
+            this.interfaceCounts = new int[deviceNodes.length];
+            this.degrees = new int[deviceNodes.length];
+            for (int i = 0; i < TYPE_CLASS.length; i++) {
+                typeClasses[i] = ontology(TYPE_CLASS[i]);
+            }
+        }
+
+        void generate() {
+            for (int z = 0; z < ZONES.length; z++) {
+                zones[z] = instance(ZONES[z] + "Zone");
+                emit(zones[z], type, ontology(ZONES[z].equals("DMZ") ? "DMZ" : "SecurityZone"));
+                emit(zones[z], ontology("zoneName"), literal(ZONES[z]));
+            }
+
+            for (int s = 0; s < sites; s++) {
+                int siteDevices = (int) ((long) requestedDevices * (s + 1) / sites - (long) requestedDevices * s / sites);
+                if (s % 20 == 0) {
+                    coreSite(s, siteDevices);
+                } else if (s % 10 == 5) {
+                    edgeSite(s, siteDevices);
+                } else {
+                    accessSite(s, siteDevices);
+                }
+            }
+        }
+
+        private void coreSite(int s, int n) {
+            Node site = site(s, "Core Site " + s + " (Data Center / CNF)");
+            int[] routers = routers(site, 2);
+            int functions = Math.max(3, n / 4);
+            for (int i = 0; i < functions; i++) {
+                int cnf = device(site, CORE_FUNCTION, CORE_FUNCTIONS[i % CORE_FUNCTIONS.length]);
+                link(cnf, routers[i % routers.length], 10_000, 0.2, 0.5);
+            }
+            for (int i = functions + routers.length; i < n; i++) {
+                link(device(site, SERVER, null), routers[i % routers.length], 10_000, 0.1, 0.5);
+            }
+            joinBackbone(routers);
+        }
+
+        private void edgeSite(int s, int n) {
+            Node site = site(s, "Edge Site " + s + " (MEC / Edge Compute)");
+            int[] routers = routers(site, 1);
+            int upf = device(site, CORE_FUNCTION, "UPF");
+            link(upf, routers[0], 10_000, 0.1, 0.3);
+            for (int i = 2; i < n; i++) {
+                link(device(site, EDGE_SERVER, null), upf, 10_000, 0.1, 0.5);
+            }
+            joinBackbone(routers);
+        }
+
+        private void accessSite(int s, int n) {
+            Node site = site(s, "Site " + s + " (Access / Aggregation)");
+            int[] routers = routers(site, n >= 4 ? 2 : 1);
+
+            int switches = Math.max(1, n / 12);
+            int[] switchIds = new int[switches];
+            for (int i = 0; i < switches; i++) {
+                switchIds[i] = device(site, SWITCH, null);
+                for (int router : routers) {
+                    link(switchIds[i], router, 1_000, 0.1, 1.0);
+                }
+            }
+
+            int firewall = device(site, FIREWALL, null);
+            link(firewall, pickSwitch(switchIds), 1_000, 0.1, 1.0);
+
+            int gnodebs = n / 8;
+            for (int i = 0; i < gnodebs; i++) {
+                int gnb = device(site, GNODEB, null);
+                for (int router : routers) {
+                    link(gnb, router, 10_000, 0.2, 2.0);
+                }
+            }
+
+            int accessPoints = n / 10;
+            int servers = n - routers.length - switches - 1 - gnodebs - accessPoints;
+            for (int i = 0; i < accessPoints; i++) {
+                link(device(site, ACCESS_POINT, null), pickSwitch(switchIds), 1_000, 0.5, 3.0);
+            }
+            for (int i = 0; i < servers; i++) {
+                link(device(site, SERVER, null), pickSwitch(switchIds), 1_000, 0.1, 1.0);
+            }
+
+            joinBackbone(routers);
+        }
+
+        private int[] routers(Node site, int count) {
+            int[] routers = new int[count];
+            for (int i = 0; i < count; i++) {
+                routers[i] = device(site, ROUTER, null);
+            }
+            if (count == 2) {
+                link(routers[0], routers[1], 10_000, 0.1, 0.5);
+            }
+            return routers;
+        }
+
+        /**
+         * Attach site routers to the backbone by preferential attachment
+         */
+        private void joinBackbone(int[] routers) {
+            for (int r = 0; r < routers.length; r++) {
+                int wanted = r == 0 ? backboneLinks : 1;
+                List<Integer> targets = new ArrayList<>(wanted);
+                for (int attempt = 0; attempt < wanted * 8 && targets.size() < wanted
+                         && !backboneEndpoints.isEmpty(); attempt++) {
+                    int target = backboneEndpoints.get(random.nextInt(backboneEndpoints.size()));
+                    if (!targets.contains(target) && !contains(routers, target)) {
+                        targets.add(target);
+                    }
+                }
+                for (int target : targets) {
+                    link(routers[r], target, 100_000, 2.0, 40.0);
+                    backboneEndpoints.add(target);
+                    backboneEndpoints.add(routers[r]);
+                }
+            }
+            for (int router : routers) {
+                backboneEndpoints.add(router);
+            }
+        }
+
+        /**
+         * Pick a site switch with probability proportional to its degree
+         */
+        private int pickSwitch(int[] switchIds) {
+            long total = 0;
+            for (int id : switchIds) {
+                total += degrees[id];
+            }
+            long ticket = random.nextLong(Math.max(1, total));
+            for (int id : switchIds) {
+                ticket -= degrees[id];
+                if (ticket < 0) {
+                    return id;
+                }
+            }
+            return switchIds[switchIds.length - 1];
+        }
+
+        private Node site(int s, String name) {
+            Node site = instance("Site" + s);
+            emit(site, type, ontology("Site"));
+            emit(site, ontology("siteName"), literal(name));
+            emit(site, hasStatus, active);
+            return site;
+        }
+
+        private int device(Node site, int deviceType, String functionPrefix) {
+            int id = deviceCount++;
+            if (id == deviceNodes.length) {
+                int capacity = deviceNodes.length * 2;
+                deviceNodes = Arrays.copyOf(deviceNodes, capacity);
+                deviceTypes = Arrays.copyOf(deviceTypes, capacity);
+                interfaceCounts = Arrays.copyOf(interfaceCounts, capacity);
+                degrees = Arrays.copyOf(degrees, capacity);
+            }
+            int number = functionPrefix != null
+                ? functionCounters.merge(functionPrefix, 1, Integer::sum)
+                : ++typeCounters[deviceType];
+            String prefix = functionPrefix != null ? functionPrefix : TYPE_PREFIX[deviceType];
+            String idPrefix = functionPrefix != null ? functionPrefix : TYPE_ID[deviceType];
+            String host = functionPrefix != null
+                ? functionPrefix.toLowerCase(Locale.ROOT) + number + ".core"
+                : TYPE_HOST[deviceType] + number;
+
+            Node device = instance(prefix + number);
+            deviceNodes[id] = device;
+            deviceTypes[id] = deviceType;
+
+            emit(device, type, typeClasses[deviceType]);
+            if (functionPrefix != null) {
+                emit(device, ontology("networkFunction"), literal(functionPrefix));
+            }
+            emit(device, ontology("deviceId"), literal(String.format("%s-%03d", idPrefix, number)));
+            emit(device, ontology("hostname"), literal(host + ".example.com"));
+            emit(device, locatedAt, site);
+            emit(site, contains, device);
+            emit(device, belongsToZone, zones[TYPE_ZONE[deviceType]]);
+            if (deviceType == ROUTER || deviceType == GNODEB) {
+                emit(device, ontology("firmwareVersion"), literal(FIRMWARE[random.nextInt(FIRMWARE.length)]));
+            }
+            if (deviceType == SWITCH) {
+                emit(device, ontology("hasPortCount"), literal(random.nextInt(4) < 3 ? "24" : "48"));
+            }
+            emit(device, hasStatus, random.nextInt(100) == 0 ? maintenance : active);
+            return id;
+        }
+
+        private void link(int a, int b, int bandwidth, double minLatency, double maxLatency) {
+            Node ifA = newInterface(a);
+            Node ifB = newInterface(b);
+            Node link = instance("Link" + (++linkCount));
+            double latency = minLatency + random.nextDouble() * (maxLatency - minLatency);
+
+            emit(link, type, ontology("NetworkLink"));
+            emit(link, connectsInterface, ifA);
+            emit(link, connectsInterface, ifB);
+            emit(link, ontology("hasBandwidth"), literal(Integer.toString(bandwidth)));
+            emit(link, ontology("latency"),
+                 NodeFactory.createLiteral(String.format(Locale.ROOT, "%.2f", latency), XSDDatatype.XSDfloat));
+            emit(link, hasStatus, active);
+            emit(deviceNodes[a], connectedTo, deviceNodes[b]);
+            emit(deviceNodes[b], connectedTo, deviceNodes[a]);
+            degrees[a]++;
+            degrees[b]++;
+        }
+
+        private Node newInterface(int deviceId) {
+            int number = ++interfaceCounts[deviceId];
+            Node device = deviceNodes[deviceId];
+            Node iface = NodeFactory.createURI(device.getURI() + "_IF" + number);
+            emit(iface, type, ontology("EthernetInterface"));
+            emit(iface, ontology("interfaceName"), literal(TYPE_INTERFACE[deviceTypes[deviceId]] + number));
+            emit(iface, ontology("ipAddress"), literal(ipAddress(interfaceCount++)));
+            emit(iface, interfaceOf, device);
+            emit(device, hasInterface, iface);
+            emit(iface, hasStatus, active);
+            return iface;
+        }
+
+        private void emit(Node subject, Node predicate, Node object) {
+            out.triple(Triple.create(subject, predicate, object));
+            triples++;
+        }
+    }
+
+    /**
+     * Unique address per interface, counting up from 10.0.0.1
+     */
+    private static String ipAddress(long index) {
+        long address = (10L << 24) + 1 + index;
+        return ((address >> 24) & 255) + "." + ((address >> 16) & 255) + "." + ((address >> 8) & 255) + "." + (address & 255);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Node ontology(String localName) {
+        return NodeFactory.createURI(ONTOLOGY_NS + localName);
+    }
+
+    private static Node instance(String localName) {
+        return NodeFactory.createURI(INSTANCE_NS + localName);
+    }
+
+    private static Node literal(String value) {
+        return NodeFactory.createLiteral(value);
+    }
+
+    /**
+     * Size of a generated inventory
+     */
+    public static class Statistics {
+        public final int sites;
+        public final int devices;
+        public final long interfaces;
+        public final long links;
+        public final long triples;
+        public final long elapsedMillis;
+
+        Statistics(int sites, int devices, long interfaces, long links, long triples, long elapsedMillis) {
+            this.sites = sites;
+            this.devices = devices;
+            this.interfaces = interfaces;
+            this.links = links;
+            this.triples = triples;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return sites + " sites, " + devices + " devices, " + interfaces + " interfaces, " + links +
+                   " links, " + triples + " triples in " + elapsedMillis + " ms";
+        }
+    }
+
+    /**
+     * Usage: TopologyGenerator [devices] [output file (.ttl, .nt, optionally .gz)] [seed]
+     */
+    public static void main(String[] args) {
+        int devices = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        File file = new File(args.length > 1 ? args[1] : "generated-topology.ttl");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+
+        System.out.println("=== Network Topology Generator ===");
+        try {
+            Statistics statistics = new TopologyGenerator(seed).generate(devices, file);
+            System.out.println("✓ Generated " + file.getPath() + ": " + statistics);
+        } catch (IOException e) {
+            System.err.println("✗ Error generating topology: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
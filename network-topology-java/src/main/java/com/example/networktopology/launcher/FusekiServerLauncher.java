@@ -2,6 +2,9 @@ package com.example.networktopology.launcher;
 
 import com.example.networktopology.server.NetworkTopologyFusekiServer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Standalone launcher for Network Topology Fuseki Server
  * Use this to start the SPARQL endpoint server for AI agents
@@ -12,20 +15,35 @@ public class FusekiServerLauncher {
         System.out.println("=== Network Topology Fuseki Server Launcher ===");
         
         int port = 3030;
-        
-        // Parse command line arguments
-        if (args.length > 0) {
-            try {
-                port = Integer.parseInt(args[0]);
-                System.out.println("Using custom port: " + port);
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid port number: " + args[0]);
-                System.err.println("Using default port: " + port);
+        boolean bulkLoad = false;
+        boolean infer = false;
+        List<String> extraSources = new ArrayList<>();
+        
+        // Parse command line arguments: [port] [--bulk] [--infer] [extra RDF files...]
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--bulk".equals(arg)) {
+                bulkLoad = true;
+            } else if ("--infer".equals(arg)) {
+                infer = true;
+            } else if (i == 0) {
+                try {
+                    port = Integer.parseInt(arg);
+                    System.out.println("Using custom port: " + port);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid port number: " + arg);
+                    System.err.println("Using default port: " + port);
+                }
+            } else {
+                extraSources.add(arg);
             }
         }
         
         // Create and start the server
         NetworkTopologyFusekiServer server = new NetworkTopologyFusekiServer(port);
+        server.setBulkLoadMode(bulkLoad);
+        server.setMaterializeInferences(infer);
+        extraSources.forEach(server::addDataSource);
         
         // Add shutdown hook for graceful shutdown
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -0,0 +1,58 @@
+package com.example.networktopology.launcher;
+
+import com.example.networktopology.loaders.SnapshotStore;
+import com.example.networktopology.loaders.TopologyModelRegistry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Writes binary RDF (RDF Thrift) snapshots of the ontology and instance sources.
+ * The loaders prefer a fresh snapshot over re-parsing the text source.
+ *
+ * Usage: SnapshotLauncher [--dir snapshots] [source ...]
+ */
+public class SnapshotLauncher {
+
+    public static void main(String[] args) {
+        System.out.println("=== Network Topology Snapshot Writer ===");
+
+        File directory = new File(SNAPSHOT_DIRECTORY);
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--dir".equals(args[i]) && i + 1 < args.length) {
+                directory = new File(args[++i]);
+            } else {
+                sources.add(args[i]);
+            }
+        }
+        if (sources.isEmpty()) {
+            sources.addAll(Arrays.asList(ONTOLOGY_TTL_RESOURCE, ONTOLOGY_OWL_RESOURCE, INSTANCES_TTL_RESOURCE));
+        }
+
+        // Always parse the text form; existing snapshots may be stale
+        TopologyModelRegistry registry = new TopologyModelRegistry();
+        SnapshotStore store = new SnapshotStore(directory);
+
+        boolean failed = false;
+        for (String source : sources) {
+            try {
+                File snapshot = registry.writeSnapshot(source, store);
+                System.out.println("✓ " + source + " -> " + snapshot.getPath() +
+                                   " (" + registry.getTripleCount(source) + " triples, " +
+                                   snapshot.length() + " bytes)");
+            } catch (Exception e) {
+                failed = true;
+                System.err.println("✗ Error writing snapshot of " + source + ": " + e.getMessage());
+            }
+        }
+
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
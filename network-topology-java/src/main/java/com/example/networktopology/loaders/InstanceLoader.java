@@ -2,38 +2,67 @@ package com.example.networktopology.loaders;
 
 import org.apache.jena.rdf.model.*;
 import org.apache.jena.query.*;
-import org.apache.jena.riot.RDFDataMgr;
-import org.apache.jena.riot.Lang;
 
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.example.networktopology.config.NetworkTopologyConfig.*;
 
 /**
- * Handles loading of RDF instance data
+ * Handles loading of RDF instance data, either the single bundled instance file
+ * or a directory/glob of per-site instance shards parsed concurrently
  */
 public class InstanceLoader {
     
+    private final TopologyModelRegistry registry;
+    private final ForkJoinPool pool;
+    
+    /**
+     * Constructor using the shared model registry
+     */
+    public InstanceLoader() {
+        this(TopologyModelRegistry.getShared());
+    }
+    
+    /**
+     * Constructor with an explicit model registry
+     */
+    public InstanceLoader(TopologyModelRegistry registry) {
+        this(registry, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Constructor with an explicit model registry and the pool that parses shards
+     */
+    public InstanceLoader(TopologyModelRegistry registry, ForkJoinPool pool) {
+        this.registry = registry;
+        this.pool = pool;
+    }
+    
     /**
-     * Load RDF instances from Turtle file
+     * Load RDF instances from Turtle file (parsed once, returned as a read-only view)
      */
     public Model loadRDFInstances() {
         System.out.println("\n=== Loading RDF Instances ===");
         
-        // Create model
-        Model model = ModelFactory.createDefaultModel();
-        
         try {
-            // Try to load from resources first, then from file system
-            InputStream in = getClass().getClassLoader().getResourceAsStream(INSTANCES_TTL_RESOURCE);
-            if (in == null) {
-                in = new FileInputStream(INSTANCES_TTL_RESOURCE);
-            }
-            
-            // Use RDFDataMgr for more reliable Turtle parsing
-            RDFDataMgr.read(model, in, Lang.TURTLE);
-            in.close();
+            Model model = registry.getModel(INSTANCES_TTL_RESOURCE);
             
             System.out.println("✓ RDF instances loaded successfully!");
             System.out.println("  Number of statements: " + model.size());
@@ -46,6 +75,171 @@ public class InstanceLoader {
         }
     }
     
+    /**
+     * Load instance shards from a directory or glob (e.g. {@code inventory/site-*.ttl})
+     * into one model. Shards are parsed concurrently, then merged into a single
+     * graph so lookups do not fan out over every shard. If any shard fails to
+     * parse, nothing is returned rather than an inventory with sites missing.
+     */
+    public Model loadInstanceShards(String location) {
+        System.out.println("\n=== Loading RDF Instance Shards: " + location + " ===");
+        
+        try {
+            List<String> shards = resolveShards(location);
+            if (shards.isEmpty()) {
+                System.err.println("✗ No instance shards found at " + location);
+                return null;
+            }
+            if (!parsedAll(location, shards)) {
+                return null;
+            }
+            
+            Model model = registry.merge(shards.toArray(new String[0]));
+            System.out.println("✓ RDF instance shards loaded successfully!");
+            System.out.println("  Number of statements: " + model.size());
+            
+            return model;
+            
+        } catch (Exception e) {
+            System.err.println("✗ Error loading RDF instance shards: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Load instance shards from a directory or glob into a dataset with one
+     * named graph per shard (read-only views of the parsed shards) and a merged
+     * copy of all shards as the default graph. Fails like
+     * {@link #loadInstanceShards} if any shard does not parse.
+     */
+    public Dataset loadInstanceShardsAsDataset(String location) {
+        System.out.println("\n=== Loading RDF Instance Shards as Named Graphs: " + location + " ===");
+        
+        try {
+            List<String> shards = resolveShards(location);
+            if (shards.isEmpty()) {
+                System.err.println("✗ No instance shards found at " + location);
+                return null;
+            }
+            if (!parsedAll(location, shards)) {
+                return null;
+            }
+            
+            Dataset dataset = DatasetFactory.createGeneral();
+            for (String shard : shards) {
+                dataset.addNamedModel(new RdfSource(shard).getGraphName(), registry.getModel(shard));
+            }
+            dataset.setDefaultModel(registry.merge(shards.toArray(new String[0])));
+            
+            System.out.println("✓ RDF instance shards loaded into " + shards.size() + " named graphs");
+            return dataset;
+            
+        } catch (Exception e) {
+            System.err.println("✗ Error loading RDF instance shards: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Parse every shard, reporting the ones that fail
+     */
+    private boolean parsedAll(String location, List<String> shards) throws InterruptedException {
+        Map<String, String> failures = parseShards(shards);
+        if (failures.isEmpty()) {
+            return true;
+        }
+        failures.forEach((shard, message) -> System.err.println("✗ Cannot parse shard " + shard + ": " + message));
+        System.err.println("✗ " + failures.size() + " of " + shards.size() + " instance shard(s) from " + location +
+                           " failed to parse; nothing was loaded");
+        return false;
+    }
+    
+    /**
+     * Parse sources concurrently into the registry on this loader's pool
+     *
+     * @return the sources that failed with their error message, in their
+     *         original order; empty if every source was parsed
+     */
+    public Map<String, String> parseShards(List<String> sources) throws InterruptedException {
+        Map<String, String> failures = new LinkedHashMap<>();
+        if (sources.isEmpty()) {
+            return failures;
+        }
+        long start = System.currentTimeMillis();
+        
+        List<Callable<Long>> tasks = new ArrayList<>(sources.size());
+        for (String source : sources) {
+            tasks.add(() -> registry.getTripleCount(source));
+        }
+        List<Future<Long>> results = pool.invokeAll(tasks);
+        
+        long triples = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            try {
+                triples += results.get(i).get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+                failures.put(sources.get(i), String.valueOf(cause.getMessage()));
+            }
+        }
+        
+        long millis = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println("  Parsed " + (sources.size() - failures.size()) + " of " + sources.size() + 
+                           " shard(s), " + triples + " triples in " + millis + " ms (" + (triples * 1000 / millis) + 
+                           " triples/sec, " + pool.getParallelism() + " threads)");
+        return failures;
+    }
+    
+    /**
+     * Expand a location into RDF files: a directory (all RDF files in it), a glob
+     * such as {@code inventory/**.ttl}, or a single file or classpath resource
+     */
+    public static List<String> resolveShards(String location) throws IOException {
+        File file = new File(location);
+        if (file.isDirectory()) {
+            try (Stream<Path> files = Files.list(file.toPath())) {
+                return files.filter(path -> Files.isRegularFile(path) && isRdfFile(path))
+                            .map(Path::toString)
+                            .sorted()
+                            .collect(Collectors.toList());
+            }
+        }
+        
+        int glob = indexOfGlob(location);
+        if (glob < 0) {
+            return Collections.singletonList(location);
+        }
+        
+        // Walk from the deepest directory that has no glob characters
+        int separator = Math.max(location.lastIndexOf('/', glob), location.lastIndexOf(File.separatorChar, glob));
+        Path base = Paths.get(separator < 0 ? "." : location.substring(0, Math.max(1, separator)));
+        String pattern = separator < 0 ? base.resolve(location).toString() : location;
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        if (!Files.isDirectory(base)) {
+            return Collections.emptyList();
+        }
+        boolean relative = separator < 0;
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(path -> Files.isRegularFile(path) && matcher.matches(path))
+                        .map(path -> relative ? base.relativize(path).toString() : path.toString())
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+    
+    private static int indexOfGlob(String location) {
+        for (int i = 0; i < location.length(); i++) {
+            if ("*?[{".indexOf(location.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static boolean isRdfFile(Path path) {
+        return RdfSource.isRdfFile(path.getFileName().toString());
+    }
+    
     /**
      * Display routers from the loaded model
      */
@@ -0,0 +1,154 @@
+package com.example.networktopology.loaders;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential input stream over a memory-mapped file.
+ *
+ * The file is mapped in windows of at most {@link #DEFAULT_WINDOW_SIZE} bytes,
+ * so files larger than 2 GB are supported and only one window is mapped at a
+ * time. Reads copy straight from the page cache without a read() system call
+ * per buffer.
+ *
+ * A window is unmapped as soon as the stream moves past it or is closed, so
+ * the file can be deleted or replaced right after close (Windows refuses both
+ * while a mapping is open). If the JDK offers no way to unmap explicitly, the
+ * mapping is released when the buffer is garbage collected.
+ */
+public class MappedFileInputStream extends InputStream {
+
+    public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    public MappedFileInputStream(File file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedFileInputStream(File file, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureWindow()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureWindow()) {
+            return -1;
+        }
+        int count = Math.min(length, window.remaining());
+        window.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long position = position();
+        long target = Math.min(size, position + Math.max(0, n));
+        if (window != null && target < windowStart + window.limit()) {
+            window.position((int) (target - windowStart));
+        } else {
+            windowStart = target;
+            unmapWindow();
+            if (target < size) {
+                map(target);
+            }
+        }
+        return target - position;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - position());
+    }
+
+    @Override
+    public void close() throws IOException {
+        unmapWindow();
+        channel.close();
+    }
+
+    private long position() {
+        return window == null ? windowStart : windowStart + window.position();
+    }
+
+    /**
+     * Make sure the current window has bytes left, mapping the next one if needed
+     */
+    private boolean ensureWindow() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        long next = window == null ? windowStart : windowStart + window.limit();
+        if (next >= size) {
+            return false;
+        }
+        map(next);
+        return true;
+    }
+
+    /**
+     * Drop the current window, releasing its mapping right away when possible.
+     * The buffer never escapes this stream, so nothing can touch it afterwards.
+     */
+    private void unmapWindow() {
+        MappedByteBuffer previous = window;
+        window = null;
+        if (previous != null && INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invokeExact((ByteBuffer) previous);
+            } catch (Throwable e) {
+                // left to the garbage collector
+            }
+        }
+    }
+
+    /**
+     * sun.misc.Unsafe.invokeCleaner (JDK 9+), or null if it is not accessible
+     */
+    private static MethodHandle findCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void map(long start) throws IOException {
+        unmapWindow();
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+}
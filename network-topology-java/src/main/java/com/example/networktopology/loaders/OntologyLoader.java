@@ -4,11 +4,6 @@ import org.apache.jena.rdf.model.*;
 import org.apache.jena.ontology.*;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
-import org.apache.jena.riot.RDFDataMgr;
-import org.apache.jena.riot.Lang;
-
-import java.io.FileInputStream;
-import java.io.InputStream;
 
 import static com.example.networktopology.config.NetworkTopologyConfig.*;
 
@@ -17,24 +12,31 @@ import static com.example.networktopology.config.NetworkTopologyConfig.*;
  */
 public class OntologyLoader {
     
+    private final TopologyModelRegistry registry;
+    
+    /**
+     * Constructor using the shared model registry
+     */
+    public OntologyLoader() {
+        this(TopologyModelRegistry.getShared());
+    }
+    
     /**
-     * Load OWL ontology using FileManager
+     * Constructor with an explicit model registry
+     */
+    public OntologyLoader(TopologyModelRegistry registry) {
+        this.registry = registry;
+    }
+    
+    /**
+     * Load OWL ontology (parsed once, returned as a read-only view)
      */
     public OntModel loadOWLOntology() {
         System.out.println("=== Loading OWL Ontology ===");
         
-        // Create ontology model
-        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
-        
         try {
-            // Try to load from resources first, then from file system
-            InputStream in = getClass().getClassLoader().getResourceAsStream(ONTOLOGY_OWL_RESOURCE);
-            if (in == null) {
-                in = new FileInputStream(ONTOLOGY_OWL_RESOURCE);
-            }
-            
-            model.read(in, null, "RDF/XML");
-            in.close();
+            // Ontology model over the registry's parsed RDF/XML graph
+            OntModel model = registry.createOntModel(OntModelSpec.OWL_MEM, ONTOLOGY_OWL_RESOURCE);
             
             System.out.println("✓ Ontology loaded successfully!");
             System.out.println("  Number of statements: " + model.size());
@@ -64,24 +66,13 @@ public class OntologyLoader {
     }
     
     /**
-     * Load Turtle ontology file
+     * Load Turtle ontology file (parsed once, returned as a read-only view)
      */
     public Model loadTurtleOntology() {
         System.out.println("\n=== Loading Turtle Ontology ===");
         
-        // Create model
-        Model model = ModelFactory.createDefaultModel();
-        
         try {
-            // Try to load from resources first, then from file system
-            InputStream in = getClass().getClassLoader().getResourceAsStream(ONTOLOGY_TTL_RESOURCE);
-            if (in == null) {
-                in = new FileInputStream(ONTOLOGY_TTL_RESOURCE);
-            }
-            
-            // Use RDFDataMgr for more reliable Turtle parsing
-            RDFDataMgr.read(model, in, Lang.TURTLE);
-            in.close();
+            Model model = registry.getModel(ONTOLOGY_TTL_RESOURCE);
             
             System.out.println("✓ Turtle ontology loaded successfully!");
             System.out.println("  Number of statements: " + model.size());
@@ -102,31 +93,24 @@ public class OntologyLoader {
     }
     
     /**
-     * Load combined ontology and instances into an OntModel with reasoning
+     * Load combined ontology and instances into an OntModel with reasoning.
+     * The model is a mutable copy of the registry graphs, so neither source
+     * is parsed again and changes to the model stay private to the caller.
      */
     public OntModel loadCombinedOntologyModel(OntModelSpec spec) {
+        return loadCombinedOntologyModel(spec, INSTANCES_TTL_RESOURCE);
+    }
+    
+    /**
+     * Load the ontology combined with the given instance sources (files, shards
+     * or classpath resources) into an OntModel with reasoning
+     */
+    public OntModel loadCombinedOntologyModel(OntModelSpec spec, String... instanceSources) {
         try {
-            // Create ontology model with reasoning
-            OntModel ontModel = ModelFactory.createOntologyModel(spec);
-            
-            // Load ontology
-            InputStream ontIn = getClass().getClassLoader().getResourceAsStream(ONTOLOGY_TTL_RESOURCE);
-            if (ontIn == null) {
-                ontIn = new FileInputStream(ONTOLOGY_TTL_RESOURCE);
-            }
-            // Load ontology using RDFDataMgr
-            RDFDataMgr.read(ontModel, ontIn, Lang.TURTLE);
-            ontIn.close();
-            
-            // Load instances using RDFDataMgr
-            InputStream instIn = getClass().getClassLoader().getResourceAsStream(INSTANCES_TTL_RESOURCE);
-            if (instIn == null) {
-                instIn = new FileInputStream(INSTANCES_TTL_RESOURCE);
-            }
-            RDFDataMgr.read(ontModel, instIn, Lang.TURTLE);
-            instIn.close();
-            
-            return ontModel;
+            String[] sources = new String[instanceSources.length + 1];
+            sources[0] = ONTOLOGY_TTL_RESOURCE;
+            System.arraycopy(instanceSources, 0, sources, 1, instanceSources.length);
+            return registry.createMutableOntModel(spec, sources);
             
         } catch (Exception e) {
             System.err.println("✗ Error loading combined model: " + e.getMessage());
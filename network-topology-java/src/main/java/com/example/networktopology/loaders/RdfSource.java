@@ -0,0 +1,163 @@
+package com.example.networktopology.loaders;
+
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.SOURCE_GRAPH_NS;
+
+/**
+ * A named RDF source resolved from the classpath first, then from the file system.
+ *
+ * Sources named {@code *.gz}, {@code *.bz2}, {@code *.zst} or {@code *.zstd} are
+ * decompressed while streaming; the RDF syntax is taken from the name without
+ * the compression suffix. Local files are read through a memory mapping.
+ */
+public class RdfSource {
+
+    private static final String CHECKSUM_ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] COMPRESSION_SUFFIXES = { ".gz", ".bz2", ".zst", ".zstd" };
+
+    private final String name;
+
+    public RdfSource(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Open the RDF content of the source, decompressing it if needed
+     */
+    public InputStream open() throws IOException {
+        return decode(openRaw());
+    }
+
+    /**
+     * Open the stored bytes of the source, still compressed if the source is
+     */
+    public InputStream openRaw() throws IOException {
+        InputStream in = getClass().getClassLoader().getResourceAsStream(name);
+        if (in != null) {
+            return in;
+        }
+        return new MappedFileInputStream(new File(name));
+    }
+
+    /**
+     * Wrap the stored bytes of this source in a streaming decompressor, if any
+     */
+    public InputStream decode(InputStream raw) throws IOException {
+        String lower = name.toLowerCase();
+        if (lower.endsWith(".gz")) {
+            return new GZIPInputStream(raw, BUFFER_SIZE);
+        }
+        if (lower.endsWith(".bz2")) {
+            return new BZip2CompressorInputStream(new BufferedInputStream(raw, BUFFER_SIZE), true);
+        }
+        if (lower.endsWith(".zst") || lower.endsWith(".zstd")) {
+            return new ZstdCompressorInputStream(new BufferedInputStream(raw, BUFFER_SIZE));
+        }
+        return raw;
+    }
+
+    /**
+     * RDF syntax of the source, guessed from its file extension (Turtle if unknown)
+     */
+    public Lang getLang() {
+        return RDFLanguages.filenameToLang(stripCompression(name), Lang.TURTLE);
+    }
+
+    /**
+     * Whether a file name looks like RDF, possibly compressed
+     */
+    public static boolean isRdfFile(String fileName) {
+        return RDFLanguages.filenameToLang(stripCompression(fileName)) != null;
+    }
+
+    private static String stripCompression(String fileName) {
+        String lower = fileName.toLowerCase();
+        for (String suffix : COMPRESSION_SUFFIXES) {
+            if (lower.endsWith(suffix)) {
+                return fileName.substring(0, fileName.length() - suffix.length());
+            }
+        }
+        return fileName;
+    }
+
+    /**
+     * Named graph that holds the triples of this source in a dataset
+     */
+    public String getGraphName() {
+        try {
+            return SOURCE_GRAPH_NS + URLEncoder.encode(name, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Whether the source can currently be resolved
+     */
+    public boolean exists() {
+        try {
+            openRaw().close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compute the checksum of the stored (possibly compressed) bytes without parsing the source
+     */
+    public String checksum() throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = openRaw()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(CHECKSUM_ALGORITHM + " not available", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.networktopology.loaders;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.sparql.graph.GraphFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Binary (RDF Thrift) snapshots of parsed RDF sources.
+ *
+ * Each snapshot sits next to a small checksum file holding the checksum of the
+ * text source it was written from. A snapshot is fresh only while that
+ * checksum still matches the source, so edited sources are never shadowed by
+ * stale snapshots.
+ */
+public class SnapshotStore {
+
+    private static final String SNAPSHOT_EXTENSION = ".rt";
+    private static final String CHECKSUM_EXTENSION = ".sha256";
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final File directory;
+
+    public SnapshotStore(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Snapshot file for a source
+     */
+    public File snapshotFile(String source) {
+        return new File(directory, fileName(source) + SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Whether any snapshot exists for the source, fresh or not
+     */
+    public boolean hasSnapshot(String source) {
+        return snapshotFile(source).isFile() && checksumFile(source).isFile();
+    }
+
+    /**
+     * Whether the snapshot was written from content with this checksum
+     */
+    public boolean isFresh(String source, String checksum) {
+        if (!hasSnapshot(source)) {
+            return false;
+        }
+        try {
+            String recorded = new String(Files.readAllBytes(checksumFile(source).toPath()), StandardCharsets.UTF_8);
+            return recorded.trim().equals(checksum);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read a snapshot into a new in-memory graph
+     */
+    public Graph read(String source) throws IOException {
+        Graph graph = GraphFactory.createDefaultGraph();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(snapshotFile(source)), BUFFER_SIZE)) {
+            RDFDataMgr.read(graph, in, Lang.RDFTHRIFT);
+        }
+        return graph;
+    }
+
+    /**
+     * Write a graph as the snapshot of a source with the given content checksum
+     */
+    public File write(String source, Graph graph, String checksum) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create snapshot directory " + directory);
+        }
+
+        // Invalidate first so a crash never pairs a new snapshot with an old checksum
+        Files.deleteIfExists(checksumFile(source).toPath());
+
+        File snapshot = snapshotFile(source);
+        File temp = new File(directory, snapshot.getName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp), BUFFER_SIZE)) {
+            RDFDataMgr.write(out, graph, RDFFormat.RDF_THRIFT);
+        }
+        Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.write(checksumFile(source).toPath(), checksum.getBytes(StandardCharsets.UTF_8));
+        return snapshot;
+    }
+
+    private File checksumFile(String source) {
+        return new File(directory, fileName(source) + SNAPSHOT_EXTENSION + CHECKSUM_EXTENSION);
+    }
+
+    private static String fileName(String source) {
+        return source.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
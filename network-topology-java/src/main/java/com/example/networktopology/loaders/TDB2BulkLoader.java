@@ -0,0 +1,282 @@
+package com.example.networktopology.loaders;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Streaming bulk loader for the TDB2 dataset behind Fuseki.
+ *
+ * Sources are parsed in parallel straight into StreamRDF sinks that cut the
+ * triple stream into fixed-size batches. A single writer (TDB2 allows one
+ * writer at a time) drains a bounded queue of batches and commits each batch
+ * in its own WRITE transaction. At most {@code queueCapacity + parserThreads + 1}
+ * batches are held in memory, independent of the input size.
+ */
+public class TDB2BulkLoader {
+
+    public static final int DEFAULT_BATCH_SIZE = 50_000;
+    public static final int DEFAULT_PARSER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final long PROGRESS_INTERVAL_MILLIS = 5_000;
+    private static final long QUEUE_POLL_MILLIS = 200;
+
+    private final Dataset dataset;
+    private final int batchSize;
+    private final int parserThreads;
+    private final int queueCapacity;
+
+    /**
+     * Constructor with default batch size and parser parallelism
+     */
+    public TDB2BulkLoader(Dataset dataset) {
+        this(dataset, DEFAULT_BATCH_SIZE, DEFAULT_PARSER_THREADS);
+    }
+
+    /**
+     * Constructor with explicit batch size and parser parallelism
+     */
+    public TDB2BulkLoader(Dataset dataset, int batchSize, int parserThreads) {
+        if (batchSize <= 0 || parserThreads <= 0) {
+            throw new IllegalArgumentException("Batch size and parser threads must be positive");
+        }
+        this.dataset = dataset;
+        this.batchSize = batchSize;
+        this.parserThreads = parserThreads;
+        this.queueCapacity = parserThreads * 2;
+    }
+
+    /**
+     * Load every source into the default graph
+     */
+    public Result load(List<String> sources) {
+        return load(sources, source -> Quad.defaultGraphIRI);
+    }
+
+    /**
+     * Load every source into the graph chosen for it by {@code targetGraph}
+     */
+    public Result load(List<String> sources, Function<String, Node> targetGraph) {
+        System.out.println("Bulk loading " + sources.size() + " source(s) with " + parserThreads +
+                           " parser thread(s), batch size " + batchSize);
+
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Map<String, Long> parsedTriples = new ConcurrentHashMap<>();
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        AtomicInteger finishedParsers = new AtomicInteger();
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, runnable -> {
+            Thread thread = new Thread(runnable, "tdb2-bulk-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (String source : sources) {
+            parsers.submit(() -> {
+                BatchingSink sink = new BatchingSink(queue, targetGraph.apply(source), cancelled);
+                RdfSource rdfSource = new RdfSource(source);
+                try (InputStream in = rdfSource.open()) {
+                    RDFParser.source(in).lang(rdfSource.getLang()).parse(sink);
+                } catch (Exception e) {
+                    failures.put(source, String.valueOf(e.getMessage()));
+                } finally {
+                    parsedTriples.put(source, sink.count);
+                    finishedParsers.incrementAndGet();
+                }
+            });
+        }
+        parsers.shutdown();
+
+        long start = System.currentTimeMillis();
+        long written = 0;
+        try {
+            written = drain(queue, sources.size(), finishedParsers, start);
+        } catch (RuntimeException e) {
+            cancelled.set(true);
+            parsers.shutdownNow();
+            throw e;
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        for (String source : sources) {
+            ordered.put(source, parsedTriples.getOrDefault(source, 0L));
+        }
+        Result result = new Result(ordered, failures, written, elapsed);
+        System.out.println("✓ Bulk load finished: " + result);
+        failures.forEach((source, message) ->
+            System.err.println("✗ Error bulk loading " + source + ": " + message));
+        return result;
+    }
+
+    /**
+     * Writer loop: commit batches until every parser has finished and the queue is empty
+     */
+    private long drain(BlockingQueue<Batch> queue, int parserCount, AtomicInteger finishedParsers,
+                       long start) {
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        long written = 0;
+        long lastReport = start;
+
+        while (true) {
+            Batch batch;
+            try {
+                batch = queue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Bulk load interrupted", e);
+            }
+
+            if (batch == null) {
+                if (finishedParsers.get() == parserCount && queue.isEmpty()) {
+                    return written;
+                }
+                continue;
+            }
+
+            Txn.executeWrite(dsg, () -> {
+                batch.prefixes.forEach((prefix, uri) -> dsg.prefixes().add(prefix, uri));
+                for (Triple triple : batch.triples) {
+                    dsg.add(batch.graph, triple.getSubject(), triple.getPredicate(), triple.getObject());
+                }
+            });
+            written += batch.triples.size();
+
+            long now = System.currentTimeMillis();
+            if (now - lastReport >= PROGRESS_INTERVAL_MILLIS) {
+                System.out.println("  ... " + written + " triples written (" +
+                                   rate(written, now - start) + " triples/sec)");
+                lastReport = now;
+            }
+        }
+    }
+
+    private static long rate(long triples, long millis) {
+        return triples * 1000 / Math.max(1, millis);
+    }
+
+    /**
+     * StreamRDF sink that hands fixed-size batches to the writer queue
+     */
+    private final class BatchingSink extends StreamRDFBase {
+        private final BlockingQueue<Batch> queue;
+        private final Node graph;
+        private final AtomicBoolean cancelled;
+        private List<Triple> triples = new ArrayList<>(batchSize);
+        private Map<String, String> prefixes = new LinkedHashMap<>();
+        private long count;
+
+        BatchingSink(BlockingQueue<Batch> queue, Node graph, AtomicBoolean cancelled) {
+            this.queue = queue;
+            this.graph = graph;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            triples.add(triple);
+            count++;
+            if (triples.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void quad(Quad quad) {
+            triple(quad.asTriple());
+        }
+
+        @Override
+        public void prefix(String prefix, String iri) {
+            prefixes.put(prefix, iri);
+        }
+
+        @Override
+        public void finish() {
+            if (!triples.isEmpty() || !prefixes.isEmpty()) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            Batch batch = new Batch(graph, triples, prefixes);
+            triples = new ArrayList<>(batchSize);
+            prefixes = new LinkedHashMap<>();
+            try {
+                while (!queue.offer(batch, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (cancelled.get()) {
+                        throw new IllegalStateException("Bulk load cancelled");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Bulk load interrupted", e);
+            }
+        }
+    }
+
+    private static final class Batch {
+        final Node graph;
+        final List<Triple> triples;
+        final Map<String, String> prefixes;
+
+        Batch(Node graph, List<Triple> triples, Map<String, String> prefixes) {
+            this.graph = graph;
+            this.triples = triples;
+            this.prefixes = prefixes;
+        }
+    }
+
+    /**
+     * Outcome of a bulk load
+     */
+    public static class Result {
+        public final Map<String, Long> triplesBySource;
+        public final Map<String, String> failures;
+        public final long triplesWritten;
+        public final long elapsedMillis;
+
+        Result(Map<String, Long> triplesBySource, Map<String, String> failures,
+               long triplesWritten, long elapsedMillis) {
+            this.triplesBySource = Collections.unmodifiableMap(triplesBySource);
+            this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+            this.triplesWritten = triplesWritten;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+
+        public long triplesPerSecond() {
+            return rate(triplesWritten, elapsedMillis);
+        }
+
+        @Override
+        public String toString() {
+            return triplesWritten + " triples from " + triplesBySource.size() + " source(s) in " +
+                   elapsedMillis + " ms (" + triplesPerSecond() + " triples/sec)";
+        }
+    }
+}
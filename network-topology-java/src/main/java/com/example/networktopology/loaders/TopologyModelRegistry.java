@@ -0,0 +1,316 @@
+package com.example.networktopology.loaders;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.compose.MultiUnion;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.graph.GraphReadOnly;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Parse-once registry of the topology RDF sources.
+ *
+ * Each source is parsed at most once into an in-memory graph that is never
+ * modified afterwards. Graphs are keyed by source name and by content checksum,
+ * so two names with identical content share one graph. Callers receive
+ * read-only views or unions over those graphs instead of fresh copies, or one
+ * merged copy when many sources are queried together.
+ *
+ * When a snapshot store is configured, a fresh binary snapshot of a source is
+ * preferred over parsing its text form.
+ */
+public class TopologyModelRegistry {
+
+    private static final TopologyModelRegistry SHARED =
+        new TopologyModelRegistry(new SnapshotStore(new File(SNAPSHOT_DIRECTORY)));
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Graph> graphsByChecksum = new ConcurrentHashMap<>();
+    private final SnapshotStore snapshotStore;
+
+    /**
+     * Registry that always parses the text sources
+     */
+    public TopologyModelRegistry() {
+        this(null);
+    }
+
+    /**
+     * Registry that prefers fresh snapshots from the given store
+     */
+    public TopologyModelRegistry(SnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * Registry shared by every component of the application
+     */
+    public static TopologyModelRegistry getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Read-only graph of a source, parsing it on first access
+     */
+    public Graph getGraph(String source) {
+        return entry(source).graph();
+    }
+
+    /**
+     * Read-only model view of a source
+     */
+    public Model getModel(String source) {
+        return ModelFactory.createModelForGraph(getGraph(source));
+    }
+
+    /**
+     * Read-only union of several sources; no triples are copied
+     */
+    public Model union(String... sources) {
+        return ModelFactory.createModelForGraph(unionGraph(sources));
+    }
+
+    /**
+     * Private, mutable copy of several sources in one graph. Unlike a union,
+     * every lookup hits a single index and needs no duplicate removal, which
+     * matters once there are more than a few sources.
+     */
+    public Model merge(String... sources) {
+        return ModelFactory.createModelForGraph(copy(sources));
+    }
+
+    /**
+     * Ontology model over the read-only union of several sources
+     */
+    public OntModel createOntModel(OntModelSpec spec, String... sources) {
+        return ModelFactory.createOntologyModel(spec, union(sources));
+    }
+
+    /**
+     * Ontology model over a private, mutable copy of the union of several
+     * sources. The sources are still parsed only once; the shared graphs are
+     * never modified.
+     */
+    public OntModel createMutableOntModel(OntModelSpec spec, String... sources) {
+        return ModelFactory.createOntologyModel(spec, merge(sources));
+    }
+
+    /**
+     * Content checksum of a source as it was parsed
+     */
+    public String getChecksum(String source) {
+        return entry(source).checksum();
+    }
+
+    /**
+     * Number of triples in a parsed source
+     */
+    public long getTripleCount(String source) {
+        return entry(source).graph().size();
+    }
+
+    /**
+     * Whether a source has already been parsed
+     */
+    public boolean isLoaded(String source) {
+        Entry entry = entries.get(source);
+        return entry != null && entry.isLoaded();
+    }
+
+    /**
+     * Re-read a source and replace its graph if the content changed.
+     * Views handed out earlier keep the graph they were created over.
+     *
+     * @return true if the source content changed
+     */
+    public boolean reload(String source) {
+        Entry previous = entries.get(source);
+        Entry fresh = new Entry(new RdfSource(source));
+        fresh.graph();
+        if (previous != null && previous.isLoaded() && previous.checksum().equals(fresh.checksum())) {
+            return false;
+        }
+        entries.put(source, fresh);
+        if (previous != null && previous.isLoaded()) {
+            graphsByChecksum.remove(previous.checksum(), previous.load().graph);
+        }
+        return true;
+    }
+
+    /**
+     * Write the binary snapshot of a source, parsing it first if needed
+     */
+    public File writeSnapshot(String source, SnapshotStore store) throws IOException {
+        ParsedSource parsed = entry(source).load();
+        return store.write(source, parsed.graph, parsed.checksum);
+    }
+
+    /**
+     * Drop every cached graph
+     */
+    public void clear() {
+        entries.clear();
+        graphsByChecksum.clear();
+    }
+
+    /**
+     * One new graph holding the triples of every source; each source is added
+     * directly, so triples shared by several sources are simply not repeated
+     */
+    private Graph copy(String... sources) {
+        Graph copy = GraphFactory.createDefaultGraph();
+        for (String source : sources) {
+            GraphUtil.addInto(copy, getGraph(source));
+        }
+        return copy;
+    }
+
+    private Graph unionGraph(String... sources) {
+        if (sources.length == 1) {
+            return getGraph(sources[0]);
+        }
+        MultiUnion union = new MultiUnion();
+        for (String source : sources) {
+            union.addGraph(getGraph(source));
+        }
+        return new GraphReadOnly(union);
+    }
+
+    private Entry entry(String source) {
+        return entries.computeIfAbsent(source, name -> new Entry(new RdfSource(name)));
+    }
+
+    /**
+     * Load a source from its fresh snapshot, or parse its text form
+     */
+    private ParsedSource parse(RdfSource source) {
+        if (snapshotStore != null && snapshotStore.hasSnapshot(source.getName())) {
+            try {
+                String checksum = source.checksum();
+                if (snapshotStore.isFresh(source.getName(), checksum)) {
+                    long start = System.currentTimeMillis();
+                    Graph graph = share(checksum, snapshotStore.read(source.getName()));
+                    System.out.println("  Loaded snapshot of " + source.getName() + " (" + graph.size() + 
+                                       " triples, " + (System.currentTimeMillis() - start) + " ms)");
+                    return new ParsedSource(new GraphReadOnly(graph), graph, checksum);
+                }
+            } catch (IOException e) {
+                System.err.println("⚠ Ignoring unreadable snapshot of " + source.getName() + ": " + e.getMessage());
+            }
+        }
+        return parseText(source);
+    }
+
+    /**
+     * Parse the source into a new graph, computing the checksum of its stored
+     * (possibly compressed) bytes in the same pass
+     */
+    private ParsedSource parseText(RdfSource source) {
+        long start = System.currentTimeMillis();
+        MessageDigest digest = RdfSource.newDigest();
+        Graph graph = GraphFactory.createDefaultGraph();
+
+        try (InputStream raw = source.openRaw();
+             DigestInputStream digested = new DigestInputStream(raw, digest);
+             InputStream in = source.decode(digested)) {
+            // The parser closes its input and may stop before EOF; the checksum must cover every byte
+            RDFDataMgr.read(graph, new FilterInputStream(in) {
+                @Override
+                public void close() {
+                    // closed by the enclosing try
+                }
+            }, source.getLang());
+            drain(in);
+            drain(digested);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read RDF source " + source.getName(), e);
+        }
+
+        String checksum = RdfSource.toHex(digest.digest());
+        graph = share(checksum, graph);
+
+        System.out.println("  Parsed " + source.getName() + " (" + graph.size() + " triples, " +
+                           (System.currentTimeMillis() - start) + " ms)");
+        return new ParsedSource(new GraphReadOnly(graph), graph, checksum);
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    /**
+     * Reuse an existing graph with identical content, if any
+     */
+    private Graph share(String checksum, Graph graph) {
+        Graph shared = graphsByChecksum.putIfAbsent(checksum, graph);
+        return shared != null ? shared : graph;
+    }
+
+    /**
+     * Lazily parsed registry entry; concurrent callers wait for a single parse
+     */
+    private final class Entry {
+        private final RdfSource source;
+        private volatile ParsedSource parsed;
+
+        Entry(RdfSource source) {
+            this.source = source;
+        }
+
+        boolean isLoaded() {
+            return parsed != null;
+        }
+
+        Graph graph() {
+            return load().view;
+        }
+
+        String checksum() {
+            return load().checksum;
+        }
+
+        ParsedSource load() {
+            ParsedSource result = parsed;
+            if (result == null) {
+                synchronized (this) {
+                    result = parsed;
+                    if (result == null) {
+                        result = parse(source);
+                        parsed = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class ParsedSource {
+        final Graph view;
+        final Graph graph;
+        final String checksum;
+
+        ParsedSource(Graph view, Graph graph, String checksum) {
+            this.view = view;
+            this.graph = graph;
+            this.checksum = checksum;
+        }
+    }
+}
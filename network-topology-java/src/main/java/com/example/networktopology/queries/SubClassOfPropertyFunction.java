@@ -0,0 +1,88 @@
+package com.example.networktopology.queries;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.pfunction.PFuncSimple;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
+import org.apache.jena.sparql.util.IterLib;
+import org.apache.jena.sparql.util.Symbol;
+
+import com.example.networktopology.reasoning.ClassHierarchyIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Property function {@code ?sub fn:subClassOf ?super}, equivalent to
+ * {@code ?sub rdfs:subClassOf* ?super} but answered from a
+ * {@link ClassHierarchyIndex} instead of a path traversal. Only named classes
+ * are covered: restriction blank nodes and non-class resources never match.
+ *
+ * The index is taken from the query context ({@link #INDEX_SYMBOL}) if the
+ * caller put one there, otherwise it is built once per query from the
+ * active graph.
+ */
+public class SubClassOfPropertyFunction extends PFuncSimple {
+
+    public static final String URI = FUNCTIONS_NS + "subClassOf";
+    public static final Symbol INDEX_SYMBOL = Symbol.create(URI + "#index");
+
+    /**
+     * Register the function with ARQ (idempotent)
+     */
+    public static void register() {
+        PropertyFunctionRegistry.get().put(URI, SubClassOfPropertyFunction.class);
+    }
+
+    @Override
+    public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, Node object,
+                                       ExecutionContext execCxt) {
+        ClassHierarchyIndex index = index(execCxt);
+        boolean subjectBound = !Var.isVar(subject);
+        boolean objectBound = !Var.isVar(object);
+
+        if (subjectBound && objectBound) {
+            return index.isSubClassOf(subject, object) ? IterLib.result(binding, execCxt) : IterLib.noResults(execCxt);
+        }
+        List<Binding> results = new ArrayList<>();
+        if (subjectBound) {
+            for (Node sup : index.superClassesOf(subject)) {
+                results.add(BindingFactory.binding(binding, Var.alloc(object), sup));
+            }
+        } else if (objectBound) {
+            for (Node sub : index.subClassesOf(object)) {
+                results.add(BindingFactory.binding(binding, Var.alloc(subject), sub));
+            }
+        } else {
+            for (int id = 0; id < index.size(); id++) {
+                Node sub = index.classOf(id);
+                for (Node sup : index.superClassesOf(sub)) {
+                    if (subject.equals(object)) {
+                        if (sub.equals(sup)) {
+                            results.add(BindingFactory.binding(binding, Var.alloc(subject), sub));
+                        }
+                    } else {
+                        results.add(BindingFactory.binding(binding, Var.alloc(subject), sub, Var.alloc(object), sup));
+                    }
+                }
+            }
+        }
+        return QueryIterPlainWrapper.create(results.iterator(), execCxt);
+    }
+
+    private static ClassHierarchyIndex index(ExecutionContext execCxt) {
+        ClassHierarchyIndex index = execCxt.getContext().get(INDEX_SYMBOL);
+        if (index == null) {
+            index = ClassHierarchyIndex.build(execCxt.getActiveGraph());
+            execCxt.getContext().set(INDEX_SYMBOL, index);
+        }
+        return index;
+    }
+}
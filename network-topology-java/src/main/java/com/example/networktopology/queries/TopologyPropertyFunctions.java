@@ -0,0 +1,312 @@
+package com.example.networktopology.queries;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.query.QueryExecException;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBuilder;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.pfunction.PFuncSimple;
+import org.apache.jena.sparql.pfunction.PFuncSimpleAndList;
+import org.apache.jena.sparql.pfunction.PropFuncArg;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
+import org.apache.jena.sparql.util.IterLib;
+import org.apache.jena.sparql.util.Symbol;
+
+import com.example.networktopology.topology.PathEngine;
+import com.example.networktopology.topology.TopologyGraph;
+import com.example.networktopology.topology.TopologyIndex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Graph-algorithm property functions over the physical topology, answered
+ * from a {@link TopologyIndex} instead of chained or recursive joins:
+ *
+ * <pre>
+ *   ?a fn:reachable ?b                           connected to each other (reflexive)
+ *   ?device fn:component ?id                     number of the connected component
+ *   ?device fn:withinHops (k ?neighbour ?hops)   devices at most k links away
+ *   ?source fn:shortestPath (?target ?device ?position ?latency)
+ *                                                lowest-latency path, one row per device
+ * </pre>
+ *
+ * Links are undirected; trailing list arguments may be left out, and bound
+ * arguments filter the results. The index is taken from the query context
+ * ({@link TopologyIndex#SYMBOL}), where the Fuseki server publishes the index
+ * of its whole dataset, otherwise it is built once per query from the active
+ * graph. Every function of one query sees the same version of the topology.
+ */
+public final class TopologyPropertyFunctions {
+
+    public static final String REACHABLE = FUNCTIONS_NS + "reachable";
+    public static final String COMPONENT = FUNCTIONS_NS + "component";
+    public static final String WITHIN_HOPS = FUNCTIONS_NS + "withinHops";
+    public static final String SHORTEST_PATH = FUNCTIONS_NS + "shortestPath";
+
+    private static final Symbol SNAPSHOT_SYMBOL = Symbol.create(FUNCTIONS_NS + "topologySnapshot");
+
+    private TopologyPropertyFunctions() {
+    }
+
+    /**
+     * Register the functions with ARQ (idempotent)
+     */
+    public static void register() {
+        PropertyFunctionRegistry registry = PropertyFunctionRegistry.get();
+        registry.put(REACHABLE, Reachable.class);
+        registry.put(COMPONENT, Component.class);
+        registry.put(WITHIN_HOPS, WithinHops.class);
+        registry.put(SHORTEST_PATH, ShortestPath.class);
+    }
+
+    /**
+     * {@code ?a fn:reachable ?b}: both devices are in the same connected component
+     */
+    public static class Reachable extends PFuncSimple {
+
+        @Override
+        public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, Node object,
+                                           ExecutionContext execCxt) {
+            TopologyIndex.Snapshot topology = topology(execCxt);
+            TopologyGraph graph = topology.getGraph();
+            boolean subjectBound = !Var.isVar(subject);
+            boolean objectBound = !Var.isVar(object);
+
+            if (subjectBound || objectBound) {
+                int device = graph.getDeviceId(subjectBound ? subject : object);
+                if (device < 0) {
+                    return IterLib.noResults(execCxt);
+                }
+                int component = topology.getComponent(device);
+                Node other = subjectBound ? object : subject;
+                if (subjectBound && objectBound) {
+                    int target = graph.getDeviceId(object);
+                    return target >= 0 && topology.getComponent(target) == component
+                        ? IterLib.result(binding, execCxt) : IterLib.noResults(execCxt);
+                }
+                Stream<Binding> bindings = IntStream.range(0, topology.getComponentSize(component))
+                    .mapToObj(i -> bind(binding, other, graph.getDevice(topology.getComponentMember(component, i))));
+                return results(bindings, execCxt);
+            }
+            // Every pair of devices of every component
+            Stream<Binding> bindings = IntStream.range(0, graph.getDeviceCount()).boxed()
+                .flatMap(device -> {
+                    int component = topology.getComponent(device);
+                    Node node = graph.getDevice(device);
+                    return IntStream.range(0, topology.getComponentSize(component))
+                        .mapToObj(i -> bind(binding, Arrays.asList(subject, object),
+                                            node, graph.getDevice(topology.getComponentMember(component, i))));
+                });
+            return results(bindings, execCxt);
+        }
+    }
+
+    /**
+     * {@code ?device fn:component ?id}: number of the connected component of a
+     * device, as an xsd:integer; components are numbered from 0 in order of
+     * their first device URI
+     */
+    public static class Component extends PFuncSimple {
+
+        @Override
+        public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, Node object,
+                                           ExecutionContext execCxt) {
+            TopologyIndex.Snapshot topology = topology(execCxt);
+            TopologyGraph graph = topology.getGraph();
+
+            if (!Var.isVar(subject)) {
+                int device = graph.getDeviceId(subject);
+                if (device < 0) {
+                    return IterLib.noResults(execCxt);
+                }
+                return results(Stream.of(bind(binding, object, integer(topology.getComponent(device)))), execCxt);
+            }
+            if (!Var.isVar(object)) {
+                int component = intValue(object);
+                if (component < 0 || component >= topology.getComponentCount()) {
+                    return IterLib.noResults(execCxt);
+                }
+                Stream<Binding> bindings = IntStream.range(0, topology.getComponentSize(component))
+                    .mapToObj(i -> bind(binding, subject, graph.getDevice(topology.getComponentMember(component, i))));
+                return results(bindings, execCxt);
+            }
+            Stream<Binding> bindings = IntStream.range(0, graph.getDeviceCount())
+                .mapToObj(device -> bind(binding, Arrays.asList(subject, object),
+                                         graph.getDevice(device), integer(topology.getComponent(device))));
+            return results(bindings, execCxt);
+        }
+    }
+
+    /**
+     * {@code ?device fn:withinHops (k ?neighbour ?hops)}: devices at most k
+     * links from a device, including itself at 0 hops. Either the device or
+     * the neighbour must be bound.
+     */
+    public static class WithinHops extends PFuncSimpleAndList {
+
+        @Override
+        public void build(PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+            super.build(argSubject, predicate, argObject, execCxt);
+            if (argObject.getArgListSize() < 2 || argObject.getArgListSize() > 3) {
+                throw new QueryBuildException("fn:withinHops takes (k ?neighbour [?hops])");
+            }
+        }
+
+        @Override
+        public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, PropFuncArg object,
+                                           ExecutionContext execCxt) {
+            int maxHops = intValue(object.getArg(0));
+            if (maxHops < 0) {
+                throw new QueryExecException("fn:withinHops needs a non-negative integer hop count, got "
+                                             + object.getArg(0));
+            }
+            Node neighbour = object.getArg(1);
+            Node hops = object.getArgListSize() > 2 ? object.getArg(2) : null;
+            Node from;
+            Node to;
+            if (!Var.isVar(subject)) {
+                from = subject;
+                to = neighbour;
+            } else if (!Var.isVar(neighbour)) {
+                from = neighbour;
+                to = subject;
+            } else {
+                throw new QueryExecException("fn:withinHops needs a bound device or neighbour");
+            }
+
+            TopologyIndex.Snapshot topology = topology(execCxt);
+            TopologyGraph graph = topology.getGraph();
+            int device = graph.getDeviceId(from);
+            if (device < 0) {
+                return IterLib.noResults(execCxt);
+            }
+            int[] distances = new int[graph.getDeviceCount()];
+            int[] devices = topology.withinHops(device, maxHops, distances);
+            List<Node> args = hops != null ? Arrays.asList(to, hops) : Collections.singletonList(to);
+            Stream<Binding> bindings = IntStream.range(0, devices.length)
+                .mapToObj(i -> bind(binding, args, graph.getDevice(devices[i]), integer(distances[i])));
+            return results(bindings, execCxt);
+        }
+    }
+
+    /**
+     * {@code ?source fn:shortestPath (?target ?device ?position ?latency)}: the
+     * lowest-latency path between two bound devices (see {@link PathEngine}),
+     * one row per device on it with its position from 0 at the source and the
+     * total latency in ms. With only the target given, a single row if a path
+     * exists.
+     */
+    public static class ShortestPath extends PFuncSimpleAndList {
+
+        @Override
+        public void build(PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+            super.build(argSubject, predicate, argObject, execCxt);
+            if (argObject.getArgListSize() < 1 || argObject.getArgListSize() > 4) {
+                throw new QueryBuildException("fn:shortestPath takes (?target [?device [?position [?latency]]])");
+            }
+        }
+
+        @Override
+        public QueryIterator execEvaluated(Binding binding, Node subject, Node predicate, PropFuncArg object,
+                                           ExecutionContext execCxt) {
+            Node target = object.getArg(0);
+            if (Var.isVar(subject) || Var.isVar(target)) {
+                throw new QueryExecException("fn:shortestPath needs a bound source and target");
+            }
+            TopologyIndex.Snapshot topology = topology(execCxt);
+            TopologyGraph graph = topology.getGraph();
+            int from = graph.getDeviceId(subject);
+            int to = graph.getDeviceId(target);
+            PathEngine.Path path = from >= 0 && to >= 0 ? topology.getPathEngine().shortestPath(from, to) : null;
+            if (path == null) {
+                return IterLib.noResults(execCxt);
+            }
+            List<Node> args = object.getArgList().subList(1, object.getArgListSize());
+            if (args.isEmpty()) {
+                return IterLib.result(binding, execCxt);
+            }
+            int[] devices = path.getDevices();
+            Node latency = NodeValue.makeDouble(path.getLatency()).asNode();
+            Stream<Binding> bindings = IntStream.range(0, devices.length)
+                .mapToObj(i -> bind(binding, args, graph.getDevice(devices[i]), integer(i), latency));
+            return results(bindings, execCxt);
+        }
+    }
+
+    /**
+     * Topology version of the current query, pinned on first use
+     */
+    private static TopologyIndex.Snapshot topology(ExecutionContext execCxt) {
+        TopologyIndex.Snapshot snapshot = execCxt.getContext().get(SNAPSHOT_SYMBOL);
+        if (snapshot == null) {
+            TopologyIndex index = execCxt.getContext().get(TopologyIndex.SYMBOL);
+            if (index == null) {
+                index = TopologyIndex.forGraph(execCxt.getActiveGraph());
+                execCxt.getContext().set(TopologyIndex.SYMBOL, index);
+            }
+            snapshot = index.current();
+            execCxt.getContext().set(SNAPSHOT_SYMBOL, snapshot);
+        }
+        return snapshot;
+    }
+
+    private static Binding bind(Binding parent, Node arg, Node value) {
+        return bind(parent, Collections.singletonList(arg), value);
+    }
+
+    /**
+     * Extend a binding with the values of the variables among {@code args}.
+     * Constants, and variables repeated in {@code args}, must match their
+     * value; returns null otherwise.
+     */
+    private static Binding bind(Binding parent, List<Node> args, Node... values) {
+        BindingBuilder builder = BindingFactory.builder(parent);
+        for (int i = 0; i < args.size(); i++) {
+            Node arg = args.get(i);
+            if (Var.isVar(arg)) {
+                Var var = Var.alloc(arg);
+                Node bound = builder.get(var);
+                if (bound == null) {
+                    builder.add(var, values[i]);
+                } else if (!bound.sameValueAs(values[i])) {
+                    return null;
+                }
+            } else if (!arg.sameValueAs(values[i])) {
+                return null;
+            }
+        }
+        return builder.build();
+    }
+
+    private static QueryIterator results(Stream<Binding> bindings, ExecutionContext execCxt) {
+        return QueryIterPlainWrapper.create(bindings.filter(Objects::nonNull).iterator(), execCxt);
+    }
+
+    private static Node integer(int value) {
+        return NodeValue.makeInteger(value).asNode();
+    }
+
+    /**
+     * Value of an integer literal, or -1
+     */
+    private static int intValue(Node node) {
+        if (!node.isLiteral()) {
+            return -1;
+        }
+        NodeValue value = NodeValue.makeNode(node);
+        return value.isInteger() && value.getInteger().bitLength() < 32 ? value.getInteger().intValue() : -1;
+    }
+}
@@ -7,6 +7,8 @@ import org.apache.jena.reasoner.Reasoner;
 import org.apache.jena.reasoner.ReasonerRegistry;
 import org.apache.jena.reasoner.ValidityReport;
 
+import com.example.networktopology.loaders.TopologyModelRegistry;
+
 import java.util.Iterator;
 
 import static com.example.networktopology.config.NetworkTopologyConfig.*;
@@ -29,18 +31,7 @@ public class BasicReasoner {
             // Validate the model
             Reasoner reasoner = ReasonerRegistry.getOWLMicroReasoner();
             InfModel infModel = ModelFactory.createInfModel(reasoner, ontModel);
-            ValidityReport validity = infModel.validate();
-            
-            if (validity.isValid()) {
-                System.out.println("✓ Model is valid!");
-            } else {
-                System.out.println("⚠ Model validation issues:");
-                Iterator<ValidityReport.Report> reports = validity.getReports();
-                while (reports.hasNext()) {
-                    ValidityReport.Report report = reports.next();
-                    System.out.println("  - " + report.getDescription());
-                }
-            }
+            printValidity(ValidationService.forModel(infModel).validate());
             
             return infModel;
             
@@ -51,20 +42,61 @@ public class BasicReasoner {
         }
     }
     
+    /**
+     * Create a reasoning model with the topology-specific reasoner, which covers
+     * only the entailments the ontology uses and is much cheaper than OWL rules
+     */
+    public InfModel createTopologyReasoningModel(Model model) {
+        System.out.println("\n=== Loading Combined Model with Topology Reasoning ===");
+        
+        try {
+            long start = System.currentTimeMillis();
+            InfModel infModel = ModelFactory.createInfModel(new TopologyReasoner(), model);
+            infModel.prepare();
+            
+            System.out.println("✓ Topology reasoning model loaded in " + (System.currentTimeMillis() - start) + " ms!");
+            System.out.println("  Total statements with inference: " + infModel.size());
+            System.out.println("  Inferred statements: " + infModel.getDeductionsModel().size());
+            printValidity(ValidationService.forModel(infModel).validate());
+            
+            return infModel;
+            
+        } catch (Exception e) {
+            System.err.println("✗ Error creating topology reasoning model: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    private void printValidity(ValidityReport validity) {
+        if (validity.isValid()) {
+            System.out.println("✓ Model is valid!");
+        } else {
+            System.out.println("⚠ Model validation issues:");
+            Iterator<ValidityReport.Report> reports = validity.getReports();
+            while (reports.hasNext()) {
+                ValidityReport.Report report = reports.next();
+                System.out.println("  - " + report.getDescription());
+            }
+        }
+    }
+    
     /**
      * Query with inference to find network devices with inferred types
      */
     public void queryInferredDeviceTypes(InfModel infModel) {
         if (infModel == null) return;
         
-        // Query with inference
+        // Query with inference; the device classes come from the hierarchy index of
+        // the parsed ontology (built once), not from a subClassOf* path per device
+        ClassHierarchyIndex hierarchy = ClassHierarchyIndex.forOntology(
+            TopologyModelRegistry.getShared().getGraph(ONTOLOGY_TTL_RESOURCE));
         String inferenceQuery = 
             "PREFIX : <" + ONTOLOGY_NS + "> " +
             "PREFIX nt: <" + INSTANCE_NS + "> " +
-            "PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> " +
             "SELECT ?device ?type WHERE { " +
+            "  " + hierarchy.valuesClause("type", "NetworkDevice") +
             "  ?device a ?type . " +
-            "  ?type rdfs:subClassOf* :NetworkDevice . " +
             "  FILTER(?type != :NetworkDevice) " +
             "}";
         
@@ -0,0 +1,217 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Reflexive, transitive rdfs:subClassOf closure of the named classes of an
+ * ontology, so {@code ?type rdfs:subClassOf* :NetworkDevice} becomes a lookup
+ * instead of a path traversal.
+ *
+ * Classes get dense int ids (in URI order) and each class stores its
+ * ancestors and descendants as bitsets over those ids. Queries can use the
+ * index through {@link #valuesClause(String, Node)} or the
+ * {@code subClassOf} property function.
+ */
+public class ClassHierarchyIndex {
+
+    /** Indexes of ontology graphs that no longer change, dropped with their graph */
+    private static final Map<Graph, ClassHierarchyIndex> ONTOLOGY_INDEXES = new WeakHashMap<>();
+
+    private final Node[] classes;
+    private final Map<Node, Integer> ids;
+    private final BitSet[] ancestors;
+    private final BitSet[] descendants;
+
+    private ClassHierarchyIndex(Node[] classes, Map<Node, Integer> ids, BitSet[] ancestors, BitSet[] descendants) {
+        this.classes = classes;
+        this.ids = ids;
+        this.ancestors = ancestors;
+        this.descendants = descendants;
+    }
+
+    public static ClassHierarchyIndex build(Model model) {
+        return build(model.getGraph());
+    }
+
+    /**
+     * Shared index of an ontology graph, built on first use. The graph must not
+     * change afterwards (e.g. a registry graph; a reload yields a new graph).
+     */
+    public static ClassHierarchyIndex forOntology(Graph ontology) {
+        synchronized (ONTOLOGY_INDEXES) {
+            return ONTOLOGY_INDEXES.computeIfAbsent(ontology, ClassHierarchyIndex::build);
+        }
+    }
+
+    /**
+     * Index the named classes of a graph: URI subjects and objects of
+     * rdfs:subClassOf and URIs typed owl:Class or rdfs:Class
+     */
+    public static ClassHierarchyIndex build(Graph graph) {
+        List<Triple> axioms = new ArrayList<>();
+        TreeSet<String> uris = new TreeSet<>();
+        graph.find(Node.ANY, RDFS.subClassOf.asNode(), Node.ANY).forEachRemaining(t -> {
+            if (t.getSubject().isURI() && t.getObject().isURI()) {
+                axioms.add(t);
+                uris.add(t.getSubject().getURI());
+                uris.add(t.getObject().getURI());
+            }
+        });
+        for (Node type : new Node[] { OWL.Class.asNode(), RDFS.Class.asNode() }) {
+            graph.find(Node.ANY, RDF.type.asNode(), type).forEachRemaining(t -> {
+                if (t.getSubject().isURI()) {
+                    uris.add(t.getSubject().getURI());
+                }
+            });
+        }
+
+        int size = uris.size();
+        Node[] classes = new Node[size];
+        Map<Node, Integer> ids = new HashMap<>(size * 2);
+        BitSet[] ancestors = new BitSet[size];
+        for (String uri : uris) {
+            int id = ids.size();
+            classes[id] = NodeFactory.createURI(uri);
+            ids.put(classes[id], id);
+            ancestors[id] = new BitSet(size);
+            ancestors[id].set(id);
+        }
+
+        // Propagate parents' ancestors down until nothing changes (the depth of the hierarchy)
+        int[] children = new int[axioms.size()];
+        int[] parents = new int[axioms.size()];
+        for (int i = 0; i < axioms.size(); i++) {
+            children[i] = ids.get(axioms.get(i).getSubject());
+            parents[i] = ids.get(axioms.get(i).getObject());
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < children.length; i++) {
+                BitSet inherited = ancestors[children[i]];
+                int before = inherited.cardinality();
+                inherited.or(ancestors[parents[i]]);
+                changed |= inherited.cardinality() != before;
+            }
+        }
+
+        BitSet[] descendants = new BitSet[size];
+        for (int id = 0; id < size; id++) {
+            descendants[id] = new BitSet(size);
+        }
+        for (int id = 0; id < size; id++) {
+            for (int ancestor = ancestors[id].nextSetBit(0); ancestor >= 0; ancestor = ancestors[id].nextSetBit(ancestor + 1)) {
+                descendants[ancestor].set(id);
+            }
+        }
+        return new ClassHierarchyIndex(classes, ids, ancestors, descendants);
+    }
+
+    /**
+     * Number of indexed classes
+     */
+    public int size() {
+        return classes.length;
+    }
+
+    /**
+     * Id of a class, or -1 if it is not indexed
+     */
+    public int idOf(Node cls) {
+        Integer id = ids.get(cls);
+        return id != null ? id : -1;
+    }
+
+    public Node classOf(int id) {
+        return classes[id];
+    }
+
+    /**
+     * Whether {@code sub rdfs:subClassOf* sup} holds (every class is a subclass of itself)
+     */
+    public boolean isSubClassOf(Node sub, Node sup) {
+        int subId = idOf(sub);
+        int supId = idOf(sup);
+        if (subId < 0 || supId < 0) {
+            return sub.equals(sup);
+        }
+        return ancestors[subId].get(supId);
+    }
+
+    /**
+     * Ids of the class and all its superclasses (a copy; empty if not indexed)
+     */
+    public BitSet getAncestors(Node cls) {
+        int id = idOf(cls);
+        return id < 0 ? new BitSet() : (BitSet) ancestors[id].clone();
+    }
+
+    /**
+     * Ids of the class and all its subclasses (a copy; empty if not indexed)
+     */
+    public BitSet getDescendants(Node cls) {
+        int id = idOf(cls);
+        return id < 0 ? new BitSet() : (BitSet) descendants[id].clone();
+    }
+
+    /**
+     * The class and its superclasses, in id order
+     */
+    public List<Node> superClassesOf(Node cls) {
+        int id = idOf(cls);
+        return id < 0 ? Collections.singletonList(cls) : toClasses(ancestors[id]);
+    }
+
+    /**
+     * The class and its subclasses, in id order
+     */
+    public List<Node> subClassesOf(Node cls) {
+        int id = idOf(cls);
+        return id < 0 ? Collections.singletonList(cls) : toClasses(descendants[id]);
+    }
+
+    /**
+     * SPARQL VALUES block binding the variable to the class and its subclasses,
+     * a drop-in replacement for {@code ?variable rdfs:subClassOf* <cls>}
+     */
+    public String valuesClause(String variable, Node cls) {
+        StringBuilder values = new StringBuilder("VALUES ?").append(variable).append(" {");
+        for (Node sub : subClassesOf(cls)) {
+            values.append(" <").append(sub.getURI()).append('>');
+        }
+        return values.append(" } ").toString();
+    }
+
+    /**
+     * {@link #valuesClause(String, Node)} for a class of the network topology ontology
+     */
+    public String valuesClause(String variable, String ontologyClass) {
+        return valuesClause(variable, NodeFactory.createURI(ONTOLOGY_NS + ontologyClass));
+    }
+
+    private List<Node> toClasses(BitSet bits) {
+        List<Node> result = new ArrayList<>(bits.cardinality());
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            result.add(classes[id]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,486 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.InfModel;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.reasoner.Reasoner;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.system.Txn;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import com.example.networktopology.reasoning.TopologyInfGraph.DeductionChange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Computes the inference closure of a dataset once and stores the entailed
+ * triples in a dedicated named graph ({@code INFERRED_GRAPH_URI}).
+ *
+ * Queries then see the entailments at plain-store speed without a reasoner.
+ * The closure is computed in memory over a copy of every other named graph
+ * and the inferred graph is replaced in a single WRITE transaction, so readers
+ * see either the old or the new closure. Trivial entailments (reflexive
+ * subclass/equivalence axioms, {@code rdf:type rdfs:Resource}, blank nodes
+ * introduced by the reasoner) are not stored.
+ *
+ * With the {@link TopologyReasoner} the closure is kept in memory after
+ * materializing, and {@link #submitDelta} updates the inferred graph with just
+ * the deductions a change adds or removes.
+ *
+ * Deltas are applied in order on the materializer's own update thread, so
+ * submitting one never waits. Closures are computed on a separate refresh
+ * thread; the update thread only installs a finished closure and then replays
+ * the deltas that arrived while it was being computed.
+ *
+ * Memory: the copy of the source graphs and the reasoner's closure are both
+ * held on the heap, so materializing needs several times the size of the
+ * asserted data. Leave materialization off for stores that do not fit.
+ */
+public class InferenceMaterializer {
+
+    private static final Set<Node> REFLEXIVE_AXIOMS = new HashSet<>(Arrays.asList(
+        RDFS.subClassOf.asNode(), RDFS.subPropertyOf.asNode(), OWL.equivalentClass.asNode(),
+        OWL.equivalentProperty.asNode(), OWL.sameAs.asNode()));
+
+    private final Dataset dataset;
+    private final Reasoner reasoner;
+    private final Node inferredGraph = NodeFactory.createURI(INFERRED_GRAPH_URI);
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> pendingRefresh;
+    private ExecutorService updates;
+    private volatile Thread updateThread;
+    private volatile boolean stale;
+    private boolean closed;
+
+    // Only used on the update thread
+    private TopologyInfGraph liveGraph;
+    private List<Delta> sinceCopy;
+    private long storedTriples;
+
+    /**
+     * Materializer using the {@link TopologyReasoner}
+     */
+    public InferenceMaterializer(Dataset dataset) {
+        this(dataset, new TopologyReasoner());
+    }
+
+    public InferenceMaterializer(Dataset dataset, Reasoner reasoner) {
+        this.dataset = dataset;
+        this.reasoner = reasoner;
+    }
+
+    /**
+     * Recompute the closure of all source graphs and replace the inferred graph
+     *
+     * @return number of inferred triples stored
+     */
+    public long materialize() {
+        System.out.println("Materializing inferred triples into <" + INFERRED_GRAPH_URI + ">...");
+        return recompute(true);
+    }
+
+    /**
+     * Compute the closure on the refresh thread, so that deltas to an already
+     * current graph apply incrementally. The inferred graph is only corrected
+     * where it differs from the closure, e.g. after a crash before a delta's
+     * deductions were written.
+     *
+     * @param onLoaded receives the number of inferred triples stored
+     */
+    public synchronized void loadClosureInBackground(LongConsumer onLoaded) {
+        scheduler().execute(() -> {
+            try {
+                onLoaded.accept(recompute(false));
+            } catch (RuntimeException e) {
+                System.err.println("✗ Error loading inference closure: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Hand a committed delta to the update thread and return at once. Deltas
+     * are applied in the order they are submitted.
+     *
+     * @param onApplied called on the update thread with the number of inferred
+     *        triples now stored, or -1 if there is no incremental state (not
+     *        materialized yet, not a TopologyReasoner, or the store was written
+     *        outside the deltas). Not called for a delta that arrives while a
+     *        closure is computed; it is replayed onto that closure instead.
+     */
+    public synchronized void submitDelta(List<Quad> added, List<Quad> removed, LongConsumer onApplied) {
+        if (closed) {
+            return;
+        }
+        Delta delta = new Delta(added, removed);
+        updates().execute(() -> {
+            try {
+                if (sinceCopy != null && reasoner instanceof TopologyReasoner) {
+                    // The closure being computed may have been copied before this delta
+                    sinceCopy.add(delta);
+                    return;
+                }
+                onApplied.accept(applyDelta(delta));
+            } catch (RuntimeException e) {
+                System.err.println("✗ Error updating inferred graph: " + e.getMessage());
+                stale = true;
+                onApplied.accept(-1);
+            }
+        });
+    }
+
+    /**
+     * Record that the store was written without a delta (SPARQL Update, Graph
+     * Store Protocol); the in-memory closure no longer matches it, so deltas
+     * stop applying incrementally until the closure is recomputed
+     */
+    public void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Whether the caller runs on the update thread, i.e. inside a write made
+     * by this materializer
+     */
+    public boolean isWriterThread() {
+        return Thread.currentThread() == updateThread;
+    }
+
+    /**
+     * Compute the closure without holding up the update thread, then install
+     * it there and replay the deltas that arrived meanwhile
+     *
+     * @param rewrite replace the inferred graph rather than correct it
+     * @return number of inferred triples stored
+     */
+    private long recompute(boolean rewrite) {
+        await(updates().submit(() -> {
+            // Deltas processed from here on may postdate the copy
+            liveGraph = null;
+            sinceCopy = new ArrayList<>();
+            // Writes committed from here on are seen by the copy or mark it stale again
+            stale = false;
+        }));
+        long start = System.currentTimeMillis();
+        Closure closure = computeClosure();
+        long reasoned = System.currentTimeMillis();
+        return await(updates().submit(() -> {
+            List<Delta> missed = sinceCopy;
+            sinceCopy = null;
+            if (rewrite) {
+                replaceInferredGraph(closure.inferred);
+                System.out.println("✓ Materialized " + storedTriples + " inferred triples (reasoning " +
+                                   (reasoned - start) + " ms, write " + (System.currentTimeMillis() - reasoned) + " ms)");
+            } else {
+                reconcileInferredGraph(closure.inferred);
+                System.out.println("✓ Loaded inference closure for incremental updates (" + storedTriples +
+                                   " inferred triples, " + (reasoned - start) + " ms)");
+            }
+            liveGraph = closure.graph;
+            if (!missed.isEmpty()) {
+                System.out.println("  Replaying " + missed.size() + " delta(s) committed while reasoning");
+                for (Delta delta : missed) {
+                    applyDelta(delta);
+                }
+            }
+            return storedTriples;
+        }));
+    }
+
+    /**
+     * Closure of all source graphs minus the asserted and trivial triples.
+     * Keeps the inference graph for incremental updates if the reasoner supports them.
+     * Reads the store but touches no state of the materializer.
+     */
+    private Closure computeClosure() {
+        DatasetGraph dsg = dataset.asDatasetGraph();
+
+        // Copy the asserted triples so the reasoner does not run against the store
+        Graph base = GraphFactory.createDefaultGraph();
+        Txn.executeRead(dsg, () -> {
+            Iterator<Node> names = dsg.listGraphNodes();
+            while (names.hasNext()) {
+                Node name = names.next();
+                if (!name.equals(inferredGraph)) {
+                    dsg.getGraph(name).find().forEachRemaining(base::add);
+                }
+            }
+        });
+
+        InfModel infModel = ModelFactory.createInfModel(reasoner, ModelFactory.createModelForGraph(base));
+        List<Triple> inferred = new ArrayList<>();
+        ExtendedIterator<Triple> closure = infModel.getGraph().find();
+        try {
+            while (closure.hasNext()) {
+                Triple triple = closure.next();
+                if (isStored(triple, base)) {
+                    inferred.add(triple);
+                }
+            }
+        } finally {
+            closure.close();
+        }
+        Graph graph = infModel.getGraph();
+        return new Closure(graph instanceof TopologyInfGraph ? (TopologyInfGraph) graph : null, inferred);
+    }
+
+    /**
+     * Update the in-memory closure and the inferred graph for a committed delta.
+     * A removed triple stays asserted while another source graph still holds it.
+     * Runs on the update thread; replaying a delta the closure already holds
+     * changes nothing.
+     *
+     * @return number of inferred triples now stored, or -1 if there is no
+     *         incremental state
+     */
+    private long applyDelta(Delta delta) {
+        if (liveGraph == null || stale) {
+            return -1;
+        }
+        long start = System.nanoTime();
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        List<Triple> additions = new ArrayList<>();
+        List<Triple> removals = new ArrayList<>();
+        for (Quad quad : delta.added) {
+            if (!inferredGraph.equals(quad.getGraph())) {
+                additions.add(quad.asTriple());
+            }
+        }
+        Txn.executeRead(dsg, () -> {
+            for (Quad quad : delta.removed) {
+                if (!inferredGraph.equals(quad.getGraph()) && !isInSourceGraph(dsg, quad.asTriple())) {
+                    removals.add(quad.asTriple());
+                }
+            }
+        });
+
+        DeductionChange change = liveGraph.update(additions, removals);
+        Graph raw = liveGraph.getRawGraph();
+        if (change == null) {
+            // Schema changed; the deductions were recomputed from scratch
+            List<Triple> inferred = new ArrayList<>();
+            liveGraph.getDeductionsGraph().find().forEachRemaining(triple -> {
+                if (isStored(triple, raw)) {
+                    inferred.add(triple);
+                }
+            });
+            replaceInferredGraph(inferred);
+            System.out.println("✓ Schema changed, rewrote " + inferred.size() + " inferred triples");
+            return storedTriples;
+        }
+        if (change.isEmpty()) {
+            return storedTriples;
+        }
+
+        Txn.executeWrite(dsg, () -> {
+            Graph target = dsg.getGraph(inferredGraph);
+            for (Triple triple : change.getRemoved()) {
+                if (target.contains(triple)) {
+                    target.delete(triple);
+                    storedTriples--;
+                }
+            }
+            for (Triple triple : change.getAdded()) {
+                if (isStored(triple, raw) && !target.contains(triple)) {
+                    target.add(triple);
+                    storedTriples++;
+                }
+            }
+        });
+        System.out.println("✓ Inferred graph updated: +" + change.getAdded().size() + " -" + change.getRemoved().size() +
+                           " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        return storedTriples;
+    }
+
+    /**
+     * Refresh the inferred graph once no further request has arrived for the
+     * quiet period, so a burst of deltas causes a single recomputation
+     */
+    public synchronized void refreshAfterQuietPeriod(long quietMillis, LongConsumer onRefreshed) {
+        if (closed) {
+            return;
+        }
+        if (pendingRefresh != null) {
+            pendingRefresh.cancel(false);
+        }
+        pendingRefresh = scheduler().schedule(() -> {
+            try {
+                onRefreshed.accept(materialize());
+            } catch (RuntimeException e) {
+                System.err.println("✗ Error refreshing inferred graph: " + e.getMessage());
+            }
+        }, quietMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop both threads; a refresh already running and the deltas already
+     * submitted complete first, a refresh still waiting for its quiet period
+     * is dropped
+     */
+    public void shutdown() {
+        ScheduledExecutorService refresh;
+        ExecutorService update;
+        synchronized (this) {
+            closed = true;
+            if (pendingRefresh != null) {
+                pendingRefresh.cancel(false);
+            }
+            refresh = scheduler;
+            update = updates;
+        }
+        // Not under the monitor: a running refresh still needs the update thread
+        for (ExecutorService executor : new ExecutorService[] { refresh, update }) {
+            if (executor != null) {
+                executor.shutdown();
+                try {
+                    executor.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private synchronized ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "inference-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    private synchronized ExecutorService updates() {
+        if (updates == null) {
+            updates = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "inference-updates");
+                thread.setDaemon(true);
+                updateThread = thread;
+                return thread;
+            });
+        }
+        return updates;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while updating the inferred graph", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                                                           : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void replaceInferredGraph(List<Triple> inferred) {
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        Txn.executeWrite(dsg, () -> {
+            dsg.removeGraph(inferredGraph);
+            Graph target = dsg.getGraph(inferredGraph);
+            inferred.forEach(target::add);
+            // A generic reasoner may list a triple more than once
+            storedTriples = target.size();
+        });
+    }
+
+    /**
+     * Bring the inferred graph in line with a closure, writing only the triples
+     * that differ
+     */
+    private void reconcileInferredGraph(List<Triple> inferred) {
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        Set<Triple> missing = new HashSet<>(inferred);
+        long expected = missing.size();
+        List<Triple> extra = new ArrayList<>();
+        Txn.executeRead(dsg, () -> dsg.getGraph(inferredGraph).find().forEachRemaining(triple -> {
+            if (!missing.remove(triple)) {
+                extra.add(triple);
+            }
+        }));
+        if (!missing.isEmpty() || !extra.isEmpty()) {
+            Txn.executeWrite(dsg, () -> {
+                Graph target = dsg.getGraph(inferredGraph);
+                extra.forEach(target::delete);
+                missing.forEach(target::add);
+            });
+            System.out.println("⚠ Inferred graph did not match the store; corrected +" + missing.size() +
+                               " -" + extra.size() + " triples");
+        }
+        storedTriples = expected;
+    }
+
+    private boolean isInSourceGraph(DatasetGraph dsg, Triple triple) {
+        Iterator<Quad> quads = dsg.find(Node.ANY, triple.getSubject(), triple.getPredicate(), triple.getObject());
+        while (quads.hasNext()) {
+            if (!inferredGraph.equals(quads.next().getGraph())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a triple of the closure belongs in the inferred graph: worth
+     * storing and not asserted in the source data
+     */
+    private static boolean isStored(Triple triple, Graph asserted) {
+        return isWorthStoring(triple) && !asserted.contains(triple);
+    }
+
+    private static boolean isWorthStoring(Triple triple) {
+        if (triple.getSubject().isBlank() || triple.getObject().isBlank()) {
+            return false;
+        }
+        if (triple.getSubject().equals(triple.getObject()) && REFLEXIVE_AXIOMS.contains(triple.getPredicate())) {
+            return false;
+        }
+        return !(triple.getPredicate().equals(RDF.type.asNode()) && triple.getObject().equals(RDFS.Resource.asNode()));
+    }
+
+    private static final class Delta {
+        final List<Quad> added;
+        final List<Quad> removed;
+
+        Delta(List<Quad> added, List<Quad> removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+    }
+
+    private static final class Closure {
+        final TopologyInfGraph graph;
+        final List<Triple> inferred;
+
+        Closure(TopologyInfGraph graph, List<Triple> inferred) {
+            this.graph = graph;
+            this.inferred = inferred;
+        }
+    }
+}
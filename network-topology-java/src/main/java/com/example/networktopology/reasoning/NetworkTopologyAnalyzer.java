@@ -1,63 +1,153 @@
 package com.example.networktopology.reasoning;
 
+import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.*;
 import org.apache.jena.query.*;
 
+import com.example.networktopology.topology.ConnectivityTracker;
+import com.example.networktopology.topology.FailureSimulator;
+import com.example.networktopology.topology.FailureSimulator.Failure;
+import com.example.networktopology.topology.FailureSimulator.Impact;
+import com.example.networktopology.topology.NetworkFunction;
+import com.example.networktopology.topology.PathRedundancy;
+import com.example.networktopology.topology.PathRedundancy.Demand;
+import com.example.networktopology.topology.PathRedundancy.Result;
+import com.example.networktopology.topology.TopologyGraph;
+import com.example.networktopology.topology.ZoneConnectivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import static com.example.networktopology.config.NetworkTopologyConfig.*;
 
 /**
- * Advanced network topology analysis using SPARQL queries
+ * Advanced network topology analysis using SPARQL queries and graph
+ * algorithms over the compiled {@link TopologyGraph}
  */
 public class NetworkTopologyAnalyzer {
     
+    private static final int MAX_LISTED = 10;
+    
+    private final ForkJoinPool pool;
+    
+    /**
+     * Constructor running the graph algorithms on the common pool
+     */
+    public NetworkTopologyAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+    
     /**
-     * Detect redundant paths in the network topology
+     * Constructor with the pool that runs the graph algorithms
+     */
+    public NetworkTopologyAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    /**
+     * Detect redundant paths for the critical 5G demands: the number of
+     * link-disjoint and device-disjoint paths from every gNodeB to the UPFs,
+     * and from every edge server to the core control plane (AMF/SMF)
      */
     public void detectRedundantPaths(InfModel infModel) {
         System.out.println("\n  🔍 Detecting Redundant Paths:");
         
         try {
-            String redundantPathQuery = 
-                "PREFIX : <" + ONTOLOGY_NS + "> " +
-                "PREFIX nt: <" + INSTANCE_NS + "> " +
-                "SELECT ?device1 ?device2 (COUNT(?path) AS ?pathCount) WHERE { " +
-                "  ?device1 :connectedTo ?device2 . " +
-                "  ?device1 :hasInterface ?int1 . " +
-                "  ?device2 :hasInterface ?int2 . " +
-                "  ?link :connectsInterface ?int1, ?int2 . " +
-                "  BIND(?link AS ?path) " +
-                "} GROUP BY ?device1 ?device2 " +
-                "HAVING (COUNT(?path) > 1)";
+            long start = System.currentTimeMillis();
+            TopologyGraph topology = TopologyGraph.fromModel(infModel);
+            PathRedundancy redundancy = new PathRedundancy(topology);
             
-            Query query = QueryFactory.create(redundantPathQuery);
-            QueryExecution qexec = QueryExecutionFactory.create(query, infModel);
+            int[] upfs = devices(topology, NetworkFunction.UPF);
+            int[] controlPlane = devices(topology, NetworkFunction.AMF, NetworkFunction.SMF);
+            List<Result> radio = redundancy.evaluate(
+                demands(devices(topology, NetworkFunction.GNODEB), upfs), PathRedundancy.UNLIMITED, pool);
+            List<Result> edge = redundancy.evaluate(
+                demands(devices(topology, NetworkFunction.EDGE_SERVER), controlPlane), PathRedundancy.UNLIMITED, pool);
+            long millis = System.currentTimeMillis() - start;
             
-            ResultSet results = qexec.execSelect();
-            boolean foundRedundant = false;
-            while (results.hasNext()) {
-                foundRedundant = true;
-                QuerySolution soln = results.nextSolution();
-                Resource device1 = soln.getResource("device1");
-                Resource device2 = soln.getResource("device2");
-                Literal pathCount = soln.getLiteral("pathCount");
-                System.out.println("    ⚠️ Redundant paths found between " + 
-                                 device1.getLocalName() + " and " + device2.getLocalName() + 
-                                 " (" + pathCount.getInt() + " paths)");
+            boolean redundant = reportRedundancy(topology, "gNodeB → UPF", radio, upfs.length);
+            redundant &= reportRedundancy(topology, "EdgeServer → core (AMF/SMF)", edge, controlPlane.length);
+            if (redundant) {
+                System.out.println("    ✅ All critical paths are redundant");
             }
-            if (!foundRedundant) {
-                System.out.println("    ✅ No redundant paths detected");
-            }
-            qexec.close();
+            System.out.println("    Evaluated " + (radio.size() + edge.size()) + " demands in " + millis + " ms (" +
+                             pool.getParallelism() + " threads)");
             
         } catch (Exception e) {
             System.err.println("    ✗ Error detecting redundant paths: " + e.getMessage());
         }
     }
     
+    /**
+     * Print the path counts of one group of demands; true if every source has
+     * at least two device-disjoint paths
+     */
+    private boolean reportRedundancy(TopologyGraph topology, String group, List<Result> results, int targets) {
+        if (results.isEmpty() || targets == 0) {
+            return true;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        List<Result> single = new ArrayList<>();
+        for (Result result : results) {
+            min = Math.min(min, result.getNodeDisjointPaths());
+            max = Math.max(max, result.getNodeDisjointPaths());
+            if (result.getNodeDisjointPaths() < 2) {
+                single.add(result);
+            }
+        }
+        System.out.println("    " + group + ": " + results.size() + " sources, " + targets + " targets, " +
+                         min + "-" + max + " device-disjoint paths");
+        for (int i = 0; i < single.size() && i < MAX_LISTED; i++) {
+            Result result = single.get(i);
+            System.out.println("      ⚠️ " + topology.getDevice(result.getSource()).getLocalName() + ": " +
+                             result.getNodeDisjointPaths() + " device-disjoint, " +
+                             result.getEdgeDisjointPaths() + " link-disjoint path(s)");
+        }
+        if (single.size() > MAX_LISTED) {
+            System.out.println("      ... and " + (single.size() - MAX_LISTED) + " more without redundancy");
+        }
+        return single.isEmpty();
+    }
+    
+    /**
+     * Devices providing any of the functions (subclasses of the device
+     * classes included, see {@link NetworkFunction#classify})
+     */
+    private static int[] devices(TopologyGraph topology, NetworkFunction... functions) {
+        List<NetworkFunction> wanted = Arrays.asList(functions);
+        int[] found = new int[topology.getDeviceCount()];
+        int count = 0;
+        for (int v = 0; v < topology.getDeviceCount(); v++) {
+            if (wanted.contains(topology.getFunction(v))) {
+                found[count++] = v;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+    
+    private static List<Demand> demands(int[] sources, int[] targets) {
+        List<Demand> demands = new ArrayList<>(sources.length);
+        for (int source : sources) {
+            demands.add(new Demand(source, targets));
+        }
+        return demands;
+    }
+    
     /**
      * Analyze unsupported topology configurations
      */
     public void analyzeUnsupportedTopologies(InfModel infModel) {
+        analyzeUnsupportedTopologies(infModel, null);
+    }
+    
+    /**
+     * Analyze unsupported topology configurations, taking isolated devices and
+     * islands from a live connectivity tracker (built from the model if null)
+     */
+    public void analyzeUnsupportedTopologies(InfModel infModel, ConnectivityTracker connectivity) {
         System.out.println("\n  🔍 Analyzing Unsupported Topologies:");
         
         try {
@@ -82,33 +172,46 @@ public class NetworkTopologyAnalyzer {
                 System.out.println("    ⚠️ Device without interfaces: " + device.getLocalName());
             }
             
-            // Check for isolated devices (no connections)
-            String isolatedDevicesQuery = 
-                "PREFIX : <" + ONTOLOGY_NS + "> " +
-                "PREFIX nt: <" + INSTANCE_NS + "> " +
-                "SELECT ?device WHERE { " +
-                "  ?device a :NetworkDevice . " +
-                "  FILTER NOT EXISTS { ?device :connectedTo ?other } " +
-                "  FILTER NOT EXISTS { ?other :connectedTo ?device } " +
-                "}";
-            
-            Query isolatedQuery = QueryFactory.create(isolatedDevicesQuery);
-            QueryExecution isolatedQexec = QueryExecutionFactory.create(isolatedQuery, infModel);
+            // Check for isolated devices (no connections) and islands cut off from the main network
+            if (connectivity == null) {
+                connectivity = ConnectivityTracker.fromModel(infModel);
+            }
+            List<Node> isolated = connectivity.getIsolatedDevices();
+            for (int i = 0; i < isolated.size() && i < MAX_LISTED; i++) {
+                System.out.println("    ⚠️ Isolated device (no connections): " + isolated.get(i).getLocalName());
+            }
+            if (isolated.size() > MAX_LISTED) {
+                System.out.println("    ... and " + (isolated.size() - MAX_LISTED) + " more isolated devices");
+            }
+            foundUnsupported |= !isolated.isEmpty();
             
-            ResultSet isolatedResults = isolatedQexec.execSelect();
-            while (isolatedResults.hasNext()) {
-                foundUnsupported = true;
-                QuerySolution soln = isolatedResults.nextSolution();
-                Resource device = soln.getResource("device");
-                System.out.println("    ⚠️ Isolated device (no connections): " + device.getLocalName());
+            List<List<Node>> islands = new ArrayList<>();
+            for (List<Node> island : connectivity.getIslands()) {
+                if (island.size() > 1) {
+                    islands.add(island);
+                }
             }
+            for (int i = 0; i < islands.size() && i < MAX_LISTED; i++) {
+                List<Node> island = islands.get(i);
+                StringBuilder members = new StringBuilder();
+                for (int j = 0; j < island.size() && j < MAX_LISTED; j++) {
+                    members.append(j > 0 ? ", " : "").append(island.get(j).getLocalName());
+                }
+                if (island.size() > MAX_LISTED) {
+                    members.append(", ...");
+                }
+                System.out.println("    ⚠️ Island of " + island.size() + " devices cut off from the main network: " + members);
+            }
+            if (islands.size() > MAX_LISTED) {
+                System.out.println("    ... and " + (islands.size() - MAX_LISTED) + " more islands");
+            }
+            foundUnsupported |= !islands.isEmpty();
             
             if (!foundUnsupported) {
                 System.out.println("    ✅ No unsupported topology configurations detected");
             }
             
             qexec.close();
-            isolatedQexec.close();
             
         } catch (Exception e) {
             System.err.println("    ✗ Error analyzing topologies: " + e.getMessage());
@@ -116,50 +219,166 @@ public class NetworkTopologyAnalyzer {
     }
     
     /**
-     * Find missing links between zones
+     * Find missing and underprovisioned links between zones, from the
+     * zone-by-zone quotient of the physical topology
      */
     public void findMissingZoneLinks(InfModel infModel) {
         System.out.println("\n  🔍 Finding Missing Zone Links:");
         
         try {
-            // Find zones that should be connected but aren't
-            String missingLinksQuery = 
-                "PREFIX : <" + ONTOLOGY_NS + "> " +
-                "PREFIX nt: <" + INSTANCE_NS + "> " +
-                "SELECT ?zone1 ?zone2 WHERE { " +
-                "  ?zone1 a :Zone . " +
-                "  ?zone2 a :Zone . " +
-                "  FILTER(?zone1 != ?zone2) " +
-                "  ?device1 :belongsToZone ?zone1 . " +
-                "  ?device2 :belongsToZone ?zone2 . " +
-                "  FILTER NOT EXISTS { " +
-                "    ?device1 :connectedTo ?device2 " +
-                "  } " +
-                "  FILTER NOT EXISTS { " +
-                "    ?device2 :connectedTo ?device1 " +
-                "  } " +
-                "}";
-            
-            Query query = QueryFactory.create(missingLinksQuery);
-            QueryExecution qexec = QueryExecutionFactory.create(query, infModel);
+            TopologyGraph topology = TopologyGraph.fromModel(infModel);
+            ZoneConnectivity zones = ZoneConnectivity.analyze(topology);
+            for (int[] pair : zones.getLinkedPairs()) {
+                System.out.println("    " + zoneName(topology, pair[0]) + " ↔ " + zoneName(topology, pair[1]) + ": " +
+                                 describeZoneLinks(zones, pair[0], pair[1]));
+            }
             
-            ResultSet results = qexec.execSelect();
-            boolean foundMissing = false;
-            while (results.hasNext()) {
-                foundMissing = true;
-                QuerySolution soln = results.nextSolution();
-                Resource zone1 = soln.getResource("zone1");
-                Resource zone2 = soln.getResource("zone2");
-                System.out.println("    ⚠️ No direct connection between zones: " + 
-                                 zone1.getLocalName() + " and " + zone2.getLocalName());
+            long missing = zones.getMissingPairCount();
+            for (int[] pair : zones.getMissingPairs(MAX_LISTED)) {
+                System.out.println("    ⚠️ No direct connection between zones: " +
+                                 zoneName(topology, pair[0]) + " and " + zoneName(topology, pair[1]));
+            }
+            if (missing > MAX_LISTED) {
+                System.out.println("    ... and " + (missing - MAX_LISTED) + " more unconnected zone pairs");
+            }
+            List<int[]> underprovisioned = zones.getUnderprovisionedPairs(MIN_ZONE_LINKS, MIN_ZONE_BANDWIDTH_MBPS);
+            for (int i = 0; i < underprovisioned.size() && i < MAX_LISTED; i++) {
+                int a = underprovisioned.get(i)[0];
+                int b = underprovisioned.get(i)[1];
+                System.out.println("    ⚠️ Underprovisioned zone link: " + zoneName(topology, a) + " ↔ " +
+                                 zoneName(topology, b) + " (" + describeZoneLinks(zones, a, b) + ")");
+            }
+            if (underprovisioned.size() > MAX_LISTED) {
+                System.out.println("    ... and " + (underprovisioned.size() - MAX_LISTED) +
+                                 " more underprovisioned zone pairs");
             }
-            if (!foundMissing) {
+            if (missing == 0 && underprovisioned.isEmpty()) {
                 System.out.println("    ✅ All zones have appropriate connections");
             }
-            qexec.close();
             
         } catch (Exception e) {
             System.err.println("    ✗ Error finding missing zone links: " + e.getMessage());
         }
     }
+    
+    /**
+     * Rank the devices and sites whose failure takes down the most of the
+     * network, with the 5G functions (gNodeB, AMF/SMF/UPF, EdgeServer) lost
+     */
+    public void simulateFailures(InfModel infModel) {
+        System.out.println("\n  🔍 Simulating Failures:");
+        
+        try {
+            long start = System.currentTimeMillis();
+            TopologyGraph topology = TopologyGraph.fromModel(infModel);
+            FailureSimulator simulator = new FailureSimulator(topology);
+            List<Impact> devices = simulator.rankDevices(MAX_LISTED, pool);
+            List<Impact> sites = simulator.rankSites(MAX_LISTED, pool);
+            long millis = System.currentTimeMillis() - start;
+            
+            System.out.println("    Devices with the largest blast radius:");
+            for (Impact impact : devices) {
+                if (impact.getBlastRadius() > 1) {
+                    System.out.println("      ⚠️ " + describeFailure(topology, impact.getFailure()) + ": " +
+                                     describeImpact(impact));
+                }
+            }
+            if (devices.isEmpty() || devices.get(0).getBlastRadius() <= 1) {
+                System.out.println("      ✅ No single device failure cuts off other devices");
+            }
+            if (!sites.isEmpty()) {
+                System.out.println("    Sites with the largest blast radius:");
+                for (Impact impact : sites) {
+                    System.out.println("      " + describeFailure(topology, impact.getFailure()) + ": " +
+                                     describeImpact(impact));
+                }
+            }
+            System.out.println("    Swept " + topology.getDeviceCount() + " devices and " + topology.getSiteCount() +
+                             " sites in " + millis + " ms (" + pool.getParallelism() + " threads)");
+            
+        } catch (Exception e) {
+            System.err.println("    ✗ Error simulating failures: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * What breaks if one device, link or site goes down
+     */
+    public void simulateFailure(InfModel infModel, Resource element) {
+        System.out.println("\n  🔍 Simulating Failure of " + element.getLocalName() + ":");
+        
+        try {
+            TopologyGraph topology = TopologyGraph.fromModel(infModel);
+            Failure failure = failureOf(topology, element.asNode());
+            if (failure == null) {
+                System.out.println("    ✗ Not a device, link or site of the topology: " + element.getLocalName());
+                return;
+            }
+            Impact impact = new FailureSimulator(topology).simulate(failure);
+            System.out.println("    " + describeImpact(impact));
+            int[] unreachable = impact.getUnreachableDevices();
+            for (int i = 0; i < unreachable.length && i < MAX_LISTED; i++) {
+                System.out.println("      ⚠️ Unreachable: " + topology.getDevice(unreachable[i]).getLocalName());
+            }
+            if (unreachable.length > MAX_LISTED) {
+                System.out.println("      ... and " + (unreachable.length - MAX_LISTED) + " more unreachable devices");
+            }
+            
+        } catch (Exception e) {
+            System.err.println("    ✗ Error simulating failure: " + e.getMessage());
+        }
+    }
+    
+    private static Failure failureOf(TopologyGraph topology, Node element) {
+        if (topology.getDeviceId(element) >= 0) {
+            return Failure.device(topology.getDeviceId(element));
+        }
+        for (int site = 0; site < topology.getSiteCount(); site++) {
+            if (element.equals(topology.getSiteNode(site))) {
+                return Failure.site(site);
+            }
+        }
+        for (int edge = 0; edge < topology.getEdgeCount(); edge++) {
+            if (element.equals(topology.getLink(edge))) {
+                return Failure.link(edge);
+            }
+        }
+        return null;
+    }
+    
+    private static String describeFailure(TopologyGraph topology, Failure failure) {
+        String name = failure.describe(topology);
+        if (failure.getKind() == Failure.Kind.DEVICE && topology.getDeviceType(failure.getId()) != null) {
+            return name + " (" + topology.getDeviceType(failure.getId()).getLocalName() + ")";
+        }
+        return name;
+    }
+    
+    private static String describeImpact(Impact impact) {
+        StringBuilder description = new StringBuilder();
+        description.append(impact.getFailedDevices().length).append(" failed, ")
+                   .append(impact.getUnreachableCount()).append(" unreachable");
+        String separator = "; affects ";
+        for (NetworkFunction function : NetworkFunction.values()) {
+            if (impact.getAffectedCount(function) > 0) {
+                description.append(separator).append(impact.getAffectedCount(function)).append(' ')
+                           .append(function.getLabel());
+                separator = ", ";
+            }
+        }
+        return description.toString();
+    }
+    
+    private static String describeZoneLinks(ZoneConnectivity zones, int a, int b) {
+        int links = zones.getLinkCount(a, b);
+        String description = links + (links == 1 ? " link, " : " links, ") +
+                             String.format("%.0f Mbps", zones.getBandwidth(a, b));
+        int unknown = zones.getUnknownBandwidthCount(a, b);
+        return unknown > 0 ? description + ", " + unknown + " of unknown bandwidth" : description;
+    }
+    
+    private static String zoneName(TopologyGraph topology, int zone) {
+        Node node = topology.getZoneNode(zone);
+        return node.isURI() ? node.getLocalName() : node.toString();
+    }
 }
@@ -1,18 +1,55 @@
 package com.example.networktopology.reasoning;
 
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.*;
 import org.apache.jena.query.*;
 import org.apache.jena.reasoner.ValidityReport;
 
-import java.util.Iterator;
+import com.example.networktopology.topology.CentralityAnalyzer;
+import com.example.networktopology.topology.IpAddressIndex;
+import com.example.networktopology.topology.SinglePointsOfFailure;
+import com.example.networktopology.topology.TopologyGraph;
+import com.example.networktopology.topology.TopologyIndex;
 
-import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
- * Validates network constraints and infers network hierarchy
+ * Validates network constraints and infers network hierarchy.
+ *
+ * Constraint checks are independent tasks run concurrently on a pool: the
+ * reasoner's own validation, and the address checks, which compare every
+ * :ipAddress of the inventory through one {@link IpAddressIndex}. Results
+ * are merged in a fixed order.
  */
 public class NetworkValidator {
     
+    private static final int MAX_LISTED_DEVICES = 5;
+    private static final int MAX_LISTED_HIERARCHY = 20;
+    
+    private final ForkJoinPool pool;
+    
+    /**
+     * Constructor running the constraint checks on the common pool
+     */
+    public NetworkValidator() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Constructor with the pool that runs the constraint checks
+     */
+    public NetworkValidator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
     /**
      * Validate network constraints and rules
      */
@@ -20,43 +57,36 @@ public class NetworkValidator {
         System.out.println("\n  🔍 Validating Network Constraints:");
         
         try {
-            // Validate model consistency
-            ValidityReport validity = infModel.validate();
-            if (validity.isValid()) {
+            long start = System.currentTimeMillis();
+            List<ConstraintViolation> violations = checkNetworkConstraints(infModel);
+            long millis = System.currentTimeMillis() - start;
+            
+            // Model consistency, as reported by the reasoner
+            List<ConstraintViolation> reasonerViolations = new ArrayList<>();
+            boolean valid = true;
+            for (ConstraintViolation violation : violations) {
+                if (violation.getCheck() == Check.REASONER) {
+                    reasonerViolations.add(violation);
+                    valid &= !violation.isError();
+                }
+            }
+            if (valid) {
                 System.out.println("    ✅ All network constraints satisfied");
             } else {
                 System.out.println("    ⚠️ Network constraint violations found:");
-                Iterator<ValidityReport.Report> reports = validity.getReports();
-                while (reports.hasNext()) {
-                    ValidityReport.Report report = reports.next();
-                    System.out.println("      - " + report.getDescription());
+                for (ConstraintViolation violation : reasonerViolations) {
+                    System.out.println("      - " + violation.getDescription());
                 }
             }
             
-            // Check for devices with incompatible configurations
-            String constraintQuery = 
-                "PREFIX : <" + ONTOLOGY_NS + "> " +
-                "PREFIX nt: <" + INSTANCE_NS + "> " +
-                "SELECT ?device ?interface1 ?interface2 WHERE { " +
-                "  ?device :hasInterface ?interface1, ?interface2 . " +
-                "  ?interface1 :ipAddress ?ip1 . " +
-                "  ?interface2 :ipAddress ?ip2 . " +
-                "  FILTER(?interface1 != ?interface2 && ?ip1 = ?ip2) " +
-                "}";
-            
-            Query query = QueryFactory.create(constraintQuery);
-            QueryExecution qexec = QueryExecutionFactory.create(query, infModel);
-            
-            ResultSet results = qexec.execSelect();
-            while (results.hasNext()) {
-                QuerySolution soln = results.nextSolution();
-                Resource device = soln.getResource("device");
-                Resource int1 = soln.getResource("interface1");
-                Resource int2 = soln.getResource("interface2");
-                System.out.println("    ⚠️ IP address conflict on device " + device.getLocalName() + 
-                                 ": " + int1.getLocalName() + " and " + int2.getLocalName());
+            // Devices with incompatible configurations
+            for (ConstraintViolation violation : violations) {
+                if (violation.getCheck() != Check.REASONER) {
+                    System.out.println("    ⚠️ " + violation.getDescription());
+                }
             }
-            qexec.close();
+            int threads = runsConcurrently(infModel.getGraph()) ? pool.getParallelism() : 1;
+            System.out.println("    Checked in " + millis + " ms (" + threads + (threads == 1 ? " thread)" : " threads)"));
             
         } catch (Exception e) {
             System.err.println("    ✗ Error validating constraints: " + e.getMessage());
@@ -64,53 +94,148 @@ public class NetworkValidator {
     }
     
     /**
-     * Infer network hierarchy and relationships
+     * Run all constraint checks and merge their violations, ordered by check,
+     * resource and description so the result does not depend on scheduling
+     */
+    public List<ConstraintViolation> checkNetworkConstraints(InfModel infModel)
+            throws InterruptedException, ExecutionException {
+        infModel.prepare();
+        Graph graph = infModel.getGraph();
+        
+        List<Callable<List<ConstraintViolation>>> tasks = new ArrayList<>();
+        tasks.add(() -> checkReasonerValidity(infModel));
+        tasks.add(() -> checkIpAddresses(graph));
+        
+        List<ConstraintViolation> violations = new ArrayList<>();
+        if (runsConcurrently(graph)) {
+            for (Future<List<ConstraintViolation>> result : pool.invokeAll(tasks)) {
+                violations.addAll(result.get());
+            }
+        } else {
+            // Rule reasoners derive while answering finds, so read them from one thread
+            for (Callable<List<ConstraintViolation>> task : tasks) {
+                try {
+                    violations.addAll(task.call());
+                } catch (Exception e) {
+                    throw new ExecutionException(e);
+                }
+            }
+        }
+        Collections.sort(violations);
+        return violations;
+    }
+    
+    /**
+     * Finds on a prepared topology graph are plain lookups, safe for concurrent
+     * readers; rule reasoners derive while answering finds, so they get one thread
+     */
+    private static boolean runsConcurrently(Graph graph) {
+        return graph instanceof TopologyInfGraph;
+    }
+    
+    private List<ConstraintViolation> checkReasonerValidity(InfModel infModel) {
+        List<ConstraintViolation> violations = new ArrayList<>();
+        Iterator<ValidityReport.Report> reports = ValidationService.forModel(infModel).validate(pool).getReports();
+        while (reports.hasNext()) {
+            ValidityReport.Report report = reports.next();
+            Node resource = report.getExtension() instanceof Node ? (Node) report.getExtension() : null;
+            violations.add(new ConstraintViolation(Check.REASONER, resource, report.getDescription(), report.isError()));
+        }
+        return violations;
+    }
+    
+    /**
+     * Addresses held by more than one interface anywhere in the inventory,
+     * subnets nested in other subnets, and values that are not IP addresses
+     */
+    private static List<ConstraintViolation> checkIpAddresses(Graph graph) {
+        List<ConstraintViolation> violations = new ArrayList<>();
+        IpAddressIndex addresses = IpAddressIndex.fromGraph(graph);
+        for (int g = 0; g < addresses.getDuplicateCount(); g++) {
+            int[] sharing = addresses.getDuplicate(g);
+            StringBuilder holders = new StringBuilder();
+            for (int i = 0; i < sharing.length; i++) {
+                holders.append(i == 0 ? "" : i == sharing.length - 1 ? " and " : ", ")
+                       .append(describeInterface(addresses, sharing[i]));
+            }
+            violations.add(new ConstraintViolation(Check.IP_ADDRESS_CONFLICT, owner(addresses, sharing[0]),
+                "IP address conflict on " + addresses.getAddress(sharing[0]) + ": " + holders, true));
+        }
+        for (int k = 0; k < addresses.getOverlapCount(); k++) {
+            int outer = addresses.getOverlapOuter(k);
+            int inner = addresses.getOverlapInner(k);
+            violations.add(new ConstraintViolation(Check.SUBNET_OVERLAP, owner(addresses, inner),
+                "Overlapping subnets: " + addresses.getSubnet(inner) + " on " + describeInterface(addresses, inner) +
+                " lies within " + addresses.getSubnet(outer) + " on " + describeInterface(addresses, outer), false));
+        }
+        for (int entry : addresses.getMalformed()) {
+            violations.add(new ConstraintViolation(Check.MALFORMED_IP_ADDRESS, owner(addresses, entry),
+                "Malformed IP address on " + describeInterface(addresses, entry) + ": \"" +
+                addresses.getValue(entry) + "\"", false));
+        }
+        return violations;
+    }
+    
+    private static Node owner(IpAddressIndex addresses, int entry) {
+        Node device = addresses.getDevice(entry);
+        return device != null ? device : addresses.getInterface(entry);
+    }
+    
+    private static String describeInterface(IpAddressIndex addresses, int entry) {
+        Node device = addresses.getDevice(entry);
+        return localName(addresses.getInterface(entry)) + (device != null ? " (" + localName(device) + ")" : "");
+    }
+    
+    private static String localName(Node node) {
+        return node.isURI() ? node.getLocalName() : node.toString();
+    }
+    
+    /**
+     * Infer network hierarchy and relationships; the model's topology and
+     * centrality are kept until it changes
      */
     public void inferNetworkHierarchy(InfModel infModel) {
+        inferNetworkHierarchy(TopologyIndex.forModel(infModel));
+    }
+    
+    /**
+     * Infer network hierarchy and relationships from the current version of an
+     * indexed topology; centrality is computed once per version
+     */
+    public void inferNetworkHierarchy(TopologyIndex index) {
         System.out.println("\n  🔍 Inferring Network Hierarchy:");
         
         try {
-            // Find network core devices (highly connected)
-            String hierarchyQuery = 
-                "PREFIX : <" + ONTOLOGY_NS + "> " +
-                "PREFIX nt: <" + INSTANCE_NS + "> " +
-                "PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> " +
-                "SELECT ?device ?deviceType (COUNT(?connection) AS ?connectionCount) WHERE { " +
-                "  ?device a ?deviceType . " +
-                "  ?deviceType rdfs:subClassOf* :NetworkDevice . " +
-                "  ?device :connectedTo ?connection . " +
-                "} GROUP BY ?device ?deviceType " +
-                "ORDER BY DESC(?connectionCount)";
+            // Roles from degree, betweenness and k-core centrality of the physical topology
+            long start = System.currentTimeMillis();
+            TopologyIndex.Snapshot snapshot = index.current();
+            TopologyGraph topology = snapshot.getGraph();
+            CentralityAnalyzer centrality = snapshot.getCentrality(pool);
+            long millis = System.currentTimeMillis() - start;
             
-            Query query = QueryFactory.create(hierarchyQuery);
-            QueryExecution qexec = QueryExecutionFactory.create(query, infModel);
-            
-            ResultSet results = qexec.execSelect();
-            System.out.println("    📊 Network hierarchy (by connectivity):");
-            while (results.hasNext()) {
-                QuerySolution soln = results.nextSolution();
-                Resource device = soln.getResource("device");
-                Resource deviceType = soln.getResource("deviceType");
-                Literal connectionCount = soln.getLiteral("connectionCount");
-                
-                String role = "";
-                int connections = connectionCount.getInt();
-                if (connections >= 3) {
-                    role = " (Core Device)";
-                } else if (connections == 2) {
-                    role = " (Distribution Device)";
-                } else {
-                    role = " (Access Device)";
-                }
-                
-                System.out.println("      - " + device.getLocalName() + 
-                                 " (" + deviceType.getLocalName() + "): " + 
-                                 connections + " connections" + role);
+            System.out.println("    📊 Network hierarchy (by centrality):");
+            int[] ranked = centrality.rank(MAX_LISTED_HIERARCHY);
+            for (int device : ranked) {
+                Node type = topology.getDeviceType(device);
+                System.out.println("      - " + localName(topology.getDevice(device)) +
+                                 (type != null ? " (" + localName(type) + ")" : "") + ": " +
+                                 centrality.getDegree(device) + " connections, betweenness " +
+                                 String.format("%.3f", centrality.getNormalizedBetweenness(device)) + ", " +
+                                 centrality.getCoreNumber(device) + "-core (" +
+                                 centrality.getRole(device).getLabel() + " Device)");
+            }
+            if (topology.getDeviceCount() > ranked.length) {
+                System.out.println("      ... and " + (topology.getDeviceCount() - ranked.length) + " more devices");
+            }
+            System.out.println("      " + centrality + " in " + topology.getDeviceCount() + " devices (" +
+                             millis + " ms)");
+            if (!centrality.isExact()) {
+                System.out.println("      ⚠️ Betweenness is estimated from " + centrality.getSourceCount() +
+                                 " sampled devices, so Core and Distribution roles are approximate");
             }
-            qexec.close();
             
             // Infer critical path dependencies
-            analyzeCriticalPaths(infModel);
+            analyzeCriticalPaths(topology);
             
         } catch (Exception e) {
             System.err.println("    ✗ Error inferring hierarchy: " + e.getMessage());
@@ -118,42 +243,111 @@ public class NetworkValidator {
     }
     
     /**
-     * Analyze critical single points of failure
+     * Analyze critical single points of failure: devices and links whose
+     * failure disconnects part of the physical topology
      */
-    private void analyzeCriticalPaths(InfModel infModel) {
+    private void analyzeCriticalPaths(TopologyGraph topology) {
         try {
-            String criticalPathQuery = 
-                "PREFIX : <" + ONTOLOGY_NS + "> " +
-                "PREFIX nt: <" + INSTANCE_NS + "> " +
-                "SELECT ?device WHERE { " +
-                "  ?device a :Router . " +
-                "  ?device :connectedTo ?other . " +
-                "  ?other a :NetworkDevice . " +
-                "  FILTER NOT EXISTS { " +
-                "    ?other :connectedTo ?alternative . " +
-                "    FILTER(?alternative != ?device) " +
-                "  } " +
-                "}";
-            
-            Query criticalQuery = QueryFactory.create(criticalPathQuery);
-            QueryExecution criticalQexec = QueryExecutionFactory.create(criticalQuery, infModel);
+            long start = System.currentTimeMillis();
+            SinglePointsOfFailure spof = SinglePointsOfFailure.analyze(topology);
+            long millis = System.currentTimeMillis() - start;
             
-            ResultSet criticalResults = criticalQexec.execSelect();
             System.out.println("\n    ⚠️ Critical single points of failure:");
-            boolean foundCritical = false;
-            while (criticalResults.hasNext()) {
-                foundCritical = true;
-                QuerySolution soln = criticalResults.nextSolution();
-                Resource device = soln.getResource("device");
-                System.out.println("      - " + device.getLocalName() + " (no redundant paths)");
-            }
-            if (!foundCritical) {
+            if (spof.getArticulationPointCount() == 0 && spof.getBridgeCount() == 0) {
                 System.out.println("      ✅ No critical single points of failure detected");
             }
-            criticalQexec.close();
+            for (int i = 0; i < spof.getArticulationPointCount(); i++) {
+                int device = spof.getArticulationPoint(i);
+                Node type = topology.getDeviceType(device);
+                System.out.println("      - " + localName(topology.getDevice(device)) +
+                                 (type != null ? " (" + localName(type) + ")" : "") +
+                                 ": isolates " + describe(topology, spof.getIsolatedByArticulationPoint(i)));
+            }
+            for (int i = 0; i < spof.getBridgeCount(); i++) {
+                int edge = spof.getBridge(i);
+                Node link = topology.getLink(edge);
+                String ends = localName(topology.getDevice(topology.getEdgeSource(edge))) + " ↔ " +
+                              localName(topology.getDevice(topology.getEdgeTarget(edge)));
+                System.out.println("      - " + (link != null ? localName(link) + " (" + ends + ")" : ends) +
+                                 ": isolates " + describe(topology, spof.getIsolatedByBridge(i)));
+            }
+            System.out.println("      " + spof + " in " + topology.getDeviceCount() + " devices (" + millis + " ms)");
             
         } catch (Exception e) {
             System.err.println("    ✗ Error analyzing critical paths: " + e.getMessage());
         }
     }
+    
+    private static String describe(TopologyGraph topology, int[] devices) {
+        StringBuilder description = new StringBuilder();
+        description.append(devices.length).append(devices.length == 1 ? " device" : " devices");
+        int shown = Math.min(devices.length, MAX_LISTED_DEVICES);
+        for (int i = 0; i < shown; i++) {
+            description.append(i == 0 ? " (" : ", ").append(localName(topology.getDevice(devices[i])));
+        }
+        if (shown > 0) {
+            description.append(devices.length > shown ? ", ...)" : ")");
+        }
+        return description.toString();
+    }
+    
+    /**
+     * Kinds of constraint checks, in reporting order
+     */
+    public enum Check {
+        REASONER,
+        IP_ADDRESS_CONFLICT,
+        SUBNET_OVERLAP,
+        MALFORMED_IP_ADDRESS
+    }
+    
+    /**
+     * One violation found by a constraint check
+     */
+    public static class ConstraintViolation implements Comparable<ConstraintViolation> {
+        private final Check check;
+        private final Node resource;
+        private final String description;
+        private final boolean error;
+        
+        public ConstraintViolation(Check check, Node resource, String description, boolean error) {
+            this.check = check;
+            this.resource = resource;
+            this.description = description;
+            this.error = error;
+        }
+        
+        public Check getCheck() {
+            return check;
+        }
+        
+        /**
+         * The offending resource, or null if the check did not name one
+         */
+        public Node getResource() {
+            return resource;
+        }
+        
+        public String getDescription() {
+            return description;
+        }
+        
+        public boolean isError() {
+            return error;
+        }
+        
+        @Override
+        public int compareTo(ConstraintViolation other) {
+            int order = check.compareTo(other.check);
+            if (order == 0) {
+                order = String.valueOf(resource).compareTo(String.valueOf(other.resource));
+            }
+            return order != 0 ? order : description.compareTo(other.description);
+        }
+        
+        @Override
+        public String toString() {
+            return check + " " + description;
+        }
+    }
 }
@@ -0,0 +1,620 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.reasoner.BaseInfGraph;
+import org.apache.jena.reasoner.Finder;
+import org.apache.jena.reasoner.StandardValidityReport;
+import org.apache.jena.reasoner.TriplePattern;
+import org.apache.jena.reasoner.ValidityReport;
+import org.apache.jena.shared.AddDeniedException;
+import org.apache.jena.shared.DeleteDeniedException;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.graph.GraphReadOnly;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.WrappedIterator;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import com.example.networktopology.reasoning.TopologyReasoner.CardinalityRestriction;
+import com.example.networktopology.reasoning.TopologyReasoner.Schema;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inference graph of the {@link TopologyReasoner}.
+ *
+ * All entailments are computed up front into an in-memory deductions graph,
+ * so finds are plain lookups on the raw and deductions graphs. Afterwards the
+ * deductions are maintained incrementally: additions are propagated forward,
+ * deletions use delete-and-rederive (remove everything that may depend on the
+ * deleted triples, then restore what is still derivable another way). Only a
+ * change to the schema triples forces a full recomputation.
+ *
+ * Finds and validation run under a read lock and updates under a write lock,
+ * so queries may run concurrently with {@link #update}. Find results are
+ * collected while the lock is held; the returned iterators never observe an
+ * update half-way. Updates need a writable raw graph.
+ */
+public class TopologyInfGraph extends BaseInfGraph {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Schema schema;
+    private Graph deductions = GraphFactory.createDefaultGraph();
+
+    TopologyInfGraph(Graph data, TopologyReasoner reasoner) {
+        super(data, reasoner);
+    }
+
+    @Override
+    public Graph getSchemaGraph() {
+        return ((TopologyReasoner) reasoner).getSchemaGraph();
+    }
+
+    @Override
+    public void prepare() {
+        if (isPrepared()) {
+            return;
+        }
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            if (isPrepared()) {
+                return;
+            }
+            Graph schemaGraph = getSchemaGraph();
+            schema = Schema.compile(schemaGraph != null ? schemaGraph : getRawGraph());
+            deductions = GraphFactory.createDefaultGraph();
+            deriveProperties();
+            deriveTypes();
+            setPreparedState(true);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * The live deductions graph; not guarded by the lock, so callers must not
+     * read it while an update may be running
+     */
+    @Override
+    public Graph getDeductionsGraph() {
+        requirePrepared();
+        return deductions;
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findWithContinuation(TriplePattern pattern, Finder continuation) {
+        requirePrepared();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            // The continuation usually reads the raw graph, which updates write too
+            List<Triple> found = deductions.find(pattern.asTripleMatch()).toList();
+            if (continuation != null) {
+                found.addAll(continuation.find(pattern).toList());
+            }
+            return WrappedIterator.create(found.iterator());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    protected ExtendedIterator<Triple> graphBaseFind(Triple pattern) {
+        requirePrepared();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            List<Triple> found = getRawGraph().find(pattern).toList();
+            found.addAll(deductions.find(pattern).toList());
+            return WrappedIterator.create(found.iterator());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public int graphBaseSize() {
+        requirePrepared();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return getRawGraph().size() + deductions.size();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public void performAdd(Triple triple) {
+        if (getRawGraph() instanceof GraphReadOnly) {
+            throw new AddDeniedException("Raw graph of the inference graph is read-only", triple);
+        }
+        update(Collections.singletonList(triple), Collections.emptyList());
+    }
+
+    @Override
+    public void performDelete(Triple triple) {
+        if (getRawGraph() instanceof GraphReadOnly) {
+            throw new DeleteDeniedException("Raw graph of the inference graph is read-only", triple);
+        }
+        update(Collections.emptyList(), Collections.singletonList(triple));
+    }
+
+    /**
+     * Apply a batch of removals and additions to the raw data and update the
+     * deductions affected by them
+     *
+     * @return net change to the deductions, or null if a schema triple changed
+     *         and the deductions were recomputed from scratch
+     * @throws AddDeniedException if the raw graph is read-only (e.g. a registry union)
+     */
+    public DeductionChange update(Collection<Triple> additions, Collection<Triple> removals) {
+        // Checked up front: a failure half-way would leave the deductions out of step
+        if (getRawGraph() instanceof GraphReadOnly) {
+            throw new AddDeniedException("Raw graph of the inference graph is read-only");
+        }
+        requirePrepared();
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            return applyUpdate(additions, removals);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private DeductionChange applyUpdate(Collection<Triple> additions, Collection<Triple> removals) {
+        Graph raw = getRawGraph();
+        version++;
+
+        if (additions.stream().anyMatch(Schema::isSchemaTriple) || removals.stream().anyMatch(Schema::isSchemaTriple)) {
+            removals.forEach(raw::delete);
+            additions.forEach(raw::add);
+            setPreparedState(false);
+            prepare();
+            return null;
+        }
+
+        DeductionChange change = new DeductionChange();
+        Set<Triple> candidates = new HashSet<>();
+        for (Triple triple : removals) {
+            // One at a time, so rules whose premises are all removed still fire
+            if (raw.contains(triple)) {
+                raw.delete(triple);
+                overdelete(triple, candidates, change);
+            }
+        }
+        rederive(candidates, change);
+
+        List<Triple> inserted = new ArrayList<>();
+        for (Triple triple : additions) {
+            if (!raw.contains(triple)) {
+                raw.add(triple);
+                inserted.add(triple);
+                // Now asserted, so no longer a deduction
+                if (deductions.contains(triple)) {
+                    deductions.delete(triple);
+                    change.removed(triple);
+                }
+            }
+        }
+        propagate(inserted, change);
+        return change;
+    }
+
+    @Override
+    protected void discardState() {
+        deductions = GraphFactory.createDefaultGraph();
+    }
+
+    /**
+     * Check the cardinality restrictions of the schema.
+     * Too many values is an error; too few is only a warning, since under the
+     * open world assumption the missing values may simply not be loaded.
+     */
+    @Override
+    public ValidityReport validate() {
+        requirePrepared();
+        StandardValidityReport report = new StandardValidityReport();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            for (CardinalityRestriction restriction : schema.restrictions) {
+                Set<Node> instances = new HashSet<>();
+                find(Node.ANY, RDF.type.asNode(), restriction.cls).forEachRemaining(t -> instances.add(t.getSubject()));
+                for (Node instance : instances) {
+                    check(instance, restriction, report);
+                }
+            }
+        } finally {
+            read.unlock();
+        }
+        return report;
+    }
+
+    /**
+     * Check only the given resources. A resource's result depends only on the
+     * triples it is the subject of, so this matches the full report for them.
+     * Each report carries the offending resource as its extension.
+     */
+    public ValidityReport validate(Collection<Node> resources) {
+        requirePrepared();
+        StandardValidityReport report = new StandardValidityReport();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            for (Node resource : resources) {
+                Set<Node> types = objects(resource, RDF.type.asNode());
+                for (CardinalityRestriction restriction : schema.restrictions) {
+                    if (types.contains(restriction.cls)) {
+                        check(resource, restriction, report);
+                    }
+                }
+            }
+        } finally {
+            read.unlock();
+        }
+        return report;
+    }
+
+    /**
+     * Instances of the classes that carry cardinality restrictions, i.e. the
+     * resources {@link #validate()} looks at, so callers can split the work
+     */
+    public Set<Node> getConstrainedResources() {
+        requirePrepared();
+        Set<Node> resources = new HashSet<>();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            for (CardinalityRestriction restriction : schema.restrictions) {
+                find(Node.ANY, RDF.type.asNode(), restriction.cls).forEachRemaining(t -> resources.add(t.getSubject()));
+            }
+        } finally {
+            read.unlock();
+        }
+        return resources;
+    }
+
+    private void check(Node instance, CardinalityRestriction restriction, StandardValidityReport report) {
+        Set<Node> values = new HashSet<>();
+        find(instance, restriction.property, Node.ANY).forEachRemaining(t -> values.add(t.getObject()));
+        if (values.size() > restriction.max) {
+            report.add(true, "Cardinality violation",
+                label(instance) + " has " + values.size() + " values for " + label(restriction.property) +
+                " (at most " + restriction.max + " allowed for " + label(restriction.cls) + ")", instance);
+        } else if (values.size() < restriction.min) {
+            report.add(false, "Missing values",
+                label(instance) + " has " + values.size() + " values for " + label(restriction.property) +
+                " (at least " + restriction.min + " expected for " + label(restriction.cls) + ")", instance);
+        }
+    }
+
+    /**
+     * Inverse, symmetric and link-derived property triples, to a fixpoint
+     */
+    private void deriveProperties() {
+        Deque<Triple> pending = new ArrayDeque<>();
+        for (Node property : schema.chainingProperties()) {
+            getRawGraph().find(Node.ANY, property, Node.ANY).forEachRemaining(pending::add);
+        }
+        while (!pending.isEmpty()) {
+            for (Triple derived : propertyConsequences(pending.poll())) {
+                if (!isPresent(derived)) {
+                    deductions.add(derived);
+                    pending.add(derived);
+                }
+            }
+        }
+    }
+
+    /**
+     * Types from domains, ranges and asserted types, closed over subClassOf
+     */
+    private void deriveTypes() {
+        Map<Node, Set<Node>> types = new HashMap<>();
+        collectTypes(getRawGraph(), types);
+        collectTypes(deductions, types);
+        types.forEach((instance, classes) -> {
+            for (Node cls : classes) {
+                Triple triple = Triple.create(instance, RDF.type.asNode(), cls);
+                if (!getRawGraph().contains(triple)) {
+                    deductions.add(triple);
+                }
+            }
+        });
+
+        // Transitive subclass axioms between named classes
+        schema.superClasses.forEach((cls, supers) -> {
+            for (Node superClass : supers) {
+                Triple axiom = Triple.create(cls, RDFS.subClassOf.asNode(), superClass);
+                if (!cls.equals(superClass) && !getRawGraph().contains(axiom)) {
+                    deductions.add(axiom);
+                }
+            }
+        });
+    }
+
+    private void collectTypes(Graph graph, Map<Node, Set<Node>> types) {
+        Node type = RDF.type.asNode();
+        graph.find().forEachRemaining(triple -> {
+            Node property = triple.getPredicate();
+            if (property.equals(type)) {
+                if (triple.getObject().isURI()) {
+                    collectTypes(triple.getSubject(), triple.getObject(), types);
+                }
+                return;
+            }
+            for (Node cls : schema.domains.getOrDefault(property, Collections.emptySet())) {
+                collectTypes(triple.getSubject(), cls, types);
+            }
+            if (!triple.getObject().isLiteral()) {
+                for (Node cls : schema.ranges.getOrDefault(property, Collections.emptySet())) {
+                    collectTypes(triple.getObject(), cls, types);
+                }
+            }
+        });
+    }
+
+    private void collectTypes(Node instance, Node cls, Map<Node, Set<Node>> types) {
+        Set<Node> classes = types.computeIfAbsent(instance, k -> new HashSet<>());
+        if (!classes.contains(cls)) {
+            classes.addAll(schema.superClassesOf(cls));
+        }
+    }
+
+    /**
+     * Forward-chain from newly present triples, recording what gets derived
+     */
+    private void propagate(Collection<Triple> seeds, DeductionChange change) {
+        Deque<Triple> pending = new ArrayDeque<>(seeds);
+        while (!pending.isEmpty()) {
+            Triple triple = pending.poll();
+            for (Triple derived : consequences(triple)) {
+                if (!isPresent(derived)) {
+                    deductions.add(derived);
+                    change.added(derived);
+                    pending.add(derived);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove every deduction that may depend on the deleted triple, collecting
+     * both as candidates for rederivation
+     */
+    private void overdelete(Triple deleted, Set<Triple> candidates, DeductionChange change) {
+        candidates.add(deleted);
+        Deque<Triple> pending = new ArrayDeque<>();
+        pending.add(deleted);
+        while (!pending.isEmpty()) {
+            for (Triple derived : consequences(pending.poll())) {
+                if (deductions.contains(derived)) {
+                    deductions.delete(derived);
+                    change.removed(derived);
+                    candidates.add(derived);
+                    pending.add(derived);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restore the candidates that still follow in one step from what is left,
+     * then forward-chain from them to restore the rest
+     */
+    private void rederive(Set<Triple> candidates, DeductionChange change) {
+        List<Triple> restored = new ArrayList<>();
+        for (Triple triple : candidates) {
+            if (!isPresent(triple) && isDerivable(triple)) {
+                deductions.add(triple);
+                change.added(triple);
+                restored.add(triple);
+            }
+        }
+        propagate(restored, change);
+    }
+
+    private List<Triple> consequences(Triple triple) {
+        List<Triple> consequences = propertyConsequences(triple);
+        consequences.addAll(typeConsequences(triple));
+        return consequences;
+    }
+
+    /**
+     * Inverse, symmetric and link-derived triples that follow from one triple
+     * together with the current data (the triple itself need not be present)
+     */
+    private List<Triple> propertyConsequences(Triple triple) {
+        List<Triple> consequences = new ArrayList<>();
+        Node subject = triple.getSubject();
+        Node property = triple.getPredicate();
+        Node object = triple.getObject();
+        if (object.isLiteral()) {
+            return consequences;
+        }
+        for (Node inverse : schema.inversesOf(property)) {
+            consequences.add(Triple.create(object, inverse, subject));
+        }
+        if (schema.symmetric.contains(property)) {
+            consequences.add(Triple.create(object, property, subject));
+        }
+
+        if (property.equals(Schema.CONNECTS_INTERFACE)) {
+            // Devices of this interface connect to the devices at every end of the link
+            Set<Node> ends = objects(subject, Schema.CONNECTS_INTERFACE);
+            ends.add(object);
+            connect(objects(object, Schema.INTERFACE_OF), ends, consequences);
+        } else if (property.equals(Schema.INTERFACE_OF)) {
+            for (Node link : subjects(Schema.CONNECTS_INTERFACE, subject)) {
+                connect(Collections.singleton(object), objects(link, Schema.CONNECTS_INTERFACE), consequences);
+            }
+        }
+        return consequences;
+    }
+
+    private void connect(Set<Node> devices, Set<Node> ends, List<Triple> consequences) {
+        for (Node end : ends) {
+            for (Node other : objects(end, Schema.INTERFACE_OF)) {
+                for (Node device : devices) {
+                    if (!device.equals(other)) {
+                        consequences.add(Triple.create(device, Schema.CONNECTED_TO, other));
+                        consequences.add(Triple.create(other, Schema.CONNECTED_TO, device));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Types (closed over subClassOf) that one triple implies through its
+     * domain, range or rdf:type
+     */
+    private List<Triple> typeConsequences(Triple triple) {
+        List<Triple> consequences = new ArrayList<>();
+        Node property = triple.getPredicate();
+        if (property.equals(RDF.type.asNode())) {
+            if (triple.getObject().isURI()) {
+                addTypes(triple.getSubject(), triple.getObject(), consequences);
+            }
+            return consequences;
+        }
+        for (Node cls : schema.domains.getOrDefault(property, Collections.emptySet())) {
+            addTypes(triple.getSubject(), cls, consequences);
+        }
+        if (!triple.getObject().isLiteral()) {
+            for (Node cls : schema.ranges.getOrDefault(property, Collections.emptySet())) {
+                addTypes(triple.getObject(), cls, consequences);
+            }
+        }
+        return consequences;
+    }
+
+    private void addTypes(Node instance, Node cls, List<Triple> consequences) {
+        for (Node superClass : schema.superClassesOf(cls)) {
+            consequences.add(Triple.create(instance, RDF.type.asNode(), superClass));
+        }
+    }
+
+    /**
+     * Whether some rule derives the triple in one step from the present triples
+     */
+    private boolean isDerivable(Triple triple) {
+        Node subject = triple.getSubject();
+        Node property = triple.getPredicate();
+        Node object = triple.getObject();
+
+        if (property.equals(RDF.type.asNode())) {
+            for (Triple fact : lookup(subject, Node.ANY, Node.ANY)) {
+                if (!fact.equals(triple) && typeConsequences(fact).contains(triple)) {
+                    return true;
+                }
+            }
+            for (Triple fact : lookup(Node.ANY, Node.ANY, subject)) {
+                if (typeConsequences(fact).contains(triple)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        for (Node inverse : schema.inversesOf(property)) {
+            if (isPresent(Triple.create(object, inverse, subject))) {
+                return true;
+            }
+        }
+        if (schema.symmetric.contains(property) && isPresent(Triple.create(object, property, subject))) {
+            return true;
+        }
+        // A link never connects a device to itself (see connect)
+        if (property.equals(Schema.CONNECTED_TO) && !subject.equals(object)) {
+            for (Node iface : subjects(Schema.INTERFACE_OF, subject)) {
+                for (Node link : subjects(Schema.CONNECTS_INTERFACE, iface)) {
+                    for (Node end : objects(link, Schema.CONNECTS_INTERFACE)) {
+                        if (isPresent(Triple.create(end, Schema.INTERFACE_OF, object))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isPresent(Triple triple) {
+        return getRawGraph().contains(triple) || deductions.contains(triple);
+    }
+
+    private List<Triple> lookup(Node subject, Node property, Node object) {
+        List<Triple> found = getRawGraph().find(subject, property, object).toList();
+        found.addAll(deductions.find(subject, property, object).toList());
+        return found;
+    }
+
+    private Set<Node> objects(Node subject, Node property) {
+        Set<Node> objects = new HashSet<>();
+        for (Triple triple : lookup(subject, property, Node.ANY)) {
+            objects.add(triple.getObject());
+        }
+        return objects;
+    }
+
+    private Set<Node> subjects(Node property, Node object) {
+        Set<Node> subjects = new HashSet<>();
+        for (Triple triple : lookup(Node.ANY, property, object)) {
+            subjects.add(triple.getSubject());
+        }
+        return subjects;
+    }
+
+    private static String label(Node node) {
+        return node.isURI() ? node.getLocalName() : node.toString();
+    }
+
+    /**
+     * Net change to the deductions made by one update
+     */
+    public static class DeductionChange {
+        private final Set<Triple> added = new HashSet<>();
+        private final Set<Triple> removed = new HashSet<>();
+
+        void added(Triple triple) {
+            if (!removed.remove(triple)) {
+                added.add(triple);
+            }
+        }
+
+        void removed(Triple triple) {
+            if (!added.remove(triple)) {
+                removed.add(triple);
+            }
+        }
+
+        public Set<Triple> getAdded() {
+            return Collections.unmodifiableSet(added);
+        }
+
+        public Set<Triple> getRemoved() {
+            return Collections.unmodifiableSet(removed);
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+}
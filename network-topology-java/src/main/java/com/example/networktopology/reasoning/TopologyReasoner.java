@@ -0,0 +1,288 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Capabilities;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.reasoner.BaseInfGraph;
+import org.apache.jena.reasoner.IllegalParameterException;
+import org.apache.jena.reasoner.InfGraph;
+import org.apache.jena.reasoner.Reasoner;
+import org.apache.jena.reasoner.ReasonerException;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.ReasonerVocabulary;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Reasoner covering only the entailments the network topology ontology needs.
+ *
+ * Instead of general OWL rules it compiles the schema into lookup tables and
+ * derives, in hand-written Java:
+ * <ul>
+ *   <li>rdf:type closure over rdfs:subClassOf, including rdfs:domain/rdfs:range typing</li>
+ *   <li>owl:inverseOf pairs (hasInterface/interfaceOf, connectsInterface/connectedVia, ...)</li>
+ *   <li>owl:SymmetricProperty (connectedTo)</li>
+ *   <li>connectedTo between devices whose interfaces share a :connectsInterface link</li>
+ * </ul>
+ * Cardinality restrictions are checked by {@link TopologyInfGraph#validate()}.
+ * Other OWL constructs (subPropertyOf, transitivity, equivalence, sameAs) are
+ * deliberately not supported.
+ */
+public class TopologyReasoner implements Reasoner {
+
+    public static final String URI = "http://example.org/network-topology/reasoners/topology";
+
+    private final Graph schemaGraph;
+
+    public TopologyReasoner() {
+        this(null);
+    }
+
+    private TopologyReasoner(Graph schemaGraph) {
+        this.schemaGraph = schemaGraph;
+    }
+
+    /**
+     * Reasoner with the schema compiled once, so bound data need not contain the ontology
+     */
+    @Override
+    public Reasoner bindSchema(Graph tbox) throws ReasonerException {
+        return new TopologyReasoner(tbox);
+    }
+
+    @Override
+    public Reasoner bindSchema(Model tbox) throws ReasonerException {
+        return bindSchema(tbox.getGraph());
+    }
+
+    @Override
+    public InfGraph bind(Graph data) throws ReasonerException {
+        return new TopologyInfGraph(data, this);
+    }
+
+    Graph getSchemaGraph() {
+        return schemaGraph;
+    }
+
+    @Override
+    public void setDerivationLogging(boolean logOn) {
+        // Derivations are not recorded
+    }
+
+    @Override
+    public void setParameter(Property parameterUri, Object value) {
+        throw new IllegalParameterException("Parameter " + parameterUri + " is not supported");
+    }
+
+    @Override
+    public Model getReasonerCapabilities() {
+        Model capabilities = ModelFactory.createDefaultModel();
+        Resource self = capabilities.createResource(URI);
+        self.addProperty(ReasonerVocabulary.nameP, "Network topology reasoner")
+            .addProperty(ReasonerVocabulary.descriptionP,
+                         "subClassOf, domain/range, inverseOf, symmetric properties and link-derived connectedTo")
+            .addProperty(ReasonerVocabulary.supportsP, RDFS.subClassOf)
+            .addProperty(ReasonerVocabulary.supportsP, RDFS.domain)
+            .addProperty(ReasonerVocabulary.supportsP, RDFS.range)
+            .addProperty(ReasonerVocabulary.supportsP, OWL.inverseOf)
+            .addProperty(ReasonerVocabulary.supportsP, OWL.SymmetricProperty)
+            .addProperty(ReasonerVocabulary.supportsP, OWL.cardinality)
+            .addProperty(ReasonerVocabulary.supportsP, OWL.minCardinality)
+            .addProperty(ReasonerVocabulary.supportsP, OWL.maxCardinality);
+        return capabilities;
+    }
+
+    @Override
+    public void addDescription(Model configSpec, Resource base) {
+        // No configuration beyond the schema
+    }
+
+    @Override
+    public boolean supportsProperty(Property property) {
+        return getReasonerCapabilities().contains(null, ReasonerVocabulary.supportsP, property);
+    }
+
+    // Still abstract in Reasoner, so it must be implemented; there is no replacement to call instead
+    @SuppressWarnings("deprecation")
+    @Override
+    public Capabilities getGraphCapabilities() {
+        return BaseInfGraph.reasonerInfCapabilities;
+    }
+
+    /**
+     * Lookup tables compiled from the ontology
+     */
+    static class Schema {
+        static final Node CONNECTS_INTERFACE = NodeFactory.createURI(ONTOLOGY_NS + "connectsInterface");
+        static final Node INTERFACE_OF = NodeFactory.createURI(ONTOLOGY_NS + "interfaceOf");
+        static final Node CONNECTED_TO = NodeFactory.createURI(ONTOLOGY_NS + "connectedTo");
+        static final Set<Node> SCHEMA_PROPERTIES = Set.of(
+            RDFS.subClassOf.asNode(), RDFS.domain.asNode(), RDFS.range.asNode(), OWL.inverseOf.asNode(),
+            OWL.onProperty.asNode(), OWL.cardinality.asNode(), OWL.minCardinality.asNode(), OWL.maxCardinality.asNode());
+        static final Set<Node> SCHEMA_TYPES = Set.of(
+            OWL.Class.asNode(), OWL.SymmetricProperty.asNode(), OWL.Restriction.asNode());
+
+        /** Named class to itself and all its named superclasses */
+        final Map<Node, Set<Node>> superClasses = new HashMap<>();
+        final Map<Node, Set<Node>> inverses = new HashMap<>();
+        final Set<Node> symmetric = new HashSet<>();
+        final Map<Node, Set<Node>> domains = new HashMap<>();
+        final Map<Node, Set<Node>> ranges = new HashMap<>();
+        final List<CardinalityRestriction> restrictions = new ArrayList<>();
+
+        static Schema compile(Graph graph) {
+            Schema schema = new Schema();
+            Map<Node, Set<Node>> direct = new HashMap<>();
+            graph.find(Node.ANY, RDFS.subClassOf.asNode(), Node.ANY).forEachRemaining(t -> {
+                if (t.getSubject().isURI() && t.getObject().isURI()) {
+                    direct.computeIfAbsent(t.getSubject(), k -> new HashSet<>()).add(t.getObject());
+                } else if (t.getSubject().isURI() && t.getObject().isBlank()) {
+                    CardinalityRestriction restriction = CardinalityRestriction.read(graph, t.getSubject(), t.getObject());
+                    if (restriction != null) {
+                        schema.restrictions.add(restriction);
+                    }
+                }
+            });
+            graph.find(Node.ANY, RDF.type.asNode(), OWL.Class.asNode())
+                .forEachRemaining(t -> direct.computeIfAbsent(t.getSubject(), k -> new HashSet<>()));
+            for (Node cls : direct.keySet()) {
+                if (cls.isURI()) {
+                    schema.superClasses.put(cls, closure(cls, direct));
+                }
+            }
+
+            graph.find(Node.ANY, OWL.inverseOf.asNode(), Node.ANY).forEachRemaining(t -> {
+                schema.inverses.computeIfAbsent(t.getSubject(), k -> new HashSet<>()).add(t.getObject());
+                schema.inverses.computeIfAbsent(t.getObject(), k -> new HashSet<>()).add(t.getSubject());
+            });
+            graph.find(Node.ANY, RDF.type.asNode(), OWL.SymmetricProperty.asNode())
+                .forEachRemaining(t -> schema.symmetric.add(t.getSubject()));
+            graph.find(Node.ANY, RDFS.domain.asNode(), Node.ANY).forEachRemaining(t -> {
+                if (t.getObject().isURI()) {
+                    schema.domains.computeIfAbsent(t.getSubject(), k -> new HashSet<>()).add(t.getObject());
+                }
+            });
+            graph.find(Node.ANY, RDFS.range.asNode(), Node.ANY).forEachRemaining(t -> {
+                if (t.getObject().isURI()) {
+                    schema.ranges.computeIfAbsent(t.getSubject(), k -> new HashSet<>()).add(t.getObject());
+                }
+            });
+            return schema;
+        }
+
+        /**
+         * Whether the triple changes the compiled schema (class or property axioms)
+         */
+        static boolean isSchemaTriple(Triple triple) {
+            Node property = triple.getPredicate();
+            if (property.equals(RDF.type.asNode())) {
+                return SCHEMA_TYPES.contains(triple.getObject());
+            }
+            return SCHEMA_PROPERTIES.contains(property);
+        }
+
+        /**
+         * The class and its superclasses (just the class if it is not in the schema)
+         */
+        Set<Node> superClassesOf(Node cls) {
+            Set<Node> supers = superClasses.get(cls);
+            return supers != null ? supers : Collections.singleton(cls);
+        }
+
+        Set<Node> inversesOf(Node property) {
+            return inverses.getOrDefault(property, Collections.emptySet());
+        }
+
+        /**
+         * Properties whose triples can produce further property triples
+         */
+        Set<Node> chainingProperties() {
+            Set<Node> properties = new HashSet<>(inverses.keySet());
+            properties.addAll(symmetric);
+            properties.add(CONNECTS_INTERFACE);
+            properties.add(INTERFACE_OF);
+            return properties;
+        }
+
+        private static Set<Node> closure(Node cls, Map<Node, Set<Node>> direct) {
+            Set<Node> seen = new HashSet<>();
+            Deque<Node> queue = new ArrayDeque<>();
+            queue.add(cls);
+            while (!queue.isEmpty()) {
+                Node next = queue.poll();
+                if (seen.add(next)) {
+                    queue.addAll(direct.getOrDefault(next, Collections.emptySet()));
+                }
+            }
+            return seen;
+        }
+    }
+
+    /**
+     * Cardinality bounds on a property for the instances of a class
+     */
+    static class CardinalityRestriction {
+        final Node cls;
+        final Node property;
+        final int min;
+        final int max;
+
+        CardinalityRestriction(Node cls, Node property, int min, int max) {
+            this.cls = cls;
+            this.property = property;
+            this.min = min;
+            this.max = max;
+        }
+
+        static CardinalityRestriction read(Graph graph, Node cls, Node restriction) {
+            Node property = value(graph, restriction, OWL.onProperty.asNode());
+            if (property == null) {
+                return null;
+            }
+            Integer exact = intValue(graph, restriction, OWL.cardinality.asNode());
+            Integer min = intValue(graph, restriction, OWL.minCardinality.asNode());
+            Integer max = intValue(graph, restriction, OWL.maxCardinality.asNode());
+            if (exact == null && min == null && max == null) {
+                return null;
+            }
+            return new CardinalityRestriction(cls, property,
+                exact != null ? exact : min != null ? min : 0,
+                exact != null ? exact : max != null ? max : Integer.MAX_VALUE);
+        }
+
+        private static Node value(Graph graph, Node subject, Node predicate) {
+            List<Triple> found = graph.find(subject, predicate, Node.ANY).toList();
+            return found.isEmpty() ? null : found.get(0).getObject();
+        }
+
+        private static Integer intValue(Graph graph, Node subject, Node predicate) {
+            Node value = value(graph, subject, predicate);
+            if (value == null || !value.isLiteral()) {
+                return null;
+            }
+            try {
+                return Integer.parseInt(value.getLiteralLexicalForm().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
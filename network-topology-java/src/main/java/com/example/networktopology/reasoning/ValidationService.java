@@ -0,0 +1,372 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.graph.GraphListener;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.InfModel;
+import org.apache.jena.reasoner.InfGraph;
+import org.apache.jena.reasoner.StandardValidityReport;
+import org.apache.jena.reasoner.ValidityReport;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the validity report of an inference model.
+ *
+ * A graph listener bumps a generation counter on every change, so validating
+ * an unchanged model just returns the cached report. For models of the
+ * {@link TopologyReasoner} the listener also records the subjects of changed
+ * raw and inferred triples, and only those resources are re-checked; other
+ * reasoners are re-validated in full whenever their generation moves.
+ *
+ * A full validation of a topology model splits the constrained resources
+ * into chunks checked concurrently on a pool. Reports are kept ordered by
+ * resource, so the merged report does not depend on scheduling.
+ *
+ * The listeners registered on the graphs refer to the service only weakly,
+ * and the service refers to the graphs only weakly, so neither the registry
+ * entry nor a shared raw graph keeps an inference model alive. Once the model
+ * is collected or closed, its listeners are unregistered on the next call to
+ * {@link #forModel}.
+ */
+public class ValidationService {
+
+    private static final Map<InfGraph, ValidationService> SERVICES = new WeakHashMap<>();
+    private static final ReferenceQueue<ValidationService> COLLECTED = new ReferenceQueue<>();
+    private static final int MIN_CHUNK_SIZE = 512;
+    private static final Comparator<Node> RESOURCE_ORDER = Comparator.comparing(Node::toString);
+
+    /** The service only weakly refers to its graph so the registry entry can be dropped */
+    private final WeakReference<InfGraph> graph;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean fullRevalidation = new AtomicBoolean(true);
+    private final Set<Node> dirty = ConcurrentHashMap.newKeySet();
+    private final List<Watch> watched = new ArrayList<>();
+
+    private Watch watchedDeductions;
+    private long validatedGeneration = -1;
+    private Map<Node, List<ValidityReport.Report>> reportsByResource = new TreeMap<>(RESOURCE_ORDER);
+    private ValidityReport cached;
+
+    private ValidationService(InfGraph graph) {
+        this.graph = new WeakReference<>(graph);
+        if (graph instanceof TopologyInfGraph) {
+            watch(graph.getRawGraph());
+        } else {
+            watch(graph);
+            watch(graph.getRawGraph());
+        }
+    }
+
+    /**
+     * The shared validation service of an inference model, created on first use
+     */
+    public static ValidationService forModel(InfModel infModel) {
+        InfGraph infGraph = (InfGraph) infModel.getGraph();
+        synchronized (SERVICES) {
+            purge();
+            return SERVICES.computeIfAbsent(infGraph, ValidationService::new);
+        }
+    }
+
+    /**
+     * Unregister the listeners of services whose model was collected, and
+     * close the services of closed models
+     */
+    private static void purge() {
+        Reference<? extends ValidationService> collected;
+        while ((collected = COLLECTED.poll()) != null) {
+            ((Watch) collected).unregister();
+        }
+        List<ValidationService> closed = new ArrayList<>();
+        SERVICES.forEach((infGraph, service) -> {
+            if (infGraph.isClosed()) {
+                closed.add(service);
+            }
+        });
+        closed.forEach(ValidationService::close);
+    }
+
+    /**
+     * Number of changes seen since the service was created
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Validity report for the current state of the model
+     */
+    public ValidityReport validate() {
+        return validate(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Validity report for the current state of the model, using the pool for
+     * a full validation of a topology model
+     */
+    public synchronized ValidityReport validate(ForkJoinPool pool) {
+        InfGraph infGraph = graph.get();
+        if (infGraph == null || infGraph.isClosed()) {
+            // Listeners are dropped by the next forModel
+            throw new IllegalStateException("Inference model is no longer available");
+        }
+        if (infGraph instanceof TopologyInfGraph) {
+            watchDeductions(infGraph.getDeductionsGraph());
+        }
+
+        long current = generation.get();
+        if (cached != null && current == validatedGeneration) {
+            return cached;
+        }
+
+        if (!(infGraph instanceof TopologyInfGraph)) {
+            fullRevalidation.set(false);
+            cached = infGraph.validate();
+        } else if (fullRevalidation.getAndSet(false)) {
+            dirty.clear();
+            reportsByResource = group(validateInChunks((TopologyInfGraph) infGraph, pool));
+            cached = assemble();
+        } else {
+            Set<Node> resources = new HashSet<>(dirty);
+            dirty.removeAll(resources);
+            Map<Node, List<ValidityReport.Report>> revalidated =
+                group(((TopologyInfGraph) infGraph).validate(resources));
+            for (Node resource : resources) {
+                reportsByResource.remove(resource);
+                List<ValidityReport.Report> reports = revalidated.get(resource);
+                if (reports != null) {
+                    reportsByResource.put(resource, reports);
+                }
+            }
+            cached = assemble();
+        }
+        validatedGeneration = current;
+        return cached;
+    }
+
+    /**
+     * Stop tracking changes and drop the service from the registry
+     */
+    public synchronized void close() {
+        watched.forEach(Watch::unregister);
+        watched.clear();
+        watchedDeductions = null;
+        cached = null;
+        InfGraph infGraph = graph.get();
+        if (infGraph != null) {
+            synchronized (SERVICES) {
+                SERVICES.remove(infGraph);
+            }
+        }
+    }
+
+    private Watch watch(Graph g) {
+        Watch watch = new Watch(this, g);
+        g.getEventManager().register(watch);
+        watched.add(watch);
+        return watch;
+    }
+
+    /**
+     * A full prepare replaces the deductions graph, so follow it and start over
+     */
+    private void watchDeductions(Graph deductions) {
+        if (watchedDeductions != null && watchedDeductions.graph.get() == deductions) {
+            return;
+        }
+        if (watchedDeductions != null) {
+            watchedDeductions.unregister();
+            watched.remove(watchedDeductions);
+        }
+        watchedDeductions = watch(deductions);
+        fullRevalidation.set(true);
+        generation.incrementAndGet();
+    }
+
+    private static ValidityReport validateInChunks(TopologyInfGraph infGraph, ForkJoinPool pool) {
+        List<Node> resources = new ArrayList<>(infGraph.getConstrainedResources());
+        int chunks = Math.min(pool.getParallelism() * 4, resources.size() / MIN_CHUNK_SIZE);
+        if (chunks <= 1) {
+            return infGraph.validate(resources);
+        }
+
+        List<Callable<ValidityReport>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            List<Node> chunk = resources.subList(resources.size() * i / chunks, resources.size() * (i + 1) / chunks);
+            tasks.add(() -> infGraph.validate(chunk));
+        }
+        StandardValidityReport merged = new StandardValidityReport();
+        try {
+            for (Future<ValidityReport> result : pool.invokeAll(tasks)) {
+                result.get().getReports().forEachRemaining(merged::add);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Validation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Validation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return merged;
+    }
+
+    private static Map<Node, List<ValidityReport.Report>> group(ValidityReport report) {
+        Map<Node, List<ValidityReport.Report>> grouped = new TreeMap<>(RESOURCE_ORDER);
+        Iterator<ValidityReport.Report> reports = report.getReports();
+        while (reports.hasNext()) {
+            ValidityReport.Report next = reports.next();
+            Node resource = next.getExtension() instanceof Node ? (Node) next.getExtension() : Node.ANY;
+            grouped.computeIfAbsent(resource, k -> new ArrayList<>()).add(next);
+        }
+        return grouped;
+    }
+
+    private ValidityReport assemble() {
+        StandardValidityReport report = new StandardValidityReport();
+        reportsByResource.values().forEach(reports -> reports.forEach(report::add));
+        return report;
+    }
+
+    private void changed(Triple triple) {
+        dirty.add(triple.getSubject());
+        generation.incrementAndGet();
+    }
+
+    private void changed(Iterator<Triple> triples) {
+        triples.forEachRemaining(triple -> dirty.add(triple.getSubject()));
+        generation.incrementAndGet();
+    }
+
+    private void changedEverything() {
+        fullRevalidation.set(true);
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Listener on one watched graph that records the subjects of added and
+     * deleted triples. It holds both the service and the graph weakly, and
+     * unregisters itself once the service is gone.
+     */
+    private static final class Watch extends WeakReference<ValidationService> implements GraphListener {
+        final WeakReference<Graph> graph;
+
+        Watch(ValidationService service, Graph graph) {
+            super(service, COLLECTED);
+            this.graph = new WeakReference<>(graph);
+        }
+
+        void unregister() {
+            Graph g = graph.get();
+            if (g != null) {
+                g.getEventManager().unregister(this);
+            }
+        }
+
+        private ValidationService service() {
+            ValidationService service = get();
+            if (service == null) {
+                unregister();
+            }
+            return service;
+        }
+
+        private void changed(Triple t) {
+            ValidationService service = service();
+            if (service != null) {
+                service.changed(t);
+            }
+        }
+
+        private void changed(Iterator<Triple> triples) {
+            ValidationService service = service();
+            if (service != null) {
+                service.changed(triples);
+            }
+        }
+
+        private void changedEverything() {
+            ValidationService service = service();
+            if (service != null) {
+                service.changedEverything();
+            }
+        }
+
+        @Override
+        public void notifyAddTriple(Graph g, Triple t) {
+            changed(t);
+        }
+
+        @Override
+        public void notifyAddArray(Graph g, Triple[] triples) {
+            changed(List.of(triples).iterator());
+        }
+
+        @Override
+        public void notifyAddList(Graph g, List<Triple> triples) {
+            changed(triples.iterator());
+        }
+
+        @Override
+        public void notifyAddIterator(Graph g, Iterator<Triple> it) {
+            changed(it);
+        }
+
+        @Override
+        public void notifyAddGraph(Graph g, Graph added) {
+            changedEverything();
+        }
+
+        @Override
+        public void notifyDeleteTriple(Graph g, Triple t) {
+            changed(t);
+        }
+
+        @Override
+        public void notifyDeleteList(Graph g, List<Triple> triples) {
+            changed(triples.iterator());
+        }
+
+        @Override
+        public void notifyDeleteArray(Graph g, Triple[] triples) {
+            changed(List.of(triples).iterator());
+        }
+
+        @Override
+        public void notifyDeleteIterator(Graph g, Iterator<Triple> it) {
+            changed(it);
+        }
+
+        @Override
+        public void notifyDeleteGraph(Graph g, Graph removed) {
+            changedEverything();
+        }
+
+        @Override
+        public void notifyEvent(Graph source, Object value) {
+            // Bulk reads still report their triples one by one
+            if (value != GraphEvents.startRead && value != GraphEvents.finishRead) {
+                changedEverything();
+            }
+        }
+    }
+}
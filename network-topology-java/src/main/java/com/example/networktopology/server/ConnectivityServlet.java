@@ -0,0 +1,49 @@
+package com.example.networktopology.server;
+
+import com.example.networktopology.topology.ConnectivityTracker;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * HTTP endpoint reporting the connected components of the served topology.
+ *
+ * GET returns the counts held by the server's {@link ConnectivityTracker}, e.g.
+ * {@code {"devices": 13, "components": 2, "isolated": 1, "largestComponent": 12, "islandDevices": 1}}.
+ * The tracker is current with every applied delta; after a SPARQL Update or
+ * Graph Store write it is rebuilt, and the previous counts are served until then.
+ */
+public class ConnectivityServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Supplier<ConnectivityTracker> tracker;
+
+    public ConnectivityServlet(Supplier<ConnectivityTracker> tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ConnectivityTracker connectivity = tracker.get();
+        if (connectivity == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Connectivity tracker not ready");
+            return;
+        }
+        String body;
+        // One lock for all counts, so they describe the same state
+        synchronized (connectivity) {
+            body = "{\"devices\": " + connectivity.getDeviceCount() +
+                   ", \"components\": " + connectivity.getComponentCount() +
+                   ", \"isolated\": " + connectivity.getIsolatedCount() +
+                   ", \"largestComponent\": " + connectivity.getLargestComponentSize() +
+                   ", \"islandDevices\": " + connectivity.getIslandDeviceCount() + "}";
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json");
+        response.getWriter().write(body);
+    }
+}
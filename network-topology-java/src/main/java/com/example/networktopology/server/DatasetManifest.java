@@ -0,0 +1,192 @@
+package com.example.networktopology.server;
+
+import com.example.networktopology.loaders.RdfSource;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Manifest of the sources loaded into a TDB2 directory.
+ *
+ * Stored as a properties file next to the TDB2 directory (tdb-data.manifest)
+ * and records, per source, the content checksum, the triple count and the
+ * named graph the source was loaded into. The server compares it against the
+ * current sources at startup to decide what needs reloading.
+ */
+public class DatasetManifest {
+
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String CHECKSUM_KEY = ".checksum";
+    private static final String TRIPLES_KEY = ".triples";
+    private static final String GRAPH_KEY = ".graph";
+    private static final String INFERRED_FINGERPRINT_KEY = "@inferred.fingerprint";
+    private static final String INFERRED_TRIPLES_KEY = "@inferred.triples";
+
+    private final File file;
+    private final Map<String, SourceEntry> entries = new LinkedHashMap<>();
+    private final boolean existed;
+    private String inferredFingerprint;
+    private long inferredTriples;
+
+    private DatasetManifest(File file, boolean existed) {
+        this.file = file;
+        this.existed = existed;
+    }
+
+    /**
+     * Load the manifest that belongs to a TDB2 directory (empty if none exists yet)
+     */
+    public static DatasetManifest forDirectory(File tdbDirectory) throws IOException {
+        File absolute = tdbDirectory.getAbsoluteFile();
+        File file = new File(absolute.getParentFile(), absolute.getName() + MANIFEST_SUFFIX);
+        DatasetManifest manifest = new DatasetManifest(file, file.exists());
+        if (manifest.existed) {
+            manifest.read();
+        }
+        return manifest;
+    }
+
+    /**
+     * Whether the manifest was present on disk when loaded
+     */
+    public boolean existed() {
+        return existed;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public SourceEntry get(String source) {
+        return entries.get(source);
+    }
+
+    public Map<String, SourceEntry> getEntries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Whether the source is recorded with exactly this checksum
+     */
+    public boolean isUnchanged(String source, String checksum) {
+        SourceEntry entry = entries.get(source);
+        return entry != null && entry.checksum.equals(checksum);
+    }
+
+    public void put(String source, String checksum, long triples, String graph) {
+        entries.put(source, new SourceEntry(checksum, triples, graph));
+    }
+
+    public void remove(String source) {
+        entries.remove(source);
+    }
+
+    /**
+     * Fingerprint of all recorded sources (independent of their order)
+     */
+    public String getSourcesFingerprint() {
+        MessageDigest digest = RdfSource.newDigest();
+        new TreeMap<>(entries).forEach((source, entry) ->
+            digest.update((source + '=' + entry.checksum + '\n').getBytes(StandardCharsets.UTF_8)));
+        return RdfSource.toHex(digest.digest());
+    }
+
+    /**
+     * Sources fingerprint the inferred graph was computed from, or null if it is stale
+     */
+    public String getInferredFingerprint() {
+        return inferredFingerprint;
+    }
+
+    public long getInferredTriples() {
+        return inferredTriples;
+    }
+
+    public void setInferred(String fingerprint, long triples) {
+        this.inferredFingerprint = fingerprint;
+        this.inferredTriples = triples;
+    }
+
+    /**
+     * Mark the inferred graph as stale
+     */
+    public void clearInferred() {
+        setInferred(null, 0);
+    }
+
+    /**
+     * Write the manifest atomically (write to a temporary file, then rename
+     * over the old one), so a crash leaves either the old or the new manifest
+     */
+    public void save() throws IOException {
+        Properties properties = new Properties();
+        entries.forEach((source, entry) -> {
+            properties.setProperty(source + CHECKSUM_KEY, entry.checksum);
+            properties.setProperty(source + TRIPLES_KEY, Long.toString(entry.triples));
+            properties.setProperty(source + GRAPH_KEY, entry.graph);
+        });
+        if (inferredFingerprint != null) {
+            properties.setProperty(INFERRED_FINGERPRINT_KEY, inferredFingerprint);
+            properties.setProperty(INFERRED_TRIPLES_KEY, Long.toString(inferredTriples));
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            properties.store(out, "Sources loaded into " + file.getName().replace(MANIFEST_SUFFIX, ""));
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void read() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+            if (!key.endsWith(CHECKSUM_KEY)) {
+                continue;
+            }
+            String source = key.substring(0, key.length() - CHECKSUM_KEY.length());
+            String triples = properties.getProperty(source + TRIPLES_KEY, "0");
+            String graph = properties.getProperty(source + GRAPH_KEY, "");
+            entries.put(source, new SourceEntry(properties.getProperty(key), Long.parseLong(triples), graph));
+        }
+        inferredFingerprint = properties.getProperty(INFERRED_FINGERPRINT_KEY);
+        inferredTriples = Long.parseLong(properties.getProperty(INFERRED_TRIPLES_KEY, "0"));
+    }
+
+    /**
+     * Recorded state of one source
+     */
+    public static class SourceEntry {
+        public final String checksum;
+        public final long triples;
+        public final String graph;
+
+        SourceEntry(String checksum, long triples, String graph) {
+            this.checksum = checksum;
+            this.triples = triples;
+            this.graph = graph;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.networktopology.server;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdfpatch.RDFChanges;
+import org.apache.jena.rdfpatch.RDFPatch;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Applies small add/delete deltas to the live TDB2 dataset.
+ *
+ * Deltas are queued and a single writer thread applies everything queued
+ * so far (up to a size limit) in one WRITE transaction, so thousands of small
+ * changes per minute cost a few commits instead of one commit each. If a
+ * batch fails, its deltas are retried one by one so a bad delta only fails
+ * itself. Listeners are told which quads actually changed after each commit.
+ *
+ * Only deltas submitted here reach the listeners. SPARQL Update and Graph
+ * Store Protocol writes (/update, /data) commit straight to TDB2 and are not
+ * reported; components that must see every write listen to TDB2 commits
+ * instead, as TopologyIndex does.
+ */
+public class DeltaIngestionService {
+
+    public static final int DEFAULT_MAX_BATCH_CHANGES = 20_000;
+    private static final long POLL_MILLIS = 500;
+
+    private final Dataset dataset;
+    private final Node defaultTargetGraph;
+    private final int maxBatchChanges;
+    private final BlockingQueue<Delta> queue = new LinkedBlockingQueue<>();
+    private final List<DeltaListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong batchCounter = new AtomicLong();
+    /** Held while a batch is committed and reported, so the listeners' view never lags the store */
+    private final Object batchLock = new Object();
+    private volatile boolean running;
+    private volatile boolean closed;
+    private volatile Thread writer;
+
+    /**
+     * Listener notified after each committed batch with the quads that actually changed
+     */
+    public interface DeltaListener {
+        void deltaApplied(List<Quad> added, List<Quad> removed);
+    }
+
+    /**
+     * Constructor; triples without a graph are written to {@code defaultTargetGraph}
+     */
+    public DeltaIngestionService(Dataset dataset, String defaultTargetGraph) {
+        this(dataset, defaultTargetGraph, DEFAULT_MAX_BATCH_CHANGES);
+    }
+
+    public DeltaIngestionService(Dataset dataset, String defaultTargetGraph, int maxBatchChanges) {
+        this.dataset = dataset;
+        this.defaultTargetGraph = NodeFactory.createURI(defaultTargetGraph);
+        this.maxBatchChanges = maxBatchChanges;
+    }
+
+    public void addListener(DeltaListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(DeltaListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Start the writer thread
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        closed = false;
+        writer = new Thread(this::writeLoop, "delta-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop accepting deltas, apply what is already queued, then stop the writer
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue an RDF Patch. Transaction markers in the patch are ignored; the
+     * patch is applied atomically as part of a batch.
+     */
+    public CompletableFuture<Result> submitPatch(RDFPatch patch) {
+        ChangeCollector collector = new ChangeCollector();
+        patch.apply(collector);
+        return submit(collector.changes);
+    }
+
+    /**
+     * Queue plain triple additions and deletions (deletions are applied first)
+     */
+    public CompletableFuture<Result> submitTriples(List<Triple> additions, List<Triple> deletions) {
+        List<Change> changes = new ArrayList<>(additions.size() + deletions.size());
+        for (Triple triple : deletions) {
+            changes.add(new Change(false, Quad.create(defaultTargetGraph, triple)));
+        }
+        for (Triple triple : additions) {
+            changes.add(new Change(true, Quad.create(defaultTargetGraph, triple)));
+        }
+        return submit(changes);
+    }
+
+    /**
+     * Whether the caller runs on the writer thread, i.e. inside a delta commit
+     */
+    boolean isWriterThread() {
+        return Thread.currentThread() == writer;
+    }
+
+    /**
+     * Run a task while no batch is being committed or reported: the store then
+     * holds exactly the deltas the listeners have heard of, e.g. to rebuild a
+     * listener's state from the store without missing or repeating a delta.
+     * Batches wait until the task has finished.
+     */
+    public <T> T callBetweenBatches(Supplier<T> task) {
+        synchronized (batchLock) {
+            return task.get();
+        }
+    }
+
+    /**
+     * Number of deltas waiting to be applied
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private CompletableFuture<Result> submit(List<Change> changes) {
+        if (!running || closed) {
+            throw new IllegalStateException("Delta ingestion service is not running");
+        }
+        Delta delta = new Delta(changes);
+        queue.add(delta);
+        // The writer may have exited between the check and the add; nothing would apply the delta
+        if (closed && queue.remove(delta)) {
+            delta.future.completeExceptionally(new IllegalStateException("Delta ingestion service is not running"));
+        }
+        return delta.future;
+    }
+
+    private void writeLoop() {
+        try {
+            drainQueue();
+        } finally {
+            running = false;
+            closed = true;
+            Delta pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future.completeExceptionally(new IllegalStateException("Delta ingestion service stopped"));
+            }
+        }
+    }
+
+    private void drainQueue() {
+        while (running || !queue.isEmpty()) {
+            Delta first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+
+            // Group everything already queued into one transaction
+            List<Delta> batch = new ArrayList<>();
+            batch.add(first);
+            int size = first.changes.size();
+            while (size < maxBatchChanges) {
+                Delta next = queue.poll();
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+                size += next.changes.size();
+            }
+
+            try {
+                applyBatch(batch);
+            } catch (RuntimeException batchFailure) {
+                for (Delta delta : batch) {
+                    try {
+                        applyBatch(Collections.singletonList(delta));
+                    } catch (RuntimeException e) {
+                        delta.future.completeExceptionally(e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void applyBatch(List<Delta> batch) {
+        synchronized (batchLock) {
+            commitAndReport(batch);
+        }
+    }
+
+    private void commitAndReport(List<Delta> batch) {
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        // Net effect per quad: +1 added, -1 removed, 0 added and removed again
+        Map<Quad, Integer> net = new LinkedHashMap<>();
+        long[][] counts = new long[batch.size()][2];
+
+        Txn.executeWrite(dsg, () -> {
+            for (int i = 0; i < batch.size(); i++) {
+                for (Change change : batch.get(i).changes) {
+                    if (change.add) {
+                        if (!dsg.contains(change.quad)) {
+                            dsg.add(change.quad);
+                            net.merge(change.quad, 1, Integer::sum);
+                            counts[i][0]++;
+                        }
+                    } else if (dsg.contains(change.quad)) {
+                        dsg.delete(change.quad);
+                        net.merge(change.quad, -1, Integer::sum);
+                        counts[i][1]++;
+                    }
+                }
+            }
+        });
+
+        List<Quad> added = new ArrayList<>();
+        List<Quad> removed = new ArrayList<>();
+        net.forEach((quad, effect) -> {
+            if (effect > 0) {
+                added.add(quad);
+            } else if (effect < 0) {
+                removed.add(quad);
+            }
+        });
+
+        long batchId = batchCounter.incrementAndGet();
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(new Result(batchId, counts[i][0], counts[i][1]));
+        }
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            for (DeltaListener listener : listeners) {
+                try {
+                    listener.deltaApplied(added, removed);
+                } catch (RuntimeException e) {
+                    System.err.println("✗ Delta listener failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Outcome of one delta
+     */
+    public static class Result {
+        public final long batchId;
+        public final long added;
+        public final long deleted;
+
+        Result(long batchId, long added, long deleted) {
+            this.batchId = batchId;
+            this.added = added;
+            this.deleted = deleted;
+        }
+
+        @Override
+        public String toString() {
+            return "{\"batch\": " + batchId + ", \"added\": " + added + ", \"deleted\": " + deleted + "}";
+        }
+    }
+
+    private static final class Delta {
+        final List<Change> changes;
+        final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        Delta(List<Change> changes) {
+            this.changes = changes;
+        }
+    }
+
+    private static final class Change {
+        final boolean add;
+        final Quad quad;
+
+        Change(boolean add, Quad quad) {
+            this.add = add;
+            this.quad = quad;
+        }
+    }
+
+    /**
+     * Collects the data changes of a patch in order, mapping the default graph
+     * (which the dataset serves as a read-only union) to the default target graph
+     */
+    private final class ChangeCollector implements RDFChanges {
+        final List<Change> changes = new ArrayList<>();
+        private int txnStart;
+
+        private Node graph(Node g) {
+            return g == null || Quad.isDefaultGraph(g) ? defaultTargetGraph : g;
+        }
+
+        @Override
+        public void add(Node g, Node s, Node p, Node o) {
+            changes.add(new Change(true, Quad.create(graph(g), s, p, o)));
+        }
+
+        @Override
+        public void delete(Node g, Node s, Node p, Node o) {
+            changes.add(new Change(false, Quad.create(graph(g), s, p, o)));
+        }
+
+        @Override public void header(String field, Node value) { }
+        @Override public void addPrefix(Node gn, String prefix, String uriStr) { }
+        @Override public void deletePrefix(Node gn, String prefix) { }
+        @Override
+        public void txnBegin() {
+            txnStart = changes.size();
+        }
+
+        @Override
+        public void txnAbort() {
+            changes.subList(txnStart, changes.size()).clear();
+        }
+
+        @Override public void txnCommit() { }
+        @Override public void segment() { }
+        @Override public void start() { }
+        @Override public void finish() { }
+    }
+}
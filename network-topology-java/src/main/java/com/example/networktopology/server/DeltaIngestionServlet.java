@@ -0,0 +1,113 @@
+package com.example.networktopology.server;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdfpatch.RDFPatch;
+import org.apache.jena.rdfpatch.RDFPatchOps;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDFBase;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP endpoint for live topology deltas.
+ *
+ * POST an RDF Patch ({@code Content-Type: application/rdf-patch}), or N-Triples
+ * ({@code Content-Type: application/n-triples}) with {@code ?op=add} or
+ * {@code ?op=delete}. The response is sent once the delta has been committed.
+ */
+public class DeltaIngestionServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final String CONTENT_TYPE_PATCH = "application/rdf-patch";
+    private static final String CONTENT_TYPE_NTRIPLES = "application/n-triples";
+    private static final long COMMIT_TIMEOUT_SECONDS = 60;
+
+    private final transient DeltaIngestionService service;
+
+    public DeltaIngestionServlet(DeltaIngestionService service) {
+        this.service = service;
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String contentType = request.getContentType() == null ? "" : request.getContentType().toLowerCase();
+
+        DeltaIngestionService.Result result;
+        try (InputStream in = request.getInputStream()) {
+            if (contentType.startsWith(CONTENT_TYPE_PATCH)) {
+                RDFPatch patch = RDFPatchOps.read(in);
+                result = await(service.submitPatch(patch));
+            } else if (contentType.startsWith(CONTENT_TYPE_NTRIPLES)) {
+                String op = request.getParameter("op");
+                if (!"add".equals(op) && !"delete".equals(op)) {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, "N-Triples deltas need ?op=add or ?op=delete");
+                    return;
+                }
+                List<Triple> triples = readNTriples(in);
+                List<Triple> none = Collections.emptyList();
+                result = await("add".equals(op)
+                    ? service.submitTriples(triples, none)
+                    : service.submitTriples(none, triples));
+            } else {
+                response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE,
+                                   "Expected " + CONTENT_TYPE_PATCH + " or " + CONTENT_TYPE_NTRIPLES);
+                return;
+            }
+        } catch (IllegalStateException e) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return;
+        } catch (TimeoutException e) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Delta not committed in time; it is still queued");
+            return;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalStateException) {
+                // The service stopped before the delta was applied
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getCause().getMessage());
+                return;
+            }
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Delta rejected: " + e.getCause().getMessage());
+            return;
+        } catch (RuntimeException e) {
+            // Parse errors in the request body
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid delta: " + e.getMessage());
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json");
+        response.getWriter().write(result.toString());
+    }
+
+    private static List<Triple> readNTriples(InputStream in) {
+        List<Triple> triples = new ArrayList<>();
+        RDFParser.source(in).lang(Lang.NTRIPLES).parse(new StreamRDFBase() {
+            @Override
+            public void triple(Triple triple) {
+                triples.add(triple);
+            }
+        });
+        return triples;
+    }
+
+    private static DeltaIngestionService.Result await(Future<DeltaIngestionService.Result> future)
+            throws ExecutionException, TimeoutException {
+        try {
+            return future.get(COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for commit");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.networktopology.server;
+
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.dboe.transaction.txn.TransactionCoordinator;
+import org.apache.jena.dboe.transaction.txn.TransactionListener;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.tdb2.sys.TDBInternal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Follows the TDB2 write commits that bypass the delta ingestion service,
+ * i.e. SPARQL Update (/update) and Graph Store Protocol (/data) writes, whose
+ * changes are not reported to delta listeners.
+ *
+ * Commits made by the server itself are recognised on the committing thread
+ * and ignored. The callback runs on a thread of its own, outside the commit
+ * (which still holds the store's writer lock), and a burst of commits is
+ * coalesced into one call.
+ */
+final class ExternalCommitListener {
+
+    private final ExecutorService notifier;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable onCommit;
+    private Runnable detach = () -> { };
+
+    private ExternalCommitListener(Runnable onCommit) {
+        this.onCommit = onCommit;
+        this.notifier = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "external-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Call {@code onCommit} after write commits for which {@code isInternal}
+     * is false on the committing thread. Returns null if the dataset is not
+     * TDB2; its owner then has to report writes itself.
+     */
+    static ExternalCommitListener attach(Dataset dataset, BooleanSupplier isInternal, Runnable onCommit) {
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        if (!TDBInternal.isTDB2(dsg)) {
+            return null;
+        }
+        ExternalCommitListener external = new ExternalCommitListener(onCommit);
+        TransactionCoordinator coordinator = TDBInternal.getTransactionCoordinator(dsg);
+        TransactionListener listener = new TransactionListener() {
+            @Override
+            public void notifyCommitFinish(Transaction transaction) {
+                if (transaction.isWriteTxn() && !isInternal.getAsBoolean()) {
+                    external.schedule();
+                }
+            }
+        };
+        // The coordinator only takes listeners while writers are held off
+        coordinator.modifyConfig(() -> coordinator.addListener(listener));
+        external.detach = () -> coordinator.modifyConfig(() -> coordinator.removeListener(listener));
+        return external;
+    }
+
+    /**
+     * Stop following the dataset
+     */
+    void close() {
+        detach.run();
+        notifier.shutdownNow();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            notifier.execute(() -> {
+                scheduled.set(false);
+                try {
+                    onCommit.run();
+                } catch (RuntimeException e) {
+                    System.err.println("✗ Error handling external commit: " + e.getMessage());
+                }
+            });
+        }
+    }
+}
@@ -2,16 +2,37 @@ package com.example.networktopology.server;
 
 import org.apache.jena.fuseki.main.FusekiServer;
 import org.apache.jena.fuseki.system.FusekiLogging;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.TDB2;
 import org.apache.jena.tdb2.TDB2Factory;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
-import org.apache.jena.query.ReadWrite;
 
 import com.example.networktopology.loaders.OntologyLoader;
 import com.example.networktopology.loaders.InstanceLoader;
+import com.example.networktopology.loaders.RdfSource;
+import com.example.networktopology.loaders.TDB2BulkLoader;
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.queries.SubClassOfPropertyFunction;
+import com.example.networktopology.queries.TopologyPropertyFunctions;
+import com.example.networktopology.reasoning.InferenceMaterializer;
+import com.example.networktopology.reasoning.NetworkValidator;
+import com.example.networktopology.topology.ConnectivityTracker;
+import com.example.networktopology.topology.TopologyIndex;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
 
 /**
  * Fuseki SPARQL endpoint server for Network Topology data
@@ -23,11 +44,23 @@ public class NetworkTopologyFusekiServer {
     private static final String DATASET_PATH = "/network-topology";
     private static final int DEFAULT_PORT = 3030;
     private static final String TDB_DIRECTORY = "tdb-data";
+    private static final long INFERENCE_REFRESH_QUIET_MILLIS = 5000;
     
     private FusekiServer server;
     private final OntologyLoader ontologyLoader;
     private final InstanceLoader instanceLoader;
     private final int port;
+    private final List<String> dataSources = new ArrayList<>(
+        Arrays.asList(ONTOLOGY_TTL_RESOURCE, INSTANCES_TTL_RESOURCE));
+    private File tdbDirectory = new File(TDB_DIRECTORY);
+    private boolean bulkLoadMode;
+    private DeltaIngestionService deltaService;
+    private boolean materializeInferences;
+    private InferenceMaterializer materializer;
+    private DatasetManifest manifest;
+    private TopologyIndex topologyIndex;
+    private volatile ConnectivityTracker connectivity;
+    private ExternalCommitListener externalCommits;
     
     /**
      * Constructor with default port
@@ -48,6 +81,42 @@ public class NetworkTopologyFusekiServer {
         FusekiLogging.setLogging();
     }
     
+    /**
+     * TDB2 directory to serve (tdb-data in the working directory by default);
+     * its manifest is kept next to it
+     */
+    public void setTdbDirectory(File tdbDirectory) {
+        this.tdbDirectory = tdbDirectory;
+    }
+    
+    /**
+     * Stream sources straight into TDB2 in bounded batches instead of
+     * building in-memory models first (recommended for large inventories)
+     */
+    public void setBulkLoadMode(boolean bulkLoadMode) {
+        this.bulkLoadMode = bulkLoadMode;
+    }
+    
+    /**
+     * Keep the reasoner's entailments in a named graph of their own, recomputed
+     * when the sources change and shortly after live deltas
+     */
+    public void setMaterializeInferences(boolean materializeInferences) {
+        this.materializeInferences = materializeInferences;
+    }
+    
+    /**
+     * Add an extra RDF file or classpath resource to load at startup.
+     * Directories and globs are expanded into one source per shard.
+     */
+    public void addDataSource(String source) {
+        try {
+            dataSources.addAll(InstanceLoader.resolveShards(source));
+        } catch (IOException e) {
+            System.err.println("✗ Cannot list data source " + source + ": " + e.getMessage());
+        }
+    }
+    
     /**
      * Initialize and start the Fuseki server
      */
@@ -61,6 +130,35 @@ public class NetworkTopologyFusekiServer {
             // Load data into dataset
             loadNetworkTopologyData(dataset);
             
+            // Live deltas go to the instance graph unless a patch names another graph
+            deltaService = new DeltaIngestionService(dataset, graphFor(INSTANCES_TTL_RESOURCE));
+            
+            // Connected components, followed from the committed deltas (and rebuilt after other writes)
+            connectivity = ConnectivityTracker.fromDataset(dataset);
+            deltaService.addListener((added, removed) -> connectivity.apply(added, removed));
+            System.out.println("✓ Connectivity tracker ready: " + connectivity);
+            if (materializer != null) {
+                deltaService.addListener((added, removed) -> {
+                    if (touchesSourceGraphs(added) || touchesSourceGraphs(removed)) {
+                        applyInferenceDelta(added, removed);
+                    }
+                });
+            }
+            deltaService.start();
+            
+            // SPARQL Update and Graph Store writes bypass the delta listeners
+            externalCommits = ExternalCommitListener.attach(dataset, this::isServerWrite, () -> externalCommit(dataset));
+            
+            // Custom property functions available to every query on the endpoint;
+            // the topology ones share an index that follows every commit
+            SubClassOfPropertyFunction.register();
+            TopologyPropertyFunctions.register();
+            topologyIndex = TopologyIndex.forDataset(dataset);
+            dataset.getContext().set(TopologyIndex.SYMBOL, topologyIndex);
+            
+            // Device roles of the served topology, from the index's centrality for this version
+            new NetworkValidator().inferNetworkHierarchy(topologyIndex);
+            
             // Build and start Fuseki server
             server = FusekiServer.create()
                 .port(port)
@@ -68,6 +166,8 @@ public class NetworkTopologyFusekiServer {
                 .enablePing(true)
                 .enableMetrics(true)
                 .enableStats(true)
+                .addServlet(DATASET_PATH + "/delta", new DeltaIngestionServlet(deltaService))
+                .addServlet(DATASET_PATH + "/connectivity", new ConnectivityServlet(this::getConnectivityTracker))
                 .build();
             
             server.start();
@@ -78,6 +178,8 @@ public class NetworkTopologyFusekiServer {
             System.out.println("SPARQL Query endpoint: http://localhost:" + port + DATASET_PATH + "/sparql");
             System.out.println("SPARQL Update endpoint: http://localhost:" + port + DATASET_PATH + "/update");
             System.out.println("Graph Store Protocol: http://localhost:" + port + DATASET_PATH + "/data");
+            System.out.println("Delta ingestion endpoint: http://localhost:" + port + DATASET_PATH + "/delta");
+            System.out.println("Connectivity status: http://localhost:" + port + DATASET_PATH + "/connectivity");
             System.out.println("Server UI: http://localhost:" + port + "/$/server");
             System.out.println("Dataset UI: http://localhost:" + port + "/$/datasets" + DATASET_PATH);
             
@@ -96,62 +198,127 @@ public class NetworkTopologyFusekiServer {
             server.stop();
             System.out.println("✓ Fuseki server stopped.");
         }
+        if (externalCommits != null) {
+            externalCommits.close();
+        }
+        if (deltaService != null) {
+            deltaService.stop();
+        }
+        if (materializer != null) {
+            materializer.shutdown();
+        }
+        if (topologyIndex != null) {
+            topologyIndex.close();
+        }
+    }
+    
+    /**
+     * Delta ingestion service of the running server (null before startServer)
+     */
+    public DeltaIngestionService getDeltaIngestionService() {
+        return deltaService;
+    }
+    
+    /**
+     * Connected components of the served topology, current with every applied
+     * delta and rebuilt after SPARQL Update and Graph Store writes (null before
+     * startServer). A rebuild replaces the instance, so fetch it per use.
+     */
+    public ConnectivityTracker getConnectivityTracker() {
+        return connectivity;
     }
     
     /**
      * Create dataset - using in-memory for demo, TDB2 for persistence
      */
-    private Dataset createDataset() {
+    Dataset createDataset() {
         // Option 1: In-memory dataset (good for demos)
         // return DatasetFactory.createTxnMem();
         
         // Option 2: TDB2 persistent dataset (good for production)
-        File tdbDir = new File(TDB_DIRECTORY);
-        if (!tdbDir.exists()) {
-            tdbDir.mkdirs();
+        if (!tdbDirectory.exists()) {
+            tdbDirectory.mkdirs();
         }
-        return TDB2Factory.connectDataset(TDB_DIRECTORY);
+        Dataset dataset = TDB2Factory.connectDataset(tdbDirectory.getPath());
+        
+        // Each source lives in its own named graph; queries see their union as the default graph
+        dataset.getContext().set(TDB2.symUnionDefaultGraph, true);
+        return dataset;
+    }
+    
+    /**
+     * Named graph that holds the triples of one data source
+     */
+    public static String graphFor(String source) {
+        return new RdfSource(source).getGraphName();
     }
     
     /**
-     * Load network topology data into the dataset
+     * Load network topology data into the dataset.
+     * Sources whose checksum matches the manifest next to the TDB2 directory are
+     * skipped; changed sources are reloaded into their own named graph.
      */
-    private void loadNetworkTopologyData(Dataset dataset) {
+    void loadNetworkTopologyData(Dataset dataset) {
         System.out.println("Loading network topology data into Fuseki dataset...");
         
         try {
-            // Begin transaction with WRITE mode for TDB2
-            dataset.begin(ReadWrite.WRITE);
+            manifest = DatasetManifest.forDirectory(tdbDirectory);
             
-            try {
-                // Load ontology data
-                Model ontologyModel = ontologyLoader.loadTurtleOntology();
-                if (ontologyModel != null) {
-                    dataset.getDefaultModel().add(ontologyModel);
-                    System.out.println("✓ Loaded ontology data (" + ontologyModel.size() + " triples)");
+            // Work out which sources changed since the last load
+            Map<String, String> changed = new LinkedHashMap<>();
+            for (String source : dataSources) {
+                String checksum = new RdfSource(source).checksum();
+                if (manifest.isUnchanged(source, checksum)) {
+                    System.out.println("✓ Unchanged, skipped: " + source + 
+                                     " (" + manifest.get(source).triples + " triples)");
+                } else {
+                    changed.put(source, checksum);
+                }
+            }
+            List<String> removed = new ArrayList<>(manifest.getEntries().keySet());
+            removed.removeAll(dataSources);
+            
+            if (manifest.existed() && changed.isEmpty() && removed.isEmpty()) {
+                System.out.println("✓ Dataset is up to date, nothing to reload");
+                updateInferredGraph(dataset);
+                return;
+            }
+            
+            // Drop stale graphs; a store without manifest predates named graphs
+            Txn.executeWrite(dataset, () -> {
+                if (!manifest.existed()) {
+                    dataset.getDefaultModel().removeAll();
+                }
+                for (String source : changed.keySet()) {
+                    dataset.removeNamedModel(graphFor(source));
                 }
-                
-                // Load instance data
-                Model instanceModel = instanceLoader.loadRDFInstances();
-                if (instanceModel != null) {
-                    dataset.getDefaultModel().add(instanceModel);
-                    System.out.println("✓ Loaded instance data (" + instanceModel.size() + " triples)");
+                for (String source : removed) {
+                    dataset.removeNamedModel(graphFor(source));
+                    System.out.println("✓ Removed graph of dropped source " + source);
                 }
-                
-                // Commit transaction
-                dataset.commit();
-                
+            });
+            removed.forEach(manifest::remove);
+            
+            List<String> toLoad = new ArrayList<>(changed.keySet());
+            Map<String, Long> loaded = bulkLoadMode
+                ? bulkLoadSources(dataset, toLoad)
+                : loadSources(dataset, toLoad);
+            
+            loaded.forEach((source, triples) ->
+                manifest.put(source, changed.get(source), triples, graphFor(source)));
+            manifest.save();
+            
+            long totalTriples = Txn.calculateRead(dataset, () -> dataset.getUnionModel().size());
+            if (loaded.size() == toLoad.size()) {
                 System.out.println("✓ Network topology data loaded successfully!");
-                System.out.println("Total triples in dataset: " + dataset.getDefaultModel().size());
-                
-            } catch (Exception e) {
-                // Abort transaction on error
-                dataset.abort();
-                throw e;
-            } finally {
-                // End transaction - this handles cleanup properly
-                dataset.end();
+            } else {
+                System.out.println("⚠ Network topology data loaded without " + (toLoad.size() - loaded.size()) +
+                                 " failed source(s)");
             }
+            System.out.println("Reloaded " + loaded.size() + " of " + dataSources.size() + " source(s)");
+            System.out.println("Total triples in dataset: " + totalTriples);
+            
+            updateInferredGraph(dataset);
             
         } catch (Exception e) {
             System.err.println("Error loading data into dataset: " + e.getMessage());
@@ -159,6 +326,171 @@ public class NetworkTopologyFusekiServer {
         }
     }
     
+    /**
+     * Recompute the inferred graph if the sources changed since it was built.
+     * With materialization off, an inferred graph left over from an earlier
+     * run is dropped once it no longer matches the sources.
+     */
+    private void updateInferredGraph(Dataset dataset) throws IOException {
+        String fingerprint = manifest.getSourcesFingerprint();
+        String inferred = manifest.getInferredFingerprint();
+        
+        if (!materializeInferences) {
+            if (inferred != null && !inferred.equals(fingerprint)) {
+                Txn.executeWrite(dataset, () -> dataset.removeNamedModel(INFERRED_GRAPH_URI));
+                manifest.clearInferred();
+                manifest.save();
+                System.out.println("⚠ Dropped stale inferred graph (start with --infer to rebuild it)");
+            }
+            return;
+        }
+        
+        materializer = new InferenceMaterializer(dataset);
+        if (fingerprint.equals(inferred)) {
+            System.out.println("✓ Inferred graph is up to date (" + manifest.getInferredTriples() + " triples)");
+            materializer.loadClosureInBackground(triples -> saveInferredState(fingerprint, triples));
+            return;
+        }
+        long triples = materializer.materialize();
+        manifest.setInferred(fingerprint, triples);
+        manifest.save();
+    }
+    
+    /**
+     * Hand a committed delta to the materializer, which updates the inferred
+     * graph incrementally on its own thread, falling back to a debounced full
+     * recomputation if there is no incremental state. The manifest is saved
+     * once the change is applied; a crash before that is repaired when the
+     * closure is reloaded at the next start.
+     */
+    private void applyInferenceDelta(List<Quad> added, List<Quad> removed) {
+        materializer.submitDelta(added, removed, triples -> {
+            if (triples < 0) {
+                scheduleInferenceRefresh();
+            } else {
+                saveInferredState(manifest.getSourcesFingerprint(), triples);
+            }
+        });
+    }
+    
+    /**
+     * Recompute the inferred graph once the deltas settle; deltas committed
+     * during the recomputation are replayed onto it
+     */
+    private void scheduleInferenceRefresh() {
+        materializer.refreshAfterQuietPeriod(INFERENCE_REFRESH_QUIET_MILLIS,
+            triples -> saveInferredState(manifest.getSourcesFingerprint(), triples));
+    }
+    
+    /**
+     * Whether the current thread is committing a write made by the server itself
+     * (a delta batch or an inferred-graph update)
+     */
+    private boolean isServerWrite() {
+        return deltaService.isWriterThread() || (materializer != null && materializer.isWriterThread());
+    }
+    
+    /**
+     * A SPARQL Update or Graph Store write was committed: its changes are not
+     * known, so the connectivity tracker is rebuilt from the store and the
+     * inferred graph is recomputed once the writes settle
+     */
+    private void externalCommit(Dataset dataset) {
+        if (materializer != null) {
+            materializer.markStale();
+            scheduleInferenceRefresh();
+        }
+        // Between delta batches, so the new tracker neither misses nor repeats a delta
+        connectivity = deltaService.callBetweenBatches(() -> ConnectivityTracker.fromDataset(dataset));
+        System.out.println("✓ Connectivity tracker rebuilt after an external write: " + connectivity);
+    }
+    
+    private void saveInferredState(String fingerprint, long triples) {
+        synchronized (manifest) {
+            manifest.setInferred(fingerprint, triples);
+            try {
+                manifest.save();
+            } catch (IOException e) {
+                System.err.println("✗ Cannot save manifest: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static boolean touchesSourceGraphs(List<Quad> quads) {
+        Node inferredGraph = NodeFactory.createURI(INFERRED_GRAPH_URI);
+        return quads.stream().anyMatch(quad -> !inferredGraph.equals(quad.getGraph()));
+    }
+    
+    /**
+     * Load sources through in-memory models, one WRITE transaction per source
+     */
+    private Map<String, Long> loadSources(Dataset dataset, List<String> sources) throws InterruptedException {
+        Map<String, Long> loaded = new LinkedHashMap<>();
+        
+        // The registry may still hold content from before the change; parse the
+        // rest concurrently so that only the writes below are sequential
+        TopologyModelRegistry registry = TopologyModelRegistry.getShared();
+        List<String> unparsed = new ArrayList<>();
+        for (String source : sources) {
+            if (registry.isLoaded(source)) {
+                registry.reload(source);
+            } else {
+                unparsed.add(source);
+            }
+        }
+        Map<String, String> failed = instanceLoader.parseShards(unparsed);
+        failed.forEach((source, message) -> System.err.println("✗ Error loading " + source + ": " + message));
+        
+        for (String source : sources) {
+            if (failed.containsKey(source)) {
+                continue;
+            }
+            Model sourceModel = loadSourceModel(source);
+            if (sourceModel == null) {
+                continue;
+            }
+            Txn.executeWrite(dataset, () -> dataset.getNamedModel(graphFor(source)).add(sourceModel));
+            loaded.put(source, sourceModel.size());
+            System.out.println("✓ Loaded " + source + " (" + sourceModel.size() + " triples)");
+        }
+        if (!failed.isEmpty()) {
+            System.out.println("⚠ " + failed.size() + " source(s) failed and will be retried on next start");
+        }
+        return loaded;
+    }
+    
+    private Model loadSourceModel(String source) {
+        if (ONTOLOGY_TTL_RESOURCE.equals(source)) {
+            return ontologyLoader.loadTurtleOntology();
+        }
+        if (INSTANCES_TTL_RESOURCE.equals(source)) {
+            return instanceLoader.loadRDFInstances();
+        }
+        return TopologyModelRegistry.getShared().getModel(source);
+    }
+    
+    /**
+     * Stream sources into their named graphs with the TDB2 bulk loader
+     */
+    private Map<String, Long> bulkLoadSources(Dataset dataset, List<String> sources) {
+        Map<String, Long> loaded = new LinkedHashMap<>();
+        if (sources.isEmpty()) {
+            return loaded;
+        }
+        
+        TDB2BulkLoader.Result result = new TDB2BulkLoader(dataset)
+            .load(sources, source -> NodeFactory.createURI(graphFor(source)));
+        result.triplesBySource.forEach((source, triples) -> {
+            if (!result.failures.containsKey(source)) {
+                loaded.put(source, triples);
+            }
+        });
+        if (!result.isSuccessful()) {
+            System.out.println("⚠ " + result.failures.size() + " source(s) failed and will be retried on next start");
+        }
+        return loaded;
+    }
+    
     /**
      * Get server information
      */
@@ -0,0 +1,508 @@
+package com.example.networktopology.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Centrality of the devices of a {@link TopologyGraph} and the network role
+ * derived from it.
+ *
+ * Three metrics are computed over the physical topology, with parallel links
+ * counted once:
+ * <ul>
+ *   <li>degree: number of neighbouring devices;</li>
+ *   <li>betweenness: number of device pairs whose shortest paths run through
+ *       the device (a pair with several shortest paths counts fractionally),
+ *       from Brandes' algorithm, one breadth-first search per source device
+ *       run in chunks on a {@link ForkJoinPool}. Above {@link #EXACT_LIMIT}
+ *       devices only a random sample of sources is searched and the result is
+ *       scaled up;</li>
+ *   <li>core number: largest k such that the device belongs to the k-core
+ *       (the subgraph where every device has at least k neighbours), from the
+ *       linear bucket peeling of Batagelj and Zaversnik.</li>
+ * </ul>
+ *
+ * Roles are assigned per connected component. Devices on no shortest path
+ * between two others (leaves, edge devices) are {@link Role#ACCESS}: those
+ * with no betweenness when it is exact; when it is sampled, a device missed by
+ * every sampled search is Access only if its neighbours are all linked to
+ * each other, which is exactly when no shortest path can run through it. Devices
+ * carrying at least {@link #CORE_BETWEENNESS_SHARE} of the component's highest
+ * betweenness are {@link Role#CORE} if they also sit in its innermost core
+ * (when that is meshed, i.e. k &gt;= 2). All other devices are
+ * {@link Role#DISTRIBUTION}. Sampled betweenness makes the Core and
+ * Distribution split an estimate ({@link #isExact()}).
+ *
+ * Instances are immutable; {@link TopologyIndex.Snapshot#getCentrality}
+ * keeps one per topology version.
+ */
+public final class CentralityAnalyzer {
+
+    /** Largest topology whose betweenness is computed exactly by default */
+    public static final int EXACT_LIMIT = 5000;
+    /** Source devices searched by default above {@link #EXACT_LIMIT} */
+    public static final int DEFAULT_SAMPLES = 512;
+    /** Share of the highest betweenness of a component that makes a device core */
+    public static final double CORE_BETWEENNESS_SHARE = 0.25;
+
+    /** Every source walks a whole component, so chunks can be small */
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    /**
+     * Position of a device in the network hierarchy
+     */
+    public enum Role {
+        CORE("Core"),
+        DISTRIBUTION("Distribution"),
+        ACCESS("Access");
+
+        private final String label;
+
+        Role(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final TopologyGraph graph;
+    private final int[] degrees;
+    private final double[] betweenness;
+    private final int[] coreNumbers;
+    private final Role[] roles;
+    private final int sources;
+
+    private CentralityAnalyzer(TopologyGraph graph, int[] degrees, double[] betweenness, int[] coreNumbers,
+                               Role[] roles, int sources) {
+        this.graph = graph;
+        this.degrees = degrees;
+        this.betweenness = betweenness;
+        this.coreNumbers = coreNumbers;
+        this.roles = roles;
+        this.sources = sources;
+    }
+
+    /**
+     * Centrality of a topology: betweenness is exact up to {@link #EXACT_LIMIT}
+     * devices and sampled from {@link #DEFAULT_SAMPLES} sources above
+     */
+    public static CentralityAnalyzer analyze(TopologyGraph graph, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        int n = graph.getDeviceCount();
+        return analyze(graph, n <= EXACT_LIMIT ? n : DEFAULT_SAMPLES, 0L, pool);
+    }
+
+    /**
+     * Centrality of a topology with betweenness estimated from {@code samples}
+     * source devices drawn with a seeded generator (exact if {@code samples}
+     * covers every device)
+     */
+    public static CentralityAnalyzer analyze(TopologyGraph graph, int samples, long seed, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        int n = graph.getDeviceCount();
+        Adjacency adjacency = new Adjacency(graph);
+
+        int[] degrees = new int[n];
+        for (int v = 0; v < n; v++) {
+            degrees[v] = adjacency.offsets[v + 1] - adjacency.offsets[v];
+        }
+
+        // Sources: every device, or a partial Fisher-Yates shuffle of them
+        int[] sources = new int[n];
+        for (int v = 0; v < n; v++) {
+            sources[v] = v;
+        }
+        int count = Math.max(0, Math.min(samples, n));
+        if (count < n) {
+            Random random = new Random(seed);
+            for (int i = 0; i < count; i++) {
+                int j = i + random.nextInt(n - i);
+                int swap = sources[i];
+                sources[i] = sources[j];
+                sources[j] = swap;
+            }
+            sources = Arrays.copyOf(sources, count);
+            Arrays.sort(sources);
+        }
+
+        double[] betweenness = betweenness(adjacency, sources, pool);
+        // Each unordered pair is seen from both ends; a sample stands for n sources
+        double scale = count == 0 ? 0 : (double) n / count / 2;
+        for (int v = 0; v < n; v++) {
+            betweenness[v] *= scale;
+        }
+
+        int[] coreNumbers = coreNumbers(adjacency, degrees);
+        Role[] roles = roles(adjacency, betweenness, coreNumbers, count == n);
+        return new CentralityAnalyzer(graph, degrees, betweenness, coreNumbers, roles, count);
+    }
+
+    public TopologyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Number of distinct neighbouring devices
+     */
+    public int getDegree(int device) {
+        return degrees[device];
+    }
+
+    /**
+     * Number of device pairs (estimated when sampled) whose shortest paths run
+     * through the device
+     */
+    public double getBetweenness(int device) {
+        return betweenness[device];
+    }
+
+    /**
+     * Betweenness as a share of all pairs of other devices, 0..1
+     */
+    public double getNormalizedBetweenness(int device) {
+        int n = graph.getDeviceCount();
+        return n < 3 ? 0 : betweenness[device] / ((double) (n - 1) * (n - 2) / 2);
+    }
+
+    public int getCoreNumber(int device) {
+        return coreNumbers[device];
+    }
+
+    public Role getRole(int device) {
+        return roles[device];
+    }
+
+    public int getRoleCount(Role role) {
+        int count = 0;
+        for (Role r : roles) {
+            if (r == role) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Whether betweenness was computed from every source device
+     */
+    public boolean isExact() {
+        return sources == graph.getDeviceCount();
+    }
+
+    /**
+     * Number of source devices betweenness was computed from
+     */
+    public int getSourceCount() {
+        return sources;
+    }
+
+    /**
+     * Device ids by role (core first), then by decreasing betweenness, degree
+     * and increasing id; at most {@code limit} of them
+     */
+    public int[] rank(int limit) {
+        int n = graph.getDeviceCount();
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int c = roles[a].compareTo(roles[b]);
+            if (c == 0) {
+                c = Double.compare(betweenness[b], betweenness[a]);
+            }
+            if (c == 0) {
+                c = Integer.compare(degrees[b], degrees[a]);
+            }
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        int[] ranked = new int[Math.min(limit, n)];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = order[i];
+        }
+        return ranked;
+    }
+
+    @Override
+    public String toString() {
+        return getRoleCount(Role.CORE) + " core, " + getRoleCount(Role.DISTRIBUTION) + " distribution, " +
+               getRoleCount(Role.ACCESS) + " access devices (" +
+               (isExact() ? "exact" : "sampled from " + sources + " sources") + ")";
+    }
+
+    /**
+     * Sum of the Brandes dependencies of every device over the sources, with
+     * the sources cut into chunks that each accumulate into their own array;
+     * the partial sums are added in chunk order so the result is reproducible
+     */
+    private static double[] betweenness(Adjacency adjacency, int[] sources, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        int chunks = Math.min(pool.getParallelism() * 4, sources.length / MIN_CHUNK_SIZE);
+        if (chunks <= 1) {
+            return new Brandes(adjacency).run(sources, 0, sources.length);
+        }
+
+        List<Callable<double[]>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int from = sources.length * i / chunks;
+            int to = sources.length * (i + 1) / chunks;
+            tasks.add(() -> new Brandes(adjacency).run(sources, from, to));
+        }
+        double[] total = null;
+        for (Future<double[]> chunk : pool.invokeAll(tasks)) {
+            double[] partial = chunk.get();
+            if (total == null) {
+                total = partial;
+            } else {
+                for (int v = 0; v < total.length; v++) {
+                    total[v] += partial[v];
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Core number of every device: repeatedly remove a device of smallest
+     * remaining degree, with devices kept in buckets by degree
+     */
+    private static int[] coreNumbers(Adjacency adjacency, int[] degrees) {
+        int n = degrees.length;
+        int[] degree = degrees.clone();
+        int maxDegree = 0;
+        for (int d : degree) {
+            maxDegree = Math.max(maxDegree, d);
+        }
+
+        // Devices sorted by degree, with the start of each degree's bucket
+        int[] bucketStarts = new int[maxDegree + 1];
+        for (int d : degree) {
+            bucketStarts[d]++;
+        }
+        for (int d = 0, start = 0; d <= maxDegree; d++) {
+            int size = bucketStarts[d];
+            bucketStarts[d] = start;
+            start += size;
+        }
+        int[] order = new int[n];
+        int[] position = new int[n];
+        int[] next = bucketStarts.clone();
+        for (int v = 0; v < n; v++) {
+            position[v] = next[degree[v]]++;
+            order[position[v]] = v;
+        }
+
+        for (int i = 0; i < n; i++) {
+            int v = order[i];
+            for (int j = adjacency.offsets[v]; j < adjacency.offsets[v + 1]; j++) {
+                int u = adjacency.neighbors[j];
+                if (degree[u] > degree[v]) {
+                    // Move u to the front of its bucket, then shrink the bucket past it
+                    int du = degree[u];
+                    int front = bucketStarts[du];
+                    int w = order[front];
+                    if (w != u) {
+                        order[position[u]] = w;
+                        position[w] = position[u];
+                        order[front] = u;
+                        position[u] = front;
+                    }
+                    bucketStarts[du]++;
+                    degree[u]--;
+                }
+            }
+        }
+        return degree;
+    }
+
+    private static Role[] roles(Adjacency adjacency, double[] betweenness, int[] coreNumbers, boolean exact) {
+        int n = betweenness.length;
+        int[] components = new int[n];
+        Arrays.fill(components, -1);
+        int[] queue = new int[n];
+        List<double[]> maxima = new ArrayList<>();
+        for (int root = 0; root < n; root++) {
+            if (components[root] >= 0) {
+                continue;
+            }
+            int component = maxima.size();
+            components[root] = component;
+            queue[0] = root;
+            int head = 0;
+            int tail = 1;
+            double maxBetweenness = 0;
+            int maxCore = 0;
+            while (head < tail) {
+                int v = queue[head++];
+                maxBetweenness = Math.max(maxBetweenness, betweenness[v]);
+                maxCore = Math.max(maxCore, coreNumbers[v]);
+                for (int i = adjacency.offsets[v]; i < adjacency.offsets[v + 1]; i++) {
+                    int u = adjacency.neighbors[i];
+                    if (components[u] < 0) {
+                        components[u] = component;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            maxima.add(new double[] { maxBetweenness, maxCore });
+        }
+
+        Role[] roles = new Role[n];
+        int[] marks = new int[n];
+        Arrays.fill(marks, -1);
+        for (int v = 0; v < n; v++) {
+            double[] max = maxima.get(components[v]);
+            if (betweenness[v] <= 0 && (exact || isSimplicial(adjacency, v, marks))) {
+                roles[v] = Role.ACCESS;
+            } else if (betweenness[v] >= CORE_BETWEENNESS_SHARE * max[0]
+                       && (max[1] < 2 || coreNumbers[v] == (int) max[1])) {
+                roles[v] = Role.CORE;
+            } else {
+                roles[v] = Role.DISTRIBUTION;
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * Whether every two neighbours of a device are linked to each other, i.e.
+     * no shortest path between two other devices runs through it; {@code marks}
+     * is a workspace of -1 or earlier device ids
+     */
+    private static boolean isSimplicial(Adjacency adjacency, int device, int[] marks) {
+        int[] offsets = adjacency.offsets;
+        int[] neighbors = adjacency.neighbors;
+        int degree = 0;
+        for (int i = offsets[device]; i < offsets[device + 1]; i++) {
+            if (neighbors[i] != device) {
+                marks[neighbors[i]] = device;
+                degree++;
+            }
+        }
+        for (int i = offsets[device]; i < offsets[device + 1]; i++) {
+            int u = neighbors[i];
+            if (u == device) {
+                continue;
+            }
+            int linked = 0;
+            for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+                int w = neighbors[j];
+                if (w != u && marks[w] == device) {
+                    linked++;
+                }
+            }
+            if (linked < degree - 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adjacency of the topology in CSR form with parallel links merged
+     */
+    private static final class Adjacency {
+        final int[] offsets;
+        final int[] neighbors;
+
+        Adjacency(TopologyGraph graph) {
+            int n = graph.getDeviceCount();
+            offsets = new int[n + 1];
+            int[] merged = new int[graph.neighbors.length];
+            int[] seen = new int[n];
+            Arrays.fill(seen, -1);
+            int size = 0;
+            for (int v = 0; v < n; v++) {
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    int u = graph.neighbors[i];
+                    if (seen[u] != v) {
+                        seen[u] = v;
+                        merged[size++] = u;
+                    }
+                }
+                offsets[v + 1] = size;
+            }
+            neighbors = Arrays.copyOf(merged, size);
+        }
+    }
+
+    /**
+     * Workspace of one chunk of sources: a breadth-first search counts the
+     * shortest paths from the source, then devices are visited farthest first
+     * to push each one's dependency back to the devices one hop closer
+     */
+    private static final class Brandes {
+        private final Adjacency adjacency;
+        private final int[] distance;
+        private final double[] paths;
+        private final double[] dependency;
+        private final int[] queue;
+        private final double[] betweenness;
+
+        Brandes(Adjacency adjacency) {
+            this.adjacency = adjacency;
+            int n = adjacency.offsets.length - 1;
+            distance = new int[n];
+            Arrays.fill(distance, -1);
+            paths = new double[n];
+            dependency = new double[n];
+            queue = new int[n];
+            betweenness = new double[n];
+        }
+
+        double[] run(int[] sources, int from, int to) {
+            int[] offsets = adjacency.offsets;
+            int[] neighbors = adjacency.neighbors;
+            for (int s = from; s < to; s++) {
+                int source = sources[s];
+                distance[source] = 0;
+                paths[source] = 1;
+                queue[0] = source;
+                int head = 0;
+                int tail = 1;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                        int u = neighbors[i];
+                        if (distance[u] < 0) {
+                            distance[u] = distance[v] + 1;
+                            queue[tail++] = u;
+                        }
+                        if (distance[u] == distance[v] + 1) {
+                            paths[u] += paths[v];
+                        }
+                    }
+                }
+
+                for (int i = tail - 1; i > 0; i--) {
+                    int w = queue[i];
+                    double share = (1 + dependency[w]) / paths[w];
+                    for (int j = offsets[w]; j < offsets[w + 1]; j++) {
+                        int v = neighbors[j];
+                        if (distance[v] == distance[w] - 1) {
+                            dependency[v] += paths[v] * share;
+                        }
+                    }
+                    betweenness[w] += dependency[w];
+                }
+
+                // Reset only what the search touched
+                for (int i = 0; i < tail; i++) {
+                    int v = queue[i];
+                    distance[v] = -1;
+                    paths[v] = 0;
+                    dependency[v] = 0;
+                }
+            }
+            return betweenness;
+        }
+    }
+}
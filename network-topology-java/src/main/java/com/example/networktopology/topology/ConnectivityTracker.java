@@ -0,0 +1,598 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+import org.apache.jena.vocabulary.RDF;
+
+import com.example.networktopology.reasoning.ClassHierarchyIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static com.example.networktopology.topology.TopologyGraphBuilder.*;
+
+/**
+ * Connected components of the physical topology, kept current as triples are
+ * added and removed.
+ *
+ * Devices and links are read from the same triples as {@link TopologyGraph}
+ * (interfaces, :connectsInterface, :connectedTo, device types). Component
+ * membership lives in a union-find structure with path halving and union by
+ * size, so a new link costs near-constant time. A removed link cannot be
+ * undone in union-find: unless a parallel link remains, two breadth-first
+ * searches run from its ends in lockstep. If they meet, nothing changed; if
+ * one side runs out first, that side has split off and is moved to a fresh
+ * set, so the work is bounded by the smaller side. Sets left unused by splits
+ * are dropped by a periodic compaction.
+ *
+ * Isolated devices (no link at all) are kept in a set, and the component
+ * sizes in a histogram, so isolation, component and island lookups need no
+ * scan. Instances are thread-safe; updates and lookups are serialised.
+ */
+public final class ConnectivityTracker extends StreamRDFBase {
+
+    /** Compact once the union-find holds this many times more sets than devices */
+    private static final int COMPACTION_FACTOR = 2;
+    private static final int MIN_COMPACTION_SETS = 1024;
+
+    private static final Node INFERRED_GRAPH = NodeFactory.createURI(INFERRED_GRAPH_URI);
+    private static final Comparator<Node> URI_ORDER = Comparator.comparing(Node::toString);
+
+    private final ClassHierarchyIndex classes;
+
+    // Topology facts, with a count per fact so duplicates (e.g. in several graphs) add up
+    private final Map<Node, Map<Node, Integer>> interfaceOwners = new HashMap<>();
+    private final Map<Node, Map<Node, Integer>> linkInterfaces = new HashMap<>();
+    private final Map<Node, Set<Node>> interfaceLinks = new HashMap<>();
+    private final Map<Node, Map<Node, Integer>> connections = new HashMap<>();
+    private final Map<Node, Map<Node, Integer>> deviceTypes = new HashMap<>();
+    private final Map<Node, Integer> deviceFacts = new HashMap<>();
+
+    // Devices and links between them, with the number of facts behind each link
+    private final Map<Node, Integer> deviceIds = new HashMap<>();
+    private Node[] devices = new Node[16];
+    private int deviceSlots;
+    private final List<Map<Integer, Integer>> adjacency = new ArrayList<>();
+    private final Set<Node> isolated = new LinkedHashSet<>();
+
+    // Union-find over sets; every device points at the set it was last placed in
+    private int[] deviceSets = new int[16];
+    private int[] parent = new int[16];
+    private int[] setSizes = new int[16];
+    private int sets;
+    private int componentCount;
+    private final TreeMap<Integer, Integer> componentSizes = new TreeMap<>();
+
+    // Lockstep search state, stamped so it never needs clearing
+    private int[] marks = new int[16];
+    private int stamp;
+
+    /**
+     * Empty tracker; device types are recognised with the given class hierarchy
+     */
+    public ConnectivityTracker(ClassHierarchyIndex classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Tracker of the topology in a model (inferred or not)
+     */
+    public static ConnectivityTracker fromModel(Model model) {
+        return fromGraph(model.getGraph());
+    }
+
+    public static ConnectivityTracker fromGraph(Graph graph) {
+        ConnectivityTracker tracker = new ConnectivityTracker(ClassHierarchyIndex.build(graph));
+        graph.find().forEachRemaining(tracker::triple);
+        return tracker;
+    }
+
+    /**
+     * Tracker of the topology in every graph of a dataset, read in one
+     * transaction; keep it current with {@link #apply(List, List)}
+     */
+    public static ConnectivityTracker fromDataset(Dataset dataset) {
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        return Txn.calculateRead(dsg, () -> {
+            ConnectivityTracker tracker = new ConnectivityTracker(ClassHierarchyIndex.build(dsg.getUnionGraph()));
+            dsg.find().forEachRemaining(tracker::quad);
+            return tracker;
+        });
+    }
+
+    /**
+     * Add a quad; quads of the inferred graph are skipped, as the topology is
+     * taken from asserted facts and the inferred graph changes without deltas
+     */
+    @Override
+    public void quad(Quad quad) {
+        if (!INFERRED_GRAPH.equals(quad.getGraph())) {
+            add(quad.asTriple());
+        }
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        add(triple);
+    }
+
+    /**
+     * Apply committed changes, e.g. from a delta listener
+     */
+    public synchronized void apply(List<Quad> added, List<Quad> removed) {
+        for (Quad quad : removed) {
+            if (!INFERRED_GRAPH.equals(quad.getGraph())) {
+                remove(quad.asTriple());
+            }
+        }
+        for (Quad quad : added) {
+            quad(quad);
+        }
+    }
+
+    public synchronized void add(Triple triple) {
+        update(triple, 1);
+    }
+
+    public synchronized void remove(Triple triple) {
+        update(triple, -1);
+    }
+
+    public synchronized int getDeviceCount() {
+        return deviceIds.size();
+    }
+
+    public synchronized boolean isDevice(Node device) {
+        return deviceIds.containsKey(device);
+    }
+
+    /**
+     * Whether a device has no link to any other device
+     */
+    public synchronized boolean isIsolated(Node device) {
+        return isolated.contains(device);
+    }
+
+    public synchronized int getIsolatedCount() {
+        return isolated.size();
+    }
+
+    /**
+     * Isolated devices in URI order (a copy)
+     */
+    public synchronized List<Node> getIsolatedDevices() {
+        List<Node> list = new ArrayList<>(isolated);
+        list.sort(URI_ORDER);
+        return list;
+    }
+
+    public synchronized boolean isConnected(Node device1, Node device2) {
+        Integer a = deviceIds.get(device1);
+        Integer b = deviceIds.get(device2);
+        return a != null && b != null && find(deviceSets[a]) == find(deviceSets[b]);
+    }
+
+    public synchronized int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Number of devices in the component of a device, or 0 if it is not a device
+     */
+    public synchronized int getComponentSize(Node device) {
+        Integer id = deviceIds.get(device);
+        return id != null ? setSizes[find(deviceSets[id])] : 0;
+    }
+
+    public synchronized int getLargestComponentSize() {
+        return componentSizes.isEmpty() ? 0 : componentSizes.lastKey();
+    }
+
+    /**
+     * Whether a device sits in a component smaller than the largest one, i.e.
+     * cut off from the main network
+     */
+    public synchronized boolean isOnIsland(Node device) {
+        int size = getComponentSize(device);
+        return size > 0 && size < getLargestComponentSize();
+    }
+
+    /**
+     * Number of devices on islands (components smaller than the largest one)
+     */
+    public synchronized int getIslandDeviceCount() {
+        int largest = getLargestComponentSize();
+        return largest == 0 ? 0 : deviceIds.size() - largest * componentSizes.get(largest);
+    }
+
+    /**
+     * Components smaller than the largest one, largest first, each in URI
+     * order. Unlike the other lookups this walks every device.
+     */
+    public synchronized List<List<Node>> getIslands() {
+        int largest = getLargestComponentSize();
+        Map<Integer, List<Node>> islands = new HashMap<>();
+        for (int id = 0; id < deviceSlots; id++) {
+            if (devices[id] != null) {
+                int root = find(deviceSets[id]);
+                if (setSizes[root] < largest) {
+                    islands.computeIfAbsent(root, k -> new ArrayList<>()).add(devices[id]);
+                }
+            }
+        }
+        List<List<Node>> list = new ArrayList<>(islands.values());
+        for (List<Node> island : list) {
+            island.sort(URI_ORDER);
+        }
+        list.sort(Comparator.<List<Node>>comparingInt(List::size).reversed()
+                      .thenComparing(island -> island.get(0), URI_ORDER));
+        return list;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return deviceIds.size() + " devices, " + componentCount + " components, " + isolated.size() +
+               " isolated";
+    }
+
+    // ---------------------------------------------------------------- topology facts
+
+    private void update(Triple triple, int delta) {
+        Node p = triple.getPredicate();
+        Node s = triple.getSubject();
+        Node o = triple.getObject();
+        if (p.equals(RDF.type.asNode())) {
+            if (o.isURI() && classes.isSubClassOf(o, NETWORK_DEVICE) && count(deviceTypes, s, o, delta)) {
+                deviceFact(s, delta);
+            }
+        } else if (p.equals(HAS_INTERFACE)) {
+            ownership(o, s, delta);
+        } else if (p.equals(INTERFACE_OF)) {
+            ownership(s, o, delta);
+        } else if (p.equals(CONNECTS_INTERFACE)) {
+            membership(s, o, delta);
+        } else if (p.equals(CONNECTED_TO) && !s.equals(o)) {
+            // Device facts first on the way in, last on the way out, so links always have both ends
+            if (delta > 0) {
+                count(connections, s, o, 1);
+                deviceFact(s, 1);
+                deviceFact(o, 1);
+                linkDevices(s, o, 1);
+            } else if (count(connections, s, o, -1)) {
+                linkDevices(s, o, -1);
+                deviceFact(s, -1);
+                deviceFact(o, -1);
+            }
+        }
+    }
+
+    private void ownership(Node iface, Node device, int delta) {
+        if (delta > 0) {
+            deviceFact(device, 1);
+        }
+        Node before = owner(iface);
+        if (count(interfaceOwners, iface, device, delta)) {
+            Node after = owner(iface);
+            if (before == null ? after != null : !before.equals(after)) {
+                for (Node link : interfaceLinks.getOrDefault(iface, Set.of())) {
+                    for (Node other : linkInterfaces.get(link).keySet()) {
+                        Node otherOwner = other.equals(iface) ? null : owner(other);
+                        if (otherOwner != null) {
+                            linkDevices(after, otherOwner, 1);
+                            linkDevices(before, otherOwner, -1);
+                        }
+                    }
+                }
+            }
+            if (delta < 0) {
+                deviceFact(device, -1);
+            }
+        }
+    }
+
+    private void membership(Node link, Node iface, int delta) {
+        boolean before = isMember(link, iface);
+        if (!count(linkInterfaces, link, iface, delta) || before == isMember(link, iface)) {
+            return;
+        }
+        // The interface joined or left the link
+        int sign = before ? -1 : 1;
+        if (sign > 0) {
+            interfaceLinks.computeIfAbsent(iface, k -> new LinkedHashSet<>(2)).add(link);
+        } else {
+            Set<Node> links = interfaceLinks.get(iface);
+            links.remove(link);
+            if (links.isEmpty()) {
+                interfaceLinks.remove(iface);
+            }
+        }
+        Node owner = owner(iface);
+        Map<Node, Integer> others = linkInterfaces.get(link);
+        if (owner != null && others != null) {
+            for (Node other : others.keySet()) {
+                if (!other.equals(iface)) {
+                    linkDevices(owner, owner(other), sign);
+                }
+            }
+        }
+    }
+
+    private boolean isMember(Node link, Node iface) {
+        Map<Node, Integer> members = linkInterfaces.get(link);
+        return members != null && members.containsKey(iface);
+    }
+
+    /**
+     * Owner of an interface; the smallest URI if the data names several
+     */
+    private Node owner(Node iface) {
+        Map<Node, Integer> owners = interfaceOwners.get(iface);
+        if (owners == null) {
+            return null;
+        }
+        Node owner = null;
+        for (Node candidate : owners.keySet()) {
+            if (owner == null || URI_ORDER.compare(candidate, owner) < 0) {
+                owner = candidate;
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * Add delta to the count of (key, value); false if a removal had nothing to remove
+     */
+    private static boolean count(Map<Node, Map<Node, Integer>> counts, Node key, Node value, int delta) {
+        Map<Node, Integer> values = counts.get(key);
+        if (delta < 0 && (values == null || !values.containsKey(value))) {
+            return false;
+        }
+        if (values == null) {
+            values = new HashMap<>(4);
+            counts.put(key, values);
+        }
+        int count = values.getOrDefault(value, 0) + delta;
+        if (count > 0) {
+            values.put(value, count);
+        } else {
+            values.remove(value);
+            if (values.isEmpty()) {
+                counts.remove(key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count a fact that makes a node a device; the node stops being a device
+     * when its last such fact goes
+     */
+    private void deviceFact(Node node, int delta) {
+        int count = deviceFacts.getOrDefault(node, 0) + delta;
+        if (count > 0) {
+            if (deviceFacts.put(node, count) == null) {
+                addDevice(node);
+            }
+        } else if (deviceFacts.remove(node) != null) {
+            removeDevice(node);
+        }
+    }
+
+    // ---------------------------------------------------------------- dynamic connectivity
+
+    private void addDevice(Node node) {
+        int id = deviceSlots++;
+        if (id == devices.length) {
+            int capacity = id * 2;
+            devices = Arrays.copyOf(devices, capacity);
+            deviceSets = Arrays.copyOf(deviceSets, capacity);
+            marks = Arrays.copyOf(marks, capacity);
+        }
+        devices[id] = node;
+        deviceIds.put(node, id);
+        adjacency.add(new HashMap<>(4));
+        isolated.add(node);
+        deviceSets[id] = newSet(1);
+        componentCount++;
+        sizeAdded(1);
+    }
+
+    /**
+     * Remove a device; by then it has no links left, so it is alone in its set
+     */
+    private void removeDevice(Node node) {
+        Integer id = deviceIds.remove(node);
+        if (id == null) {
+            return;
+        }
+        int root = find(deviceSets[id]);
+        setSizes[root]--;
+        sizeRemoved(1);
+        componentCount--;
+        devices[id] = null;
+        adjacency.set(id, new HashMap<>(0));
+        isolated.remove(node);
+    }
+
+    /**
+     * Add delta to the number of facts linking two devices
+     */
+    private void linkDevices(Node device1, Node device2, int delta) {
+        if (device1 == null || device2 == null || device1.equals(device2)) {
+            return;
+        }
+        Integer a = deviceIds.get(device1);
+        Integer b = deviceIds.get(device2);
+        if (a == null || b == null) {
+            return;
+        }
+        Map<Integer, Integer> neighbours = adjacency.get(a);
+        int count = neighbours.getOrDefault(b, 0) + delta;
+        if (count > 0) {
+            neighbours.put(b, count);
+            adjacency.get(b).put(a, count);
+            if (count == delta) {
+                isolated.remove(device1);
+                isolated.remove(device2);
+                union(deviceSets[a], deviceSets[b]);
+            }
+        } else if (neighbours.remove(b) != null) {
+            adjacency.get(b).remove(a);
+            if (neighbours.isEmpty()) {
+                isolated.add(device1);
+            }
+            if (adjacency.get(b).isEmpty()) {
+                isolated.add(device2);
+            }
+            split(a, b);
+        }
+    }
+
+    private int newSet(int size) {
+        if (sets == parent.length) {
+            parent = Arrays.copyOf(parent, sets * 2);
+            setSizes = Arrays.copyOf(setSizes, sets * 2);
+        }
+        parent[sets] = sets;
+        setSizes[sets] = size;
+        return sets++;
+    }
+
+    private int find(int set) {
+        while (parent[set] != set) {
+            parent[set] = parent[parent[set]];
+            set = parent[set];
+        }
+        return set;
+    }
+
+    private void union(int set1, int set2) {
+        int a = find(set1);
+        int b = find(set2);
+        if (a == b) {
+            return;
+        }
+        if (setSizes[a] < setSizes[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        sizeRemoved(setSizes[a]);
+        sizeRemoved(setSizes[b]);
+        parent[b] = a;
+        setSizes[a] += setSizes[b];
+        sizeAdded(setSizes[a]);
+        componentCount--;
+    }
+
+    /**
+     * After the last link between two devices went: search from both ends in
+     * lockstep and move the side that runs out first to a set of its own
+     */
+    private void split(int a, int b) {
+        int markA = ++stamp;
+        int markB = ++stamp;
+        List<Integer> sideA = new ArrayList<>();
+        List<Integer> sideB = new ArrayList<>();
+        marks[a] = markA;
+        marks[b] = markB;
+        sideA.add(a);
+        sideB.add(b);
+        int headA = 0;
+        int headB = 0;
+        List<Integer> separated;
+        while (true) {
+            if (headA == sideA.size()) {
+                separated = sideA;
+                break;
+            }
+            if (headB == sideB.size()) {
+                separated = sideB;
+                break;
+            }
+            if (expand(sideA.get(headA++), markA, markB, sideA) || expand(sideB.get(headB++), markB, markA, sideB)) {
+                return;
+            }
+        }
+
+        int root = find(deviceSets[a]);
+        sizeRemoved(setSizes[root]);
+        setSizes[root] -= separated.size();
+        sizeAdded(setSizes[root]);
+        int set = newSet(separated.size());
+        for (int device : separated) {
+            deviceSets[device] = set;
+        }
+        sizeAdded(separated.size());
+        componentCount++;
+        if (sets > COMPACTION_FACTOR * deviceIds.size() + MIN_COMPACTION_SETS) {
+            compact();
+        }
+    }
+
+    /**
+     * Visit the neighbours of a device for one side; true if the other side was reached
+     */
+    private boolean expand(int device, int mark, int otherMark, List<Integer> side) {
+        for (int neighbour : adjacency.get(device).keySet()) {
+            if (marks[neighbour] == otherMark) {
+                return true;
+            }
+            if (marks[neighbour] != mark) {
+                marks[neighbour] = mark;
+                side.add(neighbour);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuild the union-find with one set per component, dropping sets left behind by splits
+     */
+    private void compact() {
+        int[] newSets = new int[sets];
+        Arrays.fill(newSets, -1);
+        int[] sizes = new int[deviceIds.size()];
+        int count = 0;
+        for (int id = 0; id < deviceSlots; id++) {
+            if (devices[id] != null) {
+                int root = find(deviceSets[id]);
+                if (newSets[root] < 0) {
+                    sizes[count] = setSizes[root];
+                    newSets[root] = count++;
+                }
+                deviceSets[id] = newSets[root];
+            }
+        }
+        sets = count;
+        parent = new int[Math.max(16, count * 2)];
+        setSizes = Arrays.copyOf(sizes, parent.length);
+        for (int set = 0; set < count; set++) {
+            parent[set] = set;
+        }
+    }
+
+    private void sizeAdded(int size) {
+        componentSizes.merge(size, 1, Integer::sum);
+    }
+
+    private void sizeRemoved(int size) {
+        componentSizes.computeIfPresent(size, (k, count) -> count > 1 ? count - 1 : null);
+    }
+}
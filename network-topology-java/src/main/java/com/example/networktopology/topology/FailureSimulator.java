@@ -0,0 +1,496 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * What-if failures on a {@link TopologyGraph}: a device, a link or a whole
+ * site goes down, and the simulator reports the devices cut off and the 5G
+ * functions ({@link NetworkFunction}) taken out with them. A failed
+ * :NetworkLink takes down every edge compiled from it (a link joining three
+ * or more interfaces yields several edges).
+ *
+ * The topology is never copied or modified. A simulation marks the failed
+ * elements in stamped workspace arrays and walks the surviving fragments from
+ * the neighbours of what failed, so it only touches the components the
+ * failure hits. As in {@link SinglePointsOfFailure}, the largest fragment left
+ * of a component is taken to be the surviving network and the devices of its
+ * other fragments are reported as unreachable.
+ *
+ * Batches run concurrently on a {@link ForkJoinPool}, one workspace per
+ * chunk. Ranking every device needs no search per device: only articulation
+ * points cut anything off, and their blast radius comes from one
+ * {@link SinglePointsOfFailure} analysis; only the top devices are simulated
+ * in full.
+ */
+public final class FailureSimulator {
+
+    /** Every failure walks a whole component, so chunks can be small */
+    private static final int MIN_CHUNK_SIZE = 8;
+
+    private static final Comparator<Impact> BY_BLAST_RADIUS =
+        Comparator.comparingInt(Impact::getBlastRadius).reversed()
+            .thenComparingInt(impact -> impact.getFailure().getId());
+
+    private final TopologyGraph graph;
+    private final int[] components;
+    private final int componentCount;
+    private final int[] siteOffsets;
+    private final int[] siteDevices;
+    private final int[] linkOffsets;
+    private final int[] linkEdges;
+    private final int[] edgeLinks;
+    private final NetworkFunction[] functions;
+    private volatile SinglePointsOfFailure singlePointsOfFailure;
+
+    public FailureSimulator(TopologyGraph graph) {
+        this.graph = graph;
+        int n = graph.getDeviceCount();
+
+        // Connected components, to tell which fragments belonged together
+        components = new int[n];
+        Arrays.fill(components, -1);
+        int[] queue = new int[n];
+        int count = 0;
+        for (int root = 0; root < n; root++) {
+            if (components[root] >= 0) {
+                continue;
+            }
+            components[root] = count;
+            queue[0] = root;
+            for (int head = 0, tail = 1; head < tail; head++) {
+                int v = queue[head];
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    int u = graph.neighbors[i];
+                    if (components[u] < 0) {
+                        components[u] = count;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            count++;
+        }
+        componentCount = count;
+
+        // Devices of each site in CSR form
+        int sites = graph.getSiteCount();
+        siteOffsets = new int[sites + 1];
+        for (int v = 0; v < n; v++) {
+            if (graph.getSite(v) >= 0) {
+                siteOffsets[graph.getSite(v) + 1]++;
+            }
+        }
+        for (int s = 0; s < sites; s++) {
+            siteOffsets[s + 1] += siteOffsets[s];
+        }
+        siteDevices = new int[siteOffsets[sites]];
+        int[] next = Arrays.copyOf(siteOffsets, sites);
+        for (int v = 0; v < n; v++) {
+            if (graph.getSite(v) >= 0) {
+                siteDevices[next[graph.getSite(v)]++] = v;
+            }
+        }
+
+        // Edges of each link node in CSR form; an edge without a link node is a link of its own
+        int m = graph.getEdgeCount();
+        Map<Node, Integer> linkIds = new HashMap<>();
+        edgeLinks = new int[m];
+        int links = 0;
+        for (int e = 0; e < m; e++) {
+            Node link = graph.getLink(e);
+            Integer id = link != null ? linkIds.get(link) : null;
+            if (id == null) {
+                id = links++;
+                if (link != null) {
+                    linkIds.put(link, id);
+                }
+            }
+            edgeLinks[e] = id;
+        }
+        linkOffsets = new int[links + 1];
+        for (int e = 0; e < m; e++) {
+            linkOffsets[edgeLinks[e] + 1]++;
+        }
+        for (int l = 0; l < links; l++) {
+            linkOffsets[l + 1] += linkOffsets[l];
+        }
+        linkEdges = new int[m];
+        int[] nextEdge = Arrays.copyOf(linkOffsets, links);
+        for (int e = 0; e < m; e++) {
+            linkEdges[nextEdge[edgeLinks[e]]++] = e;
+        }
+
+        functions = new NetworkFunction[n];
+        for (int v = 0; v < n; v++) {
+            functions[v] = NetworkFunction.of(graph, v);
+        }
+    }
+
+    public TopologyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Impact of one failure
+     */
+    public Impact simulate(Failure failure) {
+        return new Workspace().simulate(failure);
+    }
+
+    /**
+     * Impacts of independent failures (each one on the intact topology),
+     * computed concurrently on the pool, in the order of {@code failures}
+     */
+    public List<Impact> simulate(List<Failure> failures, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        int chunks = Math.min(pool.getParallelism() * 4, failures.size() / MIN_CHUNK_SIZE);
+        if (chunks <= 1) {
+            return simulateChunk(failures);
+        }
+
+        List<Callable<List<Impact>>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            List<Failure> chunk = failures.subList(failures.size() * i / chunks, failures.size() * (i + 1) / chunks);
+            tasks.add(() -> simulateChunk(chunk));
+        }
+        List<Impact> impacts = new ArrayList<>(failures.size());
+        for (Future<List<Impact>> chunk : pool.invokeAll(tasks)) {
+            impacts.addAll(chunk.get());
+        }
+        return impacts;
+    }
+
+    /**
+     * The {@code limit} devices whose failure has the largest blast radius,
+     * largest first (ties by device id)
+     */
+    public List<Impact> rankDevices(int limit, ForkJoinPool pool) throws InterruptedException, ExecutionException {
+        SinglePointsOfFailure spof = singlePointsOfFailure();
+        int n = graph.getDeviceCount();
+        // Key: blast radius descending, then device id
+        long[] keyed = new long[n];
+        for (int v = 0; v < n; v++) {
+            keyed[v] = ((long) (n - 1) << 32) | v;
+        }
+        for (int i = 0; i < spof.getArticulationPointCount(); i++) {
+            int v = spof.getArticulationPoint(i);
+            keyed[v] = ((long) (n - 1 - spof.getIsolatedCountByArticulationPoint(i)) << 32) | v;
+        }
+        Arrays.sort(keyed);
+
+        List<Failure> top = new ArrayList<>();
+        for (int i = 0; i < n && i < limit; i++) {
+            top.add(Failure.device((int) keyed[i]));
+        }
+        return simulate(top, pool);
+    }
+
+    /**
+     * The {@code limit} sites whose failure has the largest blast radius,
+     * largest first (ties by site id). Every site is simulated.
+     */
+    public List<Impact> rankSites(int limit, ForkJoinPool pool) throws InterruptedException, ExecutionException {
+        List<Failure> failures = new ArrayList<>(graph.getSiteCount());
+        for (int s = 0; s < graph.getSiteCount(); s++) {
+            failures.add(Failure.site(s));
+        }
+        List<Impact> impacts = new ArrayList<>(simulate(failures, pool));
+        impacts.sort(BY_BLAST_RADIUS);
+        return impacts.subList(0, Math.min(limit, impacts.size()));
+    }
+
+    private List<Impact> simulateChunk(List<Failure> failures) {
+        Workspace workspace = new Workspace();
+        List<Impact> impacts = new ArrayList<>(failures.size());
+        for (Failure failure : failures) {
+            impacts.add(workspace.simulate(failure));
+        }
+        return impacts;
+    }
+
+    private SinglePointsOfFailure singlePointsOfFailure() {
+        SinglePointsOfFailure spof = singlePointsOfFailure;
+        if (spof == null) {
+            spof = singlePointsOfFailure = SinglePointsOfFailure.analyze(graph);
+        }
+        return spof;
+    }
+
+    /**
+     * Search state of one thread. Stamps mark the failed and visited devices
+     * of the current simulation, so nothing is cleared between simulations.
+     */
+    private final class Workspace {
+        private final int[] deviceStamps = new int[graph.getDeviceCount()];
+        private final int[] edgeStamps = new int[graph.getEdgeCount()];
+        private final int[] componentStamps = new int[componentCount];
+        private final int[] largestFragment = new int[componentCount];
+        private final int[] queue = new int[graph.getDeviceCount()];
+        private int[] fragmentStarts = new int[16];
+        private int fragments;
+        private int tail;
+        private int stamp;
+
+        Impact simulate(Failure failure) {
+            int failedStamp = ++stamp;
+            int visitedStamp = ++stamp;
+            int[] failed = failedDevices(failure);
+            for (int v : failed) {
+                deviceStamps[v] = failedStamp;
+            }
+
+            // Every surviving device of a hit component is connected to the
+            // neighbour of a failed device or the end of a failed link
+            fragments = 0;
+            tail = 0;
+            if (failure.kind == Failure.Kind.LINK) {
+                int link = edgeLinks[failure.id];
+                for (int i = linkOffsets[link]; i < linkOffsets[link + 1]; i++) {
+                    edgeStamps[linkEdges[i]] = failedStamp;
+                }
+                for (int i = linkOffsets[link]; i < linkOffsets[link + 1]; i++) {
+                    explore(graph.getEdgeSource(linkEdges[i]), failedStamp, visitedStamp);
+                    explore(graph.getEdgeTarget(linkEdges[i]), failedStamp, visitedStamp);
+                }
+            }
+            for (int v : failed) {
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    explore(graph.neighbors[i], failedStamp, visitedStamp);
+                }
+            }
+            fragmentStarts = ensureCapacity(fragmentStarts, fragments + 1);
+            fragmentStarts[fragments] = tail;
+
+            // Keep the largest fragment of each component (the first found on ties)
+            for (int f = 0; f < fragments; f++) {
+                int c = components[queue[fragmentStarts[f]]];
+                if (componentStamps[c] != visitedStamp) {
+                    componentStamps[c] = visitedStamp;
+                    largestFragment[c] = f;
+                } else if (size(f) > size(largestFragment[c])) {
+                    largestFragment[c] = f;
+                }
+            }
+            int unreachableCount = 0;
+            for (int f = 0; f < fragments; f++) {
+                if (largestFragment[components[queue[fragmentStarts[f]]]] != f) {
+                    unreachableCount += size(f);
+                }
+            }
+            int[] unreachable = new int[unreachableCount];
+            int count = 0;
+            for (int f = 0; f < fragments; f++) {
+                if (largestFragment[components[queue[fragmentStarts[f]]]] != f) {
+                    System.arraycopy(queue, fragmentStarts[f], unreachable, count, size(f));
+                    count += size(f);
+                }
+            }
+
+            int[] functionCounts = new int[NetworkFunction.values().length];
+            for (int v : failed) {
+                if (functions[v] != null) {
+                    functionCounts[functions[v].ordinal()]++;
+                }
+            }
+            for (int v : unreachable) {
+                if (functions[v] != null) {
+                    functionCounts[functions[v].ordinal()]++;
+                }
+            }
+            return new Impact(failure, failed, unreachable, functionCounts);
+        }
+
+        /**
+         * Breadth-first search of the fragment of a surviving device not seen yet
+         */
+        private void explore(int seed, int failedStamp, int visitedStamp) {
+            if (deviceStamps[seed] == failedStamp || deviceStamps[seed] == visitedStamp) {
+                return;
+            }
+            fragmentStarts = ensureCapacity(fragmentStarts, fragments + 1);
+            fragmentStarts[fragments++] = tail;
+            deviceStamps[seed] = visitedStamp;
+            int head = tail;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    int u = graph.neighbors[i];
+                    if (deviceStamps[u] != failedStamp && deviceStamps[u] != visitedStamp
+                            && edgeStamps[graph.edges[i]] != failedStamp) {
+                        deviceStamps[u] = visitedStamp;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+        }
+
+        private int size(int fragment) {
+            return fragmentStarts[fragment + 1] - fragmentStarts[fragment];
+        }
+
+        private int[] failedDevices(Failure failure) {
+            switch (failure.kind) {
+                case DEVICE:
+                    return new int[] { failure.id };
+                case SITE:
+                    return Arrays.copyOfRange(siteDevices, siteOffsets[failure.id], siteOffsets[failure.id + 1]);
+                default:
+                    return new int[0];
+            }
+        }
+    }
+
+    private static int[] ensureCapacity(int[] array, int size) {
+        return size < array.length ? array : Arrays.copyOf(array, Math.max(size + 1, array.length * 2));
+    }
+
+    /**
+     * A device, link or site going down
+     */
+    public static final class Failure {
+
+        public enum Kind { DEVICE, LINK, SITE }
+
+        private final Kind kind;
+        private final int id;
+
+        private Failure(Kind kind, int id) {
+            this.kind = kind;
+            this.id = id;
+        }
+
+        public static Failure device(int device) {
+            return new Failure(Kind.DEVICE, device);
+        }
+
+        /**
+         * The link an edge was compiled from: every edge of the same
+         * :NetworkLink fails with it, an edge from :connectedTo alone fails
+         * by itself
+         */
+        public static Failure link(int edge) {
+            return new Failure(Kind.LINK, edge);
+        }
+
+        public static Failure site(int site) {
+            return new Failure(Kind.SITE, site);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Device, edge or site id, depending on the kind
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Name of the failed element; an edge without a link node (from
+         * :connectedTo alone) is named after its two devices
+         */
+        public String describe(TopologyGraph graph) {
+            if (kind == Kind.LINK && graph.getLink(id) == null) {
+                return name(graph.getDevice(graph.getEdgeSource(id))) + "–" +
+                       name(graph.getDevice(graph.getEdgeTarget(id)));
+            }
+            return name(kind == Kind.DEVICE ? graph.getDevice(id)
+                      : kind == Kind.LINK ? graph.getLink(id)
+                      : graph.getSiteNode(id));
+        }
+
+        private static String name(Node node) {
+            return node.isURI() ? node.getLocalName() : node.toString();
+        }
+    }
+
+    /**
+     * Devices and 5G functions lost to one failure
+     */
+    public static final class Impact {
+        private final Failure failure;
+        private final int[] failed;
+        private final int[] unreachable;
+        private final int[] functionCounts;
+
+        Impact(Failure failure, int[] failed, int[] unreachable, int[] functionCounts) {
+            this.failure = failure;
+            this.failed = failed;
+            this.unreachable = unreachable;
+            this.functionCounts = functionCounts;
+        }
+
+        public Failure getFailure() {
+            return failure;
+        }
+
+        /**
+         * Devices that went down themselves (none for a link failure)
+         */
+        public int[] getFailedDevices() {
+            return failed.clone();
+        }
+
+        /**
+         * Surviving devices cut off from the largest remaining fragment of their component
+         */
+        public int[] getUnreachableDevices() {
+            return unreachable.clone();
+        }
+
+        public int getUnreachableCount() {
+            return unreachable.length;
+        }
+
+        /**
+         * Number of devices out of service: failed plus unreachable
+         */
+        public int getBlastRadius() {
+            return failed.length + unreachable.length;
+        }
+
+        /**
+         * Number of failed or unreachable devices providing a 5G function
+         */
+        public int getAffectedCount(NetworkFunction function) {
+            return functionCounts[function.ordinal()];
+        }
+
+        /**
+         * Number of failed or unreachable devices providing any 5G function
+         */
+        public int getAffectedFunctionCount() {
+            int total = 0;
+            for (int count : functionCounts) {
+                total += count;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(failure.kind.name().toLowerCase()).append(' ').append(failure.id).append(": ")
+                .append(failed.length).append(" failed, ").append(unreachable.length).append(" unreachable");
+            for (NetworkFunction function : NetworkFunction.values()) {
+                if (functionCounts[function.ordinal()] > 0) {
+                    text.append(", ").append(functionCounts[function.ordinal()]).append(' ').append(function.getLabel());
+                }
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,660 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.rdf.model.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Interface addresses (:ipAddress) of the whole inventory, parsed into
+ * 128-bit keys and sorted, to find duplicate addresses and overlapping
+ * subnets in one pass each.
+ *
+ * IPv4 addresses are keyed as IPv4-mapped IPv6 addresses (::ffff:a.b.c.d),
+ * so both families share one ordering. A value may carry a prefix length
+ * ("10.1.1.1/24"); the subnet of that interface is its address with the host
+ * bits cleared. CIDR blocks are either nested or disjoint, so two subnets
+ * overlap when one strictly contains the other; interfaces on the same subnet
+ * are expected and not reported. Values that are not IP addresses are kept
+ * aside as malformed.
+ *
+ * Keys are sorted with an LSD radix sort that skips the bytes every key
+ * shares, so an all-IPv4 inventory takes at most four passes.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class IpAddressIndex {
+
+    private static final Node HAS_INTERFACE = NodeFactory.createURI(ONTOLOGY_NS + "hasInterface");
+    private static final Node IP_ADDRESS = NodeFactory.createURI(ONTOLOGY_NS + "ipAddress");
+    private static final long IPV4_MAPPED = 0xFFFF00000000L;
+    private static final Comparator<Node> URI_ORDER = Comparator.comparing(Node::toString);
+
+    // One entry per :ipAddress value
+    private final Node[] interfaces;
+    private final Node[] devices;
+    private final String[] values;
+    private final boolean[] valid;
+    private final long[] high;
+    private final long[] low;
+    /** Prefix length in the 128-bit key space, -1 without one */
+    private final int[] prefixes;
+
+    /** Valid entries in address order */
+    private final int[] order;
+    /** Groups of entries of different interfaces sharing an address, in CSR form */
+    private final int[] duplicateOffsets;
+    private final int[] duplicates;
+    /** Pairs of entries whose subnets nest: each subnet with the smallest one containing it */
+    private final int[] overlapOuter;
+    private final int[] overlapInner;
+    private final int[] malformed;
+
+    /**
+     * Index of addresses given per entry; {@code devices} may hold nulls for
+     * interfaces of no known device
+     */
+    public IpAddressIndex(Node[] interfaces, Node[] devices, String[] values) {
+        int n = values.length;
+        this.interfaces = interfaces;
+        this.devices = devices;
+        this.values = values;
+        valid = new boolean[n];
+        high = new long[n];
+        low = new long[n];
+        prefixes = new int[n];
+
+        int[] parsed = new int[n];
+        int validCount = 0;
+        int[] bad = new int[n];
+        int badCount = 0;
+        long[] key = new long[3];
+        for (int i = 0; i < n; i++) {
+            if (parse(values[i], key)) {
+                valid[i] = true;
+                high[i] = key[0];
+                low[i] = key[1];
+                prefixes[i] = (int) key[2];
+                parsed[validCount++] = i;
+            } else {
+                prefixes[i] = -1;
+                bad[badCount++] = i;
+            }
+        }
+        malformed = Arrays.copyOf(bad, badCount);
+
+        // Duplicates: runs of equal keys in address order
+        order = Arrays.copyOf(parsed, validCount);
+        radixSort(order, high, low, null);
+        List<int[]> groups = new ArrayList<>();
+        int grouped = 0;
+        for (int start = 0, end; start < order.length; start = end) {
+            end = start + 1;
+            while (end < order.length && high[order[end]] == high[order[start]]
+                   && low[order[end]] == low[order[start]]) {
+                end++;
+            }
+            if (end - start > 1) {
+                int[] group = distinctInterfaces(Arrays.copyOfRange(order, start, end));
+                if (group.length > 1) {
+                    groups.add(group);
+                    grouped += group.length;
+                }
+            }
+        }
+        duplicateOffsets = new int[groups.size() + 1];
+        duplicates = new int[grouped];
+        for (int g = 0; g < groups.size(); g++) {
+            int[] group = groups.get(g);
+            System.arraycopy(group, 0, duplicates, duplicateOffsets[g], group.length);
+            duplicateOffsets[g + 1] = duplicateOffsets[g] + group.length;
+        }
+
+        // Overlaps: subnets in (network, prefix) order, with a stack of the
+        // subnets still open at the current network
+        int subnetCount = 0;
+        int[] subnets = new int[validCount];
+        long[] networkHigh = new long[n];
+        long[] networkLow = new long[n];
+        for (int i : order) {
+            if (prefixes[i] >= 0) {
+                networkHigh[i] = high[i] & maskHigh(prefixes[i]);
+                networkLow[i] = low[i] & maskLow(prefixes[i]);
+                subnets[subnetCount++] = i;
+            }
+        }
+        subnets = Arrays.copyOf(subnets, subnetCount);
+        radixSort(subnets, networkHigh, networkLow, prefixes);
+        int[] outer = new int[subnetCount];
+        int[] inner = new int[subnetCount];
+        int overlaps = 0;
+        int[] stack = new int[subnetCount];
+        int depth = 0;
+        for (int k = 0; k < subnetCount; k++) {
+            int s = subnets[k];
+            if (k > 0) {
+                int previous = subnets[k - 1];
+                if (networkHigh[previous] == networkHigh[s] && networkLow[previous] == networkLow[s]
+                    && prefixes[previous] == prefixes[s]) {
+                    continue;
+                }
+            }
+            while (depth > 0 && !contains(stack[depth - 1], networkHigh[s], networkLow[s])) {
+                depth--;
+            }
+            // Only IPv6 blocks can contain IPv4-mapped keys; those are no overlap
+            if (depth > 0 && isIPv4(stack[depth - 1]) == isIPv4(s)) {
+                outer[overlaps] = stack[depth - 1];
+                inner[overlaps++] = s;
+            }
+            stack[depth++] = s;
+        }
+        overlapOuter = Arrays.copyOf(outer, overlaps);
+        overlapInner = Arrays.copyOf(inner, overlaps);
+    }
+
+    /**
+     * Index of every :ipAddress in a model (inferred or not)
+     */
+    public static IpAddressIndex fromModel(Model model) {
+        return fromGraph(model.getGraph());
+    }
+
+    public static IpAddressIndex fromGraph(Graph graph) {
+        // Owner of each interface; the smallest device URI if several claim it
+        Map<Node, Node> owners = new HashMap<>();
+        graph.find(Node.ANY, HAS_INTERFACE, Node.ANY).forEachRemaining(t ->
+            owners.merge(t.getObject(), t.getSubject(), (a, b) -> URI_ORDER.compare(a, b) <= 0 ? a : b));
+
+        List<Node> interfaces = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        graph.find(Node.ANY, IP_ADDRESS, Node.ANY).forEachRemaining(t -> {
+            interfaces.add(t.getSubject());
+            values.add(t.getObject().isLiteral() ? t.getObject().getLiteralLexicalForm() : t.getObject().toString());
+        });
+        int n = values.size();
+        Node[] devices = new Node[n];
+        for (int i = 0; i < n; i++) {
+            devices[i] = owners.get(interfaces.get(i));
+        }
+        return new IpAddressIndex(interfaces.toArray(new Node[0]), devices, values.toArray(new String[0]));
+    }
+
+    public int getEntryCount() {
+        return values.length;
+    }
+
+    public Node getInterface(int entry) {
+        return interfaces[entry];
+    }
+
+    /**
+     * Device owning the interface of an entry, or null
+     */
+    public Node getDevice(int entry) {
+        return devices[entry];
+    }
+
+    /**
+     * The :ipAddress value as written
+     */
+    public String getValue(int entry) {
+        return values[entry];
+    }
+
+    public boolean isValid(int entry) {
+        return valid[entry];
+    }
+
+    public boolean isIPv4(int entry) {
+        // A mapped address written as IPv6 with a prefix beyond the mapping stays IPv6
+        return valid[entry] && high[entry] == 0 && (low[entry] >>> 32) == 0xFFFF
+            && (prefixes[entry] < 0 || prefixes[entry] >= 96);
+    }
+
+    /**
+     * Prefix length as written (0-32 for IPv4, 0-128 for IPv6), or -1
+     */
+    public int getPrefixLength(int entry) {
+        int prefix = prefixes[entry];
+        return prefix < 0 || !isIPv4(entry) ? prefix : prefix - 96;
+    }
+
+    /**
+     * Canonical form of the address of a valid entry, without prefix
+     */
+    public String getAddress(int entry) {
+        return format(high[entry], low[entry], isIPv4(entry));
+    }
+
+    /**
+     * Canonical form of the subnet of a valid entry with a prefix
+     * ("10.1.1.0/24"), or null
+     */
+    public String getSubnet(int entry) {
+        int prefix = prefixes[entry];
+        if (!valid[entry] || prefix < 0) {
+            return null;
+        }
+        return format(high[entry] & maskHigh(prefix), low[entry] & maskLow(prefix), isIPv4(entry)) +
+               "/" + getPrefixLength(entry);
+    }
+
+    /**
+     * Entries holding an address (prefix ignored), in interface URI order;
+     * empty if none or the address does not parse
+     */
+    public int[] lookup(String address) {
+        long[] key = new long[3];
+        if (!parse(address, key)) {
+            return new int[0];
+        }
+        int from = 0;
+        int to = order.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (compare(high[order[middle]], low[order[middle]], key[0], key[1]) < 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        int end = from;
+        while (end < order.length && high[order[end]] == key[0] && low[order[end]] == key[1]) {
+            end++;
+        }
+        int[] entries = Arrays.copyOfRange(order, from, end);
+        sortByInterface(entries);
+        return entries;
+    }
+
+    /**
+     * Number of addresses held by more than one interface
+     */
+    public int getDuplicateCount() {
+        return duplicateOffsets.length - 1;
+    }
+
+    /**
+     * Entries of the interfaces sharing the g-th duplicate address (one per
+     * interface, in interface URI order); groups are in address order
+     */
+    public int[] getDuplicate(int g) {
+        return Arrays.copyOfRange(duplicates, duplicateOffsets[g], duplicateOffsets[g + 1]);
+    }
+
+    /**
+     * Number of subnets contained in another, different subnet
+     */
+    public int getOverlapCount() {
+        return overlapInner.length;
+    }
+
+    /**
+     * Entry of the smallest subnet containing the k-th overlapping one
+     */
+    public int getOverlapOuter(int k) {
+        return overlapOuter[k];
+    }
+
+    /**
+     * Entry of the k-th subnet contained in another; overlaps are in network order
+     */
+    public int getOverlapInner(int k) {
+        return overlapInner[k];
+    }
+
+    /**
+     * Entries whose value is not an IP address, in entry order
+     */
+    public int[] getMalformed() {
+        return malformed.clone();
+    }
+
+    @Override
+    public String toString() {
+        return values.length + " addresses, " + getDuplicateCount() + " duplicates, " + getOverlapCount() +
+               " overlapping subnets, " + malformed.length + " malformed";
+    }
+
+    /**
+     * One entry per interface of a run of equal addresses, in interface URI order
+     */
+    private int[] distinctInterfaces(int[] entries) {
+        sortByInterface(entries);
+        int size = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (size == 0 || !interfaces[entries[size - 1]].equals(interfaces[entries[i]])) {
+                entries[size++] = entries[i];
+            }
+        }
+        return Arrays.copyOf(entries, size);
+    }
+
+    private void sortByInterface(int[] entries) {
+        Integer[] boxed = new Integer[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            boxed[i] = entries[i];
+        }
+        Arrays.sort(boxed, Comparator.comparing((Integer e) -> interfaces[e], URI_ORDER).thenComparing(e -> e));
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = boxed[i];
+        }
+    }
+
+    /**
+     * Whether the subnet of an entry contains an address
+     */
+    private boolean contains(int subnet, long addressHigh, long addressLow) {
+        int prefix = prefixes[subnet];
+        return ((addressHigh ^ high[subnet]) & maskHigh(prefix)) == 0
+            && ((addressLow ^ low[subnet]) & maskLow(prefix)) == 0;
+    }
+
+    private static long maskHigh(int prefix) {
+        return prefix >= 64 ? -1L : prefix == 0 ? 0 : -1L << (64 - prefix);
+    }
+
+    private static long maskLow(int prefix) {
+        return prefix >= 128 ? -1L : prefix <= 64 ? 0 : -1L << (128 - prefix);
+    }
+
+    private static int compare(long high1, long low1, long high2, long low2) {
+        int order = Long.compareUnsigned(high1, high2);
+        return order != 0 ? order : Long.compareUnsigned(low1, low2);
+    }
+
+    /**
+     * Stable LSD radix sort of entries by (high, low, minor) as unsigned
+     * values, one byte per pass; {@code minor} (0-255) may be null. Keys are
+     * copied next to the entries so every pass reads sequentially, and only
+     * the bytes where some keys differ get a pass.
+     */
+    private static void radixSort(int[] entries, long[] high, long[] low, int[] minor) {
+        int n = entries.length;
+        if (n < 2) {
+            return;
+        }
+        int[] ids = entries.clone();
+        long[] highKeys = new long[n];
+        long[] lowKeys = new long[n];
+        int[] minorKeys = new int[n];
+        long highBits = 0;
+        long lowBits = 0;
+        int minorBits = 0;
+        for (int i = 0; i < n; i++) {
+            int e = ids[i];
+            highKeys[i] = high[e];
+            lowKeys[i] = low[e];
+            minorKeys[i] = minor != null ? minor[e] : 0;
+            highBits |= highKeys[i] ^ highKeys[0];
+            lowBits |= lowKeys[i] ^ lowKeys[0];
+            minorBits |= minorKeys[i] ^ minorKeys[0];
+        }
+
+        KeyArrays from = new KeyArrays(ids, highKeys, lowKeys, minorKeys);
+        KeyArrays to = new KeyArrays(new int[n], new long[n], new long[n], new int[n]);
+        int[] counts = new int[256];
+        if ((minorBits & 0xFF) != 0) {
+            from.distribute(to, counts, null, from.minor, 0);
+            KeyArrays swap = from;
+            from = to;
+            to = swap;
+        }
+        for (int word = 0; word < 2; word++) {
+            long bits = word == 0 ? lowBits : highBits;
+            for (int shift = 0; shift < 64; shift += 8) {
+                if ((bits >>> shift & 0xFF) != 0) {
+                    from.distribute(to, counts, word == 0 ? from.low : from.high, null, shift);
+                    KeyArrays swap = from;
+                    from = to;
+                    to = swap;
+                }
+            }
+        }
+        System.arraycopy(from.ids, 0, entries, 0, n);
+    }
+
+    /**
+     * Entries with their keys, in the order of one radix sort pass
+     */
+    private static final class KeyArrays {
+        final int[] ids;
+        final long[] high;
+        final long[] low;
+        final int[] minor;
+
+        KeyArrays(int[] ids, long[] high, long[] low, int[] minor) {
+            this.ids = ids;
+            this.high = high;
+            this.low = low;
+            this.minor = minor;
+        }
+
+        /**
+         * Counting sort into {@code to} by one byte of {@code keys} (or of
+         * {@code minorKeys} when keys is null)
+         */
+        void distribute(KeyArrays to, int[] counts, long[] keys, int[] minorKeys, int shift) {
+            int n = ids.length;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[(keys != null ? (int) (keys[i] >>> shift) : minorKeys[i]) & 0xFF]++;
+            }
+            for (int b = 0, start = 0; b < 256; b++) {
+                int size = counts[b];
+                counts[b] = start;
+                start += size;
+            }
+            for (int i = 0; i < n; i++) {
+                int position = counts[(keys != null ? (int) (keys[i] >>> shift) : minorKeys[i]) & 0xFF]++;
+                to.ids[position] = ids[i];
+                to.high[position] = high[i];
+                to.low[position] = low[i];
+                to.minor[position] = minor[i];
+            }
+        }
+    }
+
+    /**
+     * Parse an IPv4 or IPv6 address with an optional prefix length into
+     * {@code key} (high and low 64 bits, prefix in the 128-bit space or -1)
+     */
+    static boolean parse(String value, long[] key) {
+        String text = value.trim();
+        int prefix = -1;
+        int slash = text.indexOf('/');
+        if (slash >= 0) {
+            prefix = parseDecimal(text, slash + 1, text.length(), 128);
+            if (prefix < 0) {
+                return false;
+            }
+            text = text.substring(0, slash);
+        }
+        if (text.indexOf(':') < 0) {
+            long ipv4 = parseIPv4(text, 0, text.length());
+            if (ipv4 < 0 || prefix > 32) {
+                return false;
+            }
+            key[0] = 0;
+            key[1] = IPV4_MAPPED | ipv4;
+            key[2] = prefix < 0 ? -1 : prefix + 96;
+            return true;
+        }
+        int zone = text.indexOf('%');
+        if (zone >= 0) {
+            text = text.substring(0, zone);
+        }
+        if (!parseIPv6(text, key)) {
+            return false;
+        }
+        key[2] = prefix;
+        return true;
+    }
+
+    /**
+     * Dotted quad to an unsigned 32-bit value, or -1
+     */
+    private static long parseIPv4(String text, int from, int to) {
+        long address = 0;
+        int start = from;
+        for (int part = 0; part < 4; part++) {
+            int end = part < 3 ? text.indexOf('.', start) : to;
+            if (end < 0 || end > to) {
+                return -1;
+            }
+            int octet = parseDecimal(text, start, end, 255);
+            if (octet < 0) {
+                return -1;
+            }
+            address = address << 8 | octet;
+            start = end + 1;
+        }
+        return address;
+    }
+
+    private static int parseDecimal(String text, int from, int to, int max) {
+        if (from >= to || to - from > 3) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number <= max ? number : -1;
+    }
+
+    /**
+     * Eight hex groups, at most one "::" standing for a run of zero groups,
+     * and optionally a dotted quad for the last two groups
+     */
+    private static boolean parseIPv6(String text, long[] key) {
+        int[] groups = new int[8];
+        int count = 0;
+        int gap = -1;
+        int i = 0;
+        int length = text.length();
+        if (text.startsWith("::")) {
+            gap = 0;
+            i = 2;
+        } else if (text.startsWith(":")) {
+            return false;
+        }
+        while (i < length) {
+            int end = i;
+            while (end < length && text.charAt(end) != ':' && text.charAt(end) != '.') {
+                end++;
+            }
+            if (end < length && text.charAt(end) == '.') {
+                // Embedded IPv4 ends the address
+                long ipv4 = parseIPv4(text, i, length);
+                if (ipv4 < 0 || count > 6) {
+                    return false;
+                }
+                groups[count++] = (int) (ipv4 >>> 16);
+                groups[count++] = (int) (ipv4 & 0xFFFF);
+                i = length;
+                break;
+            }
+            if (end == i || end - i > 4 || count == 8) {
+                return false;
+            }
+            int group = 0;
+            for (int j = i; j < end; j++) {
+                int digit = Character.digit(text.charAt(j), 16);
+                if (digit < 0) {
+                    return false;
+                }
+                group = group << 4 | digit;
+            }
+            groups[count++] = group;
+            if (end == length) {
+                i = end;
+                break;
+            }
+            if (end + 1 < length && text.charAt(end + 1) == ':') {
+                if (gap >= 0) {
+                    return false;
+                }
+                gap = count;
+                i = end + 2;
+            } else if (end + 1 == length) {
+                return false;
+            } else {
+                i = end + 1;
+            }
+        }
+        if (gap < 0 ? count != 8 : count > 7) {
+            return false;
+        }
+        int[] full = new int[8];
+        if (gap < 0) {
+            full = groups;
+        } else {
+            System.arraycopy(groups, 0, full, 0, gap);
+            System.arraycopy(groups, gap, full, 8 - (count - gap), count - gap);
+        }
+        long high = 0;
+        long low = 0;
+        for (int g = 0; g < 4; g++) {
+            high = high << 16 | full[g];
+            low = low << 16 | full[g + 4];
+        }
+        key[0] = high;
+        key[1] = low;
+        return true;
+    }
+
+    /**
+     * Dotted quad for IPv4, RFC 5952 form (longest zero run compressed) for IPv6
+     */
+    private static String format(long high, long low, boolean ipv4) {
+        if (ipv4) {
+            return (low >>> 24 & 0xFF) + "." + (low >>> 16 & 0xFF) + "." + (low >>> 8 & 0xFF) + "." + (low & 0xFF);
+        }
+        int[] groups = new int[8];
+        for (int g = 0; g < 4; g++) {
+            groups[g] = (int) (high >>> (48 - 16 * g) & 0xFFFF);
+            groups[g + 4] = (int) (low >>> (48 - 16 * g) & 0xFFFF);
+        }
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int g = 0; g < 8; ) {
+            int end = g;
+            while (end < 8 && groups[end] == 0) {
+                end++;
+            }
+            if (end - g > bestLength) {
+                bestStart = g;
+                bestLength = end - g;
+            }
+            g = end > g ? end : g + 1;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int g = 0; g < 8; g++) {
+            if (g == bestStart) {
+                text.append("::");
+                g += bestLength - 1;
+                continue;
+            }
+            if (text.length() > 0 && text.charAt(text.length() - 1) != ':') {
+                text.append(':');
+            }
+            text.append(Integer.toHexString(groups[g]));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+import com.example.networktopology.reasoning.ClassHierarchyIndex;
+
+import java.util.Collection;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * 5G functions a device of the topology can provide
+ */
+public enum NetworkFunction {
+
+    GNODEB("gNodeB"),
+    AMF("AMF"),
+    SMF("SMF"),
+    UPF("UPF"),
+    EDGE_SERVER("EdgeServer");
+
+    private static final Node GNODEB_CLASS = NodeFactory.createURI(ONTOLOGY_NS + "gNodeB");
+    private static final Node CORE_NETWORK_FUNCTION_CLASS = NodeFactory.createURI(ONTOLOGY_NS + "CoreNetworkFunction");
+    private static final Node EDGE_SERVER_CLASS = NodeFactory.createURI(ONTOLOGY_NS + "EdgeServer");
+
+    private final String label;
+
+    NetworkFunction(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Function of a device of a compiled topology, or null
+     */
+    public static NetworkFunction of(TopologyGraph graph, int device) {
+        return graph.getFunction(device);
+    }
+
+    /**
+     * Function of a device from its asserted types and its :networkFunction
+     * value. Classes match with their subclasses, so a subclass of :gNodeB is
+     * a gNodeB. A core network function is AMF, SMF or UPF by its declared
+     * :networkFunction; only when that is missing is the local name tried as
+     * a fallback (AMF*, SMF*, UPF*, as in inventories that predate the
+     * property). Other functions return null.
+     */
+    public static NetworkFunction classify(Node device, Collection<Node> types, String declared,
+                                           ClassHierarchyIndex classes) {
+        boolean core = false;
+        if (types != null) {
+            for (Node type : types) {
+                if (classes.isSubClassOf(type, GNODEB_CLASS)) {
+                    return GNODEB;
+                }
+                if (classes.isSubClassOf(type, EDGE_SERVER_CLASS)) {
+                    return EDGE_SERVER;
+                }
+                core |= classes.isSubClassOf(type, CORE_NETWORK_FUNCTION_CLASS);
+            }
+        }
+        if (!core) {
+            return null;
+        }
+        if (declared != null) {
+            return coreFunction(declared.trim(), true);
+        }
+        return coreFunction(device.isURI() ? device.getLocalName() : device.toString(), false);
+    }
+
+    private static NetworkFunction coreFunction(String name, boolean exact) {
+        for (NetworkFunction function : new NetworkFunction[] { AMF, SMF, UPF }) {
+            if (exact ? name.equalsIgnoreCase(function.label) : name.startsWith(function.label)) {
+                return function;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,671 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Latency- and bandwidth-weighted paths over a {@link TopologyGraph}.
+ *
+ * Shortest-latency paths use A* with landmark lower bounds (ALT): a few
+ * landmark devices, picked farthest-first, store their latency to every
+ * device, and the triangle inequality turns those into an admissible
+ * heuristic. With no landmarks the search is plain Dijkstra. Widest paths
+ * maximise the bottleneck bandwidth, and among the widest take the one with
+ * the lowest latency. K-shortest paths are Yen's loopless paths by latency.
+ *
+ * Links of unknown latency weigh {@code unknownLatency} ms; links of unknown
+ * bandwidth count as 0 Mbps. Engines are immutable; every query, and every
+ * chunk of a batch, uses its own search workspace. Device ids outside the
+ * graph are rejected with an IllegalArgumentException.
+ */
+public final class PathEngine {
+
+    public static final int DEFAULT_LANDMARKS = 8;
+    public static final double DEFAULT_UNKNOWN_LATENCY = 1.0;
+
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final TopologyGraph graph;
+    private final double[] latencies;
+    private final double[] capacities;
+    private final double[][] landmarkDistances;
+
+    public PathEngine(TopologyGraph graph) {
+        this(graph, DEFAULT_LANDMARKS, DEFAULT_UNKNOWN_LATENCY);
+    }
+
+    /**
+     * Engine with the given number of landmarks (0 for plain Dijkstra) and
+     * the latency assumed for links without :latency
+     */
+    public PathEngine(TopologyGraph graph, int landmarks, double unknownLatency) {
+        this.graph = graph;
+        int edges = graph.getEdgeCount();
+        latencies = new double[edges];
+        capacities = new double[edges];
+        for (int e = 0; e < edges; e++) {
+            double latency = graph.getLatency(e);
+            double bandwidth = graph.getBandwidth(e);
+            latencies[e] = Double.isNaN(latency) || latency < 0 ? unknownLatency : latency;
+            capacities[e] = Double.isNaN(bandwidth) || bandwidth < 0 ? 0 : bandwidth;
+        }
+        landmarkDistances = selectLandmarks(Math.min(landmarks, graph.getDeviceCount()));
+    }
+
+    public TopologyGraph getGraph() {
+        return graph;
+    }
+
+    public int getLandmarkCount() {
+        return landmarkDistances.length;
+    }
+
+    /**
+     * Lowest-latency path between two devices, or null if they are not connected
+     */
+    public Path shortestPath(int source, int target) {
+        checkPair(source, target);
+        return new Search().shortest(source, target, 0);
+    }
+
+    /**
+     * Path with the highest bottleneck bandwidth, the lowest-latency one among
+     * those, or null if the devices are not connected
+     */
+    public Path widestPath(int source, int target) {
+        checkPair(source, target);
+        return new Search().widest(source, target);
+    }
+
+    /**
+     * Up to k loopless paths in order of latency (Yen's algorithm)
+     */
+    public List<Path> kShortestPaths(int source, int target, int k) {
+        checkPair(source, target);
+        return new Search().kShortest(source, target, k);
+    }
+
+    /**
+     * Shortest-latency paths for {source, target} pairs, computed concurrently
+     * on the pool. Pairs sharing a source are answered by one search.
+     */
+    public List<Path> shortestPaths(List<int[]> pairs, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        return batch(pairs, pool, (search, order, from, to, results) -> {
+            int start = from;
+            while (start < to) {
+                int source = pairs.get(order[start])[0];
+                int end = start + 1;
+                while (end < to && pairs.get(order[end])[0] == source) {
+                    end++;
+                }
+                if (end - start == 1) {
+                    int[] pair = pairs.get(order[start]);
+                    results.set(order[start], search.shortest(pair[0], pair[1], 0));
+                } else {
+                    int[] targets = new int[end - start];
+                    for (int i = start; i < end; i++) {
+                        targets[i - start] = pairs.get(order[i])[1];
+                    }
+                    Path[] paths = search.shortestFrom(source, targets);
+                    for (int i = start; i < end; i++) {
+                        results.set(order[i], paths[i - start]);
+                    }
+                }
+                start = end;
+            }
+        });
+    }
+
+    /**
+     * Widest paths for {source, target} pairs, computed concurrently on the pool
+     */
+    public List<Path> widestPaths(List<int[]> pairs, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        return batch(pairs, pool, (search, order, from, to, results) -> {
+            for (int i = from; i < to; i++) {
+                int[] pair = pairs.get(order[i]);
+                results.set(order[i], search.widest(pair[0], pair[1]));
+            }
+        });
+    }
+
+    /**
+     * K-shortest paths for {source, target} pairs, computed concurrently on the pool
+     */
+    public List<List<Path>> kShortestPaths(List<int[]> pairs, int k, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        return batch(pairs, pool, (search, order, from, to, results) -> {
+            for (int i = from; i < to; i++) {
+                int[] pair = pairs.get(order[i]);
+                results.set(order[i], search.kShortest(pair[0], pair[1], k));
+            }
+        });
+    }
+
+    /**
+     * Sort the pairs by source, cut them into chunks that never split a
+     * source, and run the chunks on the pool. Results keep the pairs' order.
+     */
+    private <T> List<T> batch(List<int[]> pairs, ForkJoinPool pool, ChunkTask<T> task)
+            throws InterruptedException, ExecutionException {
+        int n = pairs.size();
+        long[] keyed = new long[n];
+        for (int i = 0; i < n; i++) {
+            int[] pair = pairs.get(i);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Pair " + i + " is not {source, target}");
+            }
+            checkPair(pair[0], pair[1]);
+            keyed[i] = ((long) pair[0] << 32) | i;
+        }
+        Arrays.sort(keyed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) keyed[i];
+        }
+        List<T> results = new ArrayList<>(Collections.nCopies(n, null));
+
+        int chunks = Math.min(pool.getParallelism() * 4, n / MIN_CHUNK_SIZE);
+        if (chunks <= 1) {
+            task.run(new Search(), order, 0, n, results);
+            return results;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        int from = 0;
+        for (int c = 1; c <= chunks && from < n; c++) {
+            int to = c == chunks ? n : Math.max(from, (int) ((long) n * c / chunks));
+            while (to < n && to > 0 && pairs.get(order[to])[0] == pairs.get(order[to - 1])[0]) {
+                to++;
+            }
+            if (to == from) {
+                continue;
+            }
+            int chunkFrom = from;
+            int chunkTo = to;
+            tasks.add(() -> {
+                task.run(new Search(), order, chunkFrom, chunkTo, results);
+                return null;
+            });
+            from = to;
+        }
+        for (Future<Void> result : pool.invokeAll(tasks)) {
+            result.get();
+        }
+        return results;
+    }
+
+    private void checkPair(int source, int target) {
+        for (int device : new int[] { source, target }) {
+            if (device < 0 || device >= graph.getDeviceCount()) {
+                throw new IllegalArgumentException("No device " + device + " in a topology of " +
+                                                   graph.getDeviceCount() + " devices");
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask<T> {
+        void run(Search search, int[] order, int from, int to, List<T> results);
+    }
+
+    /**
+     * Landmarks picked farthest-first: each one is the device farthest from
+     * all landmarks so far (devices no landmark reaches come first)
+     */
+    private double[][] selectLandmarks(int count) {
+        double[][] distances = new double[count][];
+        if (count == 0) {
+            return distances;
+        }
+        Search search = new Search();
+        double[] nearest = new double[graph.getDeviceCount()];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            distances[i] = search.distancesFrom(next);
+            int farthest = 0;
+            for (int v = 0; v < nearest.length; v++) {
+                nearest[v] = Math.min(nearest[v], distances[i][v]);
+                if (nearest[v] > nearest[farthest]) {
+                    farthest = v;
+                }
+            }
+            if (nearest[farthest] == 0) {
+                // Every device already sits on a landmark
+                return Arrays.copyOf(distances, i + 1);
+            }
+            next = farthest;
+        }
+        return distances;
+    }
+
+    private Path path(int[] devices, int[] edges) {
+        double latency = 0;
+        double bottleneck = Double.POSITIVE_INFINITY;
+        for (int e : edges) {
+            latency += latencies[e];
+            bottleneck = Math.min(bottleneck, capacities[e]);
+        }
+        return new Path(graph, devices, edges, latency, bottleneck);
+    }
+
+    /**
+     * A path between two devices: its devices, the edges between them, total
+     * latency and bottleneck bandwidth
+     */
+    public static final class Path {
+        private final TopologyGraph graph;
+        private final int[] devices;
+        private final int[] edges;
+        private final double latency;
+        private final double bottleneckBandwidth;
+
+        Path(TopologyGraph graph, int[] devices, int[] edges, double latency, double bottleneckBandwidth) {
+            this.graph = graph;
+            this.devices = devices;
+            this.edges = edges;
+            this.latency = latency;
+            this.bottleneckBandwidth = bottleneckBandwidth;
+        }
+
+        public int getSource() {
+            return devices[0];
+        }
+
+        public int getTarget() {
+            return devices[devices.length - 1];
+        }
+
+        public int[] getDevices() {
+            return devices.clone();
+        }
+
+        public int[] getEdges() {
+            return edges.clone();
+        }
+
+        public int getHopCount() {
+            return edges.length;
+        }
+
+        /**
+         * Total latency in ms
+         */
+        public double getLatency() {
+            return latency;
+        }
+
+        /**
+         * Lowest link bandwidth along the path in Mbps (infinite for a path of no links)
+         */
+        public double getBottleneckBandwidth() {
+            return bottleneckBandwidth;
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner hops = new StringJoiner(" → ");
+            for (int device : devices) {
+                Node node = graph.getDevice(device);
+                hops.add(node.isURI() ? node.getLocalName() : node.toString());
+            }
+            return hops + String.format(" (%.2f ms, %d hops)", latency, edges.length);
+        }
+    }
+
+    /**
+     * Search workspace; entries are valid only when stamped by the current search
+     */
+    private final class Search {
+        private final double[] distance;
+        private final int[] previousEdge;
+        private final int[] seen;
+        private final int[] bannedDevices;
+        private final int[] bannedEdges;
+        /** Landmark latencies to the current target (allocated on first use, after landmark selection) */
+        private double[] targetDistances;
+        private final Heap heap = new Heap();
+        private int stamp;
+        /** Bans are the entries equal to banStamp, so incrementing it lifts every ban */
+        private int banStamp = 1;
+
+        Search() {
+            int n = graph.getDeviceCount();
+            distance = new double[n];
+            previousEdge = new int[n];
+            seen = new int[n];
+            bannedDevices = new int[n];
+            bannedEdges = new int[graph.getEdgeCount()];
+        }
+
+        /**
+         * A* from source to target over links of at least minCapacity Mbps, avoiding banned devices and edges
+         */
+        Path shortest(int source, int target, double minCapacity) {
+            if (targetDistances == null) {
+                targetDistances = new double[landmarkDistances.length];
+            }
+            for (int i = 0; i < landmarkDistances.length; i++) {
+                targetDistances[i] = landmarkDistances[i][target];
+            }
+            start(source);
+            heap.push(heuristic(source), source, 0);
+            while (heap.size > 0) {
+                double g = heap.topValue();
+                int v = heap.pop();
+                if (g > distance[v]) {
+                    continue;
+                }
+                if (v == target) {
+                    return trace(source, target);
+                }
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    int e = graph.edges[i];
+                    int u = graph.neighbors[i];
+                    if (bannedEdges[e] == banStamp || bannedDevices[u] == banStamp || capacities[e] < minCapacity) {
+                        continue;
+                    }
+                    double d = g + latencies[e];
+                    if (seen[u] != stamp || d < distance[u]) {
+                        reach(u, d, e);
+                        double h = heuristic(u);
+                        if (h != Double.POSITIVE_INFINITY) {
+                            heap.push(d + h, u, d);
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Dijkstra from one source until every target is settled
+         */
+        Path[] shortestFrom(int source, int[] targets) {
+            int[] pending = targets.clone();
+            Arrays.sort(pending);
+            settle(source, pending);
+            Path[] paths = new Path[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                paths[i] = seen[targets[i]] == stamp ? trace(source, targets[i]) : null;
+            }
+            return paths;
+        }
+
+        /**
+         * Latency from a device to every device (infinite when unreachable)
+         */
+        double[] distancesFrom(int source) {
+            settle(source, null);
+            double[] distances = new double[graph.getDeviceCount()];
+            for (int v = 0; v < distances.length; v++) {
+                distances[v] = seen[v] == stamp ? distance[v] : Double.POSITIVE_INFINITY;
+            }
+            return distances;
+        }
+
+        /**
+         * Dijkstra ignoring bans until every pending device (sorted) is
+         * settled, or over the whole component when pending is null
+         */
+        private void settle(int source, int[] pending) {
+            start(source);
+            heap.push(0, source, 0);
+            int remaining = pending != null ? pending.length : -1;
+            while (heap.size > 0 && remaining != 0) {
+                double g = heap.topValue();
+                int v = heap.pop();
+                if (g > distance[v]) {
+                    continue;
+                }
+                if (pending != null && Arrays.binarySearch(pending, v) >= 0) {
+                    remaining--;
+                }
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    int u = graph.neighbors[i];
+                    double d = g + latencies[graph.edges[i]];
+                    if (seen[u] != stamp || d < distance[u]) {
+                        reach(u, d, graph.edges[i]);
+                        heap.push(d, u, d);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Highest bottleneck first (a max-min Dijkstra), then the shortest
+         * path using only links at least that wide
+         */
+        Path widest(int source, int target) {
+            banStamp++;
+            start(source);
+            distance[source] = Double.NEGATIVE_INFINITY;
+            heap.push(Double.NEGATIVE_INFINITY, source, Double.NEGATIVE_INFINITY);
+            while (heap.size > 0) {
+                double negated = heap.topValue();
+                int v = heap.pop();
+                if (negated > distance[v]) {
+                    continue;
+                }
+                if (v == target) {
+                    break;
+                }
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    int u = graph.neighbors[i];
+                    double candidate = -Math.min(-negated, capacities[graph.edges[i]]);
+                    if (seen[u] != stamp || candidate < distance[u]) {
+                        reach(u, candidate, graph.edges[i]);
+                        heap.push(candidate, u, candidate);
+                    }
+                }
+            }
+            if (seen[target] != stamp) {
+                return null;
+            }
+            double bottleneck = -distance[target];
+            return shortest(source, target, source == target ? 0 : bottleneck);
+        }
+
+        List<Path> kShortest(int source, int target, int k) {
+            List<Path> accepted = new ArrayList<>();
+            banStamp++;
+            Path first = shortest(source, target, 0);
+            if (first == null || k <= 0) {
+                return accepted;
+            }
+            accepted.add(first);
+            PriorityQueue<Path> candidates = new PriorityQueue<>(
+                Comparator.comparingDouble(Path::getLatency)
+                          .thenComparingInt(Path::getHopCount)
+                          .thenComparing(path -> Arrays.toString(path.edges)));
+            Set<List<Integer>> known = new HashSet<>();
+            known.add(edgeList(first.edges));
+
+            while (accepted.size() < k) {
+                Path previous = accepted.get(accepted.size() - 1);
+                for (int i = 0; i < previous.edges.length; i++) {
+                    int spur = previous.devices[i];
+                    banStamp++;
+                    // Ban the next edge of every accepted path sharing this root, and the root's devices
+                    for (Path path : accepted) {
+                        if (path.edges.length > i && sameRoot(path, previous, i)) {
+                            bannedEdges[path.edges[i]] = banStamp;
+                        }
+                    }
+                    for (int d = 0; d < i; d++) {
+                        bannedDevices[previous.devices[d]] = banStamp;
+                    }
+                    Path spurPath = shortest(spur, target, 0);
+                    if (spurPath == null) {
+                        continue;
+                    }
+                    int[] devices = new int[i + spurPath.devices.length];
+                    int[] edges = new int[i + spurPath.edges.length];
+                    System.arraycopy(previous.devices, 0, devices, 0, i);
+                    System.arraycopy(spurPath.devices, 0, devices, i, spurPath.devices.length);
+                    System.arraycopy(previous.edges, 0, edges, 0, i);
+                    System.arraycopy(spurPath.edges, 0, edges, i, spurPath.edges.length);
+                    if (known.add(edgeList(edges))) {
+                        candidates.add(path(devices, edges));
+                    }
+                }
+                banStamp++;
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                accepted.add(candidates.poll());
+            }
+            return accepted;
+        }
+
+        private boolean sameRoot(Path path, Path previous, int length) {
+            for (int d = 0; d < length; d++) {
+                if (path.edges[d] != previous.edges[d]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private List<Integer> edgeList(int[] edges) {
+            List<Integer> list = new ArrayList<>(edges.length);
+            for (int e : edges) {
+                list.add(e);
+            }
+            return list;
+        }
+
+        private void start(int source) {
+            stamp++;
+            heap.size = 0;
+            reach(source, 0, -1);
+        }
+
+        private void reach(int device, double d, int edge) {
+            seen[device] = stamp;
+            distance[device] = d;
+            previousEdge[device] = edge;
+        }
+
+        /**
+         * Largest landmark lower bound on the latency to the target; infinite
+         * when a landmark reaches the target but not the device
+         */
+        private double heuristic(int device) {
+            double bound = 0;
+            for (int i = 0; i < landmarkDistances.length; i++) {
+                double toTarget = targetDistances[i];
+                double toDevice = landmarkDistances[i][device];
+                if (toTarget == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                if (toDevice == Double.POSITIVE_INFINITY) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                bound = Math.max(bound, Math.abs(toTarget - toDevice));
+            }
+            return bound;
+        }
+
+        private Path trace(int source, int target) {
+            int hops = 0;
+            for (int v = target; v != source; v = graph.getOtherEnd(previousEdge[v], v)) {
+                hops++;
+            }
+            int[] devices = new int[hops + 1];
+            int[] edges = new int[hops];
+            int v = target;
+            for (int i = hops; i > 0; i--) {
+                devices[i] = v;
+                edges[i - 1] = previousEdge[v];
+                v = graph.getOtherEnd(previousEdge[v], v);
+            }
+            devices[0] = source;
+            return path(devices, edges);
+        }
+    }
+
+    /**
+     * Binary min-heap of devices keyed by priority, carrying the path cost
+     * they were pushed with so stale entries can be skipped
+     */
+    private static final class Heap {
+        private double[] keys = new double[64];
+        private double[] values = new double[64];
+        private int[] devices = new int[64];
+        private int size;
+
+        void push(double key, int device, double value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                devices = Arrays.copyOf(devices, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                set(i, parent);
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+            devices[i] = device;
+        }
+
+        double topValue() {
+            return values[0];
+        }
+
+        int pop() {
+            int top = devices[0];
+            size--;
+            if (size > 0) {
+                double key = keys[size];
+                double value = values[size];
+                int device = devices[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && keys[child + 1] < keys[child]) {
+                        child++;
+                    }
+                    if (key <= keys[child]) {
+                        break;
+                    }
+                    set(i, child);
+                    i = child;
+                }
+                keys[i] = key;
+                values[i] = value;
+                devices[i] = device;
+            }
+            return top;
+        }
+
+        private void set(int to, int from) {
+            keys[to] = keys[from];
+            values[to] = values[from];
+            devices[to] = devices[from];
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.networktopology.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Counts edge-disjoint and node-disjoint paths between devices of a
+ * {@link TopologyGraph} with Dinic max-flow on unit capacities.
+ *
+ * Edge-disjoint paths use the links as undirected unit-capacity arcs.
+ * Node-disjoint paths split every device into an in and an out node joined by
+ * a unit arc, so no intermediate device is shared (parallel links directly
+ * between the endpoints still count as separate paths). Both flow networks
+ * are built once per graph; each query only resets the arcs it used.
+ *
+ * A demand has one source and one or more targets: with several targets the
+ * count is the number of disjoint paths from the source to any of them, e.g.
+ * from a gNodeB to the pool of UPFs. Batches of demands run concurrently on a
+ * pool, one reusable workspace per chunk.
+ */
+public final class PathRedundancy {
+
+    /** No limit on the number of paths counted */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    private final TopologyGraph graph;
+    private final FlowNetwork edgeNetwork;
+    private final FlowNetwork nodeNetwork;
+
+    public PathRedundancy(TopologyGraph graph) {
+        this.graph = graph;
+        this.edgeNetwork = FlowNetwork.edgeDisjoint(graph);
+        this.nodeNetwork = FlowNetwork.nodeDisjoint(graph);
+    }
+
+    public TopologyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Number of link-disjoint paths between two devices
+     */
+    public int edgeDisjointPaths(int source, int target) {
+        return edgeDisjointPaths(source, new int[] { target }, UNLIMITED);
+    }
+
+    /**
+     * Number of paths between two devices that share no intermediate device
+     */
+    public int nodeDisjointPaths(int source, int target) {
+        return nodeDisjointPaths(source, new int[] { target }, UNLIMITED);
+    }
+
+    /**
+     * Number of link-disjoint paths from a device to any of the targets, counted up to the limit
+     */
+    public int edgeDisjointPaths(int source, int[] targets, int limit) {
+        return new Worker(edgeNetwork).maxFlow(source, targets, limit);
+    }
+
+    /**
+     * Number of paths from a device to any of the targets that share no
+     * intermediate device, counted up to the limit
+     */
+    public int nodeDisjointPaths(int source, int[] targets, int limit) {
+        return new Worker(nodeNetwork).maxFlow(source, targets, limit);
+    }
+
+    /**
+     * Evaluate a batch of demands concurrently on the pool. Results are in the order of the demands.
+     */
+    public List<Result> evaluate(List<Demand> demands, int limit, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        int chunks = Math.min(pool.getParallelism() * 4, demands.size() / MIN_CHUNK_SIZE);
+        if (chunks <= 1) {
+            return evaluateChunk(demands, limit);
+        }
+
+        List<Callable<List<Result>>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            List<Demand> chunk = demands.subList(demands.size() * i / chunks, demands.size() * (i + 1) / chunks);
+            tasks.add(() -> evaluateChunk(chunk, limit));
+        }
+        List<Result> results = new ArrayList<>(demands.size());
+        for (Future<List<Result>> chunk : pool.invokeAll(tasks)) {
+            results.addAll(chunk.get());
+        }
+        return results;
+    }
+
+    private List<Result> evaluateChunk(List<Demand> demands, int limit) {
+        Worker edges = new Worker(edgeNetwork);
+        Worker nodes = new Worker(nodeNetwork);
+        List<Result> results = new ArrayList<>(demands.size());
+        for (Demand demand : demands) {
+            results.add(new Result(demand,
+                                   edges.maxFlow(demand.source, demand.targets, limit),
+                                   nodes.maxFlow(demand.source, demand.targets, limit)));
+        }
+        return results;
+    }
+
+    /**
+     * A source device and the devices it must reach
+     */
+    public static final class Demand {
+        private final int source;
+        private final int[] targets;
+
+        public Demand(int source, int... targets) {
+            this.source = source;
+            this.targets = targets.clone();
+        }
+
+        public int getSource() {
+            return source;
+        }
+
+        public int[] getTargets() {
+            return targets.clone();
+        }
+    }
+
+    /**
+     * Disjoint path counts of one demand
+     */
+    public static final class Result {
+        private final Demand demand;
+        private final int edgeDisjointPaths;
+        private final int nodeDisjointPaths;
+
+        Result(Demand demand, int edgeDisjointPaths, int nodeDisjointPaths) {
+            this.demand = demand;
+            this.edgeDisjointPaths = edgeDisjointPaths;
+            this.nodeDisjointPaths = nodeDisjointPaths;
+        }
+
+        public Demand getDemand() {
+            return demand;
+        }
+
+        public int getSource() {
+            return demand.source;
+        }
+
+        public int getEdgeDisjointPaths() {
+            return edgeDisjointPaths;
+        }
+
+        public int getNodeDisjointPaths() {
+            return nodeDisjointPaths;
+        }
+    }
+
+    /**
+     * Unit-capacity flow network in CSR form; every arc has its reverse arc
+     */
+    private static final class FlowNetwork {
+        final int nodes;
+        final int[] start;
+        final int[] head;
+        final int[] reverse;
+        final byte[] capacity;
+        /** Whether each device is split into an in-node and an out-node */
+        final boolean split;
+
+        private FlowNetwork(int nodes, int[] start, int[] head, int[] reverse, byte[] capacity, boolean split) {
+            this.nodes = nodes;
+            this.start = start;
+            this.head = head;
+            this.reverse = reverse;
+            this.capacity = capacity;
+            this.split = split;
+        }
+
+        int sourceNode(int device) {
+            return split ? 2 * device + 1 : device;
+        }
+
+        int sinkNode(int device) {
+            return split ? 2 * device : device;
+        }
+
+        /**
+         * The graph's own CSR arrays, each undirected link a pair of unit arcs
+         */
+        static FlowNetwork edgeDisjoint(TopologyGraph graph) {
+            int n = graph.getDeviceCount();
+            int[] reverse = new int[graph.neighbors.length];
+            int[] firstPosition = new int[graph.getEdgeCount()];
+            Arrays.fill(firstPosition, -1);
+            for (int a = 0; a < graph.edges.length; a++) {
+                int e = graph.edges[a];
+                if (firstPosition[e] < 0) {
+                    firstPosition[e] = a;
+                } else {
+                    reverse[a] = firstPosition[e];
+                    reverse[firstPosition[e]] = a;
+                }
+            }
+            byte[] capacity = new byte[graph.neighbors.length];
+            Arrays.fill(capacity, (byte) 1);
+            return new FlowNetwork(n, graph.offsets, graph.neighbors, reverse, capacity, false);
+        }
+
+        /**
+         * Device v becomes in-node 2v and out-node 2v + 1 joined by a unit arc;
+         * a link becomes unit arcs from each out-node to the other in-node
+         */
+        static FlowNetwork nodeDisjoint(TopologyGraph graph) {
+            int n = graph.getDeviceCount();
+            int nodes = 2 * n;
+            int[] start = new int[nodes + 1];
+            for (int v = 0; v < n; v++) {
+                int degree = graph.getDegree(v);
+                // in-node: split arc, reverse arcs of incoming links; out-node: split reverse, outgoing links
+                start[2 * v + 1] = 1 + degree;
+                start[2 * v + 2] = 1 + degree;
+            }
+            for (int x = 0; x < nodes; x++) {
+                start[x + 1] += start[x];
+            }
+            int[] head = new int[start[nodes]];
+            int[] reverse = new int[start[nodes]];
+            byte[] capacity = new byte[start[nodes]];
+            int[] next = Arrays.copyOf(start, nodes);
+
+            for (int v = 0; v < n; v++) {
+                int in = 2 * v;
+                int out = in + 1;
+                int split = next[in]++;
+                int back = next[out]++;
+                head[split] = out;
+                capacity[split] = 1;
+                reverse[split] = back;
+                head[back] = in;
+                reverse[back] = split;
+            }
+            for (int v = 0; v < n; v++) {
+                for (int i = 0; i < graph.getDegree(v); i++) {
+                    int u = graph.getNeighbor(v, i);
+                    int forward = next[2 * v + 1]++;
+                    int back = next[2 * u]++;
+                    head[forward] = 2 * u;
+                    capacity[forward] = 1;
+                    reverse[forward] = back;
+                    head[back] = 2 * v + 1;
+                    reverse[back] = forward;
+                }
+            }
+            return new FlowNetwork(nodes, start, head, reverse, capacity, true);
+        }
+    }
+
+    /**
+     * Per-thread Dinic state over a shared flow network
+     */
+    private static final class Worker {
+        private final FlowNetwork network;
+        private final int[] flow;
+        private final int[] level;
+        private final int[] levelStamp;
+        private final int[] cursor;
+        private final int[] queue;
+        private final int[] pathNodes;
+        private final int[] pathArcs;
+        private final boolean[] sink;
+        private int stamp;
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        Worker(FlowNetwork network) {
+            this.network = network;
+            this.flow = new int[network.head.length];
+            this.level = new int[network.nodes];
+            this.levelStamp = new int[network.nodes];
+            this.cursor = new int[network.nodes];
+            this.queue = new int[network.nodes];
+            this.pathNodes = new int[network.nodes + 1];
+            this.pathArcs = new int[network.nodes + 1];
+            this.sink = new boolean[network.nodes];
+        }
+
+        int maxFlow(int source, int[] targets, int limit) {
+            int s = network.sourceNode(source);
+            for (int target : targets) {
+                if (target != source) {
+                    sink[network.sinkNode(target)] = true;
+                }
+            }
+            // No more paths than arcs leaving the source, which spares the last, failing search
+            limit = Math.min(limit, network.start[s + 1] - network.start[s]);
+            int total = 0;
+            try {
+                while (total < limit && levels(s)) {
+                    System.arraycopy(network.start, 0, cursor, 0, network.nodes);
+                    total += blockingFlow(s, limit - total);
+                }
+            } finally {
+                for (int target : targets) {
+                    sink[network.sinkNode(target)] = false;
+                }
+                for (int i = 0; i < touchedCount; i++) {
+                    int a = touched[i];
+                    flow[a] = 0;
+                    flow[network.reverse[a]] = 0;
+                }
+                touchedCount = 0;
+            }
+            return total;
+        }
+
+        /**
+         * Breadth-first levels over residual arcs, up to the level of the nearest sink
+         */
+        private boolean levels(int s) {
+            stamp++;
+            int headIndex = 0;
+            int tail = 0;
+            queue[tail++] = s;
+            level[s] = 0;
+            levelStamp[s] = stamp;
+            int sinkLevel = Integer.MAX_VALUE;
+            while (headIndex < tail) {
+                int v = queue[headIndex++];
+                if (level[v] >= sinkLevel) {
+                    break;
+                }
+                if (sink[v]) {
+                    sinkLevel = level[v];
+                    continue;
+                }
+                for (int a = network.start[v]; a < network.start[v + 1]; a++) {
+                    int u = network.head[a];
+                    if (levelStamp[u] != stamp && network.capacity[a] - flow[a] > 0) {
+                        levelStamp[u] = stamp;
+                        level[u] = level[v] + 1;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            return sinkLevel != Integer.MAX_VALUE;
+        }
+
+        /**
+         * Unit augmenting paths along the level graph, found with an explicit
+         * stack; dead ends are dropped from the level graph
+         */
+        private int blockingFlow(int s, int wanted) {
+            int pushed = 0;
+            int depth = 0;
+            pathNodes[0] = s;
+            while (pushed < wanted) {
+                int v = pathNodes[depth];
+                if (sink[v] && depth > 0) {
+                    for (int d = 0; d < depth; d++) {
+                        push(pathArcs[d]);
+                    }
+                    pushed++;
+                    depth = 0;
+                    continue;
+                }
+                boolean advanced = false;
+                for (; cursor[v] < network.start[v + 1]; cursor[v]++) {
+                    int a = cursor[v];
+                    int u = network.head[a];
+                    if (levelStamp[u] == stamp && level[u] == level[v] + 1 && network.capacity[a] - flow[a] > 0) {
+                        pathArcs[depth] = a;
+                        pathNodes[++depth] = u;
+                        advanced = true;
+                        break;
+                    }
+                }
+                if (!advanced) {
+                    if (depth == 0) {
+                        break;
+                    }
+                    levelStamp[v] = 0;
+                    depth--;
+                    cursor[pathNodes[depth]]++;
+                }
+            }
+            return pushed;
+        }
+
+        private void push(int a) {
+            flow[a]++;
+            flow[network.reverse[a]]--;
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = a;
+        }
+    }
+}
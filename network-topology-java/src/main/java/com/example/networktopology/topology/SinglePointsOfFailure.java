@@ -0,0 +1,352 @@
+package com.example.networktopology.topology;
+
+import java.util.Arrays;
+
+/**
+ * Single points of failure of a {@link TopologyGraph}: articulation points
+ * (devices whose failure disconnects their component) and bridges (links whose
+ * failure does).
+ *
+ * Computed with one iterative Tarjan depth-first search in O(V + E). Parallel
+ * links are told apart by edge id, so a pair of devices joined by two links is
+ * never reported as a bridge. The search numbers devices in preorder, which
+ * makes every DFS subtree a contiguous range of {@code order}; a failure splits
+ * a component into such subtrees plus the rest of the component, so the
+ * fragments are described by ranges instead of being materialised up front.
+ *
+ * The largest fragment left after a failure is taken to be the surviving
+ * network; the devices of all other fragments are reported as isolated.
+ */
+public final class SinglePointsOfFailure {
+
+    private final TopologyGraph graph;
+
+    /** Devices in DFS preorder, and the preorder position of each device */
+    private final int[] order;
+    private final int[] position;
+    /** Size of the DFS subtree rooted at each device */
+    private final int[] subtreeSize;
+    /** Preorder position of the root of each device's component */
+    private final int[] componentStart;
+
+    /** Articulation points in device id order, with the roots of the subtrees each one separates */
+    private final int[] cutVertices;
+    private final int[] separatedOffsets;
+    private final int[] separatedRoots;
+
+    /** Bridges in edge id order, with the endpoint further from the DFS root */
+    private final int[] bridges;
+    private final int[] bridgeChildren;
+
+    private SinglePointsOfFailure(TopologyGraph graph, int[] order, int[] position, int[] subtreeSize,
+                                  int[] componentStart, int[] cutVertices, int[] separatedOffsets,
+                                  int[] separatedRoots, int[] bridges, int[] bridgeChildren) {
+        this.graph = graph;
+        this.order = order;
+        this.position = position;
+        this.subtreeSize = subtreeSize;
+        this.componentStart = componentStart;
+        this.cutVertices = cutVertices;
+        this.separatedOffsets = separatedOffsets;
+        this.separatedRoots = separatedRoots;
+        this.bridges = bridges;
+        this.bridgeChildren = bridgeChildren;
+    }
+
+    /**
+     * Find the articulation points and bridges of a topology
+     */
+    public static SinglePointsOfFailure analyze(TopologyGraph graph) {
+        int n = graph.getDeviceCount();
+        int[] offsets = graph.offsets;
+        int[] neighbors = graph.neighbors;
+        int[] edges = graph.edges;
+
+        int[] order = new int[n];
+        int[] position = new int[n];
+        int[] low = new int[n];
+        int[] subtreeSize = new int[n];
+        int[] componentStart = new int[n];
+        int[] parent = new int[n];
+        int[] parentEdge = new int[n];
+        int[] cursor = new int[n];
+        int[] stack = new int[n];
+        Arrays.fill(position, -1);
+
+        // (parent, child) pairs where the child's subtree has no back edge above the parent
+        int[] separatedParents = new int[n];
+        int[] separatedChildren = new int[n];
+        int separated = 0;
+        int[] rootChildren = new int[n];
+        int[] bridgeChildList = new int[n];
+        int bridgeCount = 0;
+
+        int time = 0;
+        for (int root = 0; root < n; root++) {
+            if (position[root] >= 0) {
+                continue;
+            }
+            int start = time;
+            componentStart[root] = start;
+            position[root] = low[root] = time;
+            order[time++] = root;
+            parent[root] = -1;
+            parentEdge[root] = -1;
+            cursor[root] = offsets[root];
+            int top = 0;
+            stack[0] = root;
+
+            while (top >= 0) {
+                int v = stack[top];
+                if (cursor[v] < offsets[v + 1]) {
+                    int i = cursor[v]++;
+                    if (edges[i] == parentEdge[v]) {
+                        continue;
+                    }
+                    int u = neighbors[i];
+                    if (position[u] < 0) {
+                        position[u] = low[u] = time;
+                        order[time++] = u;
+                        componentStart[u] = start;
+                        parent[u] = v;
+                        parentEdge[u] = edges[i];
+                        cursor[u] = offsets[u];
+                        stack[++top] = u;
+                    } else if (position[u] < low[v]) {
+                        low[v] = position[u];
+                    }
+                    continue;
+                }
+
+                // v is finished: its subtree is everything discovered since it
+                top--;
+                subtreeSize[v] = time - position[v];
+                int p = parent[v];
+                if (p < 0) {
+                    continue;
+                }
+                if (low[v] < low[p]) {
+                    low[p] = low[v];
+                }
+                if (low[v] >= position[p]) {
+                    separatedParents[separated] = p;
+                    separatedChildren[separated++] = v;
+                    if (p == root) {
+                        rootChildren[root]++;
+                    }
+                }
+                if (low[v] > position[p]) {
+                    bridgeChildList[bridgeCount++] = v;
+                }
+            }
+        }
+
+        // A DFS root is only a cut vertex when it has several subtrees
+        int[] separatedCount = new int[n];
+        for (int i = 0; i < separated; i++) {
+            int p = separatedParents[i];
+            if (parent[p] >= 0 || rootChildren[p] > 1) {
+                separatedCount[p]++;
+            }
+        }
+        int cutCount = 0;
+        for (int v = 0; v < n; v++) {
+            if (separatedCount[v] > 0) {
+                cutCount++;
+            }
+        }
+        int[] cutVertices = new int[cutCount];
+        int[] separatedOffsets = new int[cutCount + 1];
+        int[] cutIndex = new int[n];
+        for (int v = 0, c = 0; v < n; v++) {
+            if (separatedCount[v] > 0) {
+                cutVertices[c] = v;
+                cutIndex[v] = c;
+                separatedOffsets[c + 1] = separatedOffsets[c] + separatedCount[v];
+                c++;
+            }
+        }
+        // Children are finished in any order; sort each list by preorder so fragments can be walked in order
+        int[] separatedRoots = new int[separatedOffsets[cutCount]];
+        int[] next = Arrays.copyOf(separatedOffsets, cutCount);
+        for (int i = 0; i < separated; i++) {
+            int p = separatedParents[i];
+            if (separatedCount[p] > 0) {
+                separatedRoots[next[cutIndex[p]]++] = position[separatedChildren[i]];
+            }
+        }
+        for (int c = 0; c < cutCount; c++) {
+            Arrays.sort(separatedRoots, separatedOffsets[c], separatedOffsets[c + 1]);
+            for (int i = separatedOffsets[c]; i < separatedOffsets[c + 1]; i++) {
+                separatedRoots[i] = order[separatedRoots[i]];
+            }
+        }
+
+        // Bridges by edge id
+        long[] keyed = new long[bridgeCount];
+        for (int i = 0; i < bridgeCount; i++) {
+            keyed[i] = ((long) parentEdge[bridgeChildList[i]] << 32) | bridgeChildList[i];
+        }
+        Arrays.sort(keyed);
+        int[] bridges = new int[bridgeCount];
+        int[] bridgeChildren = new int[bridgeCount];
+        for (int i = 0; i < bridgeCount; i++) {
+            bridges[i] = (int) (keyed[i] >>> 32);
+            bridgeChildren[i] = (int) keyed[i];
+        }
+
+        return new SinglePointsOfFailure(graph, order, position, subtreeSize, componentStart, cutVertices,
+                                         separatedOffsets, separatedRoots, bridges, bridgeChildren);
+    }
+
+    public TopologyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Number of devices in the connected component of a device
+     */
+    public int getComponentSize(int device) {
+        int root = order[componentStart[device]];
+        return subtreeSize[root];
+    }
+
+    public int getArticulationPointCount() {
+        return cutVertices.length;
+    }
+
+    /**
+     * Device id of the i-th articulation point (in device id order)
+     */
+    public int getArticulationPoint(int i) {
+        return cutVertices[i];
+    }
+
+    public boolean isArticulationPoint(int device) {
+        return Arrays.binarySearch(cutVertices, device) >= 0;
+    }
+
+    /**
+     * Number of fragments the component falls into when the i-th articulation point fails
+     */
+    public int getFragmentCount(int i) {
+        int separated = separatedOffsets[i + 1] - separatedOffsets[i];
+        return separated + (parentSideSize(i) > 0 ? 1 : 0);
+    }
+
+    /**
+     * Devices cut off from the largest remaining fragment when the i-th
+     * articulation point fails, in preorder
+     */
+    public int[] getIsolatedByArticulationPoint(int i) {
+        int v = cutVertices[i];
+        int largest = -1;
+        int largestSize = parentSideSize(i);
+        for (int s = separatedOffsets[i]; s < separatedOffsets[i + 1]; s++) {
+            int size = subtreeSize[separatedRoots[s]];
+            if (size > largestSize) {
+                largest = s;
+                largestSize = size;
+            }
+        }
+        int[] devices = new int[getComponentSize(v) - 1 - largestSize];
+        int count = 0;
+        if (largest >= 0) {
+            count = appendParentSide(i, devices, count);
+        }
+        for (int s = separatedOffsets[i]; s < separatedOffsets[i + 1]; s++) {
+            if (s != largest) {
+                int from = position[separatedRoots[s]];
+                int size = subtreeSize[separatedRoots[s]];
+                System.arraycopy(order, from, devices, count, size);
+                count += size;
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * Number of devices cut off from the largest remaining fragment when the i-th articulation point fails
+     */
+    public int getIsolatedCountByArticulationPoint(int i) {
+        int largestSize = parentSideSize(i);
+        for (int s = separatedOffsets[i]; s < separatedOffsets[i + 1]; s++) {
+            largestSize = Math.max(largestSize, subtreeSize[separatedRoots[s]]);
+        }
+        return getComponentSize(cutVertices[i]) - 1 - largestSize;
+    }
+
+    public int getBridgeCount() {
+        return bridges.length;
+    }
+
+    /**
+     * Edge id of the i-th bridge (in edge id order)
+     */
+    public int getBridge(int i) {
+        return bridges[i];
+    }
+
+    public boolean isBridge(int edge) {
+        return Arrays.binarySearch(bridges, edge) >= 0;
+    }
+
+    /**
+     * Devices on the smaller side of the i-th bridge, cut off when it fails, in preorder
+     */
+    public int[] getIsolatedByBridge(int i) {
+        int child = bridgeChildren[i];
+        int childSide = subtreeSize[child];
+        int otherSide = getComponentSize(child) - childSide;
+        if (childSide <= otherSide) {
+            return Arrays.copyOfRange(order, position[child], position[child] + childSide);
+        }
+        int start = componentStart[child];
+        int[] devices = new int[otherSide];
+        System.arraycopy(order, start, devices, 0, position[child] - start);
+        int after = position[child] + childSide;
+        System.arraycopy(order, after, devices, position[child] - start, start + getComponentSize(child) - after);
+        return devices;
+    }
+
+    /**
+     * Number of devices on the smaller side of the i-th bridge
+     */
+    public int getIsolatedCountByBridge(int i) {
+        int child = bridgeChildren[i];
+        return Math.min(subtreeSize[child], getComponentSize(child) - subtreeSize[child]);
+    }
+
+    /**
+     * Devices of the component that are neither the cut vertex nor in one of
+     * the subtrees it separates, i.e. still reachable through its DFS parent
+     */
+    private int parentSideSize(int i) {
+        int v = cutVertices[i];
+        int size = getComponentSize(v) - 1;
+        for (int s = separatedOffsets[i]; s < separatedOffsets[i + 1]; s++) {
+            size -= subtreeSize[separatedRoots[s]];
+        }
+        return size;
+    }
+
+    private int appendParentSide(int i, int[] devices, int count) {
+        int v = cutVertices[i];
+        int start = componentStart[v];
+        int end = start + getComponentSize(v);
+        int s = separatedOffsets[i];
+        for (int p = start; p < end; p++) {
+            if (s < separatedOffsets[i + 1] && p == position[separatedRoots[s]]) {
+                p += subtreeSize[separatedRoots[s++]] - 1;
+            } else if (order[p] != v) {
+                devices[count++] = order[p];
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return cutVertices.length + " articulation points, " + bridges.length + " bridges";
+    }
+}
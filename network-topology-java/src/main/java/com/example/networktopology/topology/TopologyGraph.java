@@ -0,0 +1,262 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.system.Txn;
+
+import com.example.networktopology.loaders.RdfSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Physical topology compiled into primitive arrays.
+ *
+ * Devices, sites and zones are dictionary-encoded as dense int ids (in URI
+ * order). Links are undirected edges with int ids, and adjacency is stored in
+ * compressed sparse row form: the neighbours of device {@code v} are
+ * {@code neighbors[offsets[v] .. offsets[v + 1])}, with the edge used to reach
+ * each neighbour at the same position of {@code edges}. Parallel links stay
+ * separate edges; links between interfaces of the same device are dropped.
+ *
+ * Edge attributes come from the link and its interfaces: latency from
+ * :latency, bandwidth from :bandwidth/:hasBandwidth capped by the :speed of
+ * both interfaces. Unknown values are NaN.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class TopologyGraph {
+
+    private final Node[] devices;
+    private final Map<Node, Integer> deviceIds;
+    private final Node[] deviceTypes;
+    private final NetworkFunction[] deviceFunctions;
+    private final int[] deviceSites;
+    private final int[] deviceZones;
+    private final Node[] sites;
+    private final Node[] zones;
+
+    final int[] offsets;
+    final int[] neighbors;
+    final int[] edges;
+
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final Node[] edgeLinks;
+    private final double[] latencies;
+    private final double[] bandwidths;
+
+    TopologyGraph(Node[] devices, Map<Node, Integer> deviceIds, Node[] deviceTypes, NetworkFunction[] deviceFunctions,
+                  int[] deviceSites, int[] deviceZones, Node[] sites, Node[] zones, int[] edgeSources,
+                  int[] edgeTargets, Node[] edgeLinks, double[] latencies, double[] bandwidths) {
+        this.devices = devices;
+        this.deviceIds = deviceIds;
+        this.deviceTypes = deviceTypes;
+        this.deviceFunctions = deviceFunctions;
+        this.deviceSites = deviceSites;
+        this.deviceZones = deviceZones;
+        this.sites = sites;
+        this.zones = zones;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.edgeLinks = edgeLinks;
+        this.latencies = latencies;
+        this.bandwidths = bandwidths;
+
+        // Counting sort of both directions of every edge into CSR arrays
+        offsets = new int[devices.length + 1];
+        for (int e = 0; e < edgeSources.length; e++) {
+            offsets[edgeSources[e] + 1]++;
+            offsets[edgeTargets[e] + 1]++;
+        }
+        for (int v = 0; v < devices.length; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        neighbors = new int[edgeSources.length * 2];
+        edges = new int[edgeSources.length * 2];
+        int[] next = offsets.clone();
+        for (int e = 0; e < edgeSources.length; e++) {
+            int a = edgeSources[e];
+            int b = edgeTargets[e];
+            neighbors[next[a]] = b;
+            edges[next[a]++] = e;
+            neighbors[next[b]] = a;
+            edges[next[b]++] = e;
+        }
+    }
+
+    /**
+     * Compile the topology of an in-memory model (inferred or not)
+     */
+    public static TopologyGraph fromModel(Model model) {
+        return fromGraph(model.getGraph());
+    }
+
+    public static TopologyGraph fromGraph(Graph graph) {
+        TopologyGraphBuilder builder = new TopologyGraphBuilder();
+        graph.find().forEachRemaining(builder::triple);
+        return builder.build();
+    }
+
+    /**
+     * Compile the topology of every graph of a dataset (e.g. the TDB2 store
+     * behind Fuseki) in one read transaction
+     */
+    public static TopologyGraph fromDataset(Dataset dataset) {
+        TopologyGraphBuilder builder = new TopologyGraphBuilder();
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        Txn.executeRead(dsg, () -> dsg.find().forEachRemaining(builder::quad));
+        return builder.build();
+    }
+
+    /**
+     * Compile the topology straight from RDF files or classpath resources,
+     * without building a model. Sources are parsed in order into one builder.
+     */
+    public static TopologyGraph fromSources(String... sources) throws IOException {
+        TopologyGraphBuilder builder = new TopologyGraphBuilder();
+        for (String source : sources) {
+            RdfSource rdfSource = new RdfSource(source);
+            try (InputStream in = rdfSource.open()) {
+                RDFParser.source(in).lang(rdfSource.getLang()).parse(builder);
+            }
+        }
+        return builder.build();
+    }
+
+    public int getDeviceCount() {
+        return devices.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeSources.length;
+    }
+
+    public Node getDevice(int device) {
+        return devices[device];
+    }
+
+    /**
+     * Id of a device, or -1 if it is not part of the topology
+     */
+    public int getDeviceId(Node device) {
+        Integer id = deviceIds.get(device);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Most specific asserted device class, or null if the device has no type
+     */
+    public Node getDeviceType(int device) {
+        return deviceTypes[device];
+    }
+
+    /**
+     * 5G function of a device, or null (see {@link NetworkFunction#classify})
+     */
+    public NetworkFunction getFunction(int device) {
+        return deviceFunctions[device];
+    }
+
+    /**
+     * Site id of a device (its :locatedAt), or -1
+     */
+    public int getSite(int device) {
+        return deviceSites[device];
+    }
+
+    public int getSiteCount() {
+        return sites.length;
+    }
+
+    public Node getSiteNode(int site) {
+        return sites[site];
+    }
+
+    /**
+     * Zone id of a device (its :belongsToZone), or -1
+     */
+    public int getZone(int device) {
+        return deviceZones[device];
+    }
+
+    /**
+     * Number of zones: those devices belong to, and those typed :Zone without devices
+     */
+    public int getZoneCount() {
+        return zones.length;
+    }
+
+    public Node getZoneNode(int zone) {
+        return zones[zone];
+    }
+
+    public int getDegree(int device) {
+        return offsets[device + 1] - offsets[device];
+    }
+
+    /**
+     * The i-th neighbour of a device, 0 &lt;= i &lt; degree
+     */
+    public int getNeighbor(int device, int i) {
+        return neighbors[offsets[device] + i];
+    }
+
+    /**
+     * The edge leading to the i-th neighbour of a device
+     */
+    public int getNeighborEdge(int device, int i) {
+        return edges[offsets[device] + i];
+    }
+
+    public int getEdgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * The endpoint of the edge that is not {@code device}
+     */
+    public int getOtherEnd(int edge, int device) {
+        return edgeSources[edge] == device ? edgeTargets[edge] : edgeSources[edge];
+    }
+
+    /**
+     * The :NetworkLink behind an edge, or null for an edge that only comes from :connectedTo
+     */
+    public Node getLink(int edge) {
+        return edgeLinks[edge];
+    }
+
+    public double getLatency(int edge) {
+        return latencies[edge];
+    }
+
+    public double getBandwidth(int edge) {
+        return bandwidths[edge];
+    }
+
+    /**
+     * Approximate bytes held by the primitive arrays (the node dictionaries are shared with Jena)
+     */
+    public long getArrayBytes() {
+        long ints = offsets.length + neighbors.length + edges.length + edgeSources.length + edgeTargets.length +
+                    deviceSites.length + deviceZones.length;
+        long references = devices.length + deviceTypes.length + deviceFunctions.length + edgeLinks.length + sites.length + zones.length;
+        return ints * 4 + (latencies.length + bandwidths.length) * 8L + references * 8;
+    }
+
+    @Override
+    public String toString() {
+        return devices.length + " devices, " + edgeSources.length + " edges, " + sites.length + " sites, " +
+               zones.length + " zones";
+    }
+}
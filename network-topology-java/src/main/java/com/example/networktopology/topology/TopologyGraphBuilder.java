@@ -0,0 +1,401 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import com.example.networktopology.reasoning.ClassHierarchyIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Stream sink that compiles triples into a {@link TopologyGraph} in one pass.
+ *
+ * Only the triples that describe the physical topology are kept (interfaces,
+ * links, connectedTo, site and zone membership, types, :networkFunction, link
+ * and interface attributes, subClassOf axioms); everything else is dropped as
+ * it streams by.
+ * Asserted and inferred data both work: inverse properties (interfaceOf,
+ * contains, includesEntity) are read as well, and duplicates collapse.
+ */
+public class TopologyGraphBuilder extends StreamRDFBase {
+
+    static final Node HAS_INTERFACE = ontology("hasInterface");
+    static final Node INTERFACE_OF = ontology("interfaceOf");
+    static final Node CONNECTS_INTERFACE = ontology("connectsInterface");
+    static final Node CONNECTED_TO = ontology("connectedTo");
+    static final Node LOCATED_AT = ontology("locatedAt");
+    static final Node CONTAINS = ontology("contains");
+    static final Node BELONGS_TO_ZONE = ontology("belongsToZone");
+    static final Node INCLUDES_ENTITY = ontology("includesEntity");
+    static final Node LATENCY = ontology("latency");
+    static final Node BANDWIDTH = ontology("bandwidth");
+    static final Node HAS_BANDWIDTH = ontology("hasBandwidth");
+    static final Node SPEED = ontology("speed");
+    static final Node NETWORK_FUNCTION = ontology("networkFunction");
+    static final Node NETWORK_DEVICE = ontology("NetworkDevice");
+    static final Node ZONE = ontology("Zone");
+    private static final Node NAMED_INDIVIDUAL = NodeFactory.createURI(OWL.NS + "NamedIndividual");
+
+    private static final Comparator<Node> URI_ORDER = Comparator.comparing(Node::toString);
+
+    private static final int TYPE = 0;
+    private static final int DEVICE_INTERFACE = 1;
+    private static final int INTERFACE_DEVICE = 2;
+    private static final int LINK_INTERFACE = 3;
+    private static final int CONNECTION = 4;
+    private static final int DEVICE_SITE = 5;
+    private static final int SITE_DEVICE = 6;
+    private static final int DEVICE_ZONE = 7;
+    private static final int ZONE_DEVICE = 8;
+    private static final int LINK_LATENCY = 9;
+    private static final int LINK_BANDWIDTH = 10;
+    private static final int INTERFACE_SPEED = 11;
+    private static final int SUBCLASS = 12;
+    private static final int DEVICE_FUNCTION = 13;
+
+    /** One hash lookup per triple instead of a chain of predicate comparisons */
+    private static final Map<Node, Integer> PREDICATES = Map.ofEntries(
+        Map.entry(RDF.type.asNode(), TYPE),
+        Map.entry(HAS_INTERFACE, DEVICE_INTERFACE),
+        Map.entry(INTERFACE_OF, INTERFACE_DEVICE),
+        Map.entry(CONNECTS_INTERFACE, LINK_INTERFACE),
+        Map.entry(CONNECTED_TO, CONNECTION),
+        Map.entry(LOCATED_AT, DEVICE_SITE),
+        Map.entry(CONTAINS, SITE_DEVICE),
+        Map.entry(BELONGS_TO_ZONE, DEVICE_ZONE),
+        Map.entry(INCLUDES_ENTITY, ZONE_DEVICE),
+        Map.entry(LATENCY, LINK_LATENCY),
+        Map.entry(BANDWIDTH, LINK_BANDWIDTH),
+        Map.entry(HAS_BANDWIDTH, LINK_BANDWIDTH),
+        Map.entry(SPEED, INTERFACE_SPEED),
+        Map.entry(RDFS.subClassOf.asNode(), SUBCLASS),
+        Map.entry(NETWORK_FUNCTION, DEVICE_FUNCTION));
+
+    private final Map<Node, Node> interfaceDevices = new HashMap<>();
+    private final Map<Node, Set<Node>> linkInterfaces = new HashMap<>();
+    private final Map<Node, Double> latencies = new HashMap<>();
+    private final Map<Node, Double> bandwidths = new HashMap<>();
+    private final Map<Node, Double> speeds = new HashMap<>();
+    private final Map<Node, Set<Node>> types = new HashMap<>();
+    private final Map<Node, Node> sites = new HashMap<>();
+    private final Map<Node, Node> zones = new HashMap<>();
+    private final Map<Node, String> functions = new HashMap<>();
+    private final Set<List<Node>> connections = new HashSet<>();
+    private final Graph schema = GraphFactory.createGraphMem();
+    private ClassHierarchyIndex hierarchy;
+
+    /**
+     * Use this class hierarchy to recognise devices by type, instead of the
+     * subClassOf axioms found in the stream
+     */
+    public TopologyGraphBuilder setClassHierarchy(ClassHierarchyIndex hierarchy) {
+        this.hierarchy = hierarchy;
+        return this;
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        triple(quad.asTriple());
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        Integer role = PREDICATES.get(triple.getPredicate());
+        if (role == null) {
+            return;
+        }
+        Node s = triple.getSubject();
+        Node o = triple.getObject();
+        switch (role) {
+            case TYPE:
+                if (o.isURI()) {
+                    types.computeIfAbsent(s, k -> new HashSet<>(2)).add(o);
+                }
+                break;
+            case DEVICE_INTERFACE:
+                interfaceDevices.put(o, s);
+                break;
+            case INTERFACE_DEVICE:
+                interfaceDevices.put(s, o);
+                break;
+            case LINK_INTERFACE:
+                linkInterfaces.computeIfAbsent(s, k -> new LinkedHashSet<>(4)).add(o);
+                break;
+            case CONNECTION:
+                if (!s.equals(o)) {
+                    connections.add(URI_ORDER.compare(s, o) < 0 ? List.of(s, o) : List.of(o, s));
+                }
+                break;
+            case DEVICE_SITE:
+                sites.merge(s, o, TopologyGraphBuilder::first);
+                break;
+            case SITE_DEVICE:
+                sites.merge(o, s, TopologyGraphBuilder::first);
+                break;
+            case DEVICE_ZONE:
+                zones.merge(s, o, TopologyGraphBuilder::first);
+                break;
+            case ZONE_DEVICE:
+                zones.merge(o, s, TopologyGraphBuilder::first);
+                break;
+            case LINK_LATENCY:
+                number(o, latencies, s);
+                break;
+            case LINK_BANDWIDTH:
+                number(o, bandwidths, s);
+                break;
+            case INTERFACE_SPEED:
+                number(o, speeds, s);
+                break;
+            case DEVICE_FUNCTION:
+                if (o.isLiteral()) {
+                    functions.merge(s, o.getLiteralLexicalForm(), (a, b) -> a.compareTo(b) <= 0 ? a : b);
+                }
+                break;
+            default:
+                schema.add(triple);
+        }
+    }
+
+    /**
+     * Compile everything seen so far into an immutable topology graph
+     */
+    public TopologyGraph build() {
+        ClassHierarchyIndex classes = hierarchy != null ? hierarchy : ClassHierarchyIndex.build(schema);
+
+        // Devices: anything with interfaces or connectedTo edges, or typed as a NetworkDevice
+        Set<Node> deviceSet = new HashSet<>(interfaceDevices.values());
+        for (List<Node> pair : connections) {
+            deviceSet.addAll(pair);
+        }
+        types.forEach((node, nodeTypes) -> {
+            for (Node type : nodeTypes) {
+                if (classes.isSubClassOf(type, NETWORK_DEVICE)) {
+                    deviceSet.add(node);
+                    break;
+                }
+            }
+        });
+        Node[] devices = deviceSet.toArray(new Node[0]);
+        Arrays.sort(devices, URI_ORDER);
+        Map<Node, Integer> deviceIds = new HashMap<>(devices.length * 2);
+        for (int id = 0; id < devices.length; id++) {
+            deviceIds.put(devices[id], id);
+        }
+
+        Node[] deviceTypes = new Node[devices.length];
+        NetworkFunction[] deviceFunctions = new NetworkFunction[devices.length];
+        for (int id = 0; id < devices.length; id++) {
+            Set<Node> nodeTypes = types.get(devices[id]);
+            deviceTypes[id] = mostSpecificType(nodeTypes, classes);
+            deviceFunctions[id] = NetworkFunction.classify(devices[id], sorted(nodeTypes), functions.get(devices[id]),
+                                                           classes);
+        }
+        // Zones typed :Zone (or a subclass such as :SecurityZone) get ids even without devices
+        List<Node> declaredZones = new ArrayList<>();
+        types.forEach((node, nodeTypes) -> {
+            for (Node type : nodeTypes) {
+                if (classes.isSubClassOf(type, ZONE)) {
+                    declaredZones.add(node);
+                    break;
+                }
+            }
+        });
+        Node[] siteNodes = dictionary(devices, sites, List.of());
+        Node[] zoneNodes = dictionary(devices, zones, declaredZones);
+        int[] deviceSites = encode(devices, sites, siteNodes);
+        int[] deviceZones = encode(devices, zones, zoneNodes);
+
+        EdgeList edgeList = new EdgeList();
+        Set<Long> linkedPairs = new HashSet<>();
+        Node[] links = linkInterfaces.keySet().toArray(new Node[0]);
+        Arrays.sort(links, URI_ORDER);
+        for (Node link : links) {
+            List<Node> ends = new ArrayList<>();
+            List<Integer> endDevices = new ArrayList<>();
+            for (Node iface : linkInterfaces.get(link)) {
+                Integer device = deviceIds.get(interfaceDevices.get(iface));
+                if (device != null) {
+                    ends.add(iface);
+                    endDevices.add(device);
+                }
+            }
+            for (int i = 0; i < ends.size(); i++) {
+                for (int j = i + 1; j < ends.size(); j++) {
+                    int a = Math.min(endDevices.get(i), endDevices.get(j));
+                    int b = Math.max(endDevices.get(i), endDevices.get(j));
+                    if (a == b) {
+                        continue;
+                    }
+                    double bandwidth = min(bandwidths.getOrDefault(link, Double.NaN),
+                                           min(speeds.getOrDefault(ends.get(i), Double.NaN),
+                                               speeds.getOrDefault(ends.get(j), Double.NaN)));
+                    edgeList.add(a, b, link, latencies.getOrDefault(link, Double.NaN), bandwidth);
+                    linkedPairs.add((long) a * devices.length + b);
+                }
+            }
+        }
+
+        // connectedTo without any link between the two devices still counts as an edge
+        long[] pairs = new long[connections.size()];
+        int count = 0;
+        for (List<Node> pair : connections) {
+            int a = deviceIds.get(pair.get(0));
+            int b = deviceIds.get(pair.get(1));
+            long key = (long) Math.min(a, b) * devices.length + Math.max(a, b);
+            if (!linkedPairs.contains(key)) {
+                pairs[count++] = key;
+            }
+        }
+        Arrays.sort(pairs, 0, count);
+        for (int i = 0; i < count; i++) {
+            edgeList.add((int) (pairs[i] / devices.length), (int) (pairs[i] % devices.length), null,
+                         Double.NaN, Double.NaN);
+        }
+
+        return new TopologyGraph(devices, deviceIds, deviceTypes, deviceFunctions, deviceSites, deviceZones, siteNodes, zoneNodes,
+                                 Arrays.copyOf(edgeList.sources, edgeList.size),
+                                 Arrays.copyOf(edgeList.targets, edgeList.size),
+                                 Arrays.copyOf(edgeList.links, edgeList.size),
+                                 Arrays.copyOf(edgeList.latencies, edgeList.size),
+                                 Arrays.copyOf(edgeList.bandwidths, edgeList.size));
+    }
+
+    /**
+     * The type with the most superclasses; device classes win over any other type
+     */
+    private static Node mostSpecificType(Set<Node> nodeTypes, ClassHierarchyIndex classes) {
+        if (nodeTypes == null) {
+            return null;
+        }
+        Node best = null;
+        int bestRank = -1;
+        for (Node type : sorted(nodeTypes)) {
+            if (type.equals(NAMED_INDIVIDUAL)) {
+                continue;
+            }
+            int rank = classes.getAncestors(type).cardinality() +
+                       (classes.isSubClassOf(type, NETWORK_DEVICE) ? classes.size() : 0);
+            if (rank > bestRank) {
+                best = type;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Types in URI order, so the result does not depend on the order triples arrive in
+     */
+    private static Set<Node> sorted(Set<Node> nodeTypes) {
+        if (nodeTypes == null) {
+            return null;
+        }
+        Set<Node> sorted = new TreeSet<>(URI_ORDER);
+        sorted.addAll(nodeTypes);
+        return sorted;
+    }
+
+    private static Node[] dictionary(Node[] devices, Map<Node, Node> membership, Collection<Node> declared) {
+        Set<Node> values = new TreeSet<>(URI_ORDER);
+        values.addAll(declared);
+        for (Node device : devices) {
+            Node value = membership.get(device);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values.toArray(new Node[0]);
+    }
+
+    private static int[] encode(Node[] devices, Map<Node, Node> membership, Node[] dictionary) {
+        Map<Node, Integer> ids = new HashMap<>(dictionary.length * 2);
+        for (int id = 0; id < dictionary.length; id++) {
+            ids.put(dictionary[id], id);
+        }
+        int[] encoded = new int[devices.length];
+        for (int device = 0; device < devices.length; device++) {
+            encoded[device] = ids.getOrDefault(membership.get(devices[device]), -1);
+        }
+        return encoded;
+    }
+
+    /**
+     * Keep the smaller URI when a resource has several values, so the result
+     * does not depend on the order triples arrive in
+     */
+    private static Node first(Node a, Node b) {
+        return URI_ORDER.compare(a, b) <= 0 ? a : b;
+    }
+
+    private static void number(Node literal, Map<Node, Double> values, Node subject) {
+        if (!literal.isLiteral()) {
+            return;
+        }
+        try {
+            values.put(subject, Double.parseDouble(literal.getLiteralLexicalForm().trim()));
+        } catch (NumberFormatException e) {
+            // Not a plain number; the attribute stays unknown
+        }
+    }
+
+    /**
+     * Smaller of two values, ignoring unknown (NaN) ones
+     */
+    private static double min(double a, double b) {
+        return Double.isNaN(a) ? b : Double.isNaN(b) ? a : Math.min(a, b);
+    }
+
+    private static Node ontology(String localName) {
+        return NodeFactory.createURI(ONTOLOGY_NS + localName);
+    }
+
+    /**
+     * Growable parallel arrays of edges
+     */
+    private static class EdgeList {
+        int size;
+        int[] sources = new int[1024];
+        int[] targets = new int[1024];
+        Node[] links = new Node[1024];
+        double[] latencies = new double[1024];
+        double[] bandwidths = new double[1024];
+
+        void add(int source, int target, Node link, double latency, double bandwidth) {
+            if (size == sources.length) {
+                int capacity = size * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                links = Arrays.copyOf(links, capacity);
+                latencies = Arrays.copyOf(latencies, capacity);
+                bandwidths = Arrays.copyOf(bandwidths, capacity);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            links[size] = link;
+            latencies[size] = latency;
+            bandwidths[size] = bandwidth;
+            size++;
+        }
+    }
+}
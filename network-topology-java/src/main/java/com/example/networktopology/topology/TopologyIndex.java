@@ -0,0 +1,447 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.dboe.transaction.txn.TransactionCoordinator;
+import org.apache.jena.dboe.transaction.txn.TransactionListener;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.graph.GraphListener;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.Symbol;
+import org.apache.jena.tdb2.sys.TDBInternal;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+
+/**
+ * Versioned in-memory {@link TopologyGraph} of a dataset, shared by the
+ * queries that run against it (see the topology property functions).
+ *
+ * Every change to the data bumps the version. A dataset index recompiles the
+ * topology on a background thread, coalescing bursts of changes into one
+ * rebuild, and keeps serving the previous {@link Snapshot} until the new one
+ * is ready; only queries arriving before the first build is done wait. On
+ * TDB2 the index follows commits by itself, for any other dataset the owner
+ * calls {@link #invalidate()} after writing. The index of a model follows the
+ * change events of its graph instead.
+ */
+public final class TopologyIndex {
+
+    /** Query context key under which the index of a dataset is published */
+    public static final Symbol SYMBOL = Symbol.create(FUNCTIONS_NS + "topologyIndex");
+
+    private static final Map<Graph, TopologyIndex> MODEL_INDEXES = new WeakHashMap<>();
+
+    private final Supplier<TopologyGraph> compiler;
+    private final ExecutorService rebuilder;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+    private Runnable detach = () -> { };
+
+    private TopologyIndex(Supplier<TopologyGraph> compiler, ExecutorService rebuilder) {
+        this.compiler = compiler;
+        this.rebuilder = rebuilder;
+    }
+
+    /**
+     * Index of a dataset, built and rebuilt in the background.
+     * Call {@link #close()} when the dataset goes away.
+     */
+    public static TopologyIndex forDataset(Dataset dataset) {
+        ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "topology-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        TopologyIndex index = new TopologyIndex(() -> TopologyGraph.fromDataset(dataset), rebuilder);
+
+        DatasetGraph dsg = dataset.asDatasetGraph();
+        if (TDBInternal.isTDB2(dsg)) {
+            TransactionCoordinator coordinator = TDBInternal.getTransactionCoordinator(dsg);
+            TransactionListener listener = new TransactionListener() {
+                @Override
+                public void notifyCommitFinish(Transaction transaction) {
+                    if (transaction.isWriteTxn()) {
+                        index.invalidate();
+                    }
+                }
+            };
+            // The coordinator only takes listeners while writers are held off
+            coordinator.modifyConfig(() -> coordinator.addListener(listener));
+            index.detach = () -> coordinator.modifyConfig(() -> coordinator.removeListener(listener));
+        }
+        rebuilder.execute(index::rebuild);
+        return index;
+    }
+
+    /**
+     * Index of a graph that is not expected to change (e.g. the active graph
+     * of one query). Built on first use; {@link #invalidate()} rebuilds it
+     * synchronously on the next access.
+     */
+    public static TopologyIndex forGraph(Graph graph) {
+        return new TopologyIndex(() -> TopologyGraph.fromGraph(graph), null);
+    }
+
+    /**
+     * Index of a model that may change in place (e.g. an inference model),
+     * shared by every caller of the same graph and invalidated by its change
+     * events. Built on first use and rebuilt on the next access after a change.
+     * The registry holds graphs weakly, and the index only refers to its graph
+     * weakly, so an index does not outlive its model.
+     */
+    public static TopologyIndex forModel(Model model) {
+        Graph graph = model.getGraph();
+        synchronized (MODEL_INDEXES) {
+            TopologyIndex index = MODEL_INDEXES.get(graph);
+            if (index == null) {
+                WeakReference<Graph> ref = new WeakReference<>(graph);
+                index = new TopologyIndex(() -> {
+                    Graph g = ref.get();
+                    if (g == null) {
+                        throw new IllegalStateException("The indexed model is gone");
+                    }
+                    return TopologyGraph.fromGraph(g);
+                }, null);
+                graph.getEventManager().register(new Invalidator(index));
+                MODEL_INDEXES.put(graph, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Mark the topology as changed
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        if (rebuilder != null && rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Latest compiled topology. Waits only while the first one is being built
+     * (or, for a graph index, after an invalidation); otherwise it may trail
+     * the data by the rebuild in progress.
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null || (rebuilder == null && current.version != version.get())) {
+            current = rebuild();
+        }
+        return current;
+    }
+
+    /**
+     * Latest compiled topology, rebuilding first if the data changed since
+     */
+    public Snapshot refresh() {
+        return rebuild();
+    }
+
+    /**
+     * Version of the data; increases with every change
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Stop following the dataset
+     */
+    public void close() {
+        detach.run();
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    private synchronized Snapshot rebuild() {
+        // Read the version first: changes made during the build trigger another one
+        long target = version.get();
+        if (snapshot != null && snapshot.version == target) {
+            return snapshot;
+        }
+        long start = System.currentTimeMillis();
+        TopologyGraph graph = compiler.get();
+        snapshot = new Snapshot(graph, target);
+        if (rebuilder != null) {
+            System.out.println("✓ Topology index v" + target + " built in " + (System.currentTimeMillis() - start)
+                             + " ms: " + graph);
+        }
+        return snapshot;
+    }
+
+    /**
+     * One immutable version of the topology with the structures derived from it,
+     * each computed on first use
+     */
+    public static final class Snapshot {
+
+        private final TopologyGraph graph;
+        private final long version;
+        private volatile Components components;
+        private volatile PathEngine pathEngine;
+        private volatile CentralityAnalyzer centrality;
+
+        private Snapshot(TopologyGraph graph, long version) {
+            this.graph = graph;
+            this.version = version;
+        }
+
+        public TopologyGraph getGraph() {
+            return graph;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Connected component of a device. Components are numbered from 0 in
+         * order of their smallest device id, so the numbering only changes
+         * with the topology.
+         */
+        public int getComponent(int device) {
+            return components().labels[device];
+        }
+
+        public int getComponentCount() {
+            return components().offsets.length - 1;
+        }
+
+        public int getComponentSize(int component) {
+            Components c = components();
+            return c.offsets[component + 1] - c.offsets[component];
+        }
+
+        /**
+         * Device id of the i-th member of a component (in device id order)
+         */
+        public int getComponentMember(int component, int i) {
+            Components c = components();
+            return c.members[c.offsets[component] + i];
+        }
+
+        public PathEngine getPathEngine() {
+            PathEngine engine = pathEngine;
+            if (engine == null) {
+                synchronized (this) {
+                    engine = pathEngine;
+                    if (engine == null) {
+                        engine = pathEngine = new PathEngine(graph);
+                    }
+                }
+            }
+            return engine;
+        }
+
+        /**
+         * Centrality and roles of the devices, computed on the pool the first
+         * time they are asked for in this version
+         */
+        public CentralityAnalyzer getCentrality(ForkJoinPool pool) throws InterruptedException, ExecutionException {
+            CentralityAnalyzer analyzer = centrality;
+            if (analyzer == null) {
+                synchronized (this) {
+                    analyzer = centrality;
+                    if (analyzer == null) {
+                        analyzer = centrality = CentralityAnalyzer.analyze(graph, pool);
+                    }
+                }
+            }
+            return analyzer;
+        }
+
+        /**
+         * Devices within {@code maxHops} links of a device (itself at 0), in
+         * breadth-first order; {@code hops} receives the distance of each
+         * and must hold {@link TopologyGraph#getDeviceCount()} entries
+         */
+        public int[] withinHops(int device, int maxHops, int[] hops) {
+            int n = graph.getDeviceCount();
+            int[] queue = new int[n];
+            int[] distance = new int[n];
+            Arrays.fill(distance, -1);
+            distance[device] = 0;
+            queue[0] = device;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                int v = queue[head++];
+                if (distance[v] == maxHops) {
+                    continue;
+                }
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    int u = graph.neighbors[i];
+                    if (distance[u] < 0) {
+                        distance[u] = distance[v] + 1;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                hops[i] = distance[queue[i]];
+            }
+            return Arrays.copyOf(queue, tail);
+        }
+
+        private Components components() {
+            Components c = components;
+            if (c == null) {
+                synchronized (this) {
+                    c = components;
+                    if (c == null) {
+                        c = components = new Components(graph);
+                    }
+                }
+            }
+            return c;
+        }
+
+        @Override
+        public String toString() {
+            return "v" + version + ": " + graph;
+        }
+    }
+
+    /**
+     * Listener on the graph of a model that invalidates its index on every
+     * change
+     */
+    private static final class Invalidator implements GraphListener {
+        private final TopologyIndex index;
+
+        Invalidator(TopologyIndex index) {
+            this.index = index;
+        }
+
+        @Override
+        public void notifyAddTriple(Graph g, Triple t) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyAddArray(Graph g, Triple[] triples) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyAddList(Graph g, List<Triple> triples) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyAddIterator(Graph g, Iterator<Triple> it) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyAddGraph(Graph g, Graph added) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyDeleteTriple(Graph g, Triple t) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyDeleteList(Graph g, List<Triple> triples) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyDeleteArray(Graph g, Triple[] triples) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyDeleteIterator(Graph g, Iterator<Triple> it) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyDeleteGraph(Graph g, Graph removed) {
+            index.invalidate();
+        }
+
+        @Override
+        public void notifyEvent(Graph source, Object value) {
+            // Bulk reads still report their triples one by one
+            if (value != GraphEvents.startRead && value != GraphEvents.finishRead) {
+                index.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Component label of every device (breadth-first search from each unlabelled
+     * device in id order), and the members of each component in CSR form
+     */
+    private static final class Components {
+        final int[] labels;
+        final int[] offsets;
+        final int[] members;
+
+        Components(TopologyGraph graph) {
+            int n = graph.getDeviceCount();
+            labels = new int[n];
+            Arrays.fill(labels, -1);
+            int[] queue = new int[n];
+            int[] sizes = new int[n + 1];
+            int count = 0;
+            for (int root = 0; root < n; root++) {
+                if (labels[root] >= 0) {
+                    continue;
+                }
+                labels[root] = count;
+                queue[0] = root;
+                int head = 0;
+                int tail = 1;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                        int u = graph.neighbors[i];
+                        if (labels[u] < 0) {
+                            labels[u] = count;
+                            queue[tail++] = u;
+                        }
+                    }
+                }
+                sizes[count++] = tail;
+            }
+
+            offsets = new int[count + 1];
+            for (int c = 0; c < count; c++) {
+                offsets[c + 1] = offsets[c] + sizes[c];
+            }
+            members = new int[n];
+            int[] next = Arrays.copyOf(offsets, count);
+            for (int v = 0; v < n; v++) {
+                members[next[labels[v]]++] = v;
+            }
+        }
+    }
+}
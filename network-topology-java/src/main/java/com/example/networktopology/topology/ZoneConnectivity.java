@@ -0,0 +1,234 @@
+package com.example.networktopology.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quotient of a {@link TopologyGraph} by zone: devices collapse into their
+ * zone (:belongsToZone / :includesEntity) and links into link counts and
+ * aggregate bandwidth per pair of zones.
+ *
+ * Built in one pass over the links, O(E) plus sorting the zone pairs that
+ * have links; pairs without links are never stored, so the size does not
+ * grow with Z². Links with an endpoint outside every zone are only counted in
+ * total; links of unknown bandwidth are counted per zone pair but add nothing
+ * to the aggregate.
+ */
+public final class ZoneConnectivity {
+
+    private final TopologyGraph graph;
+    private final int zones;
+    private final int[] deviceCounts;
+    /** Linked zone pairs as zone1 * zones + zone2 with zone1 &lt;= zone2, sorted */
+    private final long[] pairs;
+    private final int[] linkCounts;
+    private final int[] unknownBandwidthCounts;
+    private final double[] bandwidths;
+    private final int linkedPairs;
+    private final int unzonedLinks;
+
+    private ZoneConnectivity(TopologyGraph graph, int[] deviceCounts, long[] pairs, int[] linkCounts,
+                             int[] unknownBandwidthCounts, double[] bandwidths, int unzonedLinks) {
+        this.graph = graph;
+        this.zones = graph.getZoneCount();
+        this.deviceCounts = deviceCounts;
+        this.pairs = pairs;
+        this.linkCounts = linkCounts;
+        this.unknownBandwidthCounts = unknownBandwidthCounts;
+        this.bandwidths = bandwidths;
+        this.unzonedLinks = unzonedLinks;
+        int distinct = 0;
+        for (long pair : pairs) {
+            if (pair / zones != pair % zones) {
+                distinct++;
+            }
+        }
+        this.linkedPairs = distinct;
+    }
+
+    /**
+     * Collapse the topology into its zones
+     */
+    public static ZoneConnectivity analyze(TopologyGraph graph) {
+        int zones = graph.getZoneCount();
+        int[] deviceCounts = new int[zones];
+        for (int v = 0; v < graph.getDeviceCount(); v++) {
+            if (graph.getZone(v) >= 0) {
+                deviceCounts[graph.getZone(v)]++;
+            }
+        }
+
+        // Slots in order of first appearance, then sorted by pair
+        Map<Long, Integer> slots = new HashMap<>();
+        long[] keys = new long[16];
+        int[] counts = new int[16];
+        int[] unknown = new int[16];
+        double[] sums = new double[16];
+        int unzonedLinks = 0;
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int a = graph.getZone(graph.getEdgeSource(e));
+            int b = graph.getZone(graph.getEdgeTarget(e));
+            if (a < 0 || b < 0) {
+                unzonedLinks++;
+                continue;
+            }
+            long key = key(zones, a, b);
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                slot = slots.size();
+                slots.put(key, slot);
+                if (slot == keys.length) {
+                    keys = Arrays.copyOf(keys, slot * 2);
+                    counts = Arrays.copyOf(counts, slot * 2);
+                    unknown = Arrays.copyOf(unknown, slot * 2);
+                    sums = Arrays.copyOf(sums, slot * 2);
+                }
+                keys[slot] = key;
+            }
+            counts[slot]++;
+            double bandwidth = graph.getBandwidth(e);
+            if (Double.isNaN(bandwidth)) {
+                unknown[slot]++;
+            } else {
+                sums[slot] += bandwidth;
+            }
+        }
+
+        long[] pairs = Arrays.copyOf(keys, slots.size());
+        Arrays.sort(pairs);
+        int[] linkCounts = new int[pairs.length];
+        int[] unknownBandwidthCounts = new int[pairs.length];
+        double[] bandwidths = new double[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            int slot = slots.get(pairs[i]);
+            linkCounts[i] = counts[slot];
+            unknownBandwidthCounts[i] = unknown[slot];
+            bandwidths[i] = sums[slot];
+        }
+        return new ZoneConnectivity(graph, deviceCounts, pairs, linkCounts, unknownBandwidthCounts, bandwidths,
+                                    unzonedLinks);
+    }
+
+    public TopologyGraph getGraph() {
+        return graph;
+    }
+
+    public int getZoneCount() {
+        return zones;
+    }
+
+    /**
+     * Number of devices in a zone
+     */
+    public int getDeviceCount(int zone) {
+        return deviceCounts[zone];
+    }
+
+    /**
+     * Number of links between two zones, or inside a zone when both are the same
+     */
+    public int getLinkCount(int zone1, int zone2) {
+        int index = indexOf(zone1, zone2);
+        return index >= 0 ? linkCounts[index] : 0;
+    }
+
+    /**
+     * Sum of the known bandwidths (Mbps) of the links between two zones
+     */
+    public double getBandwidth(int zone1, int zone2) {
+        int index = indexOf(zone1, zone2);
+        return index >= 0 ? bandwidths[index] : 0;
+    }
+
+    /**
+     * Number of links between two zones whose bandwidth is unknown
+     */
+    public int getUnknownBandwidthCount(int zone1, int zone2) {
+        int index = indexOf(zone1, zone2);
+        return index >= 0 ? unknownBandwidthCounts[index] : 0;
+    }
+
+    /**
+     * Number of links with at least one endpoint outside every zone
+     */
+    public int getUnzonedLinkCount() {
+        return unzonedLinks;
+    }
+
+    /**
+     * Pairs of distinct zones with at least one link between them, as
+     * {zone1, zone2} with zone1 &lt; zone2, in order
+     */
+    public List<int[]> getLinkedPairs() {
+        List<int[]> linked = new ArrayList<>(linkedPairs);
+        for (long pair : pairs) {
+            int a = (int) (pair / zones);
+            int b = (int) (pair % zones);
+            if (a != b) {
+                linked.add(new int[] { a, b });
+            }
+        }
+        return linked;
+    }
+
+    /**
+     * Number of pairs of distinct zones with no link between them
+     */
+    public long getMissingPairCount() {
+        return (long) zones * (zones - 1) / 2 - linkedPairs;
+    }
+
+    /**
+     * The first {@code limit} pairs of distinct zones with no link between
+     * them, as {zone1, zone2} with zone1 &lt; zone2, in order. Takes time in
+     * proportion to the limit and the linked pairs, not to all Z² pairs.
+     */
+    public List<int[]> getMissingPairs(int limit) {
+        List<int[]> missing = new ArrayList<>();
+        int next = 0;
+        for (int a = 0; a < zones && missing.size() < limit; a++) {
+            for (int b = a + 1; b < zones && missing.size() < limit; b++) {
+                long key = key(zones, a, b);
+                while (next < pairs.length && pairs[next] < key) {
+                    next++;
+                }
+                if (next == pairs.length || pairs[next] != key) {
+                    missing.add(new int[] { a, b });
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Linked pairs of distinct zones with fewer links than {@code minLinks}, or
+     * less known aggregate bandwidth than {@code minBandwidth} Mbps
+     */
+    public List<int[]> getUnderprovisionedPairs(int minLinks, double minBandwidth) {
+        List<int[]> underprovisioned = new ArrayList<>();
+        for (int i = 0; i < pairs.length; i++) {
+            int a = (int) (pairs[i] / zones);
+            int b = (int) (pairs[i] % zones);
+            if (a != b && (linkCounts[i] < minLinks || bandwidths[i] < minBandwidth)) {
+                underprovisioned.add(new int[] { a, b });
+            }
+        }
+        return underprovisioned;
+    }
+
+    private int indexOf(int zone1, int zone2) {
+        return Arrays.binarySearch(pairs, key(zones, zone1, zone2));
+    }
+
+    private static long key(int zones, int zone1, int zone2) {
+        return (long) Math.min(zone1, zone2) * zones + Math.max(zone1, zone2);
+    }
+
+    @Override
+    public String toString() {
+        return zones + " zones, " + linkedPairs + " linked zone pairs, " + unzonedLinks + " unzoned links";
+    }
+}
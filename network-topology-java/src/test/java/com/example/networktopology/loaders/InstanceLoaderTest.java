@@ -0,0 +1,62 @@
+package com.example.networktopology.loaders;
+
+import org.apache.jena.graph.compose.Polyadic;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstanceLoaderTest {
+
+    @Test
+    void mergesShardsIntoOneGraph(@TempDir Path directory) throws Exception {
+        shard(directory, "site-a.ttl", "SiteA", "RouterA");
+        shard(directory, "site-b.ttl", "SiteB", "RouterB");
+        // The same site declared by two shards is one triple in the merged graph
+        shard(directory, "site-c.ttl", "SiteA", "RouterC");
+        InstanceLoader loader = new InstanceLoader(new TopologyModelRegistry());
+
+        Model model = loader.loadInstanceShards(directory.toString());
+        assertNotNull(model);
+        assertFalse(model.getGraph() instanceof Polyadic);
+        assertEquals(8, model.size());
+
+        Dataset dataset = loader.loadInstanceShardsAsDataset(directory.resolve("site-*.ttl").toString());
+        assertNotNull(dataset);
+        assertEquals(8, dataset.getDefaultModel().size());
+        assertFalse(dataset.getDefaultModel().getGraph() instanceof Polyadic);
+        String graph = new RdfSource(directory.resolve("site-b.ttl").toString()).getGraphName();
+        assertEquals(3, dataset.getNamedModel(graph).size());
+    }
+
+    @Test
+    void anyBrokenShardFailsTheLoad(@TempDir Path directory) throws Exception {
+        shard(directory, "site-a.ttl", "SiteA", "RouterA");
+        Path broken = directory.resolve("site-b.ttl");
+        Files.write(broken, "@prefix nt: <urn:x#> .\nnt:SiteB a".getBytes(StandardCharsets.UTF_8));
+        InstanceLoader loader = new InstanceLoader(new TopologyModelRegistry());
+
+        assertNull(loader.loadInstanceShards(directory.toString()));
+        assertNull(loader.loadInstanceShardsAsDataset(directory.toString()));
+
+        Map<String, String> failures = loader.parseShards(InstanceLoader.resolveShards(directory.toString()));
+        assertEquals(List.of(broken.toString()), List.copyOf(failures.keySet()));
+    }
+
+    private static void shard(Path directory, String file, String site, String router) throws Exception {
+        String turtle = "@prefix : <" + ONTOLOGY_NS + "> .\n" +
+                        "@prefix nt: <" + INSTANCE_NS + "> .\n" +
+                        "nt:" + site + " a :Site .\n" +
+                        "nt:" + router + " a :Router ; :locatedAt nt:" + site + " .\n";
+        Files.write(directory.resolve(file), turtle.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.networktopology.queries;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.reasoning.ClassHierarchyIndex;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubClassOfPropertyFunctionTest {
+
+    private static final String PREFIXES = "PREFIX fn: <" + FUNCTIONS_NS + ">\n" +
+                                           "PREFIX rdfs: <" + RDFS.getURI() + ">\n";
+    private static final Node UNKNOWN = NodeFactory.createURI(ONTOLOGY_NS + "NoSuchClass");
+
+    static {
+        SubClassOfPropertyFunction.register();
+    }
+
+    @Test
+    void matchesPathQueriesInEveryBindingPattern() {
+        Model model = ModelFactory.createModelForGraph(ontologyWithCycles());
+        ClassHierarchyIndex index = ClassHierarchyIndex.build(model);
+        List<Node> classes = new ArrayList<>();
+        for (int id = 0; id < index.size(); id++) {
+            classes.add(index.classOf(id));
+        }
+        classes.add(UNKNOWN);
+
+        Set<List<Node>> pairs = new HashSet<>();
+        for (Node cls : classes) {
+            String iri = "<" + cls.getURI() + ">";
+            Set<List<Node>> ancestors = select(model, "SELECT ?x { " + iri + " rdfs:subClassOf* ?x }");
+            assertEquals(ancestors, select(model, "SELECT ?x { " + iri + " fn:subClassOf ?x }"), cls.toString());
+            assertEquals(select(model, "SELECT ?x { ?x rdfs:subClassOf* " + iri + " }"),
+                         select(model, "SELECT ?x { ?x fn:subClassOf " + iri + " }"), cls.toString());
+            // Subject bound by an earlier pattern rather than written in the query
+            assertEquals(ancestors, select(model, "SELECT ?x { VALUES ?c { " + iri + " } ?c fn:subClassOf ?x }"));
+            for (Node other : classes) {
+                String ask = iri + " %s <" + other.getURI() + ">";
+                assertEquals(ask(model, String.format(ask, "rdfs:subClassOf*")), ask(model, String.format(ask, "fn:subClassOf")),
+                             cls + " " + other);
+            }
+            if (!cls.equals(UNKNOWN)) {
+                for (List<Node> ancestor : ancestors) {
+                    pairs.add(List.of(cls, ancestor.get(0)));
+                }
+            }
+        }
+
+        // Unbound on both sides: every pair of named classes, and each class once with itself
+        Set<List<Node>> all = select(model, "SELECT ?x ?y { ?x fn:subClassOf ?y }");
+        assertEquals(pairs, all);
+        assertEquals(pairs.size(), count(model, "SELECT ?x ?y { ?x fn:subClassOf ?y }"));
+        Set<List<Node>> reflexive = new HashSet<>();
+        for (Node cls : classes.subList(0, classes.size() - 1)) {
+            reflexive.add(List.of(cls));
+        }
+        assertEquals(reflexive, select(model, "SELECT ?x { ?x fn:subClassOf ?x }"));
+        assertEquals(reflexive.size(), count(model, "SELECT ?x { ?x fn:subClassOf ?x }"));
+    }
+
+    @Test
+    void prefersTheIndexInTheQueryContext() {
+        Model plain = ModelFactory.createModelForGraph(new TopologyModelRegistry().getGraph(ONTOLOGY_TTL_RESOURCE));
+        ClassHierarchyIndex cyclic = ClassHierarchyIndex.build(ontologyWithCycles());
+        String query = PREFIXES + "ASK { <" + ONTOLOGY_NS + "Router> fn:subClassOf <" + ONTOLOGY_NS + "Gateway> }";
+
+        try (QueryExecution execution = QueryExecution.model(plain).query(query).build()) {
+            assertFalse(execution.execAsk());
+        }
+        try (QueryExecution execution = QueryExecution.model(plain).query(query)
+                                                      .set(SubClassOfPropertyFunction.INDEX_SYMBOL, cyclic).build()) {
+            assertTrue(execution.execAsk());
+        }
+    }
+
+    /**
+     * The ontology with Router and Gateway made equivalent and a class that
+     * is its own superclass
+     */
+    private static Graph ontologyWithCycles() {
+        Graph graph = GraphFactory.createDefaultGraph();
+        new TopologyModelRegistry().getGraph(ONTOLOGY_TTL_RESOURCE).find().forEachRemaining(graph::add);
+        graph.add(Triple.create(ontology("Router"), RDFS.subClassOf.asNode(), ontology("Gateway")));
+        graph.add(Triple.create(ontology("Gateway"), RDFS.subClassOf.asNode(), ontology("Router")));
+        graph.add(Triple.create(ontology("Loop"), RDFS.subClassOf.asNode(), ontology("Loop")));
+        return graph;
+    }
+
+    /**
+     * Distinct rows of URIs (restriction blank nodes reached by the path are
+     * not named classes, and rows with them are left out)
+     */
+    private static Set<List<Node>> select(Model model, String query) {
+        Set<List<Node>> rows = new HashSet<>();
+        try (QueryExecution execution = QueryExecution.model(model).query(PREFIXES + query).build()) {
+            ResultSet results = execution.execSelect();
+            results.forEachRemaining(solution -> {
+                List<Node> row = new ArrayList<>();
+                for (String name : results.getResultVars()) {
+                    row.add(solution.get(name).asNode());
+                }
+                if (row.stream().allMatch(Node::isURI)) {
+                    rows.add(row);
+                }
+            });
+        }
+        return rows;
+    }
+
+    private static int count(Model model, String query) {
+        try (QueryExecution execution = QueryExecution.model(model).query(PREFIXES + query).build()) {
+            int rows = 0;
+            for (ResultSet results = execution.execSelect(); results.hasNext(); results.next()) {
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    private static boolean ask(Model model, String pattern) {
+        try (QueryExecution execution = QueryExecution.model(model).query(PREFIXES + "ASK { " + pattern + " }").build()) {
+            return execution.execAsk();
+        }
+    }
+
+    private static Node ontology(String name) {
+        return NodeFactory.createURI(ONTOLOGY_NS + name);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.networktopology.queries;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.QueryExecException;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyPropertyFunctionsTest {
+
+    private static final String PREFIXES = "PREFIX fn: <" + FUNCTIONS_NS + ">\n" +
+                                           "PREFIX nt: <" + INSTANCE_NS + ">\n";
+
+    static {
+        TopologyPropertyFunctions.register();
+    }
+
+    /**
+     * A-B-C in a triangle whose direct A-C link is slower than going through
+     * B, D-E joined by connectedTo only, and F on its own; components 0, 1, 2
+     */
+    private final Model model = model(
+        link("L1", "A", "B", 1) + link("L2", "B", "C", 1) + link("L3", "A", "C", 5) +
+        "nt:D :connectedTo nt:E .\n" +
+        "nt:F a :Router . :Router rdfs:subClassOf :NetworkDevice .\n");
+
+    @Test
+    void reachable() {
+        assertRows("?x", "nt:A fn:reachable ?x", "A", "B", "C");
+        assertRows("?x", "?x fn:reachable nt:E", "D", "E");
+        assertRows("?x", "?x fn:reachable nt:F", "F");
+        assertRows("?x", "VALUES ?y { nt:D nt:F } ?y fn:reachable ?x", "D", "E", "F");
+        assertTrue(ask("nt:A fn:reachable nt:C"));
+        assertTrue(ask("nt:A fn:reachable nt:A"));
+        assertFalse(ask("nt:A fn:reachable nt:D"));
+        assertRows("?x ?y", "?x fn:reachable ?y",
+                   "A A", "A B", "A C", "B A", "B B", "B C", "C A", "C B", "C C", "D D", "D E", "E D", "E E", "F F");
+        // The same variable on both sides pairs each device with itself
+        assertRows("?a", "?a fn:reachable ?a", "A", "B", "C", "D", "E", "F");
+
+        assertRows("?x", "nt:Missing fn:reachable ?x");
+        assertRows("?x", "?x fn:reachable nt:Missing");
+        assertFalse(ask("nt:Missing fn:reachable nt:Missing"));
+        assertFalse(ask("nt:A fn:reachable nt:Missing"));
+    }
+
+    @Test
+    void component() {
+        assertRows("?id", "nt:E fn:component ?id", "1");
+        assertRows("?d", "?d fn:component 0", "A", "B", "C");
+        assertRows("?d", "?d fn:component 2", "F");
+        assertTrue(ask("nt:B fn:component 0"));
+        assertFalse(ask("nt:B fn:component 1"));
+        assertRows("?d ?id", "?d fn:component ?id", "A 0", "B 0", "C 0", "D 1", "E 1", "F 2");
+        // A device is never its own component number
+        assertRows("?a", "?a fn:component ?a");
+
+        assertRows("?id", "nt:Missing fn:component ?id");
+        assertRows("?d", "?d fn:component 3");
+        assertRows("?d", "?d fn:component -1");
+        assertRows("?d", "?d fn:component \"zero\"");
+    }
+
+    @Test
+    void withinHops() {
+        assertRows("?n ?h", "nt:A fn:withinHops (1 ?n ?h)", "A 0", "B 1", "C 1");
+        assertRows("?n", "nt:D fn:withinHops (5 ?n)", "D", "E");
+        assertRows("?n ?h", "nt:F fn:withinHops (0 ?n ?h)", "F 0");
+        // Bound neighbour, free device: links are undirected
+        assertRows("?d ?h", "?d fn:withinHops (1 nt:E ?h)", "D 1", "E 0");
+        assertTrue(ask("nt:A fn:withinHops (1 nt:C)"));
+        assertFalse(ask("nt:A fn:withinHops (1 nt:D)"));
+        assertRows("?h", "nt:A fn:withinHops (1 nt:B ?h)", "1");
+        // A repeated variable, bound by an earlier pattern, only matches the device itself
+        assertRows("?a ?h", "VALUES ?a { nt:B } ?a fn:withinHops (2 ?a ?h)", "B 0");
+
+        assertRows("?n", "nt:Missing fn:withinHops (3 ?n)");
+        assertRows("?d", "?d fn:withinHops (3 nt:Missing)");
+        assertThrows(QueryExecException.class, () -> rows("?a", "?a fn:withinHops (2 ?b)"));
+        assertThrows(QueryExecException.class, () -> rows("?a", "?a fn:withinHops (2 ?a)"));
+        assertThrows(QueryExecException.class, () -> rows("?n", "nt:A fn:withinHops (-1 ?n)"));
+    }
+
+    @Test
+    void shortestPath() {
+        assertRows("?d ?pos ?lat", "nt:A fn:shortestPath (nt:C ?d ?pos ?lat)", "A 0 2.0", "B 1 2.0", "C 2 2.0");
+        assertRows("?d", "nt:C fn:shortestPath (nt:A ?d)", "A", "B", "C");
+        assertRows("?d", "nt:A fn:shortestPath (nt:C ?d 1)", "B");
+        assertTrue(ask("nt:D fn:shortestPath (nt:E)"));
+        assertFalse(ask("nt:A fn:shortestPath (nt:F)"));
+        assertRows("?s ?d", "VALUES (?s ?t) { (nt:A nt:B) (nt:A nt:E) } ?s fn:shortestPath (?t ?d)",
+                   "A A", "A B");
+        // A device cannot also be its position
+        assertRows("?d", "nt:A fn:shortestPath (nt:C ?d ?d)");
+
+        assertFalse(ask("nt:A fn:shortestPath (nt:Missing)"));
+        assertFalse(ask("nt:Missing fn:shortestPath (nt:A)"));
+        assertThrows(QueryExecException.class, () -> rows("?s", "?s fn:shortestPath (nt:A)"));
+        assertThrows(QueryExecException.class, () -> rows("?t", "nt:A fn:shortestPath (?t)"));
+    }
+
+    private void assertRows(String vars, String pattern, String... expected) {
+        assertEquals(new TreeSet<>(List.of(expected)), new TreeSet<>(rows(vars, pattern)), pattern);
+        assertEquals(expected.length, rows(vars, pattern).size(), pattern + " (duplicates)");
+    }
+
+    /**
+     * Result rows with the projected values separated by spaces: local names
+     * for devices, plain numbers for literals
+     */
+    private List<String> rows(String vars, String pattern) {
+        List<String> rows = new ArrayList<>();
+        try (QueryExecution execution = QueryExecution.model(model)
+                                                      .query(PREFIXES + "SELECT " + vars + " { " + pattern + " }")
+                                                      .build()) {
+            ResultSet results = execution.execSelect();
+            results.forEachRemaining(solution -> {
+                List<String> values = new ArrayList<>();
+                for (String var : results.getResultVars()) {
+                    Node node = solution.get(var).asNode();
+                    values.add(node.isURI() ? node.getLocalName() : String.valueOf(node.getLiteralValue()));
+                }
+                rows.add(String.join(" ", values));
+            });
+        }
+        return rows;
+    }
+
+    private boolean ask(String pattern) {
+        try (QueryExecution execution = QueryExecution.model(model).query(PREFIXES + "ASK { " + pattern + " }").build()) {
+            return execution.execAsk();
+        }
+    }
+
+    private static String link(String link, String a, String b, double latency) {
+        return "nt:" + a + " :hasInterface nt:" + link + a + " . nt:" + b + " :hasInterface nt:" + link + b + " .\n" +
+               "nt:" + link + " :connectsInterface nt:" + link + a + ", nt:" + link + b + " ; :latency " + latency + " .\n";
+    }
+
+    private static Model model(String turtle) {
+        Model model = ModelFactory.createDefaultModel();
+        RDFParser.fromString("@prefix : <" + ONTOLOGY_NS + "> .\n" +
+                             "@prefix nt: <" + INSTANCE_NS + "> .\n" +
+                             "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n" + turtle)
+                 .lang(Lang.TURTLE).parse(model);
+        return model;
+    }
+}
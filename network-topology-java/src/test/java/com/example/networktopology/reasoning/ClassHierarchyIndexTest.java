@@ -0,0 +1,143 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.loaders.TopologyModelRegistry;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassHierarchyIndexTest {
+
+    private static final Node UNKNOWN = NodeFactory.createURI(ONTOLOGY_NS + "NoSuchClass");
+    private static final String PATH = "<" + RDFS.subClassOf.getURI() + ">*";
+
+    @Test
+    void matchesPathQueriesOnTheOntology() {
+        Graph ontology = new TopologyModelRegistry().getGraph(ONTOLOGY_TTL_RESOURCE);
+        assertSame(ClassHierarchyIndex.forOntology(ontology), ClassHierarchyIndex.forOntology(ontology));
+        ClassHierarchyIndex index = assertMatchesPathQueries(ontology);
+        assertTrue(index.isSubClassOf(ontology("Router"), ontology("NetworkEntity")));
+        assertFalse(index.isSubClassOf(ontology("NetworkEntity"), ontology("Router")));
+    }
+
+    @Test
+    void matchesPathQueriesWithCycles() {
+        Graph graph = GraphFactory.createDefaultGraph();
+        new TopologyModelRegistry().getGraph(ONTOLOGY_TTL_RESOURCE).find().forEachRemaining(graph::add);
+        // Router and Gateway become equivalent; Loop is its own superclass
+        graph.add(Triple.create(ontology("Router"), RDFS.subClassOf.asNode(), ontology("Gateway")));
+        graph.add(Triple.create(ontology("Gateway"), RDFS.subClassOf.asNode(), ontology("Router")));
+        graph.add(Triple.create(ontology("Loop"), RDFS.subClassOf.asNode(), ontology("Loop")));
+
+        ClassHierarchyIndex index = assertMatchesPathQueries(graph);
+        assertTrue(index.isSubClassOf(ontology("Router"), ontology("Gateway")));
+        assertTrue(index.isSubClassOf(ontology("Gateway"), ontology("Router")));
+        assertEquals(List.of(ontology("Loop")), index.subClassesOf(ontology("Loop")));
+    }
+
+    @Test
+    void matchesPathQueriesOnRandomHierarchies() {
+        for (int seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            Graph graph = GraphFactory.createDefaultGraph();
+            int n = 2 + random.nextInt(10);
+            for (int k = random.nextInt(2 * n); k > 0; k--) {
+                graph.add(Triple.create(random(random, n), RDFS.subClassOf.asNode(), random(random, n)));
+            }
+            // Declared classes without axioms, and a restriction that is not a named class
+            graph.add(Triple.create(random(random, n), RDF.type.asNode(), OWL.Class.asNode()));
+            graph.add(Triple.create(random(random, n), RDF.type.asNode(), RDFS.Class.asNode()));
+            graph.add(Triple.create(random(random, n), RDFS.subClassOf.asNode(), NodeFactory.createBlankNode()));
+            assertMatchesPathQueries(graph);
+        }
+    }
+
+    /**
+     * Compare every lookup of the index, for each indexed class and an unknown
+     * one, with {@code rdfs:subClassOf*} evaluated by ARQ on the same graph
+     */
+    private static ClassHierarchyIndex assertMatchesPathQueries(Graph graph) {
+        ClassHierarchyIndex index = ClassHierarchyIndex.build(graph);
+        Model model = ModelFactory.createModelForGraph(graph);
+        List<Node> classes = new ArrayList<>();
+        for (int id = 0; id < index.size(); id++) {
+            classes.add(index.classOf(id));
+            assertEquals(id, index.idOf(index.classOf(id)));
+            if (id > 0) {
+                assertTrue(index.classOf(id - 1).getURI().compareTo(index.classOf(id).getURI()) < 0);
+            }
+        }
+        classes.add(UNKNOWN);
+        assertEquals(-1, index.idOf(UNKNOWN));
+
+        for (Node cls : classes) {
+            Set<Node> ancestors = select(model, "SELECT ?x { <" + cls.getURI() + "> " + PATH + " ?x }");
+            Set<Node> descendants = select(model, "SELECT ?x { ?x " + PATH + " <" + cls.getURI() + "> }");
+            assertEquals(ancestors, new HashSet<>(index.superClassesOf(cls)), cls.toString());
+            assertEquals(descendants, new HashSet<>(index.subClassesOf(cls)), cls.toString());
+            assertEquals(ids(index, ancestors), index.getAncestors(cls), cls.toString());
+            assertEquals(ids(index, descendants), index.getDescendants(cls), cls.toString());
+            for (Node other : classes) {
+                assertEquals(ancestors.contains(other), index.isSubClassOf(cls, other), cls + " " + other);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Named classes bound to ?x (paths also reach restriction blank nodes)
+     */
+    private static Set<Node> select(Model model, String query) {
+        Set<Node> nodes = new HashSet<>();
+        try (QueryExecution execution = QueryExecution.model(model).query(query).build()) {
+            ResultSet results = execution.execSelect();
+            results.forEachRemaining(row -> {
+                if (row.get("x").isURIResource()) {
+                    nodes.add(row.get("x").asNode());
+                }
+            });
+        }
+        return nodes;
+    }
+
+    /**
+     * Ids of the indexed classes among the nodes
+     */
+    private static BitSet ids(ClassHierarchyIndex index, Set<Node> nodes) {
+        BitSet ids = new BitSet();
+        for (Node node : nodes) {
+            if (index.idOf(node) >= 0) {
+                ids.set(index.idOf(node));
+            }
+        }
+        return ids;
+    }
+
+    private static Node random(Random random, int n) {
+        return NodeFactory.createURI("urn:test:C" + random.nextInt(n));
+    }
+
+    private static Node ontology(String name) {
+        return NodeFactory.createURI(ONTOLOGY_NS + name);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.reasoner.InfGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.loaders.TopologyModelRegistry;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InferenceMaterializerTest {
+
+    private static final Node ONTOLOGY = NodeFactory.createURI("urn:test:ontology");
+    private static final Node INSTANCES = NodeFactory.createURI("urn:test:instances");
+    private static final Node INFERRED = NodeFactory.createURI(INFERRED_GRAPH_URI);
+    private static final Node ROUTER = NodeFactory.createURI(INSTANCE_NS + "RouterX");
+
+    private final Dataset dataset = TDB2Factory.createDataset();
+    private final List<InferenceMaterializer> materializers = new ArrayList<>();
+
+    InferenceMaterializerTest() {
+        TopologyModelRegistry registry = new TopologyModelRegistry();
+        Txn.executeWrite(dataset, () -> {
+            copy(registry.getGraph(ONTOLOGY_TTL_RESOURCE), ONTOLOGY);
+            copy(registry.getGraph(INSTANCES_TTL_RESOURCE), INSTANCES);
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        materializers.forEach(InferenceMaterializer::shutdown);
+    }
+
+    @Test
+    void deltasKeepTheInferredGraphEqualToAFreshClosure() throws Exception {
+        InferenceMaterializer materializer = materializer(new TopologyReasoner());
+        materializer.materialize();
+
+        List<Long> counts = new ArrayList<>();
+        for (List<Quad>[] delta : deltas()) {
+            counts.add(apply(materializer, delta[0], delta[1]));
+        }
+        assertTrue(counts.stream().allMatch(count -> count >= 0), counts.toString());
+        assertMatchesFreshClosure(counts.get(counts.size() - 1));
+    }
+
+    @Test
+    void deltasCommittedWhileReasoningAreReplayed() throws Exception {
+        GatedReasoner reasoner = new GatedReasoner();
+        InferenceMaterializer materializer = materializer(reasoner);
+        CompletableFuture<Long> materialized = CompletableFuture.supplyAsync(materializer::materialize);
+        assertTrue(reasoner.bound.await(30, TimeUnit.SECONDS));
+
+        // The copy is taken; these deltas are queued and must not wait for the reasoner
+        List<Long> reported = new ArrayList<>();
+        for (List<Quad>[] delta : deltas()) {
+            commit(delta[0], delta[1]);
+            materializer.submitDelta(delta[0], delta[1], reported::add);
+        }
+        reasoner.release.countDown();
+        materialized.get(30, TimeUnit.SECONDS);
+
+        long count = apply(materializer, List.of(), List.of());
+        assertTrue(reported.isEmpty(), "replayed deltas are not reported one by one");
+        assertMatchesFreshClosure(count);
+    }
+
+    @Test
+    void loadingTheClosureRepairsALaggingInferredGraph() throws Exception {
+        materializer(new TopologyReasoner()).materialize();
+        Set<Triple> expected = inferred();
+        Triple lost = expected.iterator().next();
+        Triple bogus = Triple.create(ROUTER, RDF.type.asNode(), NodeFactory.createURI(ONTOLOGY_NS + "Router"));
+        Txn.executeWrite(dataset, () -> {
+            dataset.asDatasetGraph().getGraph(INFERRED).delete(lost);
+            dataset.asDatasetGraph().getGraph(INFERRED).add(bogus);
+        });
+
+        CompletableFuture<Long> loaded = new CompletableFuture<>();
+        materializer(new TopologyReasoner()).loadClosureInBackground(loaded::complete);
+        assertEquals(expected.size(), loaded.get(30, TimeUnit.SECONDS));
+        assertEquals(expected, inferred());
+    }
+
+    /**
+     * A new router with an interface; the router also asserted as a device,
+     * which the reasoner deduces anyway; then an existing interface and the
+     * asserted type removed again
+     */
+    @SuppressWarnings("unchecked")
+    private List<List<Quad>[]> deltas() {
+        Node device = NodeFactory.createURI(ONTOLOGY_NS + "NetworkDevice");
+        Node hasInterface = NodeFactory.createURI(ONTOLOGY_NS + "hasInterface");
+        Quad type = quad(ROUTER, RDF.type.asNode(), NodeFactory.createURI(ONTOLOGY_NS + "Router"));
+        Quad link = quad(ROUTER, hasInterface, NodeFactory.createURI(INSTANCE_NS + "RouterX_Interface1"));
+        Quad asserted = quad(ROUTER, RDF.type.asNode(), device);
+        Quad existing = quad(NodeFactory.createURI(INSTANCE_NS + "Router1"), hasInterface,
+                             NodeFactory.createURI(INSTANCE_NS + "Router1_Interface1"));
+        List<List<Quad>[]> deltas = new ArrayList<>();
+        deltas.add(new List[] { List.of(type, link), List.of() });
+        deltas.add(new List[] { List.of(asserted), List.of() });
+        deltas.add(new List[] { List.of(), List.of(existing) });
+        deltas.add(new List[] { List.of(), List.of(asserted) });
+        return deltas;
+    }
+
+    /**
+     * Commit a delta to the store, hand it to the materializer and wait for it
+     */
+    private long apply(InferenceMaterializer materializer, List<Quad> added, List<Quad> removed) throws Exception {
+        commit(added, removed);
+        CountDownLatch applied = new CountDownLatch(1);
+        AtomicLong count = new AtomicLong();
+        materializer.submitDelta(added, removed, triples -> {
+            count.set(triples);
+            applied.countDown();
+        });
+        assertTrue(applied.await(30, TimeUnit.SECONDS));
+        return count.get();
+    }
+
+    private void commit(List<Quad> added, List<Quad> removed) {
+        Txn.executeWrite(dataset, () -> {
+            removed.forEach(dataset.asDatasetGraph()::delete);
+            added.forEach(dataset.asDatasetGraph()::add);
+        });
+    }
+
+    /**
+     * The inferred graph and its reported size equal what a full
+     * materialization of the current store writes
+     */
+    private void assertMatchesFreshClosure(long count) {
+        Set<Triple> incremental = inferred();
+        assertEquals(incremental.size(), count);
+        assertFalse(incremental.contains(Triple.create(ROUTER, RDF.type.asNode(),
+                                                       NodeFactory.createURI(ONTOLOGY_NS + "Router"))));
+        long fresh = materializer(new TopologyReasoner()).materialize();
+        assertEquals(inferred(), incremental);
+        assertEquals(fresh, count);
+    }
+
+    private Set<Triple> inferred() {
+        return Txn.calculateRead(dataset, () -> new HashSet<>(dataset.asDatasetGraph().getGraph(INFERRED).find().toSet()));
+    }
+
+    private InferenceMaterializer materializer(TopologyReasoner reasoner) {
+        InferenceMaterializer materializer = new InferenceMaterializer(dataset, reasoner);
+        materializers.add(materializer);
+        return materializer;
+    }
+
+    private void copy(Graph source, Node name) {
+        source.find().forEachRemaining(triple -> dataset.asDatasetGraph().add(new Quad(name, triple)));
+    }
+
+    private static Quad quad(Node s, Node p, Node o) {
+        return Quad.create(INSTANCES, s, p, o);
+    }
+
+    /**
+     * Holds the closure computation after the store has been copied
+     */
+    private static final class GatedReasoner extends TopologyReasoner {
+        final CountDownLatch bound = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public InfGraph bind(Graph data) {
+            bound.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.bind(data);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.reasoning.TopologyInfGraph.DeductionChange;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyInfGraphTest {
+
+    private static final Graph ONTOLOGY = new TopologyModelRegistry().getGraph(ONTOLOGY_TTL_RESOURCE);
+    private static final Node[] CLASSES = nodes(ONTOLOGY_NS, "NetworkDevice", "Router", "Switch", "Interface",
+                                                "Link", "Site", "Zone");
+    private static final Node[] PROPERTIES = nodes(ONTOLOGY_NS, "hasInterface", "interfaceOf", "connectsInterface",
+                                                   "connectedVia", "connectedTo", "locatedAt", "contains",
+                                                   "belongsToZone", "includesEntity");
+    private static final int RESOURCES = 8;
+
+    @Test
+    void updatesMatchAFreshClosureOnRandomChanges() {
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            // Even seeds bind the ontology as schema, odd seeds carry it in the data
+            boolean boundSchema = seed % 2 == 0;
+            TopologyReasoner reasoner = boundSchema ? (TopologyReasoner) new TopologyReasoner().bindSchema(ONTOLOGY)
+                                                    : new TopologyReasoner();
+            Graph raw = GraphFactory.createDefaultGraph();
+            if (!boundSchema) {
+                ONTOLOGY.find().forEachRemaining(raw::add);
+            }
+            List<Triple> data = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Triple triple = randomTriple(random);
+                raw.add(triple);
+                data.add(triple);
+            }
+            TopologyInfGraph graph = (TopologyInfGraph) reasoner.bind(raw);
+            graph.prepare();
+
+            for (int step = 0; step < 30; step++) {
+                List<Triple> additions = new ArrayList<>();
+                List<Triple> removals = new ArrayList<>();
+                for (int k = random.nextInt(4); k > 0; k--) {
+                    additions.add(randomTriple(random));
+                }
+                for (int k = random.nextInt(4); k > 0; k--) {
+                    // Mostly asserted triples, sometimes one that was never there
+                    removals.add(!data.isEmpty() && random.nextInt(4) > 0 ? data.get(random.nextInt(data.size()))
+                                                                          : randomTriple(random));
+                }
+                Set<Triple> before = deductions(graph);
+                DeductionChange change = graph.update(additions, removals);
+                data.removeAll(removals);
+                data.addAll(additions);
+
+                String context = "seed " + seed + ", step " + step + ": +" + additions + " -" + removals;
+                Set<Triple> after = deductions(graph);
+                assertEquals(deductions(fresh(reasoner, graph.getRawGraph())), after, context);
+                assertNotNull(change, context);
+                assertEquals(difference(after, before), change.getAdded(), context);
+                assertEquals(difference(before, after), change.getRemoved(), context);
+            }
+        }
+    }
+
+    private static TopologyInfGraph fresh(TopologyReasoner reasoner, Graph raw) {
+        Graph copy = GraphFactory.createDefaultGraph();
+        raw.find().forEachRemaining(copy::add);
+        TopologyInfGraph graph = (TopologyInfGraph) reasoner.bind(copy);
+        graph.prepare();
+        return graph;
+    }
+
+    private static Set<Triple> deductions(TopologyInfGraph graph) {
+        return graph.getDeductionsGraph().find().toSet();
+    }
+
+    private static Set<Triple> difference(Set<Triple> a, Set<Triple> b) {
+        Set<Triple> result = new HashSet<>(a);
+        result.removeAll(b);
+        return result;
+    }
+
+    private static Triple randomTriple(Random random) {
+        Node subject = resource(random);
+        if (random.nextInt(3) == 0) {
+            return Triple.create(subject, RDF.type.asNode(), CLASSES[random.nextInt(CLASSES.length)]);
+        }
+        return Triple.create(subject, PROPERTIES[random.nextInt(PROPERTIES.length)], resource(random));
+    }
+
+    private static Node resource(Random random) {
+        return NodeFactory.createURI(INSTANCE_NS + "r" + random.nextInt(RESOURCES));
+    }
+
+    private static Node[] nodes(String namespace, String... names) {
+        Node[] nodes = new Node[names.length];
+        for (int i = 0; i < names.length; i++) {
+            nodes[i] = NodeFactory.createURI(namespace + names[i]);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.networktopology.reasoning;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.InfModel;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.reasoner.InfGraph;
+import org.apache.jena.reasoner.Reasoner;
+import org.apache.jena.reasoner.ReasonerRegistry;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationServiceTest {
+
+    private static final String NS = "http://example.org/test#";
+
+    @Test
+    void cachesReportUntilTheModelChanges() {
+        InfModel model = ModelFactory.createInfModel(new TopologyReasoner(), ModelFactory.createModelForGraph(sharedGraph()));
+        ValidationService service = ValidationService.forModel(model);
+
+        assertSame(service, ValidationService.forModel(model));
+        assertSame(service.validate(), service.validate());
+
+        long generation = service.getGeneration();
+        model.add(model.createResource(NS + "r2"), RDF.type, model.createResource(NS + "Router"));
+        assertTrue(service.getGeneration() > generation);
+        service.close();
+    }
+
+    @Test
+    void registryEntryOfTopologyModelIsCollected() throws InterruptedException {
+        assertCollected(new TopologyReasoner());
+    }
+
+    @Test
+    void registryEntryOfGenericModelIsCollected() throws InterruptedException {
+        assertCollected(ReasonerRegistry.getRDFSReasoner());
+    }
+
+    @Test
+    void closedModelIsUnregistered() {
+        Graph shared = sharedGraph();
+        InfModel model = ModelFactory.createInfModel(ReasonerRegistry.getRDFSReasoner(), ModelFactory.createModelForGraph(shared));
+        ValidationService service = ValidationService.forModel(model);
+        service.validate();
+        assertTrue(shared.getEventManager().listening());
+
+        model.close();
+        ValidationService.forModel(otherModel());
+
+        assertFalse(shared.getEventManager().listening());
+        assertThrows(IllegalStateException.class, service::validate);
+    }
+
+    /**
+     * Validate a model over a long-lived graph, drop it, and check that both the
+     * model and the listeners on the shared graph go away
+     */
+    private static void assertCollected(Reasoner reasoner) throws InterruptedException {
+        Graph shared = sharedGraph();
+        WeakReference<InfGraph> infGraph = validateAndDrop(shared, reasoner);
+        assertTrue(shared.getEventManager().listening());
+
+        for (int i = 0; i < 100 && (infGraph.get() != null || shared.getEventManager().listening()); i++) {
+            System.gc();
+            Thread.sleep(10);
+            // Expunges the collected registry entry and unregisters its listeners
+            ValidationService.forModel(otherModel());
+        }
+
+        assertNull(infGraph.get(), "inference graph is still reachable");
+        assertFalse(shared.getEventManager().listening(), "listeners are still registered on the shared graph");
+    }
+
+    private static WeakReference<InfGraph> validateAndDrop(Graph shared, Reasoner reasoner) {
+        InfModel model = ModelFactory.createInfModel(reasoner, ModelFactory.createModelForGraph(shared));
+        ValidationService.forModel(model).validate();
+        return new WeakReference<>((InfGraph) model.getGraph());
+    }
+
+    private static InfModel otherModel() {
+        return ModelFactory.createInfModel(ReasonerRegistry.getRDFSReasoner(), ModelFactory.createDefaultModel());
+    }
+
+    private static Graph sharedGraph() {
+        Graph graph = GraphFactory.createDefaultGraph();
+        graph.add(Triple.create(NodeFactory.createURI(NS + "Router"), RDFS.subClassOf.asNode(),
+                                NodeFactory.createURI(NS + "Device")));
+        graph.add(Triple.create(NodeFactory.createURI(NS + "r1"), RDF.type.asNode(),
+                                NodeFactory.createURI(NS + "Router")));
+        return graph;
+    }
+}
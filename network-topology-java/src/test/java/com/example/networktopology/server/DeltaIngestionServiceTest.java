@@ -0,0 +1,245 @@
+package com.example.networktopology.server;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.server.DeltaIngestionService.Result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaIngestionServiceTest {
+
+    private static final String GRAPH = "urn:test:graph";
+    private static final Node P = NodeFactory.createURI("urn:test:p");
+
+    private final Dataset dataset = TDB2Factory.createDataset();
+    private final DeltaIngestionService service = new DeltaIngestionService(dataset, GRAPH);
+    private final List<List<Quad>> addedReports = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<Quad>> removedReports = Collections.synchronizedList(new ArrayList<>());
+
+    DeltaIngestionServiceTest() {
+        service.addListener((added, removed) -> {
+            addedReports.add(added);
+            removedReports.add(removed);
+        });
+        service.start();
+    }
+
+    @AfterEach
+    void stop() {
+        service.stop();
+    }
+
+    @Test
+    void queuedDeltasShareOneBatch() throws Exception {
+        List<CompletableFuture<Result>> futures = new ArrayList<>();
+        try (Gate gate = new Gate()) {
+            CompletableFuture<Result> first = add(triple(0));
+            gate.awaitWriterHolding(first);
+            for (int i = 1; i <= 5; i++) {
+                futures.add(add(triple(i)));
+            }
+            assertEquals(5, service.getQueueSize());
+            gate.open();
+            long firstBatch = first.get(5, TimeUnit.SECONDS).batchId;
+            for (CompletableFuture<Result> future : futures) {
+                Result result = future.get(5, TimeUnit.SECONDS);
+                assertEquals(firstBatch + 1, result.batchId);
+                assertEquals(1, result.added);
+            }
+        }
+        settle();
+        assertEquals(2, addedReports.size());
+        assertEquals(5, addedReports.get(1).size());
+        assertEquals(6, count());
+    }
+
+    @Test
+    void failedBatchIsRetriedOneByOne() throws Exception {
+        CompletableFuture<Result> good;
+        CompletableFuture<Result> bad;
+        CompletableFuture<Result> alsoGood;
+        try (Gate gate = new Gate()) {
+            gate.awaitWriterHolding(add(triple(0)));
+            good = add(triple(1));
+            // TDB2 cannot store a variable, so this delta fails its transaction
+            bad = add(Triple.create(node(2), P, Var.alloc("x")));
+            alsoGood = add(triple(3));
+            gate.open();
+        }
+        assertEquals(1, good.get(5, TimeUnit.SECONDS).added);
+        assertEquals(1, alsoGood.get(5, TimeUnit.SECONDS).added);
+        assertNotEquals(good.get().batchId, alsoGood.get().batchId);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertNotNull(failure.getCause());
+        settle();
+        assertEquals(3, count());
+        // One report for the first delta, then one per retried delta that committed
+        assertEquals(3, addedReports.size());
+    }
+
+    @Test
+    void listenersHearOnlyTheNetChange() throws Exception {
+        add(triple(0)).get(5, TimeUnit.SECONDS);
+        settle();
+        addedReports.clear();
+        removedReports.clear();
+
+        CompletableFuture<Result> addThenRemove;
+        CompletableFuture<Result> removeAgain;
+        CompletableFuture<Result> existing;
+        CompletableFuture<Result> absent;
+        CompletableFuture<Result> removal;
+        try (Gate gate = new Gate()) {
+            gate.awaitWriterHolding(add(triple(9)));
+            addThenRemove = add(triple(1));
+            removeAgain = service.submitTriples(List.of(), List.of(triple(1)));
+            existing = add(triple(0));
+            absent = service.submitTriples(List.of(), List.of(triple(5)));
+            removal = service.submitTriples(List.of(triple(2)), List.of(triple(0)));
+            gate.open();
+        }
+        assertEquals(1, addThenRemove.get(5, TimeUnit.SECONDS).added);
+        assertEquals(1, removeAgain.get().deleted);
+        assertEquals(0, existing.get().added);
+        assertEquals(0, absent.get().deleted);
+        assertEquals(1, removal.get().added);
+        assertEquals(1, removal.get().deleted);
+        settle();
+
+        // triple 9 alone, then the batch: 1 came and went, 0 was re-added then removed, 5 never existed
+        assertEquals(2, addedReports.size());
+        assertEquals(List.of(quad(triple(2))), addedReports.get(1));
+        assertEquals(List.of(quad(triple(0))), removedReports.get(1));
+    }
+
+    @Test
+    void stopAppliesQueuedDeltasThenRejectsNewOnes() throws Exception {
+        CompletableFuture<Result> queued;
+        try (Gate gate = new Gate()) {
+            gate.awaitWriterHolding(add(triple(0)));
+            queued = add(triple(1));
+            Thread stopper = new Thread(service::stop);
+            stopper.start();
+            gate.open();
+            stopper.join(5000);
+        }
+        assertEquals(1, queued.get(5, TimeUnit.SECONDS).added);
+        assertEquals(2, count());
+        assertThrows(IllegalStateException.class, () -> add(triple(2)));
+    }
+
+    @Test
+    void deltasLeftWhenTheWriterExitsFail() throws Exception {
+        // Interrupted after the first commit, the writer exits at its next poll
+        // and leaves the queued delta behind
+        service.addListener((added, removed) -> {
+            if (added.contains(quad(triple(0)))) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<Result> queued;
+        try (Gate gate = new Gate()) {
+            CompletableFuture<Result> first = add(triple(0));
+            gate.awaitWriterHolding(first);
+            queued = add(triple(1));
+            gate.open();
+            first.get(5, TimeUnit.SECONDS);
+        }
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+        assertThrows(IllegalStateException.class, () -> add(triple(2)));
+        assertEquals(1, count());
+    }
+
+    /**
+     * Holds the writer between batches: the first delta submitted is taken
+     * as a batch of its own and waits, so deltas submitted meanwhile queue up
+     * and form the next batch
+     */
+    private final class Gate implements AutoCloseable {
+        private final CountDownLatch held = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Thread holder;
+
+        Gate() throws InterruptedException {
+            holder = new Thread(() -> service.callBetweenBatches(() -> {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            holder.start();
+            held.await();
+        }
+
+        /**
+         * Wait until the writer has taken the delta off the queue
+         */
+        void awaitWriterHolding(CompletableFuture<Result> delta) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (service.getQueueSize() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(0, service.getQueueSize());
+            assertFalse(delta.isDone());
+        }
+
+        void open() {
+            release.countDown();
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            open();
+            holder.join();
+        }
+    }
+
+    private CompletableFuture<Result> add(Triple triple) {
+        return service.submitTriples(List.of(triple), List.of());
+    }
+
+    private long count() {
+        return Txn.calculateRead(dataset, () -> dataset.getNamedModel(GRAPH).size());
+    }
+
+    /**
+     * Wait until the listeners have heard of every completed delta (they run
+     * after the futures complete, while the batch still holds the writer)
+     */
+    private void settle() {
+        service.callBetweenBatches(() -> null);
+    }
+
+    private static Triple triple(int i) {
+        return Triple.create(node(i), P, NodeFactory.createLiteral(Integer.toString(i)));
+    }
+
+    private static Quad quad(Triple triple) {
+        return Quad.create(NodeFactory.createURI(GRAPH), triple);
+    }
+
+    private static Node node(int i) {
+        return NodeFactory.createURI("urn:test:s" + i);
+    }
+}
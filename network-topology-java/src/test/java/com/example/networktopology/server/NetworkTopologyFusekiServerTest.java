@@ -0,0 +1,105 @@
+package com.example.networktopology.server;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.system.Txn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.networktopology.loaders.RdfSource;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkTopologyFusekiServerTest {
+
+    private static final Node MARKER = NodeFactory.createURI(INSTANCE_NS + "Marker");
+
+    @Test
+    void reloadsOnlyChangedSources(@TempDir Path directory) throws Exception {
+        File tdb = directory.resolve("tdb").toFile();
+        String siteA = write(directory.resolve("site-a.ttl"), "SiteA", "RouterA1");
+        String siteB = write(directory.resolve("site-b.ttl"), "SiteB", "RouterB1");
+        String[] sources = { ONTOLOGY_TTL_RESOURCE, INSTANCES_TTL_RESOURCE, siteA, siteB };
+
+        Dataset dataset = load(tdb, siteA, siteB);
+        Txn.executeRead(dataset, () -> {
+            assertTrue(graph(dataset, siteA).contains(device("RouterA1"), Node.ANY, Node.ANY));
+            assertTrue(graph(dataset, siteB).contains(device("RouterB1"), Node.ANY, Node.ANY));
+        });
+        assertTrue(DatasetManifest.forDirectory(tdb).existed());
+
+        // A marker in every graph shows which ones a later load rewrites
+        for (String source : sources) {
+            Txn.executeWrite(dataset, () -> graph(dataset, source).add(marker(source)));
+        }
+
+        // Nothing changed: every source is skipped
+        load(tdb, siteA, siteB);
+        for (String source : sources) {
+            assertTrue(Txn.calculateRead(dataset, () -> graph(dataset, source).contains(marker(source))), source);
+        }
+
+        // Only site B changed: its graph is replaced, the others keep their markers
+        String checksum = DatasetManifest.forDirectory(tdb).get(siteB).checksum;
+        write(directory.resolve("site-b.ttl"), "SiteB", "RouterB2");
+        load(tdb, siteA, siteB);
+        Txn.executeRead(dataset, () -> {
+            Graph b = graph(dataset, siteB);
+            assertFalse(b.contains(marker(siteB)));
+            assertFalse(b.contains(device("RouterB1"), Node.ANY, Node.ANY));
+            assertTrue(b.contains(device("RouterB2"), Node.ANY, Node.ANY));
+            for (String source : new String[] { ONTOLOGY_TTL_RESOURCE, INSTANCES_TTL_RESOURCE, siteA }) {
+                assertTrue(graph(dataset, source).contains(marker(source)), source);
+            }
+            assertTrue(graph(dataset, siteA).contains(device("RouterA1"), Node.ANY, Node.ANY));
+        });
+        DatasetManifest manifest = DatasetManifest.forDirectory(tdb);
+        assertNotEquals(checksum, manifest.get(siteB).checksum);
+        assertEquals(NetworkTopologyFusekiServer.graphFor(siteB), manifest.get(siteB).graph);
+        assertTrue(manifest.isUnchanged(siteA, new RdfSource(siteA).checksum()));
+    }
+
+    /**
+     * Load the sources the way a restarted server does
+     */
+    private static Dataset load(File tdb, String... sources) {
+        NetworkTopologyFusekiServer server = new NetworkTopologyFusekiServer();
+        server.setTdbDirectory(tdb);
+        for (String source : sources) {
+            server.addDataSource(source);
+        }
+        Dataset dataset = server.createDataset();
+        server.loadNetworkTopologyData(dataset);
+        return dataset;
+    }
+
+    private static String write(Path file, String site, String router) throws Exception {
+        String turtle = "@prefix : <" + ONTOLOGY_NS + "> .\n" +
+                        "@prefix nt: <" + INSTANCE_NS + "> .\n" +
+                        "nt:" + site + " a :Site .\n" +
+                        "nt:" + router + " a :Router ; :locatedAt nt:" + site + " .\n";
+        Files.write(file, turtle.getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+
+    private static Graph graph(Dataset dataset, String source) {
+        return dataset.asDatasetGraph().getGraph(NodeFactory.createURI(NetworkTopologyFusekiServer.graphFor(source)));
+    }
+
+    private static Triple marker(String source) {
+        return Triple.create(MARKER, NodeFactory.createURI(ONTOLOGY_NS + "source"), NodeFactory.createLiteral(source));
+    }
+
+    private static Node device(String name) {
+        return NodeFactory.createURI(INSTANCE_NS + name);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.networktopology.topology;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.topology.CentralityAnalyzer.Role;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CentralityAnalyzerTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void betweennessOfSmallGraphs() throws Exception {
+        // Path 0-1-2-3-4: the middle device lies on 2 x 2 pairs, its neighbours on 3
+        assertBetweenness(TestGraphs.graph(5, new int[][] { { 0, 1 }, { 1, 2 }, { 2, 3 }, { 3, 4 } }),
+                          0, 3, 4, 3, 0);
+        // Star: every pair of the four leaves runs through the centre
+        assertBetweenness(TestGraphs.graph(5, new int[][] { { 0, 1 }, { 0, 2 }, { 0, 3 }, { 0, 4 } }),
+                          6, 0, 0, 0, 0);
+        // Square with a doubled link: 1 and 3 have two shortest paths, half through 0 and half through 2
+        assertBetweenness(TestGraphs.graph(4, new int[][] { { 0, 1 }, { 1, 0 }, { 1, 2 }, { 2, 3 }, { 3, 0 } }),
+                          0.5, 0.5, 0.5, 0.5);
+        // Triangle with a pendant on 2, plus a separate pair
+        CentralityAnalyzer centrality = assertBetweenness(
+            TestGraphs.graph(6, new int[][] { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 2, 3 }, { 4, 5 } }),
+            0, 0, 2, 0, 0, 0);
+        assertEquals(Role.CORE, centrality.getRole(2));
+        for (int v : new int[] { 0, 1, 3, 4, 5 }) {
+            assertEquals(Role.ACCESS, centrality.getRole(v));
+        }
+        assertEquals(2, centrality.getCoreNumber(0));
+        assertEquals(1, centrality.getCoreNumber(3));
+        assertEquals(3, centrality.getDegree(2));
+    }
+
+    @Test
+    void matchesPairCountingOnRandomGraphs() throws Exception {
+        Random random = new Random(24);
+        for (int round = 0; round < 100; round++) {
+            int n = 1 + random.nextInt(40);
+            TopologyGraph graph = TestGraphs.graph(n, TestGraphs.randomEdges(random, n, random.nextInt(3 * n)));
+            CentralityAnalyzer centrality = CentralityAnalyzer.analyze(graph, ForkJoinPool.commonPool());
+            assertTrue(centrality.isExact());
+            double[] expected = betweenness(graph);
+            for (int v = 0; v < n; v++) {
+                assertEquals(expected[v], centrality.getBetweenness(v), EPSILON, "round " + round + ", device " + v);
+            }
+        }
+    }
+
+    @Test
+    void sampledBetweennessKeepsExactAccessDevices() throws Exception {
+        Random random = new Random(25);
+        for (int round = 0; round < 100; round++) {
+            int n = 2 + random.nextInt(60);
+            TopologyGraph graph = TestGraphs.graph(n, TestGraphs.randomEdges(random, n, random.nextInt(2 * n)));
+            CentralityAnalyzer exact = CentralityAnalyzer.analyze(graph, ForkJoinPool.commonPool());
+            CentralityAnalyzer sampled = CentralityAnalyzer.analyze(graph, 1 + random.nextInt(n - 1), round,
+                                                                    ForkJoinPool.commonPool());
+            assertFalse(sampled.isExact());
+            for (int v = 0; v < n; v++) {
+                assertEquals(exact.getRole(v) == Role.ACCESS, sampled.getRole(v) == Role.ACCESS,
+                             "round " + round + ", device " + v);
+            }
+        }
+    }
+
+    private static CentralityAnalyzer assertBetweenness(TopologyGraph graph, double... expected) throws Exception {
+        CentralityAnalyzer centrality = CentralityAnalyzer.analyze(graph, ForkJoinPool.commonPool());
+        for (int v = 0; v < expected.length; v++) {
+            assertEquals(expected[v], centrality.getBetweenness(v), EPSILON, "device " + v);
+        }
+        return centrality;
+    }
+
+    /**
+     * Betweenness from its definition: for every pair s &lt; t and device v
+     * between them, the share of shortest s-t paths that run through v
+     */
+    private static double[] betweenness(TopologyGraph graph) {
+        int n = graph.getDeviceCount();
+        int[][] distance = new int[n][];
+        double[][] paths = new double[n][];
+        for (int s = 0; s < n; s++) {
+            distance[s] = new int[n];
+            paths[s] = new double[n];
+            bfs(graph, s, distance[s], paths[s]);
+        }
+        double[] betweenness = new double[n];
+        for (int s = 0; s < n; s++) {
+            for (int t = s + 1; t < n; t++) {
+                if (distance[s][t] < 0) {
+                    continue;
+                }
+                for (int v = 0; v < n; v++) {
+                    if (v != s && v != t && distance[s][v] >= 0 && distance[v][t] >= 0
+                        && distance[s][v] + distance[v][t] == distance[s][t]) {
+                        betweenness[v] += paths[s][v] * paths[v][t] / paths[s][t];
+                    }
+                }
+            }
+        }
+        return betweenness;
+    }
+
+    /**
+     * Hop distances and shortest path counts from a device, with parallel
+     * links counted once
+     */
+    private static void bfs(TopologyGraph graph, int source, int[] distance, double[] paths) {
+        int n = graph.getDeviceCount();
+        boolean[][] adjacent = new boolean[n][n];
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            adjacent[graph.getEdgeSource(e)][graph.getEdgeTarget(e)] = true;
+            adjacent[graph.getEdgeTarget(e)][graph.getEdgeSource(e)] = true;
+        }
+        Arrays.fill(distance, -1);
+        distance[source] = 0;
+        paths[source] = 1;
+        for (int level = 0; ; level++) {
+            boolean grown = false;
+            for (int v = 0; v < n; v++) {
+                if (distance[v] != level) {
+                    continue;
+                }
+                for (int u = 0; u < n; u++) {
+                    if (u != v && adjacent[v][u] && (distance[u] < 0 || distance[u] == level + 1)) {
+                        distance[u] = level + 1;
+                        paths[u] += paths[v];
+                        grown = true;
+                    }
+                }
+            }
+            if (!grown) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.reasoning.ClassHierarchyIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectivityTrackerTest {
+
+    private static final int DEVICES = 12;
+    private static final int INTERFACES = 24;
+    private static final int LINKS = 8;
+
+    @Test
+    void splitsOnLastLinkRemovedOnly() {
+        Graph schema = schema();
+        ConnectivityTracker tracker = new ConnectivityTracker(ClassHierarchyIndex.build(schema));
+        Triple ab = connected(0, 1);
+        Triple ba = connected(1, 0);
+        // Typed, so device 0 stays a device once its last connectedTo is gone
+        tracker.add(Triple.create(device(0), RDF.type.asNode(), ontology("Router")));
+        tracker.add(ab);
+        tracker.add(ba);
+        tracker.add(connected(1, 2));
+
+        tracker.remove(ab);
+        assertTrue(tracker.isConnected(device(0), device(2)), "a parallel fact still links 0 and 1");
+        tracker.remove(ba);
+        assertFalse(tracker.isConnected(device(0), device(2)));
+        assertEquals(2, tracker.getComponentCount());
+        assertEquals(1, tracker.getIsolatedCount());
+        assertEquals(2, tracker.getComponentSize(device(2)));
+        assertTrue(tracker.isOnIsland(device(0)));
+    }
+
+    @Test
+    void matchesRecomputedComponentsUnderRandomUpdates() {
+        Random random = new Random(23);
+        Graph schema = schema();
+        Graph data = GraphFactory.createDefaultGraph();
+        schema.find().forEachRemaining(data::add);
+        ConnectivityTracker tracker = new ConnectivityTracker(ClassHierarchyIndex.build(schema));
+
+        for (int step = 0; step < 3000; step++) {
+            Triple triple = randomFact(random);
+            // A fact already present is removed; a new one is added two times in three
+            if (random.nextInt(3) == 0 || data.contains(triple)) {
+                if (data.contains(triple)) {
+                    data.delete(triple);
+                    tracker.remove(triple);
+                }
+            } else {
+                data.add(triple);
+                tracker.add(triple);
+            }
+            if (random.nextInt(4) == 0) {
+                List<Triple> existing = data.find().toList();
+                Triple victim = existing.get(random.nextInt(existing.size()));
+                if (!schema.contains(victim)) {
+                    data.delete(victim);
+                    tracker.remove(victim);
+                }
+            }
+            assertMatches(TopologyGraph.fromGraph(data), tracker, "step " + step);
+        }
+    }
+
+    private static void assertMatches(TopologyGraph graph, ConnectivityTracker tracker, String context) {
+        int n = graph.getDeviceCount();
+        int[] labels = TestGraphs.components(graph, -1, -1);
+        int[] sizes = TestGraphs.componentSizes(labels);
+        assertEquals(n, tracker.getDeviceCount(), context);
+        assertEquals(sizes.length, tracker.getComponentCount(), context);
+
+        int largest = 0;
+        for (int size : sizes) {
+            largest = Math.max(largest, size);
+        }
+        int islandDevices = 0;
+        List<Node> isolated = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            Node node = graph.getDevice(v);
+            assertTrue(tracker.isDevice(node), context);
+            assertEquals(sizes[labels[v]], tracker.getComponentSize(node), context + ", " + node);
+            if (graph.getDegree(v) == 0) {
+                isolated.add(node);
+            }
+            if (sizes[labels[v]] < largest) {
+                islandDevices++;
+            }
+            for (int u = 0; u < v; u++) {
+                assertEquals(labels[u] == labels[v], tracker.isConnected(graph.getDevice(u), node),
+                             context + ", " + graph.getDevice(u) + " and " + node);
+            }
+        }
+        assertEquals(isolated, tracker.getIsolatedDevices(), context);
+        assertEquals(largest, tracker.getLargestComponentSize(), context);
+        assertEquals(islandDevices, tracker.getIslandDeviceCount(), context);
+    }
+
+    /**
+     * A connectedTo, link membership, interface ownership (either direction;
+     * interface i always belongs to device i % DEVICES) or device type
+     */
+    private static Triple randomFact(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return connected(random.nextInt(DEVICES), random.nextInt(DEVICES));
+            case 1:
+            case 2:
+                return Triple.create(link(random.nextInt(LINKS)), ontology("connectsInterface"),
+                                     iface(random.nextInt(INTERFACES)));
+            case 3: {
+                int i = random.nextInt(INTERFACES);
+                return random.nextBoolean()
+                    ? Triple.create(device(i % DEVICES), ontology("hasInterface"), iface(i))
+                    : Triple.create(iface(i), ontology("interfaceOf"), device(i % DEVICES));
+            }
+            default:
+                return Triple.create(device(random.nextInt(DEVICES)), RDF.type.asNode(), ontology("Router"));
+        }
+    }
+
+    private static Graph schema() {
+        Graph schema = GraphFactory.createDefaultGraph();
+        schema.add(Triple.create(ontology("Router"), RDFS.subClassOf.asNode(), ontology("NetworkDevice")));
+        return schema;
+    }
+
+    private static Triple connected(int a, int b) {
+        return Triple.create(device(a), ontology("connectedTo"), device(b));
+    }
+
+    private static Node device(int id) {
+        return NodeFactory.createURI(INSTANCE_NS + String.format("Device%02d", id));
+    }
+
+    private static Node iface(int id) {
+        return NodeFactory.createURI(INSTANCE_NS + String.format("Interface%02d", id));
+    }
+
+    private static Node link(int id) {
+        return NodeFactory.createURI(INSTANCE_NS + String.format("Link%02d", id));
+    }
+
+    private static Node ontology(String name) {
+        return NodeFactory.createURI(ONTOLOGY_NS + name);
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.topology.FailureSimulator.Failure;
+import com.example.networktopology.topology.FailureSimulator.Impact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FailureSimulatorTest {
+
+    /**
+     * A, B and C share one link with three interfaces (three edges), C-D is a
+     * link of its own and D :connectedTo E without any link
+     */
+    private static TopologyGraph topology() {
+        Graph data = GraphFactory.createDefaultGraph();
+        link(data, "Hub", "A", "B", "C");
+        link(data, "Uplink", "C", "D");
+        data.add(Triple.create(instance("D"), ontology("connectedTo"), instance("E")));
+        return TopologyGraph.fromGraph(data);
+    }
+
+    @Test
+    void linkFailureTakesDownEveryEdgeOfTheLink() {
+        TopologyGraph graph = topology();
+        assertEquals(5, graph.getEdgeCount());
+        FailureSimulator simulator = new FailureSimulator(graph);
+
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            if (!instance("Hub").equals(graph.getLink(e))) {
+                continue;
+            }
+            Impact impact = simulator.simulate(Failure.link(e));
+            assertEquals("Hub", impact.getFailure().describe(graph));
+            assertEquals(0, impact.getFailedDevices().length);
+            assertArrayEquals(devices(graph, "A", "B"), sorted(impact.getUnreachableDevices()));
+        }
+    }
+
+    @Test
+    void edgeWithoutLinkNodeIsNamedAfterItsDevices() {
+        TopologyGraph graph = topology();
+        FailureSimulator simulator = new FailureSimulator(graph);
+        int d = graph.getDeviceId(instance("D"));
+        int e = graph.getDeviceId(instance("E"));
+
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            if (graph.getLink(edge) == null) {
+                assertEquals(Math.min(d, e), graph.getEdgeSource(edge));
+                Impact impact = simulator.simulate(Failure.link(edge));
+                assertEquals("D–E", impact.getFailure().describe(graph));
+                assertArrayEquals(new int[] { e }, impact.getUnreachableDevices());
+                return;
+            }
+        }
+        fail("no connectedTo-only edge");
+    }
+
+    @Test
+    void failuresMatchBruteForceOnRandomGraphs() {
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            TopologyGraph graph = randomGraph(random);
+            FailureSimulator simulator = new FailureSimulator(graph);
+            String context = "seed " + seed;
+
+            for (int v = 0; v < graph.getDeviceCount(); v++) {
+                assertMatchesBruteForce(graph, Failure.device(v), simulator.simulate(Failure.device(v)), context);
+            }
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                assertMatchesBruteForce(graph, Failure.link(e), simulator.simulate(Failure.link(e)), context);
+            }
+            for (int s = 0; s < graph.getSiteCount(); s++) {
+                assertMatchesBruteForce(graph, Failure.site(s), simulator.simulate(Failure.site(s)), context);
+            }
+        }
+    }
+
+    @Test
+    void batchesMatchSingleSimulations() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int seed = 0; seed < 50; seed++) {
+                Random random = new Random(seed);
+                TopologyGraph graph = randomGraph(random);
+                FailureSimulator simulator = new FailureSimulator(graph);
+                List<Failure> failures = new ArrayList<>();
+                for (int v = 0; v < graph.getDeviceCount(); v++) {
+                    failures.add(Failure.device(v));
+                }
+                for (int e = 0; e < graph.getEdgeCount(); e++) {
+                    failures.add(Failure.link(e));
+                }
+                for (int s = 0; s < graph.getSiteCount(); s++) {
+                    failures.add(Failure.site(s));
+                }
+                Collections.shuffle(failures, random);
+
+                List<Impact> impacts = simulator.simulate(failures, pool);
+                assertEquals(failures.size(), impacts.size());
+                for (int i = 0; i < failures.size(); i++) {
+                    Impact expected = simulator.simulate(failures.get(i));
+                    assertSame(failures.get(i), impacts.get(i).getFailure());
+                    assertArrayEquals(expected.getFailedDevices(), impacts.get(i).getFailedDevices());
+                    assertArrayEquals(sorted(expected.getUnreachableDevices()), sorted(impacts.get(i).getUnreachableDevices()),
+                                      "seed " + seed + ", " + failures.get(i).describe(graph));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void rankingsMatchEverySimulation() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int seed = 0; seed < 100; seed++) {
+                Random random = new Random(seed);
+                TopologyGraph graph = randomGraph(random);
+                FailureSimulator simulator = new FailureSimulator(graph);
+                String context = "seed " + seed;
+
+                List<Impact> devices = simulator.rankDevices(graph.getDeviceCount(), pool);
+                assertRanking(graph.getDeviceCount(), devices, id -> simulator.simulate(Failure.device(id)), context);
+                assertEquals(devices.subList(0, Math.min(3, devices.size())).toString(),
+                             simulator.rankDevices(3, pool).toString(), context);
+
+                List<Impact> sites = simulator.rankSites(graph.getSiteCount(), pool);
+                assertRanking(graph.getSiteCount(), sites, id -> simulator.simulate(Failure.site(id)), context);
+                assertEquals(sites.subList(0, Math.min(2, sites.size())).toString(),
+                             simulator.rankSites(2, pool).toString(), context);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A ranking holds every id once, with the blast radius of its own
+     * simulation, largest first and ties by id
+     */
+    private static void assertRanking(int count, List<Impact> ranking, IntFunction<Impact> simulate,
+                                      String context) {
+        assertEquals(count, ranking.size(), context);
+        boolean[] seen = new boolean[count];
+        for (int i = 0; i < ranking.size(); i++) {
+            Impact impact = ranking.get(i);
+            int id = impact.getFailure().getId();
+            assertFalse(seen[id], context);
+            seen[id] = true;
+            assertEquals(simulate.apply(id).getBlastRadius(), impact.getBlastRadius(), context + ", id " + id);
+            if (i > 0) {
+                Impact previous = ranking.get(i - 1);
+                assertTrue(previous.getBlastRadius() > impact.getBlastRadius()
+                           || previous.getBlastRadius() == impact.getBlastRadius()
+                              && previous.getFailure().getId() < id, context + ", position " + i);
+            }
+        }
+    }
+
+    /**
+     * Compare an impact with the components left once the failed devices and
+     * edges are removed: in each component the failure hits, the surviving
+     * devices kept are exactly one of its largest fragments, and no device of
+     * any other component is unreachable
+     */
+    private static void assertMatchesBruteForce(TopologyGraph graph, Failure failure, Impact impact, String context) {
+        context += ", " + failure.getKind() + " " + failure.getId();
+        int n = graph.getDeviceCount();
+        boolean[] removedDevices = new boolean[n];
+        boolean[] removedEdges = new boolean[graph.getEdgeCount()];
+        List<Integer> failed = new ArrayList<>();
+        switch (failure.getKind()) {
+            case DEVICE:
+                failed.add(failure.getId());
+                break;
+            case SITE:
+                for (int v = 0; v < n; v++) {
+                    if (graph.getSite(v) == failure.getId()) {
+                        failed.add(v);
+                    }
+                }
+                break;
+            default:
+                removedEdges[failure.getId()] = true;
+        }
+        for (int v : failed) {
+            removedDevices[v] = true;
+        }
+        assertArrayEquals(failed.stream().mapToInt(Integer::intValue).toArray(), sorted(impact.getFailedDevices()), context);
+
+        int[] before = TestGraphs.components(graph, -1, -1);
+        int[] after = TestGraphs.components(graph, removedDevices, removedEdges);
+        int[] fragmentSizes = TestGraphs.componentSizes(after);
+        boolean[] hit = new boolean[n];
+        int[] largest = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (removedDevices[v]) {
+                hit[before[v]] = true;
+            } else {
+                largest[before[v]] = Math.max(largest[before[v]], fragmentSizes[after[v]]);
+            }
+        }
+        for (int e = 0; e < removedEdges.length; e++) {
+            if (removedEdges[e]) {
+                hit[before[graph.getEdgeSource(e)]] = true;
+            }
+        }
+
+        boolean[] unreachable = new boolean[n];
+        for (int v : impact.getUnreachableDevices()) {
+            assertFalse(unreachable[v] || removedDevices[v], context + ", device " + v);
+            unreachable[v] = true;
+        }
+        int[] kept = new int[n];
+        Arrays.fill(kept, -1);
+        for (int v = 0; v < n; v++) {
+            if (removedDevices[v] || unreachable[v]) {
+                continue;
+            }
+            if (hit[before[v]]) {
+                assertTrue(kept[before[v]] < 0 || kept[before[v]] == after[v], context + ", device " + v);
+                assertEquals(largest[before[v]], fragmentSizes[after[v]], context + ", device " + v);
+                kept[before[v]] = after[v];
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            assertTrue(!unreachable[v] || hit[before[v]] && after[v] != kept[before[v]], context + ", device " + v);
+            assertTrue(largest[before[v]] == 0 || kept[before[v]] >= 0 || !hit[before[v]], context + ", device " + v);
+        }
+        assertEquals(failed.size() + impact.getUnreachableCount(), impact.getBlastRadius(), context);
+    }
+
+    /**
+     * Random multigraph of up to 30 devices, about a third of them without a
+     * site
+     */
+    private static TopologyGraph randomGraph(Random random) {
+        int n = 1 + random.nextInt(30);
+        int siteCount = 1 + random.nextInt(6);
+        int[] sites = new int[n];
+        for (int v = 0; v < n; v++) {
+            sites[v] = random.nextInt(3) == 0 ? -1 : random.nextInt(siteCount);
+        }
+        return TestGraphs.graph(n, TestGraphs.randomEdges(random, n, random.nextInt(2 * n)), sites, siteCount);
+    }
+
+    private static void link(Graph data, String link, String... devices) {
+        for (String device : devices) {
+            Node iface = instance(device + "_" + link);
+            data.add(Triple.create(instance(device), ontology("hasInterface"), iface));
+            data.add(Triple.create(instance(link), ontology("connectsInterface"), iface));
+        }
+    }
+
+    private static int[] devices(TopologyGraph graph, String... names) {
+        int[] ids = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            ids[i] = graph.getDeviceId(instance(names[i]));
+        }
+        return sorted(ids);
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static Node instance(String name) {
+        return NodeFactory.createURI(INSTANCE_NS + name);
+    }
+
+    private static Node ontology(String name) {
+        return NodeFactory.createURI(ONTOLOGY_NS + name);
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpAddressIndexTest {
+
+    private static final long MAPPED = 0xFFFF00000000L;
+
+    @Test
+    void parsesIPv4AndIPv6() {
+        assertKey("10.1.1.1", 0, MAPPED | 0x0A010101L, -1);
+        assertKey(" 10.1.1.1/24 ", 0, MAPPED | 0x0A010101L, 120);
+        assertKey("0.0.0.0/0", 0, MAPPED, 96);
+        assertKey("255.255.255.255/32", 0, MAPPED | 0xFFFFFFFFL, 128);
+        assertKey("1:2:3:4:5:6:7:8", 0x0001000200030004L, 0x0005000600070008L, -1);
+        assertKey("2001:DB8::/32", 0x20010DB800000000L, 0, 32);
+        assertKey("::", 0, 0, -1);
+        assertKey("::/0", 0, 0, 0);
+        assertKey("::1", 0, 1, -1);
+        assertKey("1::", 0x0001000000000000L, 0, -1);
+        assertKey("1::8", 0x0001000000000000L, 8, -1);
+        assertKey("1:2:3:4:5:6:7::", 0x0001000200030004L, 0x0005000600070000L, -1);
+        assertKey("::2:3:4:5:6:7:8", 0x0000000200030004L, 0x0005000600070008L, -1);
+        assertKey("::ffff:10.1.1.1", 0, MAPPED | 0x0A010101L, -1);
+        assertKey("::ffff:10.1.1.1/120", 0, MAPPED | 0x0A010101L, 120);
+        assertKey("1:2:3:4:5:6:1.2.3.4", 0x0001000200030004L, 0x0005000601020304L, -1);
+        assertKey("fe80::1%eth0", 0xFE80000000000000L, 1, -1);
+        assertKey("fe80::1%eth0/64", 0xFE80000000000000L, 1, 64);
+
+        for (String value : new String[] { "", "10.1.1", "10.1.1.256", "10.1.1.1.1", "10.1.1.1/33", "10.1.1.1/",
+                                           "10.1.1.1/-1", "10.1.1.1/1234", "a.b.c.d", "1:2:3:4:5:6:7",
+                                           "1:2:3:4:5:6:7:8:9", "1::2::3", "1:::2", ":1::2", "1::2:", "1:",
+                                           "12345::", "g::", "::/129", "::1.2.3", "1:2:3:4:5:6:7:1.2.3.4",
+                                           "1:2:3:4:5:6:7:8::", "router-1" }) {
+            assertFalse(IpAddressIndex.parse(value, new long[3]), value);
+        }
+    }
+
+    @Test
+    void formatsAddressesAndSubnets() {
+        IpAddressIndex index = index("10.1.1.77/24", "::ffff:10.2.0.1", "2001:DB8:0:0:1:0:0:1/64", "fe80::1%eth0",
+                                     "::ffff:10.3.0.1/64", "0.0.0.0/0", "::/0");
+        assertEquals("10.1.1.77", index.getAddress(0));
+        assertEquals("10.1.1.0/24", index.getSubnet(0));
+        assertEquals(24, index.getPrefixLength(0));
+        assertTrue(index.isIPv4(1));
+        assertEquals("10.2.0.1", index.getAddress(1));
+        assertNull(index.getSubnet(1));
+        assertEquals("2001:db8::1:0:0:1", index.getAddress(2));
+        assertEquals("2001:db8::/64", index.getSubnet(2));
+        assertEquals("fe80::1", index.getAddress(3));
+        // A mapped address with a prefix shorter than the mapping is an IPv6 subnet
+        assertFalse(index.isIPv4(4));
+        assertEquals("::ffff:a03:1", index.getAddress(4));
+        assertEquals("::/64", index.getSubnet(4));
+        assertEquals("0.0.0.0/0", index.getSubnet(5));
+        assertEquals(0, index.getPrefixLength(5));
+        assertEquals("::/0", index.getSubnet(6));
+        assertEquals(0, index.getPrefixLength(6));
+    }
+
+    @Test
+    void duplicatesAcrossWritingsAndInterfaces() {
+        IpAddressIndex index = new IpAddressIndex(
+            nodes("If1", "If2", "If3", "If4", "If4", "If5", "If6", "If7"),
+            nodes("R1", null, "R3", "R4", "R4", "R5", "R6", "R7"),
+            new String[] { "10.0.0.1/24", "::ffff:10.0.0.1", "10.0.0.1/30", "192.168.0.1", "192.168.0.1",
+                           "fe80::1%eth0", "FE80:0::1%eth1", "bogus" });
+
+        // 192.168.0.1 twice on one interface is not a conflict
+        assertEquals(2, index.getDuplicateCount());
+        assertArrayEquals(new int[] { 0, 1, 2 }, index.getDuplicate(0));
+        assertArrayEquals(new int[] { 5, 6 }, index.getDuplicate(1));
+        assertArrayEquals(new int[] { 0, 1, 2 }, index.lookup("10.0.0.1/8"));
+        assertArrayEquals(new int[] { 3, 4 }, index.lookup("::ffff:192.168.0.1"));
+        assertArrayEquals(new int[0], index.lookup("10.0.0.2"));
+        assertArrayEquals(new int[0], index.lookup("bogus"));
+        assertArrayEquals(new int[] { 7 }, index.getMalformed());
+        assertFalse(index.isValid(7));
+        assertNull(index.getDevice(1));
+    }
+
+    @Test
+    void overlapsNestAndSkipIdenticalSubnets() {
+        IpAddressIndex index = index("10.1.1.1/24", "10.1.1.2/24", "10.1.0.1/16", "10.1.1.9/28", "10.2.0.1/16",
+                                     "0.0.0.0/0", "::/0", "2001:db8::1/32", "2001:db8:1::1/48", "::ffff:10.9.9.9/96");
+
+        List<String> overlaps = new ArrayList<>();
+        for (int k = 0; k < index.getOverlapCount(); k++) {
+            overlaps.add(index.getSubnet(index.getOverlapInner(k)) + " in " +
+                         index.getSubnet(index.getOverlapOuter(k)));
+        }
+        // In network order; identical subnets (10.1.1.0/24 twice, 0.0.0.0/0 written
+        // both ways) are one subnet, and IPv4 subnets are never inside the IPv6 ::/0
+        assertEquals(List.of("10.1.0.0/16 in 0.0.0.0/0", "10.1.1.0/24 in 10.1.0.0/16",
+                             "10.1.1.0/28 in 10.1.1.0/24", "10.2.0.0/16 in 0.0.0.0/0",
+                             "2001:db8::/32 in ::/0", "2001:db8:1::/48 in 2001:db8::/32"),
+                     overlaps);
+    }
+
+    @Test
+    void matchesPairwiseChecksOnRandomInventories() {
+        Random random = new Random(25);
+        for (int round = 0; round < 200; round++) {
+            int n = 1 + random.nextInt(40);
+            String[] values = new String[n];
+            Node[] interfaces = new Node[n];
+            for (int i = 0; i < n; i++) {
+                String address = "10." + random.nextInt(3) + "." + random.nextInt(3) + "." + random.nextInt(4);
+                int kind = random.nextInt(4);
+                values[i] = kind == 0 ? address : kind == 1 ? "::ffff:" + address
+                          : address + "/" + (random.nextInt(4) * 8 + random.nextInt(2));
+                interfaces[i] = NodeFactory.createURI(INSTANCE_NS + "If" + random.nextInt(n));
+            }
+            IpAddressIndex index = new IpAddressIndex(interfaces, new Node[n], values);
+
+            // Duplicates: addresses with more than one interface
+            Map<String, Set<String>> holders = new TreeMap<>();
+            for (int i = 0; i < n; i++) {
+                holders.computeIfAbsent(index.getAddress(i), a -> new TreeSet<>()).add(interfaces[i].toString());
+            }
+            Set<String> expected = new TreeSet<>();
+            holders.forEach((address, names) -> {
+                if (names.size() > 1) {
+                    expected.add(address + " " + names);
+                }
+            });
+            Set<String> actual = new TreeSet<>();
+            for (int g = 0; g < index.getDuplicateCount(); g++) {
+                int[] group = index.getDuplicate(g);
+                Set<String> names = new TreeSet<>();
+                for (int entry : group) {
+                    assertEquals(index.getAddress(group[0]), index.getAddress(entry));
+                    names.add(interfaces[entry].toString());
+                }
+                assertEquals(group.length, names.size());
+                actual.add(index.getAddress(group[0]) + " " + names);
+            }
+            assertEquals(expected, actual, "round " + round);
+
+            // Overlaps: each distinct subnet inside another, with the smallest one around it
+            Set<String> subnets = new TreeSet<>();
+            for (int i = 0; i < n; i++) {
+                if (index.getSubnet(i) != null) {
+                    subnets.add(index.getSubnet(i));
+                }
+            }
+            Set<String> expectedOverlaps = new TreeSet<>();
+            for (String inner : subnets) {
+                String smallest = null;
+                for (String outer : subnets) {
+                    if (!outer.equals(inner) && contains(outer, inner)
+                        && (smallest == null || prefix(outer) > prefix(smallest))) {
+                        smallest = outer;
+                    }
+                }
+                if (smallest != null) {
+                    expectedOverlaps.add(inner + " in " + smallest);
+                }
+            }
+            Set<String> actualOverlaps = new TreeSet<>();
+            for (int k = 0; k < index.getOverlapCount(); k++) {
+                actualOverlaps.add(index.getSubnet(index.getOverlapInner(k)) + " in " +
+                                   index.getSubnet(index.getOverlapOuter(k)));
+            }
+            assertEquals(index.getOverlapCount(), actualOverlaps.size());
+            assertEquals(expectedOverlaps, actualOverlaps, "round " + round);
+        }
+    }
+
+    private static void assertKey(String value, long high, long low, int prefix) {
+        long[] key = new long[3];
+        assertTrue(IpAddressIndex.parse(value, key), value);
+        assertEquals(high, key[0], value);
+        assertEquals(low, key[1], value);
+        assertEquals(prefix, key[2], value);
+    }
+
+    private static IpAddressIndex index(String... values) {
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = "If" + i;
+        }
+        return new IpAddressIndex(nodes(names), new Node[values.length], values);
+    }
+
+    private static Node[] nodes(String... names) {
+        Node[] nodes = new Node[names.length];
+        for (int i = 0; i < names.length; i++) {
+            nodes[i] = names[i] != null ? NodeFactory.createURI(INSTANCE_NS + names[i]) : null;
+        }
+        return nodes;
+    }
+
+    /**
+     * Whether an IPv4 subnet ("a.b.c.d/p") contains another
+     */
+    private static boolean contains(String outer, String inner) {
+        int p = prefix(outer);
+        long mask = p == 0 ? 0 : 0xFFFFFFFFL << (32 - p) & 0xFFFFFFFFL;
+        return prefix(inner) >= p && (network(outer) & mask) == (network(inner) & mask);
+    }
+
+    private static int prefix(String subnet) {
+        return Integer.parseInt(subnet.substring(subnet.indexOf('/') + 1));
+    }
+
+    private static long network(String subnet) {
+        long address = 0;
+        for (String octet : subnet.substring(0, subnet.indexOf('/')).split("\\.")) {
+            address = address << 8 | Integer.parseInt(octet);
+        }
+        return address;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.networktopology.topology;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.topology.PathEngine.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathEngineTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void rejectsDevicesOutsideTheGraph() {
+        TopologyGraph graph = TestGraphs.graph(3, new int[][] { { 0, 1 }, { 1, 2 } });
+        PathEngine engine = new PathEngine(graph);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.shortestPath(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> engine.shortestPath(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> engine.widestPath(3, 0));
+        assertThrows(IllegalArgumentException.class, () -> engine.kShortestPaths(0, -1, 2));
+        assertThrows(IllegalArgumentException.class,
+                     () -> engine.shortestPaths(List.of(new int[] { 0, 1 }, new int[] { 0, 7 }),
+                                                ForkJoinPool.commonPool()));
+        assertNotNull(engine.shortestPath(0, 2));
+    }
+
+    @Test
+    void landmarksMatchDijkstraOnRandomGraphs() throws Exception {
+        Random random = new Random(20);
+        for (int round = 0; round < 100; round++) {
+            int n = 2 + random.nextInt(40);
+            TopologyGraph graph = randomGraph(random, n, random.nextInt(3 * n));
+            PathEngine alt = new PathEngine(graph, 4, 2.5);
+            PathEngine dijkstra = new PathEngine(graph, 0, 2.5);
+
+            List<int[]> pairs = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                pairs.add(new int[] { random.nextInt(n), random.nextInt(n) });
+            }
+            List<Path> batch = alt.shortestPaths(pairs, ForkJoinPool.commonPool());
+            for (int i = 0; i < pairs.size(); i++) {
+                int source = pairs.get(i)[0];
+                int target = pairs.get(i)[1];
+                double expected = distances(graph, source, 2.5)[target];
+                for (Path path : new Path[] { alt.shortestPath(source, target),
+                                              dijkstra.shortestPath(source, target), batch.get(i) }) {
+                    if (expected == Double.POSITIVE_INFINITY) {
+                        assertNull(path);
+                    } else {
+                        assertValidPath(graph, path, source, target);
+                        assertEquals(expected, path.getLatency(), EPSILON);
+                        assertEquals(latency(graph, path, 2.5), path.getLatency(), EPSILON);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void widestPathMatchesThresholdSearch() {
+        Random random = new Random(21);
+        for (int round = 0; round < 100; round++) {
+            int n = 2 + random.nextInt(25);
+            TopologyGraph graph = randomGraph(random, n, random.nextInt(3 * n));
+            PathEngine engine = new PathEngine(graph);
+
+            for (int i = 0; i < 20; i++) {
+                int source = random.nextInt(n);
+                int target = random.nextInt(n);
+                Path path = engine.widestPath(source, target);
+                if (source == target) {
+                    assertEquals(0, path.getHopCount());
+                    continue;
+                }
+                // The widest bottleneck is the largest capacity whose links still connect the pair
+                double best = Double.NEGATIVE_INFINITY;
+                for (int e = 0; e < graph.getEdgeCount(); e++) {
+                    double width = capacity(graph, e);
+                    if (width > best && distances(graph, source, 1.0, width)[target] < Double.POSITIVE_INFINITY) {
+                        best = width;
+                    }
+                }
+                if (best == Double.NEGATIVE_INFINITY) {
+                    assertNull(path);
+                    continue;
+                }
+                assertValidPath(graph, path, source, target);
+                assertEquals(best, path.getBottleneckBandwidth(), EPSILON);
+                assertEquals(distances(graph, source, 1.0, best)[target], path.getLatency(), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void yenMatchesEnumeratedSimplePaths() {
+        Random random = new Random(22);
+        for (int round = 0; round < 150; round++) {
+            int n = 2 + random.nextInt(7);
+            TopologyGraph graph = randomGraph(random, n, random.nextInt(2 * n + 2));
+            PathEngine engine = new PathEngine(graph, 2, 1.0);
+            int source = random.nextInt(n);
+            int target = random.nextInt(n);
+            if (source == target) {
+                continue;
+            }
+            List<Double> all = new ArrayList<>();
+            enumerate(graph, target, new boolean[n], source, 0, all);
+            all.sort(null);
+
+            int k = 1 + random.nextInt(6);
+            List<Path> paths = engine.kShortestPaths(source, target, k);
+            assertEquals(Math.min(k, all.size()), paths.size(), "round " + round);
+            Set<List<Integer>> distinct = new HashSet<>();
+            for (int i = 0; i < paths.size(); i++) {
+                Path path = paths.get(i);
+                assertValidPath(graph, path, source, target);
+                assertEquals(all.get(i), path.getLatency(), EPSILON, "path " + i + " of round " + round);
+                List<Integer> edges = new ArrayList<>();
+                for (int e : path.getEdges()) {
+                    edges.add(e);
+                }
+                assertTrue(distinct.add(edges), "duplicate path " + path);
+                assertEquals(path.getHopCount() + 1, Arrays.stream(path.getDevices()).distinct().count(),
+                             "path with a loop " + path);
+            }
+        }
+    }
+
+    /**
+     * Random multigraph with mostly known latencies (unique-ish, so ties are
+     * rare) and bandwidths from a few values, so bottleneck ties are common
+     */
+    private static TopologyGraph randomGraph(Random random, int n, int m) {
+        int[][] edges = TestGraphs.randomEdges(random, n, m);
+        double[] latencies = new double[edges.length];
+        double[] bandwidths = new double[edges.length];
+        for (int e = 0; e < edges.length; e++) {
+            latencies[e] = random.nextInt(10) == 0 ? Double.NaN : 0.1 + random.nextInt(1000) / 100.0;
+            bandwidths[e] = random.nextInt(10) == 0 ? Double.NaN : 100 * (1 + random.nextInt(5));
+        }
+        int[] zones = new int[n];
+        Arrays.fill(zones, -1);
+        return TestGraphs.graph(n, edges, zones, 0, latencies, bandwidths);
+    }
+
+    private static double weight(TopologyGraph graph, int e, double unknownLatency) {
+        double latency = graph.getLatency(e);
+        return Double.isNaN(latency) ? unknownLatency : latency;
+    }
+
+    private static double capacity(TopologyGraph graph, int e) {
+        double bandwidth = graph.getBandwidth(e);
+        return Double.isNaN(bandwidth) ? 0 : bandwidth;
+    }
+
+    private static double[] distances(TopologyGraph graph, int source, double unknownLatency) {
+        return distances(graph, source, unknownLatency, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Quadratic Dijkstra over the links of at least minCapacity
+     */
+    private static double[] distances(TopologyGraph graph, int source, double unknownLatency, double minCapacity) {
+        int n = graph.getDeviceCount();
+        double[] distance = new double[n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        boolean[] done = new boolean[n];
+        distance[source] = 0;
+        while (true) {
+            int v = -1;
+            for (int u = 0; u < n; u++) {
+                if (!done[u] && distance[u] < Double.POSITIVE_INFINITY && (v < 0 || distance[u] < distance[v])) {
+                    v = u;
+                }
+            }
+            if (v < 0) {
+                return distance;
+            }
+            done[v] = true;
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                if (capacity(graph, e) < minCapacity) {
+                    continue;
+                }
+                int a = graph.getEdgeSource(e);
+                int b = graph.getEdgeTarget(e);
+                int other = a == v ? b : b == v ? a : -1;
+                if (other >= 0) {
+                    distance[other] = Math.min(distance[other], distance[v] + weight(graph, e, unknownLatency));
+                }
+            }
+        }
+    }
+
+    /**
+     * Latency of every loopless path (as a sequence of links) from device to target
+     */
+    private static void enumerate(TopologyGraph graph, int target, boolean[] visited, int device, double latency,
+                                  List<Double> latencies) {
+        if (device == target) {
+            latencies.add(latency);
+            return;
+        }
+        visited[device] = true;
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int a = graph.getEdgeSource(e);
+            int b = graph.getEdgeTarget(e);
+            int other = a == device ? b : b == device ? a : -1;
+            if (other >= 0 && !visited[other]) {
+                enumerate(graph, target, visited, other, latency + weight(graph, e, 1.0), latencies);
+            }
+        }
+        visited[device] = false;
+    }
+
+    private static double latency(TopologyGraph graph, Path path, double unknownLatency) {
+        double total = 0;
+        for (int e : path.getEdges()) {
+            total += weight(graph, e, unknownLatency);
+        }
+        return total;
+    }
+
+    private static void assertValidPath(TopologyGraph graph, Path path, int source, int target) {
+        assertNotNull(path);
+        int[] devices = path.getDevices();
+        int[] edges = path.getEdges();
+        assertEquals(source, devices[0]);
+        assertEquals(target, devices[devices.length - 1]);
+        assertEquals(devices.length - 1, edges.length);
+        for (int i = 0; i < edges.length; i++) {
+            int a = graph.getEdgeSource(edges[i]);
+            int b = graph.getEdgeTarget(edges[i]);
+            assertTrue((a == devices[i] && b == devices[i + 1]) || (b == devices[i] && a == devices[i + 1]),
+                       "edge " + edges[i] + " does not join the devices of hop " + i);
+        }
+    }
+}
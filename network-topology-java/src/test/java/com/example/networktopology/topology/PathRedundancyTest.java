@@ -0,0 +1,166 @@
+package com.example.networktopology.topology;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.topology.PathRedundancy.Demand;
+import com.example.networktopology.topology.PathRedundancy.Result;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathRedundancyTest {
+
+    private static final int INFINITE = Integer.MAX_VALUE / 2;
+
+    @Test
+    void parallelLinksCountAsSeparatePaths() {
+        // 0 =(two links)= 1 - 2, and 0 - 3 - 2
+        TopologyGraph graph = TestGraphs.graph(4, new int[][] { { 0, 1 }, { 1, 0 }, { 1, 2 }, { 0, 3 }, { 3, 2 } });
+        PathRedundancy redundancy = new PathRedundancy(graph);
+
+        assertEquals(3, redundancy.edgeDisjointPaths(0, 1));
+        assertEquals(3, redundancy.nodeDisjointPaths(0, 1));
+        assertEquals(2, redundancy.edgeDisjointPaths(0, 2));
+        assertEquals(2, redundancy.nodeDisjointPaths(0, 2));
+        assertEquals(1, redundancy.edgeDisjointPaths(0, new int[] { 2 }, 1));
+    }
+
+    @Test
+    void sharedDeviceLimitsDeviceDisjointPaths() {
+        // Two link-disjoint paths from 0 to 4, both through device 2
+        TopologyGraph graph = TestGraphs.graph(5, new int[][] { { 0, 1 }, { 1, 2 }, { 0, 2 }, { 2, 3 }, { 3, 4 }, { 2, 4 } });
+        PathRedundancy redundancy = new PathRedundancy(graph);
+
+        assertEquals(2, redundancy.edgeDisjointPaths(0, 4));
+        assertEquals(1, redundancy.nodeDisjointPaths(0, 4));
+    }
+
+    @Test
+    void matchesReferenceMaxFlowOnRandomMultigraphs() throws Exception {
+        Random random = new Random(18);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 200; round++) {
+                int n = 2 + random.nextInt(20);
+                TopologyGraph graph = TestGraphs.random(random, n, random.nextInt(3 * n + 1));
+                PathRedundancy redundancy = new PathRedundancy(graph);
+
+                List<Demand> demands = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    int[] targets = new int[1 + random.nextInt(3)];
+                    for (int t = 0; t < targets.length; t++) {
+                        targets[t] = random.nextInt(n);
+                    }
+                    demands.add(new Demand(random.nextInt(n), targets));
+                }
+                List<Result> results = redundancy.evaluate(demands, PathRedundancy.UNLIMITED, pool);
+
+                for (int i = 0; i < demands.size(); i++) {
+                    Demand demand = demands.get(i);
+                    int edgeFlow = edmondsKarp(edgeNetwork(graph, demand), 0, 1);
+                    int nodeFlow = edmondsKarp(nodeNetwork(graph, demand), 0, 1);
+                    String context = "round " + round + ", source " + demand.getSource() + ", targets " +
+                                     Arrays.toString(demand.getTargets());
+
+                    assertEquals(edgeFlow, results.get(i).getEdgeDisjointPaths(), "link-disjoint, " + context);
+                    assertEquals(nodeFlow, results.get(i).getNodeDisjointPaths(), "device-disjoint, " + context);
+                    assertEquals(Math.min(edgeFlow, 1),
+                                 redundancy.edgeDisjointPaths(demand.getSource(), demand.getTargets(), 1), context);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Capacity matrix with node 0 the source and node 1 the super sink; each
+     * link is one unit in both directions between device v at node v + 2
+     */
+    private static int[][] edgeNetwork(TopologyGraph graph, Demand demand) {
+        int n = graph.getDeviceCount();
+        int[][] capacity = new int[n + 2][n + 2];
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int a = graph.getEdgeSource(e) + 2;
+            int b = graph.getEdgeTarget(e) + 2;
+            capacity[a][b]++;
+            capacity[b][a]++;
+        }
+        capacity[0][demand.getSource() + 2] = INFINITE;
+        for (int target : demand.getTargets()) {
+            if (target != demand.getSource()) {
+                capacity[target + 2][1] = INFINITE;
+            }
+        }
+        return capacity;
+    }
+
+    /**
+     * Capacity matrix where device v has an in node 2v + 2 and an out node
+     * 2v + 3 joined by one unit; links run from out nodes to in nodes
+     */
+    private static int[][] nodeNetwork(TopologyGraph graph, Demand demand) {
+        int n = graph.getDeviceCount();
+        int[][] capacity = new int[2 * n + 2][2 * n + 2];
+        for (int v = 0; v < n; v++) {
+            capacity[2 * v + 2][2 * v + 3] = 1;
+        }
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int a = graph.getEdgeSource(e);
+            int b = graph.getEdgeTarget(e);
+            capacity[2 * a + 3][2 * b + 2]++;
+            capacity[2 * b + 3][2 * a + 2]++;
+        }
+        capacity[0][2 * demand.getSource() + 3] = INFINITE;
+        for (int target : demand.getTargets()) {
+            if (target != demand.getSource()) {
+                capacity[2 * target + 2][1] = INFINITE;
+            }
+        }
+        return capacity;
+    }
+
+    private static int edmondsKarp(int[][] capacity, int source, int sink) {
+        int nodes = capacity.length;
+        int[][] residual = new int[nodes][];
+        for (int x = 0; x < nodes; x++) {
+            residual[x] = capacity[x].clone();
+        }
+        int total = 0;
+        while (true) {
+            int[] parent = new int[nodes];
+            Arrays.fill(parent, -1);
+            parent[source] = source;
+            Queue<Integer> queue = new ArrayDeque<>();
+            queue.add(source);
+            while (!queue.isEmpty() && parent[sink] < 0) {
+                int x = queue.poll();
+                for (int y = 0; y < nodes; y++) {
+                    if (parent[y] < 0 && residual[x][y] > 0) {
+                        parent[y] = x;
+                        queue.add(y);
+                    }
+                }
+            }
+            if (parent[sink] < 0) {
+                return total;
+            }
+            int bottleneck = INFINITE;
+            for (int y = sink; y != source; y = parent[y]) {
+                bottleneck = Math.min(bottleneck, residual[parent[y]][y]);
+            }
+            for (int y = sink; y != source; y = parent[y]) {
+                residual[parent[y]][y] -= bottleneck;
+                residual[y][parent[y]] += bottleneck;
+            }
+            total += bottleneck;
+        }
+    }
+}
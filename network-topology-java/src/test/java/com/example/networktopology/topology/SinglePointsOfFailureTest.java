@@ -0,0 +1,134 @@
+package com.example.networktopology.topology;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SinglePointsOfFailureTest {
+
+    @Test
+    void parallelLinksAreNotBridges() {
+        // 0 =(two links)= 1 - 2
+        TopologyGraph graph = TestGraphs.graph(3, new int[][] { { 0, 1 }, { 1, 0 }, { 1, 2 } });
+        SinglePointsOfFailure spof = SinglePointsOfFailure.analyze(graph);
+
+        assertEquals(1, spof.getBridgeCount());
+        assertEquals(2, spof.getBridge(0));
+        assertArrayEquals(new int[] { 2 }, spof.getIsolatedByBridge(0));
+        assertEquals(1, spof.getArticulationPointCount());
+        assertEquals(1, spof.getArticulationPoint(0));
+        assertEquals(2, spof.getFragmentCount(0));
+    }
+
+    @Test
+    void cycleHasNoSinglePointOfFailure() {
+        TopologyGraph graph = TestGraphs.graph(4, new int[][] { { 0, 1 }, { 1, 2 }, { 2, 3 }, { 3, 0 } });
+        SinglePointsOfFailure spof = SinglePointsOfFailure.analyze(graph);
+
+        assertEquals(0, spof.getBridgeCount());
+        assertEquals(0, spof.getArticulationPointCount());
+        assertEquals(4, spof.getComponentSize(2));
+    }
+
+    @Test
+    void matchesBruteForceRemovalOnRandomMultigraphs() {
+        Random random = new Random(17);
+        for (int round = 0; round < 300; round++) {
+            int n = 1 + random.nextInt(30);
+            TopologyGraph graph = TestGraphs.random(random, n, random.nextInt(2 * n + 1));
+            SinglePointsOfFailure spof = SinglePointsOfFailure.analyze(graph);
+            int[] base = TestGraphs.components(graph, -1, -1);
+            int[] baseSizes = TestGraphs.componentSizes(base);
+
+            for (int v = 0; v < n; v++) {
+                assertEquals(baseSizes[base[v]], spof.getComponentSize(v), "component size of " + v);
+                checkDeviceRemoval(graph, spof, base, v);
+            }
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                checkEdgeRemoval(graph, spof, base, baseSizes, e);
+            }
+        }
+    }
+
+    private static void checkDeviceRemoval(TopologyGraph graph, SinglePointsOfFailure spof, int[] base, int v) {
+        int[] after = TestGraphs.components(graph, v, -1);
+        int[] sizes = TestGraphs.componentSizes(after);
+
+        // Fragments of v's component once v is gone
+        Set<Integer> fragments = new HashSet<>();
+        for (int w = 0; w < graph.getDeviceCount(); w++) {
+            if (w != v && base[w] == base[v]) {
+                fragments.add(after[w]);
+            }
+        }
+        boolean cut = fragments.size() > 1;
+        assertEquals(cut, spof.isArticulationPoint(v), "articulation point " + v);
+        if (!cut) {
+            return;
+        }
+
+        int i = Arrays.binarySearch(indexOfArticulationPoints(spof), v);
+        assertEquals(v, spof.getArticulationPoint(i));
+        assertEquals(fragments.size(), spof.getFragmentCount(i));
+        int largest = fragments.stream().mapToInt(f -> sizes[f]).max().getAsInt();
+        int total = fragments.stream().mapToInt(f -> sizes[f]).sum();
+        assertEquals(total - largest, spof.getIsolatedCountByArticulationPoint(i));
+
+        // The isolated devices are every fragment but one of the largest
+        int[] isolated = spof.getIsolatedByArticulationPoint(i);
+        assertEquals(total - largest, isolated.length);
+        Set<Integer> isolatedFragments = new HashSet<>();
+        Set<Integer> seen = new HashSet<>();
+        for (int w : isolated) {
+            assertNotEquals(v, w);
+            assertTrue(seen.add(w), "device listed twice");
+            isolatedFragments.add(after[w]);
+        }
+        Set<Integer> kept = new HashSet<>(fragments);
+        kept.removeAll(isolatedFragments);
+        assertEquals(1, kept.size());
+        assertEquals(largest, sizes[kept.iterator().next()]);
+    }
+
+    private static void checkEdgeRemoval(TopologyGraph graph, SinglePointsOfFailure spof, int[] base,
+                                         int[] baseSizes, int e) {
+        int[] after = TestGraphs.components(graph, -1, e);
+        int source = graph.getEdgeSource(e);
+        int target = graph.getEdgeTarget(e);
+        boolean bridge = after[source] != after[target];
+        assertEquals(bridge, spof.isBridge(e), "bridge " + e);
+        if (!bridge) {
+            return;
+        }
+
+        int[] sizes = TestGraphs.componentSizes(after);
+        int smaller = Math.min(sizes[after[source]], sizes[after[target]]);
+        assertEquals(baseSizes[base[source]], sizes[after[source]] + sizes[after[target]]);
+
+        int i = 0;
+        while (spof.getBridge(i) != e) {
+            i++;
+        }
+        assertEquals(smaller, spof.getIsolatedCountByBridge(i));
+        int[] isolated = spof.getIsolatedByBridge(i);
+        assertEquals(smaller, isolated.length);
+        int side = after[isolated[0]];
+        assertTrue(side == after[source] || side == after[target]);
+        for (int w : isolated) {
+            assertEquals(side, after[w]);
+        }
+    }
+
+    private static int[] indexOfArticulationPoints(SinglePointsOfFailure spof) {
+        int[] points = new int[spof.getArticulationPointCount()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = spof.getArticulationPoint(i);
+        }
+        return points;
+    }
+}
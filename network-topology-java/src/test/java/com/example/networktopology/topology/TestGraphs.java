@@ -0,0 +1,171 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Small hand-built and random topologies, plus brute-force reference
+ * computations the optimised algorithms are checked against
+ */
+final class TestGraphs {
+
+    static final String NS = "http://example.org/test#";
+
+    private TestGraphs() {
+    }
+
+    /**
+     * Devices 0..n-1 joined by the given {source, target} edges, without zones
+     * or link attributes
+     */
+    static TopologyGraph graph(int n, int[][] edges) {
+        return graph(n, edges, none(n), 0);
+    }
+
+    /**
+     * Devices 0..n-1 joined by the given edges, with a site per device (-1 for
+     * none), without zones or link attributes
+     */
+    static TopologyGraph graph(int n, int[][] edges, int[] sites, int siteCount) {
+        double[] unknown = new double[edges.length];
+        Arrays.fill(unknown, Double.NaN);
+        return graph(n, edges, sites, siteCount, none(n), 0, unknown, unknown);
+    }
+
+    /**
+     * Devices 0..n-1 joined by the given edges, with a zone per device (-1 for
+     * none) and a latency and bandwidth per edge
+     */
+    static TopologyGraph graph(int n, int[][] edges, int[] zones, int zoneCount,
+                               double[] latencies, double[] bandwidths) {
+        return graph(n, edges, none(n), 0, zones, zoneCount, latencies, bandwidths);
+    }
+
+    private static TopologyGraph graph(int n, int[][] edges, int[] sites, int siteCount, int[] zones, int zoneCount,
+                                       double[] latencies, double[] bandwidths) {
+        Node[] devices = new Node[n];
+        Map<Node, Integer> ids = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            // Zero-padded so that URI order matches id order, as in a compiled graph
+            devices[v] = NodeFactory.createURI(NS + String.format("Device%06d", v));
+            ids.put(devices[v], v);
+        }
+        Node[] siteNodes = new Node[siteCount];
+        for (int s = 0; s < siteCount; s++) {
+            siteNodes[s] = NodeFactory.createURI(NS + String.format("Site%06d", s));
+        }
+        Node[] zoneNodes = new Node[zoneCount];
+        for (int z = 0; z < zoneCount; z++) {
+            zoneNodes[z] = NodeFactory.createURI(NS + String.format("Zone%06d", z));
+        }
+        int[] sources = new int[edges.length];
+        int[] targets = new int[edges.length];
+        Node[] links = new Node[edges.length];
+        for (int e = 0; e < edges.length; e++) {
+            sources[e] = edges[e][0];
+            targets[e] = edges[e][1];
+            links[e] = NodeFactory.createURI(NS + String.format("Link%06d", e));
+        }
+        return new TopologyGraph(devices, ids, new Node[n], new NetworkFunction[n], sites.clone(), zones, siteNodes, zoneNodes,
+                                 sources, targets, links, latencies.clone(), bandwidths.clone());
+    }
+
+    private static int[] none(int n) {
+        int[] ids = new int[n];
+        Arrays.fill(ids, -1);
+        return ids;
+    }
+
+    /**
+     * Random multigraph: m edges between distinct devices, with every fifth
+     * edge duplicating an earlier one, so parallel links are common
+     */
+    static int[][] randomEdges(Random random, int n, int m) {
+        int[][] edges = new int[n < 2 ? 0 : m][];
+        for (int e = 0; e < edges.length; e++) {
+            if (e > 0 && random.nextInt(5) == 0) {
+                edges[e] = edges[random.nextInt(e)].clone();
+                continue;
+            }
+            int a = random.nextInt(n);
+            int b = random.nextInt(n - 1);
+            edges[e] = new int[] { a, b >= a ? b + 1 : b };
+        }
+        return edges;
+    }
+
+    static TopologyGraph random(Random random, int n, int m) {
+        return graph(n, randomEdges(random, n, m));
+    }
+
+    /**
+     * Component label of every device by breadth-first search, ignoring one
+     * device and one edge (-1 for neither); the ignored device gets label -1
+     */
+    static int[] components(TopologyGraph graph, int removedDevice, int removedEdge) {
+        boolean[] removedDevices = new boolean[graph.getDeviceCount()];
+        boolean[] removedEdges = new boolean[graph.getEdgeCount()];
+        if (removedDevice >= 0) {
+            removedDevices[removedDevice] = true;
+        }
+        if (removedEdge >= 0) {
+            removedEdges[removedEdge] = true;
+        }
+        return components(graph, removedDevices, removedEdges);
+    }
+
+    /**
+     * Component label of every device by breadth-first search, ignoring the
+     * marked devices and edges; ignored devices get label -1
+     */
+    static int[] components(TopologyGraph graph, boolean[] removedDevices, boolean[] removedEdges) {
+        int n = graph.getDeviceCount();
+        int[] labels = new int[n];
+        Arrays.fill(labels, -1);
+        int next = 0;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int start = 0; start < n; start++) {
+            if (removedDevices[start] || labels[start] >= 0) {
+                continue;
+            }
+            labels[start] = next;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                for (int i = 0; i < graph.getDegree(v); i++) {
+                    int w = graph.getNeighbor(v, i);
+                    if (!removedEdges[graph.getNeighborEdge(v, i)] && !removedDevices[w] && labels[w] < 0) {
+                        labels[w] = next;
+                        queue.add(w);
+                    }
+                }
+            }
+            next++;
+        }
+        return labels;
+    }
+
+    /**
+     * Sizes of the components of the given labelling, indexed by label
+     */
+    static int[] componentSizes(int[] labels) {
+        int count = 0;
+        for (int label : labels) {
+            count = Math.max(count, label + 1);
+        }
+        int[] sizes = new int[count];
+        for (int label : labels) {
+            if (label >= 0) {
+                sizes[label]++;
+            }
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.loaders.TopologyModelRegistry;
+import com.example.networktopology.reasoning.ClassHierarchyIndex;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyGraphBuilderTest {
+
+    private static final String PREFIXES = "@prefix : <" + ONTOLOGY_NS + "> .\n" +
+                                           "@prefix nt: <" + INSTANCE_NS + "> .\n" +
+                                           "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n";
+
+    @Test
+    void inversePropertiesAndDuplicatesCollapse() {
+        TopologyGraph graph = build(
+            "nt:R1 :hasInterface nt:I1 . nt:I1 :interfaceOf nt:R1 .\n" +
+            "nt:I2 :interfaceOf nt:R2 .\n" +
+            "nt:L1 :connectsInterface nt:I1, nt:I2 .\n" +
+            // The link's devices are also connectedTo each other, both ways
+            "nt:R1 :connectedTo nt:R2 . nt:R2 :connectedTo nt:R1 .\n" +
+            "nt:R1 :locatedAt nt:S1 . nt:S1 :contains nt:R1 . nt:S2 :contains nt:R2 . nt:R2 :locatedAt nt:S3 .\n" +
+            "nt:R1 :belongsToZone nt:Z1 . nt:Z1 :includesEntity nt:R1 .\n");
+
+        assertEquals(2, graph.getDeviceCount());
+        assertEquals(Set.of("R1-R2 L1"), edges(graph));
+        assertEquals(1, graph.getDegree(0));
+        // Two sites for R2: the smaller URI is kept, whichever triple came first
+        assertEquals(2, graph.getSiteCount());
+        assertEquals(instance("S1"), graph.getSiteNode(graph.getSite(id(graph, "R1"))));
+        assertEquals(instance("S2"), graph.getSiteNode(graph.getSite(id(graph, "R2"))));
+        assertEquals(1, graph.getZoneCount());
+        assertEquals(-1, graph.getZone(id(graph, "R2")));
+    }
+
+    @Test
+    void connectedToWithoutLinksIsAnEdge() {
+        TopologyGraph graph = build(
+            "nt:A :connectedTo nt:B . nt:B :connectedTo nt:A . nt:B :connectedTo nt:C .\n" +
+            // A self-loop neither makes a device nor an edge
+            "nt:D :connectedTo nt:D .\n");
+
+        assertEquals(3, graph.getDeviceCount());
+        assertEquals(-1, graph.getDeviceId(instance("D")));
+        assertEquals(Set.of("A-B null", "B-C null"), edges(graph));
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            assertTrue(Double.isNaN(graph.getLatency(edge)));
+            assertTrue(Double.isNaN(graph.getBandwidth(edge)));
+        }
+    }
+
+    @Test
+    void linksWithManyInterfacesJoinEveryPairOfDevices() {
+        TopologyGraph graph = build(
+            "nt:A :hasInterface nt:Ia, nt:Ia2 . nt:B :hasInterface nt:Ib . nt:C :hasInterface nt:Ic .\n" +
+            // A shared segment; A is on it twice and nt:Ix belongs to no device
+            "nt:Hub :connectsInterface nt:Ia, nt:Ib, nt:Ic, nt:Ia2, nt:Ix ; :latency 2.5 .\n");
+
+        assertEquals(3, graph.getDeviceCount());
+        assertEquals(Set.of("A-B Hub", "A-C Hub", "B-C Hub"), edges(graph));
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            assertEquals(2.5, graph.getLatency(edge));
+        }
+    }
+
+    @Test
+    void bandwidthIsCappedByTheSpeedOfBothInterfaces() {
+        TopologyGraph graph = build(
+            "nt:A :hasInterface nt:A1, nt:A2, nt:A3 . nt:B :hasInterface nt:B1, nt:B2, nt:B3 .\n" +
+            "nt:C :hasInterface nt:C1 . nt:D :hasInterface nt:D1 .\n" +
+            "nt:A1 :speed 100 . nt:B1 :speed \"400\" . nt:A2 :speed 10 . nt:B3 :speed 1000 . nt:C1 :speed \"fast\" .\n" +
+            "nt:L1 :connectsInterface nt:A1, nt:B1 ; :bandwidth 1000 .\n" +
+            "nt:L2 :connectsInterface nt:A2, nt:B2 .\n" +
+            "nt:L3 :connectsInterface nt:A3, nt:B3 ; :hasBandwidth 50 .\n" +
+            "nt:L4 :connectsInterface nt:C1, nt:D1 .\n");
+
+        assertEquals(100, bandwidth(graph, "L1"));
+        assertEquals(10, bandwidth(graph, "L2"));
+        assertEquals(50, bandwidth(graph, "L3"));
+        assertTrue(Double.isNaN(bandwidth(graph, "L4")));
+    }
+
+    @Test
+    void devicesAreRecognisedThroughSubclasses() {
+        String data = "nt:X a nt:CoreRouter . nt:Y a :Router . nt:S a :Site .\n" +
+                      "nt:CoreRouter rdfs:subClassOf :Router . :Router rdfs:subClassOf :NetworkDevice .\n";
+        TopologyGraph graph = build(data);
+        assertEquals(2, graph.getDeviceCount());
+        assertEquals(instance("CoreRouter"), graph.getDeviceType(id(graph, "X")));
+        assertEquals(-1, graph.getDeviceId(instance("S")));
+
+        // Without axioms in the stream a type alone says nothing ...
+        assertEquals(0, build("nt:Y a :Router .\n").getDeviceCount());
+        // ... unless the builder is given the ontology's hierarchy
+        ClassHierarchyIndex ontology = ClassHierarchyIndex.forOntology(
+            new TopologyModelRegistry().getGraph(ONTOLOGY_TTL_RESOURCE));
+        TopologyGraphBuilder builder = new TopologyGraphBuilder().setClassHierarchy(ontology);
+        RDFParser.fromString(PREFIXES + "nt:Y a :Router, :NetworkEntity .\n").lang(Lang.TURTLE).parse(builder);
+        TopologyGraph typed = builder.build();
+        assertEquals(1, typed.getDeviceCount());
+        assertEquals(NodeFactory.createURI(ONTOLOGY_NS + "Router"), typed.getDeviceType(0));
+    }
+
+    @Test
+    void graphAndStreamGiveTheSameTopology() {
+        String data = "nt:A :hasInterface nt:Ia . nt:Ib :interfaceOf nt:B . nt:L :connectsInterface nt:Ia, nt:Ib .\n" +
+                      "nt:B :connectedTo nt:C .\n";
+        Graph parsed = GraphFactory.createDefaultGraph();
+        RDFParser.fromString(PREFIXES + data).lang(Lang.TURTLE).parse(parsed);
+        assertEquals(edges(build(data)), edges(TopologyGraph.fromGraph(parsed)));
+    }
+
+    private static TopologyGraph build(String turtle) {
+        TopologyGraphBuilder builder = new TopologyGraphBuilder();
+        RDFParser.fromString(PREFIXES + turtle).lang(Lang.TURTLE).parse(builder);
+        return builder.build();
+    }
+
+    /**
+     * Edges as "A-B link", with the device names in id order
+     */
+    private static Set<String> edges(TopologyGraph graph) {
+        Set<String> edges = new TreeSet<>();
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            Node link = graph.getLink(edge);
+            edges.add(name(graph, graph.getEdgeSource(edge)) + "-" + name(graph, graph.getEdgeTarget(edge)) + " " +
+                      (link != null ? link.getLocalName() : null));
+        }
+        return edges;
+    }
+
+    private static double bandwidth(TopologyGraph graph, String link) {
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            if (instance(link).equals(graph.getLink(edge))) {
+                return graph.getBandwidth(edge);
+            }
+        }
+        throw new AssertionError("No edge for " + link);
+    }
+
+    private static String name(TopologyGraph graph, int device) {
+        return graph.getDevice(device).getLocalName();
+    }
+
+    private static int id(TopologyGraph graph, String device) {
+        return graph.getDeviceId(instance(device));
+    }
+
+    private static Node instance(String name) {
+        return NodeFactory.createURI(INSTANCE_NS + name);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.networktopology.topology;
+
+import org.apache.jena.rdf.model.InfModel;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.junit.jupiter.api.Test;
+
+import com.example.networktopology.reasoning.TopologyReasoner;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static com.example.networktopology.config.NetworkTopologyConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyIndexTest {
+
+    @Test
+    void modelIndexIsSharedAndFollowsChanges() throws Exception {
+        InfModel model = ModelFactory.createInfModel(new TopologyReasoner(), ModelFactory.createDefaultModel());
+        Property connectedTo = model.createProperty(ONTOLOGY_NS + "connectedTo");
+        model.add(instance(model, "A"), connectedTo, instance(model, "B"));
+        model.add(instance(model, "B"), connectedTo, instance(model, "C"));
+
+        TopologyIndex index = TopologyIndex.forModel(model);
+        assertSame(index, TopologyIndex.forModel(model));
+        assertNotSame(index, TopologyIndex.forModel(ModelFactory.createDefaultModel()));
+
+        TopologyIndex.Snapshot snapshot = index.current();
+        CentralityAnalyzer centrality = snapshot.getCentrality(ForkJoinPool.commonPool());
+        assertSame(snapshot, index.current());
+        assertSame(centrality, index.current().getCentrality(ForkJoinPool.commonPool()));
+        assertEquals(3, snapshot.getGraph().getDeviceCount());
+        assertEquals(CentralityAnalyzer.Role.CORE, centrality.getRole(id(snapshot, "B")));
+
+        // A change through the model makes the next access compile a new version
+        model.add(instance(model, "C"), connectedTo, instance(model, "D"));
+        TopologyIndex.Snapshot changed = index.current();
+        assertNotSame(snapshot, changed);
+        assertTrue(changed.getVersion() > snapshot.getVersion());
+        assertEquals(4, changed.getGraph().getDeviceCount());
+        CentralityAnalyzer updated = changed.getCentrality(ForkJoinPool.commonPool());
+        assertNotSame(centrality, updated);
+        assertEquals(2, updated.getBetweenness(id(changed, "C")), 1e-9);
+
+        model.remove(instance(model, "C"), connectedTo, instance(model, "D"));
+        assertEquals(3, index.current().getGraph().getDeviceCount());
+    }
+
+    private static int id(TopologyIndex.Snapshot snapshot, String name) {
+        return snapshot.getGraph().getDeviceId(instance(ModelFactory.createDefaultModel(), name).asNode());
+    }
+
+    private static Resource instance(Model model, String name) {
+        return model.createResource(INSTANCE_NS + name);
+    }
+}
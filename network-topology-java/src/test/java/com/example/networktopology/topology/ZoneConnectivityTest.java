@@ -0,0 +1,106 @@
+package com.example.networktopology.topology;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZoneConnectivityTest {
+
+    @Test
+    void matchesDenseMatrixOnRandomGraphs() {
+        Random random = new Random(19);
+        for (int round = 0; round < 200; round++) {
+            int n = 2 + random.nextInt(30);
+            int zoneCount = random.nextInt(8);
+            int[][] edges = TestGraphs.randomEdges(random, n, random.nextInt(3 * n));
+            int[] zones = new int[n];
+            for (int v = 0; v < n; v++) {
+                zones[v] = zoneCount == 0 || random.nextInt(6) == 0 ? -1 : random.nextInt(zoneCount);
+            }
+            double[] latencies = new double[edges.length];
+            double[] bandwidths = new double[edges.length];
+            for (int e = 0; e < edges.length; e++) {
+                bandwidths[e] = random.nextInt(4) == 0 ? Double.NaN : 100 * (1 + random.nextInt(10));
+            }
+            TopologyGraph graph = TestGraphs.graph(n, edges, zones, zoneCount, latencies, bandwidths);
+            ZoneConnectivity connectivity = ZoneConnectivity.analyze(graph);
+
+            int[][] counts = new int[zoneCount][zoneCount];
+            int[][] unknown = new int[zoneCount][zoneCount];
+            double[][] sums = new double[zoneCount][zoneCount];
+            int unzoned = 0;
+            for (int e = 0; e < edges.length; e++) {
+                int a = zones[edges[e][0]];
+                int b = zones[edges[e][1]];
+                if (a < 0 || b < 0) {
+                    unzoned++;
+                    continue;
+                }
+                int lo = Math.min(a, b);
+                int hi = Math.max(a, b);
+                counts[lo][hi]++;
+                if (Double.isNaN(bandwidths[e])) {
+                    unknown[lo][hi]++;
+                } else {
+                    sums[lo][hi] += bandwidths[e];
+                }
+            }
+
+            assertEquals(unzoned, connectivity.getUnzonedLinkCount());
+            List<int[]> linked = new ArrayList<>();
+            List<int[]> missing = new ArrayList<>();
+            List<int[]> underprovisioned = new ArrayList<>();
+            for (int a = 0; a < zoneCount; a++) {
+                for (int b = a; b < zoneCount; b++) {
+                    assertEquals(counts[a][b], connectivity.getLinkCount(a, b));
+                    assertEquals(counts[a][b], connectivity.getLinkCount(b, a));
+                    assertEquals(unknown[a][b], connectivity.getUnknownBandwidthCount(b, a));
+                    assertEquals(sums[a][b], connectivity.getBandwidth(b, a), 1e-9);
+                    if (a < b) {
+                        (counts[a][b] > 0 ? linked : missing).add(new int[] { a, b });
+                        if (counts[a][b] > 0 && (counts[a][b] < 2 || sums[a][b] < 1000)) {
+                            underprovisioned.add(new int[] { a, b });
+                        }
+                    }
+                }
+            }
+            assertPairs(linked, connectivity.getLinkedPairs());
+            assertPairs(missing, connectivity.getMissingPairs(Integer.MAX_VALUE));
+            assertPairs(missing.subList(0, Math.min(3, missing.size())), connectivity.getMissingPairs(3));
+            assertEquals(missing.size(), connectivity.getMissingPairCount());
+            assertPairs(underprovisioned, connectivity.getUnderprovisionedPairs(2, 1000));
+        }
+    }
+
+    @Test
+    void zonePairsBeyondIntRange() {
+        // 100,000 zones: Z² does not fit an int, but only linked pairs are stored
+        int zoneCount = 100_000;
+        int[] zones = { 0, 99_999, 50_000, 1 };
+        int[][] edges = { { 0, 1 }, { 1, 2 }, { 2, 1 }, { 0, 3 } };
+        double[] bandwidths = { 100, 200, 300, Double.NaN };
+        TopologyGraph graph = TestGraphs.graph(4, edges, zones, zoneCount, new double[4], bandwidths);
+        ZoneConnectivity connectivity = ZoneConnectivity.analyze(graph);
+
+        assertEquals(1, connectivity.getLinkCount(99_999, 0));
+        assertEquals(2, connectivity.getLinkCount(50_000, 99_999));
+        assertEquals(500, connectivity.getBandwidth(99_999, 50_000), 1e-9);
+        assertEquals(1, connectivity.getUnknownBandwidthCount(0, 1));
+        assertEquals(0, connectivity.getLinkCount(2, 3));
+        assertEquals((long) zoneCount * (zoneCount - 1) / 2 - 3, connectivity.getMissingPairCount());
+        assertPairs(List.of(new int[] { 0, 2 }, new int[] { 0, 3 }), connectivity.getMissingPairs(2));
+        assertPairs(List.of(new int[] { 0, 1 }, new int[] { 0, 99_999 }, new int[] { 50_000, 99_999 }),
+                    connectivity.getLinkedPairs());
+    }
+
+    private static void assertPairs(List<int[]> expected, List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+}